@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.atlona.internal.net;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SocketChannelSession} against a local echo server, including commands that don't fit into the
+ * socket buffers (and are finished by the selector thread once the channel is writable) and reconnecting.
+ *
+ * @author agent
+ */
+public class SocketChannelSessionTest {
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * A command larger than the socket buffers of both ends
+     */
+    private static final int LARGE_COMMAND_SIZE = 8 * 1024 * 1024;
+
+    private EchoServer _server;
+    private SocketChannelSession _session;
+
+    private final BlockingQueue<String> _responses = new LinkedBlockingQueue<String>();
+    private final BlockingQueue<Exception> _exceptions = new LinkedBlockingQueue<Exception>();
+
+    @Before
+    public void setUp() throws IOException {
+        _server = new EchoServer();
+        _session = new SocketChannelSession(InetAddress.getLoopbackAddress().getHostAddress(), _server.getPort());
+        _session.addListener(new SocketSessionListener() {
+            @Override
+            public void responseReceived(String response) {
+                _responses.add(response);
+            }
+
+            @Override
+            public void responseException(Exception e) {
+                _exceptions.add(e);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        _session.disconnect();
+        _server.close();
+    }
+
+    @Test
+    public void commandIsEchoed() throws Exception {
+        _session.connect();
+        _session.sendCommand("status");
+
+        assertEquals("status", _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(1, _session.getLatencyCount());
+    }
+
+    @Test
+    public void partialWriteIsFinishedOnceWritable() throws Exception {
+        _server.pause();
+        _session.connect();
+
+        final String command = largeCommand();
+        final Thread sender = send(command, new AtomicReference<Exception>());
+
+        // the command doesn't fit into the socket buffers, the sender waits for the channel to become writable
+        sender.join(500);
+        assertTrue("The command was written at once", sender.isAlive());
+
+        _server.resume();
+        sender.join(TIMEOUT);
+        assertFalse(sender.isAlive());
+
+        assertEquals(command, _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        // the session is still usable after the partial write
+        _session.sendCommand("status");
+        assertEquals("status", _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void reconnectAfterServerClosedConnection() throws Exception {
+        _session.connect();
+        _session.sendCommand("first");
+        assertEquals("first", _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        _server.closeConnection();
+        assertNotNull(_exceptions.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        _session.connect();
+        _session.sendCommand("second");
+        assertEquals("second", _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void pendingWriteFailsOnDisconnect() throws Exception {
+        _server.pause();
+        _session.connect();
+
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final Thread sender = send(largeCommand(), failure);
+        sender.join(500);
+        assertTrue(sender.isAlive());
+
+        _session.disconnect();
+        sender.join(TIMEOUT);
+        assertFalse(sender.isAlive());
+        assertTrue(failure.get() instanceof IOException);
+
+        _server.resume();
+        _session.connect();
+        _session.sendCommand("status");
+        assertEquals("status", _responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    private String largeCommand() {
+        final char[] chars = new char[LARGE_COMMAND_SIZE];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private Thread send(final String command, final AtomicReference<Exception> failure) {
+        final Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    _session.sendCommand(command);
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            }
+        });
+        sender.start();
+        return sender;
+    }
+
+    /**
+     * Echoes every line received back to the client. Reading can be paused to fill up the socket buffers.
+     */
+    private static class EchoServer implements Runnable {
+        private final ServerSocket _serverSocket;
+        private volatile CountDownLatch _paused = new CountDownLatch(0);
+        private volatile Socket _client;
+
+        EchoServer() throws IOException {
+            _serverSocket = new ServerSocket();
+            _serverSocket.setReceiveBufferSize(4096);
+            _serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            final Thread thread = new Thread(this, "EchoServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return _serverSocket.getLocalPort();
+        }
+
+        void pause() {
+            _paused = new CountDownLatch(1);
+        }
+
+        void resume() {
+            _paused.countDown();
+        }
+
+        void closeConnection() throws IOException {
+            final Socket client = _client;
+            if (client != null) {
+                client.close();
+            }
+        }
+
+        void close() throws IOException {
+            resume();
+            _serverSocket.close();
+            closeConnection();
+        }
+
+        @Override
+        public void run() {
+            while (!_serverSocket.isClosed()) {
+                try (Socket client = _serverSocket.accept()) {
+                    _client = client;
+                    _paused.await();
+
+                    final BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                    final OutputStream out = client.getOutputStream();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // connection closed, wait for the next one
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -9,17 +9,20 @@
 package org.openhab.binding.atlona.internal.net;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -28,13 +31,24 @@ import org.slf4j.LoggerFactory;
 /**
  * Represents a restartable socket connection to the underlying telnet session. Commands can be sent via
  * {@link #sendCommand(String)} and responses will be received on any {@link SocketSessionListener}. This implementation
- * of {@link SocketSession} communicates using a {@link SocketChannel} connection.
+ * of {@link SocketSession} communicates using a non-blocking {@link SocketChannel} connection that is read by the
+ * {@link SocketChannelTransport} shared by all sessions.
  *
  * @author Tim Roberts
  */
 public class SocketChannelSession implements SocketSession {
     private final Logger logger = LoggerFactory.getLogger(SocketChannelSession.class);
 
+    /**
+     * The maximum number of responses waiting to be dispatched. Reading from the socket is paused when reached
+     */
+    private static final int MAX_RESPONSES = 50;
+
+    /**
+     * How long (in milliseconds) a command may take to be written before giving up
+     */
+    private static final long WRITE_TIMEOUT = 5000;
+
     /**
      * The host/ip address to connect to
      */
@@ -45,31 +59,99 @@ public class SocketChannelSession implements SocketSession {
      */
     private final int _port;
 
+    /**
+     * The transport that reads from the socket and dispatches the responses
+     */
+    private final SocketChannelTransport _transport = SocketChannelTransport.getInstance();
+
     /**
      * The actual socket being used. Will be null if not connected
      */
     private final AtomicReference<SocketChannel> _socketChannel = new AtomicReference<SocketChannel>();
 
     /**
-     * The {@link ResponseReader} that will be used to read from {@link #_readBuffer}
+     * The {@link SelectionKey} of the {@link #_socketChannel}. Will be null if not registered with the transport
+     */
+    private volatile SelectionKey _selectionKey;
+
+    /**
+     * The buffer the socket is read into (only used by the selector thread)
+     */
+    private final ByteBuffer _readBuffer = ByteBuffer.allocate(1024);
+
+    /**
+     * The response currently being read (only used by the selector thread)
+     */
+    private final StringBuilder _response = new StringBuilder(100);
+
+    /**
+     * The buffer commands are written from (guarded by the {@link #sendCommand(String)} lock)
+     */
+    private ByteBuffer _writeBuffer = ByteBuffer.allocate(256);
+
+    /**
+     * The rest of a command waiting for the channel to become writable, null if none (guarded by {@link #_writeLock})
+     */
+    private ByteBuffer _pendingWrite;
+
+    /**
+     * The exception that ended the pending write, null if none (guarded by {@link #_writeLock})
+     */
+    private IOException _writeException;
+
+    /**
+     * The lock the sender waits on until the selector thread has finished the pending write
+     */
+    private final Object _writeLock = new Object();
+
+    /**
+     * The lock guarding changes to the interest set of the {@link #_selectionKey}
+     */
+    private final Object _interestLock = new Object();
+
+    /**
+     * The responses read from the socket, waiting to be dispatched
      */
-    private final ResponseReader _responseReader = new ResponseReader();
+    private final Queue<Object> _responses = new ConcurrentLinkedQueue<Object>();
 
     /**
-     * The responses read from the {@link #_responseReader}
+     * Whether a dispatch of {@link #_responses} is currently scheduled or running
      */
-    private final BlockingQueue<Object> _responses = new ArrayBlockingQueue<Object>(50);
+    private final AtomicBoolean _dispatching = new AtomicBoolean(false);
+
+    /**
+     * Whether reading from the socket is paused because too many responses are waiting to be dispatched
+     */
+    private final AtomicBoolean _readPaused = new AtomicBoolean(false);
 
     /**
      * The dispatcher of responses from {@link #_responses}
      */
-    private final Dispatcher _dispatcher = new Dispatcher();
+    private final Runnable _dispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchResponses();
+        }
+    };
 
     /**
      * The {@link SocketSessionListener} that the {@link #_dispatcher} will call
      */
     private List<SocketSessionListener> _listeners = new CopyOnWriteArrayList<SocketSessionListener>();
 
+    /**
+     * The time (from {@link System#nanoTime()}) the oldest unanswered command was sent or 0 if none
+     */
+    private final AtomicLong _commandSent = new AtomicLong();
+
+    /**
+     * Latency statistics (guarded by this lock)
+     */
+    private final Object _latencyLock = new Object();
+    private long _latencyCount;
+    private long _latencyTotal;
+    private long _latencyMax;
+
     /**
      * Creates the socket session from the given host and port
      *
@@ -94,6 +176,9 @@ public class SocketChannelSession implements SocketSession {
             throw new IllegalArgumentException("listener cannot be null");
         }
         _listeners.add(listener);
+
+        // responses may have piled up while there were no listeners
+        scheduleDispatch();
     }
 
     @Override
@@ -114,19 +199,28 @@ public class SocketChannelSession implements SocketSession {
         channel.configureBlocking(true);
 
         logger.debug("Connecting to {}:{}", _host, _port);
-        channel.connect(new InetSocketAddress(_host, _port));
-
-        logger.debug("Waiting for connect");
-        while (!channel.finishConnect()) {
-            try {
-                Thread.sleep(250);
-            } catch (InterruptedException e) {
-            }
+        try {
+            channel.connect(new InetSocketAddress(_host, _port));
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
         }
 
+        _readBuffer.clear();
+        _response.setLength(0);
+        _responses.clear();
+        _readPaused.set(false);
+        _commandSent.set(0);
+
         _socketChannel.set(channel);
-        new Thread(_dispatcher).start();
-        new Thread(_responseReader).start();
+        try {
+            _transport.register(this);
+        } catch (IOException e) {
+            _socketChannel.set(null);
+            channel.close();
+            throw e;
+        }
     }
 
     @Override
@@ -135,10 +229,10 @@ public class SocketChannelSession implements SocketSession {
             logger.debug("Disconnecting from {}:{}", _host, _port);
 
             final SocketChannel channel = _socketChannel.getAndSet(null);
+            _transport.unregister(_selectionKey);
+            _selectionKey = null;
             channel.close();
-
-            _dispatcher.stopRunning();
-            _responseReader.stopRunning();
+            failPendingWrite(new IOException("disconnected"));
 
             _responses.clear();
         }
@@ -160,220 +254,359 @@ public class SocketChannelSession implements SocketSession {
             throw new IOException("Cannot send message - disconnected");
         }
 
-        ByteBuffer toSend = ByteBuffer.wrap((command + "\r\n").getBytes());
-
         final SocketChannel channel = _socketChannel.get();
         if (channel == null) {
             logger.debug("Cannot send command '{}' - socket channel was closed", command);
-        } else {
-            logger.debug("Sending Command: '{}'", command);
-            channel.write(toSend);
+            return;
+        }
+
+        final int length = command.length() + 2;
+        if (_writeBuffer.capacity() < length) {
+            _writeBuffer = ByteBuffer.allocate(Math.max(length, _writeBuffer.capacity() * 2));
+        }
+        _writeBuffer.clear();
+        for (int i = 0; i < command.length(); i++) {
+            _writeBuffer.put((byte) command.charAt(i));
+        }
+        _writeBuffer.put((byte) '\r').put((byte) '\n');
+        _writeBuffer.flip();
+
+        logger.debug("Sending Command: '{}'", command);
+        _commandSent.compareAndSet(0, System.nanoTime());
+
+        channel.write(_writeBuffer);
+        if (_writeBuffer.hasRemaining()) {
+            // the socket buffer is full - the selector thread finishes the write once the channel is writable
+            awaitPendingWrite(command);
         }
     }
 
     /**
-     * This is the runnable that will read from the socket and add messages to the responses queue (to be processed by
-     * the dispatcher)
-     *
-     * @author Tim Roberts
+     * Hands the rest of the {@link #_writeBuffer} to the selector thread and waits until it has been written
      *
+     * @param command the command being sent (for logging)
+     * @throws IOException if the write failed, timed out or the session was disconnected
      */
-    private class ResponseReader implements Runnable {
-
-        /**
-         * Whether the reader is currently running
-         */
-        private final AtomicBoolean _isRunning = new AtomicBoolean(false);
+    private void awaitPendingWrite(String command) throws IOException {
+        synchronized (_writeLock) {
+            _pendingWrite = _writeBuffer;
+            _writeException = null;
+            setInterest(_selectionKey, SelectionKey.OP_WRITE, true);
 
-        /**
-         * Locking to allow proper shutdown of the reader
-         */
-        private final CountDownLatch _running = new CountDownLatch(1);
-
-        /**
-         * Stops the reader. Will wait 5 seconds for the runnable to stop
-         */
-        public void stopRunning() {
-            if (_isRunning.getAndSet(false)) {
-                try {
-                    if (!_running.await(5, TimeUnit.SECONDS)) {
-                        logger.warn("Waited too long for response reader to finish");
+            final long timeout = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT);
+            try {
+                while (_pendingWrite != null) {
+                    final long remaining = timeout - System.nanoTime();
+                    if (remaining <= 0) {
+                        _pendingWrite = null;
+                        setInterest(_selectionKey, SelectionKey.OP_WRITE, false);
+                        throw new IOException("Timed out sending command '" + command + "'");
                     }
-                } catch (InterruptedException e) {
-                    // Do nothing
+                    TimeUnit.NANOSECONDS.timedWait(_writeLock, remaining);
                 }
+            } catch (InterruptedException e) {
+                _pendingWrite = null;
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted sending command '" + command + "'");
+            }
+
+            if (_writeException != null) {
+                final IOException e = _writeException;
+                _writeException = null;
+                throw e;
             }
         }
+    }
 
-        /**
-         * Runs the logic to read from the socket until {@link #_isRunning} is false. A 'response' is anything that ends
-         * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are
-         * treated as responses for purposes of logging in.
-         */
-        @Override
-        public void run() {
-            final StringBuilder sb = new StringBuilder(100);
-            final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+    /**
+     * Returns the number of responses that have been timed against a command
+     *
+     * @return the number of timed responses
+     */
+    public long getLatencyCount() {
+        synchronized (_latencyLock) {
+            return _latencyCount;
+        }
+    }
 
-            _isRunning.set(true);
-            _responses.clear();
+    /**
+     * Returns the average time between sending a command and receiving the next response
+     *
+     * @return the average latency in milliseconds (0 if nothing was timed yet)
+     */
+    public double getAverageLatency() {
+        synchronized (_latencyLock) {
+            return _latencyCount == 0 ? 0 : _latencyTotal / (_latencyCount * 1000000d);
+        }
+    }
 
-            while (_isRunning.get()) {
-                try {
-                    // if reader is null, sleep and try again
-                    if (readBuffer == null) {
-                        Thread.sleep(250);
-                        continue;
-                    }
+    /**
+     * Returns the largest time between sending a command and receiving the next response
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxLatency() {
+        synchronized (_latencyLock) {
+            return _latencyMax / 1000000d;
+        }
+    }
 
-                    final SocketChannel channel = _socketChannel.get();
-                    if (channel == null) {
-                        // socket was closed
-                        _isRunning.set(false);
-                        break;
-                    }
+    /**
+     * Returns the channel to register with the selector
+     *
+     * @return the possibly null {@link SocketChannel}
+     */
+    SocketChannel getChannel() {
+        return _socketChannel.get();
+    }
 
-                    int bytesRead = channel.read(readBuffer);
-                    if (bytesRead == -1) {
-                        _responses.put(new IOException("server closed connection"));
-                        _isRunning.set(false);
-                        break;
-                    } else if (bytesRead == 0) {
-                        readBuffer.clear();
-                        continue;
-                    }
+    /**
+     * Called by the transport once the channel has been registered with the selector
+     *
+     * @param key the non-null {@link SelectionKey}
+     */
+    void setSelectionKey(SelectionKey key) {
+        _selectionKey = key;
+        if (_socketChannel.get() != key.channel()) {
+            // disconnected while the registration was pending
+            key.cancel();
+            return;
+        }
+
+        synchronized (_writeLock) {
+            if (_pendingWrite != null) {
+                // a command was sent while the registration was pending
+                setInterest(key, SelectionKey.OP_WRITE, true);
+            }
+        }
+    }
 
-                    readBuffer.flip();
-                    while (readBuffer.hasRemaining()) {
-                        final char ch = (char) readBuffer.get();
-                        sb.append(ch);
-                        if (ch == '\n' || ch == ' ') {
-                            final String str = sb.toString();
-                            if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
-                                sb.setLength(0);
-                                final String response = str.substring(0, str.length() - 2);
-                                _responses.put(response);
-                            }
+    /**
+     * Called by the selector thread when the channel has data available. Reads all the available data and queues every
+     * complete response. A 'response' is anything that ends with a carriage-return/newline combo. Additionally, the
+     * special "Login: " and "Password: " prompts are treated as responses for purposes of logging in.
+     *
+     * @param key the non-null {@link SelectionKey} that is readable
+     */
+    void onReadable(SelectionKey key) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            int bytesRead;
+            while ((bytesRead = channel.read(_readBuffer)) > 0) {
+                _readBuffer.flip();
+                while (_readBuffer.hasRemaining()) {
+                    final char ch = (char) _readBuffer.get();
+                    _response.append(ch);
+                    if (ch == '\n' || ch == ' ') {
+                        final String str = _response.toString();
+                        if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
+                            _response.setLength(0);
+                            recordLatency();
+                            addResponse(str.substring(0, str.length() - 2));
                         }
                     }
+                }
+                _readBuffer.clear();
 
-                    readBuffer.flip();
-
-                } catch (InterruptedException e) {
-                    // Do nothing - probably shutting down
-                } catch (AsynchronousCloseException e) {
-                    // socket was definitely closed by another thread
-                } catch (IOException e) {
-                    try {
-                        _isRunning.set(false);
-                        _responses.put(e);
-                    } catch (InterruptedException e1) {
-                        // Do nothing - probably shutting down
-                    }
+                if (_responses.size() >= MAX_RESPONSES) {
+                    pauseReading(key);
+                    return;
                 }
             }
 
-            _running.countDown();
+            if (bytesRead == -1) {
+                key.cancel();
+                final IOException e = new IOException("server closed connection");
+                failPendingWrite(e);
+                addResponse(e);
+            }
+        } catch (IOException e) {
+            key.cancel();
+            failPendingWrite(e);
+            if (channel.isOpen()) {
+                addResponse(e);
+            }
         }
     }
 
     /**
-     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current callable.
-     * Since the dispatcher is ONLY started when a callable is set, responses may pile up in the queue and be dispatched
-     * when a callable is set. Unlike the socket reader, this can be assigned to another thread (no state outside of the
-     * class).
+     * Called by the selector thread when the channel has room for the pending write. Writes as much as possible and
+     * wakes up the sender once the command has been written completely.
      *
-     * @author Tim Roberts
-     */
-    private class Dispatcher implements Runnable {
-
-        /**
-         * Whether the dispatcher is running or not
-         */
-        private final AtomicBoolean _isRunning = new AtomicBoolean(false);
-
-        /**
-         * Locking to allow proper shutdown of the reader
-         */
-        private final CountDownLatch _running = new CountDownLatch(1);
-
-        /**
-         * Whether the dispatcher is currently processing a message
-         */
-        private final AtomicReference<Thread> _processingThread = new AtomicReference<Thread>();
-
-        /**
-         * Stops the reader. Will wait 5 seconds for the runnable to stop (should stop within 1 second based on the poll
-         * timeout below)
-         */
-        public void stopRunning() {
-            if (_isRunning.getAndSet(false)) {
-                // only wait if stopRunning didn't get called as part of processing a message
-                // (which would happen if we are processing an exception that forced a session close)
-                final Thread processingThread = _processingThread.get();
-                if (processingThread != null && Thread.currentThread() != processingThread) {
-                    try {
-                        if (!_running.await(5, TimeUnit.SECONDS)) {
-                            logger.warn("Waited too long for dispatcher to finish");
-                        }
-                    } catch (InterruptedException e) {
-                        // do nothing
+     * @param key the non-null {@link SelectionKey} that is writable
+     */
+    void onWritable(SelectionKey key) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        synchronized (_writeLock) {
+            if (_pendingWrite != null) {
+                try {
+                    channel.write(_pendingWrite);
+                    if (_pendingWrite.hasRemaining()) {
+                        return;
                     }
+                } catch (IOException e) {
+                    _writeException = e;
                 }
+                _pendingWrite = null;
+                _writeLock.notifyAll();
             }
+            setInterest(key, SelectionKey.OP_WRITE, false);
         }
+    }
 
-        /**
-         * Runs the logic to dispatch any responses to the current listeners until {@link #_isRunning} is false.
-         */
-        @Override
-        public void run() {
-            _processingThread.set(Thread.currentThread());
+    /**
+     * Ends a pending write with the given exception
+     *
+     * @param e the non-null exception to throw to the sender
+     */
+    private void failPendingWrite(IOException e) {
+        synchronized (_writeLock) {
+            if (_pendingWrite != null) {
+                _pendingWrite = null;
+                _writeException = e;
+                _writeLock.notifyAll();
+            }
+        }
+    }
 
-            _isRunning.set(true);
-            while (_isRunning.get()) {
-                try {
+    /**
+     * Adds or removes an operation to/from the interest set of the key. Reading and writing are enabled independently
+     * of each other, from the selector thread as well as from the sender and the dispatcher.
+     *
+     * @param key the possibly null {@link SelectionKey} (null if not registered yet)
+     * @param op the {@link SelectionKey} operation
+     * @param enable true to add the operation, false to remove it
+     */
+    private void setInterest(SelectionKey key, int op, boolean enable) {
+        if (key == null) {
+            return;
+        }
+        synchronized (_interestLock) {
+            try {
+                final int ops = key.interestOps();
+                key.interestOps(enable ? ops | op : ops & ~op);
+            } catch (CancelledKeyException e) {
+                // disconnected in the meantime
+                return;
+            }
+        }
+        if (enable) {
+            key.selector().wakeup();
+        }
+    }
 
-                    // if no listeners, we don't want to start dispatching yet.
-                    if (_listeners.size() == 0) {
-                        Thread.sleep(250);
-                        continue;
-                    }
+    /**
+     * Stops selecting the channel for reading until the dispatcher has caught up. The data stays in the socket buffer
+     * (eventually pushing back on the sender) rather than piling up in memory.
+     *
+     * @param key the non-null {@link SelectionKey} of the channel
+     */
+    private void pauseReading(SelectionKey key) {
+        logger.debug("Too many responses waiting to be dispatched - pausing reading from {}:{}", _host, _port);
+        setInterest(key, SelectionKey.OP_READ, false);
+        _readPaused.set(true);
+
+        // the dispatcher may have drained the queue in the meantime
+        if (_responses.size() < MAX_RESPONSES) {
+            resumeReading();
+        }
+    }
+
+    /**
+     * Resumes selecting the channel for reading if it was paused by {@link #pauseReading(SelectionKey)}
+     */
+    private void resumeReading() {
+        if (_readPaused.compareAndSet(true, false)) {
+            setInterest(_selectionKey, SelectionKey.OP_READ, true);
+        }
+    }
+
+    /**
+     * Records the time since the oldest unanswered command was sent
+     */
+    private void recordLatency() {
+        final long sent = _commandSent.getAndSet(0);
+        if (sent != 0) {
+            final long latency = System.nanoTime() - sent;
+            synchronized (_latencyLock) {
+                _latencyCount++;
+                _latencyTotal += latency;
+                _latencyMax = Math.max(_latencyMax, latency);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response received {}ms after command", TimeUnit.NANOSECONDS.toMillis(latency));
+            }
+        }
+    }
+
+    /**
+     * Queues the response (or exception) and schedules its dispatch
+     *
+     * @param response a non-null {@link String} or {@link Exception}
+     */
+    private void addResponse(Object response) {
+        _responses.add(response);
+        scheduleDispatch();
+    }
+
+    /**
+     * Schedules the dispatch of the queued responses unless one is already scheduled. Responses are only dispatched
+     * once there is a listener to receive them.
+     */
+    private void scheduleDispatch() {
+        if (_listeners.isEmpty() || _responses.isEmpty()) {
+            return;
+        }
+
+        if (_dispatching.compareAndSet(false, true)) {
+            try {
+                _transport.getDispatchExecutor().execute(_dispatcher);
+            } catch (RejectedExecutionException e) {
+                _dispatching.set(false);
+                logger.debug("Could not dispatch responses: {}", e.getMessage());
+            }
+        }
+    }
 
-                    final Object response = _responses.poll(1, TimeUnit.SECONDS);
-
-                    if (response != null) {
-                        if (response instanceof String) {
-                            try {
-                                logger.debug("Dispatching response: {}", response);
-                                final SocketSessionListener[] listeners = _listeners
-                                        .toArray(new SocketSessionListener[0]);
-                                for (SocketSessionListener listener : listeners) {
-                                    listener.responseReceived((String) response);
-                                }
-                            } catch (Exception e) {
-                                logger.warn("Exception occurred processing the response '{}': {}", response, e);
-                            }
-                        } else if (response instanceof Exception) {
-                            logger.debug("Dispatching exception: {}", response);
-                            final SocketSessionListener[] listeners = _listeners.toArray(new SocketSessionListener[0]);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseException((Exception) response);
-                            }
-                        } else {
-                            logger.warn("Unknown response class: {}", response);
+    /**
+     * Dispatches the queued responses, in order, to the current listeners
+     */
+    private void dispatchResponses() {
+        try {
+            Object response;
+            while (!_listeners.isEmpty() && (response = _responses.poll()) != null) {
+                final SocketSessionListener[] listeners = _listeners.toArray(new SocketSessionListener[0]);
+                if (response instanceof String) {
+                    logger.debug("Dispatching response: {}", response);
+                    for (SocketSessionListener listener : listeners) {
+                        try {
+                            listener.responseReceived((String) response);
+                        } catch (Exception e) {
+                            logger.warn("Exception occurred processing the response '{}': {}", response, e);
                         }
                     }
-                } catch (InterruptedException e) {
-                    // Do nothing
-                } catch (Exception e) {
-                    logger.debug("Uncaught exception {}", e.getMessage(), e);
-                    break;
+                } else if (response instanceof Exception) {
+                    logger.debug("Dispatching exception: {}", response);
+                    for (SocketSessionListener listener : listeners) {
+                        try {
+                            listener.responseException((Exception) response);
+                        } catch (Exception e) {
+                            logger.warn("Exception occurred processing the exception '{}': {}", response, e);
+                        }
+                    }
+                } else {
+                    logger.warn("Unknown response class: {}", response);
+                }
+
+                if (_readPaused.get() && _responses.size() < MAX_RESPONSES / 2) {
+                    resumeReading();
                 }
             }
-            _isRunning.set(false);
-            _processingThread.set(null);
-            _running.countDown();
+        } finally {
+            _dispatching.set(false);
         }
+
+        // a response may have been queued after the queue was found empty
+        scheduleDispatch();
     }
 }
@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.dscalarm.handler;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.dscalarm.DSCAlarmBindingConstants.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.BridgeBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openhab.binding.dscalarm.config.DSCAlarmPartitionConfiguration;
+import org.openhab.binding.dscalarm.config.DSCAlarmZoneConfiguration;
+import org.openhab.binding.dscalarm.internal.DSCAlarmCode;
+import org.openhab.binding.dscalarm.internal.DSCAlarmMessage;
+import org.openhab.binding.dscalarm.internal.DSCAlarmMessage.DSCAlarmMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a generated IT-100/Envisalink session through {@link DSCAlarmMessage} and
+ * {@link DSCAlarmBaseBridgeHandler#findThing(DSCAlarmThingType, int, int)} and checks the results against a plain
+ * substring parse of each message. The benchmark reporting the time needed per message is not part of the regular
+ * test run, remove its {@link Ignore} annotation and turn off debug logging of the binding to run it.
+ *
+ * @author agent - Initial contribution
+ */
+public class DSCAlarmReplayTest {
+
+    private static final String SESSION = "/dscalarm-session.txt";
+
+    private static final int PARTITIONS = 2;
+    private static final int ZONES = 8;
+
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int BENCHMARK_ITERATIONS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(DSCAlarmReplayTest.class);
+
+    private List<String> session;
+    private ReplayBridgeHandler bridgeHandler;
+    private Map<String, Thing> things;
+
+    @Before
+    public void setUp() throws IOException {
+        session = readSession();
+
+        Bridge bridge = BridgeBuilder.create(IT100BRIDGE_THING_TYPE, new ThingUID(IT100BRIDGE_THING_TYPE, "replay"))
+                .build();
+        bridgeHandler = new ReplayBridgeHandler(bridge);
+        things = new HashMap<>();
+
+        addThing(new PanelThingHandler(createThing(bridge, PANEL_THING_TYPE, "panel", new Configuration())),
+                "panel");
+        addThing(new KeypadThingHandler(createThing(bridge, KEYPAD_THING_TYPE, "keypad", new Configuration())),
+                "keypad");
+
+        for (int partition = 1; partition <= PARTITIONS; partition++) {
+            Configuration config = new Configuration();
+            config.put(DSCAlarmPartitionConfiguration.PARTITION_NUMBER, new BigDecimal(partition));
+            PartitionThingHandler handler = new PartitionThingHandler(
+                    createThing(bridge, PARTITION_THING_TYPE, "partition" + partition, config));
+            handler.setPartitionNumber(partition);
+            addThing(handler, "partition:" + partition);
+        }
+
+        for (int zone = 1; zone <= ZONES; zone++) {
+            Configuration config = new Configuration();
+            config.put(DSCAlarmZoneConfiguration.PARTITION_NUMBER, BigDecimal.ONE);
+            config.put(DSCAlarmZoneConfiguration.ZONE_NUMBER, new BigDecimal(zone));
+            ZoneThingHandler handler = new ZoneThingHandler(
+                    createThing(bridge, ZONE_THING_TYPE, "zone" + zone, config));
+            handler.setZoneNumber(zone);
+            addThing(handler, "zone:" + zone);
+        }
+    }
+
+    @Test
+    public void replayedMessagesAreParsedLikeTheReceivedString() {
+        for (String received : session) {
+            DSCAlarmMessage message = new DSCAlarmMessage(received);
+            String body = stripMessage(received);
+
+            assertNotEquals(received, DSCAlarmCode.UnknownCode, message.getDSCAlarmCode());
+            assertEquals(received, body.substring(0, 3), message.getDSCAlarmCode().getCode());
+
+            switch (message.getDSCAlarmMessageType()) {
+                case PARTITION_EVENT:
+                    assertEquals(received, Integer.parseInt(body.substring(3, 4)), message.getPartitionNumber());
+                    break;
+                case ZONE_EVENT:
+                    assertEquals(received, Integer.parseInt(body.substring(body.length() - 3)),
+                            message.getZoneNumber());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Test
+    public void replayedMessagesFindTheirThing() {
+        int found = 0;
+        for (String received : session) {
+            DSCAlarmMessage message = new DSCAlarmMessage(received);
+            String key = getThingKey(message);
+
+            Thing thing = findThing(message);
+
+            assertSame(received, things.get(key), thing);
+            if (thing != null) {
+                found++;
+            }
+        }
+        assertTrue("No Thing found for the replayed session", found > 0);
+    }
+
+    @Ignore("Benchmark, run manually with debug logging turned off")
+    @Test
+    public void replayBenchmark() {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            replay();
+        }
+
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            found += replay();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long messages = (long) BENCHMARK_ITERATIONS * session.size();
+        logger.info("Replayed {} messages in {} ms: {} ns per message", messages, elapsed / 1000000,
+                elapsed / messages);
+        assertTrue(found > 0);
+    }
+
+    /**
+     * Parses every message of the session and looks up its Thing, as the bridge does for incoming messages.
+     *
+     * @return the number of messages a Thing was found for
+     */
+    private int replay() {
+        int found = 0;
+        for (String received : session) {
+            if (findThing(new DSCAlarmMessage(received)) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private Thing findThing(DSCAlarmMessage message) {
+        switch (message.getDSCAlarmMessageType()) {
+            case PANEL_EVENT:
+                return bridgeHandler.findThing(DSCAlarmThingType.PANEL, 0, 0);
+            case PARTITION_EVENT:
+                return bridgeHandler.findThing(DSCAlarmThingType.PARTITION, message.getPartitionNumber(), 0);
+            case ZONE_EVENT:
+                return bridgeHandler.findThing(DSCAlarmThingType.ZONE, 0, message.getZoneNumber());
+            case KEYPAD_EVENT:
+                return bridgeHandler.findThing(DSCAlarmThingType.KEYPAD, 0, 0);
+            default:
+                return null;
+        }
+    }
+
+    private String getThingKey(DSCAlarmMessage message) {
+        DSCAlarmMessageType messageType = message.getDSCAlarmMessageType();
+        switch (messageType) {
+            case PARTITION_EVENT:
+                return "partition:" + message.getPartitionNumber();
+            case ZONE_EVENT:
+                return "zone:" + message.getZoneNumber();
+            case KEYPAD_EVENT:
+                return "keypad";
+            default:
+                return "panel";
+        }
+    }
+
+    /**
+     * Removes the time stamp and the checksum of a received message.
+     */
+    private String stripMessage(String received) {
+        String body = received;
+        if (body.length() >= 8 && body.charAt(2) == ':' && body.charAt(5) == ':') {
+            body = body.substring(9);
+        }
+        return body.substring(0, body.length() - 2);
+    }
+
+    private Thing createThing(Bridge bridge, ThingTypeUID thingTypeUID, String id, Configuration config) {
+        return ThingBuilder.create(thingTypeUID, new ThingUID(thingTypeUID, bridge.getUID(), id))
+                .withBridge(bridge.getUID()).withConfiguration(config).build();
+    }
+
+    private void addThing(DSCAlarmBaseThingHandler handler, String key) {
+        bridgeHandler.childHandlerInitialized(handler, handler.getThing());
+        things.put(key, handler.getThing());
+    }
+
+    private List<String> readSession() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream(SESSION)) {
+            assertNotNull("Session not found: " + SESSION, in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Bridge handler without a connection, the replayed messages are handed to it directly.
+     */
+    private static class ReplayBridgeHandler extends DSCAlarmBaseBridgeHandler {
+
+        ReplayBridgeHandler(Bridge bridge) {
+            super(bridge, DSCAlarmBridgeType.IT100, DSCAlarmProtocol.IT100_API);
+        }
+
+        @Override
+        void openConnection() {
+        }
+
+        @Override
+        void closeConnection() {
+        }
+
+        @Override
+        public void write(String writeString) {
+        }
+
+        @Override
+        public String read() {
+            return null;
+        }
+
+    }
+
+}
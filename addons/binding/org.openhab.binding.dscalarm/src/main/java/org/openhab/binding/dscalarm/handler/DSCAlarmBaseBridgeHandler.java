@@ -14,6 +14,8 @@ import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +26,7 @@ import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.dscalarm.config.DSCAlarmPartitionConfiguration;
 import org.openhab.binding.dscalarm.config.DSCAlarmZoneConfiguration;
@@ -57,6 +60,15 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
     /** The Panel Thing handler for the bridge. */
     private DSCAlarmBaseThingHandler panelThingHandler = null;
 
+    /** The initialized Panel and Keypad Thing handlers of the bridge. */
+    private final Map<DSCAlarmThingType, DSCAlarmBaseThingHandler> deviceThingHandlers = new ConcurrentHashMap<>();
+
+    /** The initialized Partition Thing handlers of the bridge by partition number. */
+    private final Map<Integer, DSCAlarmBaseThingHandler> partitionThingHandlers = new ConcurrentHashMap<>();
+
+    /** The initialized Zone Thing handlers of the bridge by zone number. */
+    private final Map<Integer, DSCAlarmBaseThingHandler> zoneThingHandlers = new ConcurrentHashMap<>();
+
     /** Connection status for the bridge. */
     private boolean connected = false;
 
@@ -379,6 +391,45 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
 
     }
 
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof DSCAlarmBaseThingHandler) {
+            DSCAlarmBaseThingHandler handler = (DSCAlarmBaseThingHandler) childHandler;
+
+            removeThingHandler(handler);
+
+            DSCAlarmThingType handlerDSCAlarmThingType = handler.getDSCAlarmThingType();
+
+            if (handlerDSCAlarmThingType != null) {
+                switch (handlerDSCAlarmThingType) {
+                    case PANEL:
+                    case KEYPAD:
+                        deviceThingHandlers.put(handlerDSCAlarmThingType, handler);
+                        break;
+                    case PARTITION:
+                        partitionThingHandlers.put(handler.getPartitionNumber(), handler);
+                        break;
+                    case ZONE:
+                        zoneThingHandlers.put(handler.getZoneNumber(), handler);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        removeThingHandler(childHandler);
+    }
+
+    private void removeThingHandler(ThingHandler handler) {
+        deviceThingHandlers.values().remove(handler);
+        partitionThingHandlers.values().remove(handler);
+        zoneThingHandlers.values().remove(handler);
+    }
+
     /**
      * Find a Thing.
      *
@@ -388,6 +439,40 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
      * @return thing
      */
     public Thing findThing(DSCAlarmThingType dscAlarmThingType, int partitionId, int zoneId) {
+        DSCAlarmBaseThingHandler handler = null;
+
+        switch (dscAlarmThingType) {
+            case PANEL:
+            case KEYPAD:
+                handler = deviceThingHandlers.get(dscAlarmThingType);
+                break;
+            case PARTITION:
+                handler = partitionThingHandlers.get(partitionId);
+                break;
+            case ZONE:
+                handler = zoneThingHandlers.get(zoneId);
+                break;
+            default:
+                break;
+        }
+
+        if (handler != null) {
+            return handler.getThing();
+        }
+
+        // the handler of the Thing has not been initialized yet
+        return searchThing(dscAlarmThingType, partitionId, zoneId);
+    }
+
+    /**
+     * Search the Things of the bridge for a Thing which isn't indexed.
+     *
+     * @param dscAlarmThingType
+     * @param partitionId
+     * @param zoneId
+     * @return thing
+     */
+    private Thing searchThing(DSCAlarmThingType dscAlarmThingType, int partitionId, int zoneId) {
 
         List<Thing> things = getThing().getThings();
 
@@ -408,7 +493,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
                                 case PANEL:
                                 case KEYPAD:
                                     thing = t;
-                                    logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
+                                    logger.debug("searchThing(): Thing Found - {}, {}, {}", t, handler,
                                             handlerDSCAlarmThingType);
                                     return thing;
                                 case PARTITION:
@@ -416,7 +501,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
                                             .get(DSCAlarmPartitionConfiguration.PARTITION_NUMBER);
                                     if (partitionId == partitionNumber.intValue()) {
                                         thing = t;
-                                        logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
+                                        logger.debug("searchThing(): Thing Found - {}, {}, {}", t, handler,
                                                 handlerDSCAlarmThingType);
                                         return thing;
                                     }
@@ -426,7 +511,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
                                             .get(DSCAlarmZoneConfiguration.ZONE_NUMBER);
                                     if (zoneId == zoneNumber.intValue()) {
                                         thing = t;
-                                        logger.debug("findThing(): Thing Found - {}, {}, {}", t, handler,
+                                        logger.debug("searchThing(): Thing Found - {}, {}, {}", t, handler,
                                                 handlerDSCAlarmThingType);
                                         return thing;
                                     }
@@ -438,7 +523,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
                     }
                 }
             } catch (Exception e) {
-                logger.debug("findThing(): Error Seaching Thing - {} ", e.getMessage(), e);
+                logger.debug("searchThing(): Error Seaching Thing - {} ", e.getMessage(), e);
             }
         }
 
@@ -455,8 +540,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
             DSCAlarmMessage dscAlarmMessage = new DSCAlarmMessage(incomingMessage);
             DSCAlarmMessageType dscAlarmMessageType = dscAlarmMessage.getDSCAlarmMessageType();
 
-            logger.debug("handleIncomingMessage(): Message received: {} - {}", incomingMessage,
-                    dscAlarmMessage.toString());
+            logger.debug("handleIncomingMessage(): Message received: {} - {}", incomingMessage, dscAlarmMessage);
 
             DSCAlarmEvent event = new DSCAlarmEvent(this);
             event.dscAlarmEventMessage(dscAlarmMessage);
@@ -464,8 +548,7 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
             int partitionId = 0;
             int zoneId = 0;
 
-            DSCAlarmCode dscAlarmCode = DSCAlarmCode
-                    .getDSCAlarmCodeValue(dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.CODE));
+            DSCAlarmCode dscAlarmCode = dscAlarmMessage.getDSCAlarmCode();
 
             if (dscAlarmCode == DSCAlarmCode.LoginResponse) {
                 String dscAlarmMessageData = dscAlarmMessage.getMessageInfo(DSCAlarmMessageInfoType.DATA);
@@ -489,12 +572,11 @@ public abstract class DSCAlarmBaseBridgeHandler extends BaseBridgeHandler {
                     break;
                 case PARTITION_EVENT:
                     dscAlarmThingType = DSCAlarmThingType.PARTITION;
-                    partitionId = Integer
-                            .parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.PARTITION));
+                    partitionId = dscAlarmMessage.getPartitionNumber();
                     break;
                 case ZONE_EVENT:
                     dscAlarmThingType = DSCAlarmThingType.ZONE;
-                    zoneId = Integer.parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.ZONE));
+                    zoneId = dscAlarmMessage.getZoneNumber();
                     break;
                 case KEYPAD_EVENT:
                     dscAlarmThingType = DSCAlarmThingType.KEYPAD;
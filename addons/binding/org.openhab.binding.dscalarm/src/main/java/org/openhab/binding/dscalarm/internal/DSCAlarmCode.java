@@ -8,9 +8,6 @@
  */
 package org.openhab.binding.dscalarm.internal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Enumerator for DSCAlarm Command and Message Codes.
  *
@@ -188,9 +185,18 @@ public enum DSCAlarmCode {
     private String description;
 
     /**
-     * Lookup map to get a DSCAlarmCode value from its string code.
+     * Lookup table to get a DSCAlarmCode value from its numeric code (000 - 999).
      */
-    private static Map<String, DSCAlarmCode> codeToDSCAlarmCodeValue;
+    private static final DSCAlarmCode[] codeToDSCAlarmCodeValue = new DSCAlarmCode[1000];
+
+    static {
+        for (DSCAlarmCode s : values()) {
+            int index = toIndex(s.code, 0);
+            if (index >= 0) {
+                codeToDSCAlarmCodeValue[index] = s;
+            }
+        }
+    }
 
     /**
      * Constructor
@@ -203,16 +209,6 @@ public enum DSCAlarmCode {
         this.description = description;
     }
 
-    /**
-     * Initialize the lookup map that gets a DSCAlarmCode value from a string code.
-     */
-    private static void initMapping() {
-        codeToDSCAlarmCodeValue = new HashMap<>();
-        for (DSCAlarmCode s : values()) {
-            codeToDSCAlarmCodeValue.put(s.code, s);
-        }
-    }
-
     /**
      * The DSC Alarm command/message code string (example '005').
      */
@@ -242,13 +238,24 @@ public enum DSCAlarmCode {
      * @return enum value
      */
     public static DSCAlarmCode getDSCAlarmCodeValue(String code) {
-        DSCAlarmCode dscAlarmCode;
-
-        if (codeToDSCAlarmCodeValue == null) {
-            initMapping();
+        if (code == null || code.length() != 3) {
+            return UnknownCode;
         }
 
-        dscAlarmCode = codeToDSCAlarmCodeValue.get(code);
+        return getDSCAlarmCodeValue(code, 0);
+    }
+
+    /**
+     * Lookup function to return the DSCAlarmCode value of the three digit code at the given offset of a message,
+     * without copying the code out of the message. Returns 'UnknownCode' if the code is not found.
+     *
+     * @param message
+     * @param offset
+     * @return enum value
+     */
+    public static DSCAlarmCode getDSCAlarmCodeValue(CharSequence message, int offset) {
+        int index = toIndex(message, offset);
+        DSCAlarmCode dscAlarmCode = index >= 0 ? codeToDSCAlarmCodeValue[index] : null;
 
         if (dscAlarmCode == null) {
             dscAlarmCode = UnknownCode;
@@ -256,4 +263,26 @@ public enum DSCAlarmCode {
 
         return dscAlarmCode;
     }
+
+    /**
+     * Converts the three digit code at the given offset to its numeric value.
+     *
+     * @return the numeric value, or -1 if there are no three digits at the offset
+     */
+    private static int toIndex(CharSequence message, int offset) {
+        if (offset < 0 || offset + 3 > message.length()) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int i = offset; i < offset + 3; i++) {
+            char c = message.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+
+        return index;
+    }
 }
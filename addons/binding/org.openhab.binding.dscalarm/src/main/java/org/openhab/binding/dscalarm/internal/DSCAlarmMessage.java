@@ -20,7 +20,7 @@ import org.slf4j.LoggerFactory;
  */
 public class DSCAlarmMessage {
 
-    private final Logger logger = LoggerFactory.getLogger(DSCAlarmMessage.class);
+    private static final Logger logger = LoggerFactory.getLogger(DSCAlarmMessage.class);
 
     private static final EnumMap<DSCAlarmCode, MessageParameters> dscAlarmMessageParameters = new EnumMap<>(
             DSCAlarmCode.class);
@@ -48,13 +48,25 @@ public class DSCAlarmMessage {
 
     private DSCAlarmMessageType messageType = DSCAlarmMessageType.PANEL_EVENT;
 
-    private String message = "";
+    private DSCAlarmCode dscAlarmCode = DSCAlarmCode.UnknownCode;
+
+    /*
+     * The message as received, and the bounds of the message without time stamp and checksum. The partition and
+     * zone are located by their offsets in the received message, and only copied out of it when asked for.
+     */
+    private final String receivedMessage;
+    private int messageStart = 0;
+    private int messageEnd = 0;
+    private int partitionOffset = -1;
+    private int zoneOffset = -1;
+
+    private String message = null;
     private String name = "";
     private String description = "";
     private String codeReceived = "";
     private String timeStamp = "";
-    private String partition = "0";
-    private String zone = "0";
+    private String partition = null;
+    private String zone = null;
     private String data = "";
     private String mode = "";
     private String user = "";
@@ -67,36 +79,41 @@ public class DSCAlarmMessage {
      *            - the message received
      */
     public DSCAlarmMessage(String message) {
-        this.message = message;
+        this.receivedMessage = message;
         processDSCAlarmMessage();
     }
 
     /**
      * Processes the incoming DSC Alarm message and extracts the information.
+     *
+     * The message is parsed in place by offsets into the received string, so that only the fields which are
+     * actually present are copied out of it.
      */
     private void processDSCAlarmMessage() {
-        DSCAlarmCode dscAlarmCode;
-
-        if (message.length() > 3) {
-            try {
-                if (message.length() >= 8 && message.charAt(2) == ':' && message.charAt(5) == ':') {
-                    timeStamp = message.substring(0, 8);
-                    message = message.substring(9, message.length() - 2);
-                } else {
-                    message = message.substring(0, message.length() - 2);
-                }
+        int length = receivedMessage.length();
 
-                codeReceived = message.substring(0, 3);
+        if (length > 3) {
+            if (length >= 8 && receivedMessage.charAt(2) == ':' && receivedMessage.charAt(5) == ':') {
+                timeStamp = receivedMessage.substring(0, 8);
+                messageStart = 9;
+            }
+            messageEnd = length - 2;
 
-                if (message.length() >= 4) {
-                    data = message.substring(3);
-                }
-            } catch (Exception e) {
-                logger.error("processDSCAlarmMessage(): Error processing message ({}) - {}", message, e);
+            if (messageEnd - messageStart < 3) {
+                logger.error("processDSCAlarmMessage(): Error processing message ({}) - message too short",
+                        receivedMessage);
+                messageStart = 0;
+                messageEnd = length;
                 return;
             }
 
-            dscAlarmCode = DSCAlarmCode.getDSCAlarmCodeValue(codeReceived);
+            dscAlarmCode = DSCAlarmCode.getDSCAlarmCodeValue(receivedMessage, messageStart);
+            codeReceived = dscAlarmCode != DSCAlarmCode.UnknownCode ? dscAlarmCode.getCode()
+                    : receivedMessage.substring(messageStart, messageStart + 3);
+
+            if (messageEnd - messageStart >= 4) {
+                data = receivedMessage.substring(messageStart + 3, messageEnd);
+            }
 
             if (dscAlarmCode != null) {
 
@@ -109,15 +126,14 @@ public class DSCAlarmMessage {
                     boolean hasPartition = messageParms.hasPartition();
                     boolean hasZone = messageParms.hasZone();
 
-                    if (hasPartition) {
-                        partition = message.substring(3, 4);
+                    if (hasPartition && messageStart + 4 <= messageEnd) {
+                        partitionOffset = messageStart + 3;
                     }
 
                     if (hasZone) {
-                        if (hasPartition) {
-                            zone = message.substring(4);
-                        } else {
-                            zone = message.substring(3);
+                        int offset = hasPartition ? messageStart + 4 : messageStart + 3;
+                        if (offset < messageEnd) {
+                            zoneOffset = offset;
                         }
                     }
 
@@ -216,7 +232,7 @@ public class DSCAlarmMessage {
                         break;
 
                     case PartitionArmed: /* 652 */
-                        mode = message.substring(4);
+                        mode = receivedMessage.substring(messageStart + 4, messageEnd);
                         if (mode.equals("0")) {
                             name += " (Away)";
                         } else if (mode.equals("1")) {
@@ -229,16 +245,16 @@ public class DSCAlarmMessage {
                         messageType = DSCAlarmMessageType.PARTITION_EVENT;
                         break;
                     case UserClosing: /* 700 */
-                        user = message.substring(4);
+                        user = receivedMessage.substring(messageStart + 4, messageEnd);
                         name = name.concat(": " + user);
-                        description = codeReceived + ": Partition " + String.valueOf(partition)
+                        description = codeReceived + ": Partition " + getPartition()
                                 + " has been armed by user " + user + ".";
                         messageType = DSCAlarmMessageType.PARTITION_EVENT;
                         break;
                     case UserOpening: /* 750 */
-                        user = message.substring(4);
+                        user = receivedMessage.substring(messageStart + 4, messageEnd);
                         name = name.concat(": " + user);
-                        description = codeReceived + ": Partition " + String.valueOf(partition)
+                        description = codeReceived + ": Partition " + getPartition()
                                 + " has been disarmed by user " + user + ".";
                         messageType = DSCAlarmMessageType.PARTITION_EVENT;
                         break;
@@ -249,12 +265,13 @@ public class DSCAlarmMessage {
 
                 logger.debug(
                         "parseAPIMessage(): Message Received ({}) - Code: {}, Name: {}, Description: {}, Data: {}\r\n",
-                        message, codeReceived, name, description, data);
+                        receivedMessage, codeReceived, name, description, data);
             }
         } else {
+            messageEnd = length;
             codeReceived = "-1";
             data = "";
-            dscAlarmCode = DSCAlarmCode.getDSCAlarmCodeValue(codeReceived);
+            dscAlarmCode = DSCAlarmCode.UnknownCode;
             name = dscAlarmCode.getName();
             description = dscAlarmCode.getDescription();
             logger.debug("parseAPIMessage(): Invalid Message Received");
@@ -270,6 +287,76 @@ public class DSCAlarmMessage {
         return messageType;
     }
 
+    /**
+     * Returns the DSCAlarm Code of the message, 'UnknownCode' if the code is not known.
+     *
+     * @return dscAlarmCode
+     */
+    public DSCAlarmCode getDSCAlarmCode() {
+        return dscAlarmCode;
+    }
+
+    /**
+     * Returns the partition number of the message, 0 if the message has no partition.
+     *
+     * @return partition number
+     * @throws NumberFormatException if the partition isn't a number
+     */
+    public int getPartitionNumber() {
+        return partitionOffset < 0 ? 0 : parseNumber(partitionOffset, partitionOffset + 1);
+    }
+
+    /**
+     * Returns the zone number of the message, 0 if the message has no zone.
+     *
+     * @return zone number
+     * @throws NumberFormatException if the zone isn't a number
+     */
+    public int getZoneNumber() {
+        return zoneOffset < 0 ? 0 : parseNumber(zoneOffset, messageEnd);
+    }
+
+    /**
+     * Parses the decimal number between the offsets of the received message without copying it.
+     */
+    private int parseNumber(int start, int end) {
+        if (start >= end || end > messageEnd) {
+            throw new NumberFormatException("No number in message: " + receivedMessage);
+        }
+
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = receivedMessage.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid number in message: " + receivedMessage);
+            }
+            number = number * 10 + (c - '0');
+        }
+
+        return number;
+    }
+
+    private String getMessage() {
+        if (message == null) {
+            message = receivedMessage.substring(messageStart, messageEnd);
+        }
+        return message;
+    }
+
+    private String getPartition() {
+        if (partition == null) {
+            partition = partitionOffset < 0 ? "0" : receivedMessage.substring(partitionOffset, partitionOffset + 1);
+        }
+        return partition;
+    }
+
+    private String getZone() {
+        if (zone == null) {
+            zone = zoneOffset < 0 ? "0" : receivedMessage.substring(zoneOffset, messageEnd);
+        }
+        return zone;
+    }
+
     /**
      * Returns Information from A DSC Alarm Message
      *
@@ -282,7 +369,7 @@ public class DSCAlarmMessage {
 
         switch (dscAlarmMessageInfoType) {
             case MESSAGE:
-                info = message;
+                info = getMessage();
                 break;
             case NAME:
                 info = name;
@@ -297,10 +384,10 @@ public class DSCAlarmMessage {
                 info = timeStamp;
                 break;
             case PARTITION:
-                info = partition;
+                info = getPartition();
                 break;
             case ZONE:
-                info = zone;
+                info = getZone();
                 break;
             case DATA:
                 info = data;
@@ -347,14 +434,14 @@ public class DSCAlarmMessage {
             sb.append(timeStamp);
         }
 
-        if (!partition.equals("0")) {
+        if (!getPartition().equals("0")) {
             sb.append(", Partition: ");
-            sb.append(partition);
+            sb.append(getPartition());
         }
 
-        if (!zone.equals("0")) {
+        if (!getZone().equals("0")) {
             sb.append(", Zone: ");
-            sb.append(zone);
+            sb.append(getZone());
         }
 
         if (!data.equals("")) {
@@ -22,7 +22,6 @@ import org.openhab.binding.dscalarm.config.DSCAlarmZoneConfiguration;
 import org.openhab.binding.dscalarm.handler.DSCAlarmBaseBridgeHandler;
 import org.openhab.binding.dscalarm.handler.DSCAlarmThingType;
 import org.openhab.binding.dscalarm.internal.DSCAlarmEvent;
-import org.openhab.binding.dscalarm.internal.DSCAlarmMessage.DSCAlarmMessageInfoType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,9 +80,8 @@ public class DSCAlarmDiscoveryService extends AbstractDiscoveryService {
         String thingLabel = "";
         Map<String, Object> properties = null;
 
-        int partitionNumber = Integer
-                .parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.PARTITION));
-        int zoneNumber = Integer.parseInt(event.getDSCAlarmMessage().getMessageInfo(DSCAlarmMessageInfoType.ZONE));
+        int partitionNumber = event.getDSCAlarmMessage().getPartitionNumber();
+        int zoneNumber = event.getDSCAlarmMessage().getZoneNumber();
 
         switch (dscAlarmThingType) {
             case PANEL:
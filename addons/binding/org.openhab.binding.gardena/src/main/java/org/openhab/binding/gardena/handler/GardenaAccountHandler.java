@@ -8,7 +8,10 @@
  */
 package org.openhab.binding.gardena.handler;
 
+import static org.openhab.binding.gardena.GardenaBindingConstants.ABILITY_DEVICE_INFO;
+
 import java.util.Hashtable;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -29,6 +32,7 @@ import org.openhab.binding.gardena.internal.GardenaSmartImpl;
 import org.openhab.binding.gardena.internal.config.GardenaConfig;
 import org.openhab.binding.gardena.internal.exception.GardenaException;
 import org.openhab.binding.gardena.internal.model.Device;
+import org.openhab.binding.gardena.internal.model.Property;
 import org.openhab.binding.gardena.util.UidUtils;
 import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
@@ -197,6 +201,39 @@ public class GardenaAccountHandler extends BaseBridgeHandler implements GardenaS
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDevicePropertiesChanged(Device device, List<Property> changedProperties) {
+        for (ThingUID thingUID : UidUtils.getThingUIDs(device, getThing())) {
+            Thing gardenaThing = getThingByUID(thingUID);
+            try {
+                GardenaThingHandler gardenaThingHandler = (GardenaThingHandler) gardenaThing.getHandler();
+                boolean deviceInfoChanged = false;
+                for (Property property : changedProperties) {
+                    String abilityName = property.getAbility().getName();
+                    if (ABILITY_DEVICE_INFO.equals(abilityName)) {
+                        deviceInfoChanged = true;
+                    }
+                    Channel channel = gardenaThing.getChannel(abilityName + "#" + property.getName());
+                    if (channel != null) {
+                        gardenaThingHandler.updateChannel(channel.getUID());
+                    }
+                }
+                if (deviceInfoChanged) {
+                    gardenaThingHandler.updateProperties(device);
+                }
+                gardenaThingHandler.updateStatus(device);
+            } catch (GardenaException ex) {
+                logger.error("There is something wrong with your thing, please recreate the thing {}",
+                        gardenaThing.getUID(), ex);
+                updateStatus(ThingStatus.OFFLINE);
+            } catch (AccountHandlerNotAvailableException ignore) {
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -8,15 +8,18 @@
  */
 package org.openhab.binding.gardena.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -86,6 +89,9 @@ public class GardenaSmartImpl implements GardenaSmart {
 
     private static final String DEFAULT_MOWER_DURATION = "180";
 
+    private static final int MAX_CONCURRENT_REQUESTS = 3;
+    private static final int INTERMEDIATE_REFRESH_DELAY_SECONDS = 3;
+
     private static final String URL = "https://smart.gardena.com";
     private static final String URL_LOGIN = URL + "/sg-1/sessions";
     private static final String URL_LOCATIONS = URL + "/sg-1/locations/?user_id=";
@@ -96,18 +102,21 @@ public class GardenaSmartImpl implements GardenaSmart {
     private Gson gson = new GsonBuilder().registerTypeAdapter(Date.class, new DateDeserializer()).create();
     private HttpClient httpClient;
 
-    private String mowerDuration = DEFAULT_MOWER_DURATION;
-    private Session session;
+    private volatile String mowerDuration = DEFAULT_MOWER_DURATION;
+    private volatile Session session;
     private GardenaConfig config;
     private String id;
 
+    private final Semaphore requestPermits = new Semaphore(MAX_CONCURRENT_REQUESTS, true);
+
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> refreshThreadFuture;
+    private ScheduledFuture<?> intermediateRefreshFuture;
     private RefreshDevicesThread refreshDevicesThread = new RefreshDevicesThread();
 
     private GardenaSmartEventListener eventListener;
 
-    private Map<String, Device> allDevicesById = new HashMap<String, Device>();
+    private volatile Map<String, Device> allDevicesById = new HashMap<String, Device>();
     private Set<Location> allLocations = new HashSet<Location>();
 
     /**
@@ -152,13 +161,13 @@ public class GardenaSmartImpl implements GardenaSmart {
             httpClient.destroy();
         }
         allLocations.clear();
-        allDevicesById.clear();
+        allDevicesById = new HashMap<String, Device>();
     }
 
     /**
      * Schedules the device refresh thread.
      */
-    private void startRefreshThread() {
+    private synchronized void startRefreshThread() {
         refreshThreadFuture = scheduler.scheduleWithFixedDelay(refreshDevicesThread, config.getRefresh(),
                 config.getRefresh(), TimeUnit.SECONDS);
     }
@@ -166,19 +175,27 @@ public class GardenaSmartImpl implements GardenaSmart {
     /**
      * Stops the device refresh thread.
      */
-    private void stopRefreshThread() {
+    private synchronized void stopRefreshThread() {
         if (refreshThreadFuture != null) {
             refreshThreadFuture.cancel(true);
         }
+        if (intermediateRefreshFuture != null) {
+            intermediateRefreshFuture.cancel(false);
+            intermediateRefreshFuture = null;
+        }
     }
 
     /**
-     * Schedules a intermediate device refresh.
+     * Schedules a intermediate device refresh. Commands sent while an intermediate refresh is pending are covered by
+     * it, so commands sent in quick succession (e.g. to several valves) result in a single refresh.
      */
-    private void scheduleIntermediateRefresh() {
+    private synchronized void scheduleIntermediateRefresh() {
         if (refreshThreadFuture != null) {
-            if (refreshThreadFuture.getDelay(TimeUnit.SECONDS) > 5) {
-                scheduler.schedule(refreshDevicesThread, 3, TimeUnit.SECONDS);
+            if (intermediateRefreshFuture != null && !intermediateRefreshFuture.isDone()) {
+                logger.trace("Intermediate refresh already scheduled");
+            } else if (refreshThreadFuture.getDelay(TimeUnit.SECONDS) > INTERMEDIATE_REFRESH_DELAY_SECONDS + 2) {
+                intermediateRefreshFuture = scheduler.schedule(refreshDevicesThread,
+                        INTERMEDIATE_REFRESH_DELAY_SECONDS, TimeUnit.SECONDS);
             }
         }
     }
@@ -220,12 +237,12 @@ public class GardenaSmartImpl implements GardenaSmart {
         stopRefreshThread();
         try {
             allLocations.clear();
-            allDevicesById.clear();
 
             verifySession();
             Locations locations = executeRequest(HttpMethod.GET, URL_LOCATIONS + session.getUserId(), null,
                     Locations.class);
 
+            Map<String, Device> newDevicesById = new HashMap<String, Device>();
             for (Location location : locations.getLocations()) {
                 allLocations.add(location);
                 Devices devices = loadDevices(location);
@@ -233,10 +250,12 @@ public class GardenaSmartImpl implements GardenaSmart {
                     if (DEVICE_CATEGORY_GATEWAY.equals(device.getCategory())) {
                         location.getDeviceIds().remove(device.getId());
                     } else {
-                        allDevicesById.put(device.getId(), device);
+                        newDevicesById.put(device.getId(), device);
                     }
                 }
             }
+            // the handlers keep finding the previous devices until the reload is complete
+            allDevicesById = newDevicesById;
         } finally {
             startRefreshThread();
         }
@@ -355,10 +374,23 @@ public class GardenaSmartImpl implements GardenaSmart {
     }
 
     /**
-     * Communicates with Gardena Smart Home and parses the result.
+     * Communicates with Gardena Smart Home and parses the result. At most {@link #MAX_CONCURRENT_REQUESTS} requests
+     * of the account are executed concurrently.
      */
-    private synchronized <T> T executeRequest(HttpMethod method, String url, Object contentObject, Class<T> result)
+    private <T> T executeRequest(HttpMethod method, String url, Object contentObject, Class<T> result)
             throws GardenaException {
+        // verify the session before acquiring a permit, the login request needs a permit itself
+        if (!result.equals(SessionWrapper.class)) {
+            verifySession();
+        }
+
+        try {
+            requestPermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GardenaException(ex.getMessage(), ex);
+        }
+
         try {
             if (logger.isTraceEnabled()) {
                 logger.trace("{} request:  {}", method, url);
@@ -378,7 +410,6 @@ public class GardenaSmartImpl implements GardenaSmart {
             }
 
             if (!result.equals(SessionWrapper.class)) {
-                verifySession();
                 request.header("X-Session", session.getToken());
             }
 
@@ -413,13 +444,15 @@ public class GardenaSmartImpl implements GardenaSmart {
             throw new GardenaException(ex.getMessage(), ex);
         } catch (Exception ex) {
             throw new GardenaException(ex.getMessage(), ex);
+        } finally {
+            requestPermits.release();
         }
     }
 
     /**
      * Verifies the Gardena Smart Home session and reconnects if necessary.
      */
-    private void verifySession() throws GardenaException {
+    private synchronized void verifySession() throws GardenaException {
         if (session == null
                 || session.getCreated() + (config.getSessionTimeout() * 60000) <= System.currentTimeMillis()) {
             logger.trace("(Re)logging in to Gardena Smart Home");
@@ -429,7 +462,31 @@ public class GardenaSmartImpl implements GardenaSmart {
     }
 
     /**
-     * Thread which refreshes the data from Gardena Smart Home.
+     * Returns the properties of the device which have been added or whose value differs from the cached device.
+     */
+    private List<Property> getChangedProperties(Device cachedDevice, Device device) {
+        Map<String, String> cachedValues = new HashMap<String, String>();
+        for (Ability ability : cachedDevice.getAbilities()) {
+            for (Property property : ability.getProperties()) {
+                cachedValues.put(ability.getName() + "#" + property.getName(), property.getValue());
+            }
+        }
+
+        List<Property> changedProperties = new ArrayList<Property>();
+        for (Ability ability : device.getAbilities()) {
+            for (Property property : ability.getProperties()) {
+                String key = ability.getName() + "#" + property.getName();
+                if (!cachedValues.containsKey(key) || !ObjectUtils.equals(cachedValues.get(key), property.getValue())) {
+                    changedProperties.add(property);
+                }
+            }
+        }
+        return changedProperties;
+    }
+
+    /**
+     * Thread which refreshes the data from Gardena Smart Home. Only devices with changed properties are reported as
+     * updated.
      */
     private class RefreshDevicesThread implements Runnable {
         private boolean connectionLost = false;
@@ -438,7 +495,7 @@ public class GardenaSmartImpl implements GardenaSmart {
          * {@inheritDoc}
          */
         @Override
-        public void run() {
+        public synchronized void run() {
             try {
                 logger.debug("Refreshing gardena device data");
                 Map<String, Device> newDevicesById = new HashMap<String, Device>();
@@ -460,20 +517,30 @@ public class GardenaSmartImpl implements GardenaSmart {
                     eventListener.onConnectionResumed();
                 }
 
+                Map<String, Device> cachedDevicesById = allDevicesById;
+
                 // determine deleted devices
                 @SuppressWarnings("unchecked")
-                Collection<Device> deletedDevices = CollectionUtils.subtract(allDevicesById.values(),
+                Collection<Device> deletedDevices = CollectionUtils.subtract(cachedDevicesById.values(),
                         newDevicesById.values());
 
                 // determine new devices
                 @SuppressWarnings("unchecked")
                 Collection<Device> newDevices = CollectionUtils.subtract(newDevicesById.values(),
-                        allDevicesById.values());
-
-                // determine updated devices
-                @SuppressWarnings("unchecked")
-                Collection<Device> updatedDevices = CollectionUtils.intersection(allDevicesById.values(),
-                        newDevicesById.values());
+                        cachedDevicesById.values());
+
+                // determine the changed properties of the updated devices
+                Map<Device, List<Property>> updatedDevices = new HashMap<Device, List<Property>>();
+                for (Device device : newDevicesById.values()) {
+                    Device cachedDevice = cachedDevicesById.get(device.getId());
+                    if (cachedDevice != null) {
+                        List<Property> changedProperties = getChangedProperties(cachedDevice, device);
+                        if (!changedProperties.isEmpty()
+                                || cachedDevice.isConfigurationSynchronized() != device.isConfigurationSynchronized()) {
+                            updatedDevices.put(device, changedProperties);
+                        }
+                    }
+                }
 
                 allDevicesById = newDevicesById;
                 newDevicesById = null;
@@ -486,8 +553,8 @@ public class GardenaSmartImpl implements GardenaSmart {
                     eventListener.onNewDevice(newDevice);
                 }
 
-                for (Device updatedDevice : updatedDevices) {
-                    eventListener.onDeviceUpdated(updatedDevice);
+                for (Map.Entry<Device, List<Property>> updatedDevice : updatedDevices.entrySet()) {
+                    eventListener.onDevicePropertiesChanged(updatedDevice.getKey(), updatedDevice.getValue());
                 }
 
             } catch (GardenaException ex) {
@@ -56,6 +56,12 @@ public class GlobalCacheBindingConstants {
     // MAP file containing mappings from command to IR and SL string
     public static final String THING_CONFIG_MAP_FILENAME = "mapFilename";
 
+    // Merge IR commands repeated while queued (e.g. a held key) into one sendir with a higher repeat count
+    public static final String THING_CONFIG_MERGE_REPEATS = "mergeRepeats";
+
+    // Folder within the config folder containing the MAP files
+    public static final String TRANSFORM_FOLDER_NAME = "transform";
+
     // Flex "Current Active Cable"
     public static final String THING_CONFIG_ACTIVECABLE = "activeCable";
 
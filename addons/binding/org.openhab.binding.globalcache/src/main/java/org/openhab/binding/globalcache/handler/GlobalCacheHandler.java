@@ -10,10 +10,9 @@ package org.openhab.binding.globalcache.handler;
 
 import static org.openhab.binding.globalcache.GlobalCacheBindingConstants.*;
 
-import java.io.BufferedReader;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
@@ -21,15 +20,20 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.URLDecoder;
 import java.net.UnknownHostException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.net.NetUtil;
 import org.eclipse.smarthome.core.thing.Channel;
@@ -47,6 +51,7 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
 import org.openhab.binding.globalcache.internal.command.CommandGetstate;
 import org.openhab.binding.globalcache.internal.command.CommandGetversion;
+import org.openhab.binding.globalcache.internal.command.CommandPipeline;
 import org.openhab.binding.globalcache.internal.command.CommandSendir;
 import org.openhab.binding.globalcache.internal.command.CommandSendserial;
 import org.openhab.binding.globalcache.internal.command.CommandSetstate;
@@ -59,26 +64,45 @@ import org.slf4j.LoggerFactory;
  * The {@link GlobalCacheHandler} is responsible for handling commands, which are
  * sent to one of the channels.
  *
+ * Commands are queued in the {@link CommandPipeline} of the device, and sent to the device without waiting for
+ * the replies to earlier commands to other connectors. The replies are received by the {@link GlobalCacheTransport}
+ * shared by all devices of the binding.
+ *
  * @author Mark Hilbush - Initial contribution
  */
 public class GlobalCacheHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(GlobalCacheHandler.class);
 
+    // Maximum number of commands queued for the device
+    private static final int SEND_QUEUE_MAX_DEPTH = 10;
+
+    // Time (in ms) the device has to reply to a command
+    private static final int RESPONSE_TIMEOUT = 3000;
+
     private InetAddress ifAddress;
-    private CommandProcessor commandProcessor;
-    ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(MAX_GC_DEVICES);
-    ScheduledFuture<?> scheduledFuture;
+    private ConnectionManager connectionManager;
+    private ScheduledFuture<?> startupJob;
 
-    private LinkedBlockingQueue<RequestMessage> sendQueue = null;
+    private CommandPipeline pipeline = null;
 
     // IR transaction counter
     private AtomicInteger irCounter;
 
+    // IR and serial codes looked up in the MAP file, by command
+    private final Map<String, String> codeCache = new ConcurrentHashMap<>();
+
+    // The MAP file the cached codes were looked up in, and its modification time, guarded by codeCache
+    private String codeCacheMapFile;
+    private long codeCacheMapFileModified;
+
+    private boolean mergeRepeats;
+
+    private static final Pattern HEX_CODE_PATTERN = Pattern
+            .compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
+
     public GlobalCacheHandler(Thing gcDevice) {
         super(gcDevice);
         irCounter = new AtomicInteger(1);
-        commandProcessor = new CommandProcessor();
-        scheduledFuture = null;
     }
 
     @Override
@@ -97,16 +121,31 @@ public class GlobalCacheHandler extends BaseThingHandler {
             markThingOfflineWithError(ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, "No suitable network interface");
             return;
         }
-        scheduledFuture = scheduledExecutorService.schedule(commandProcessor, 2, TimeUnit.SECONDS);
+        Object mergeRepeatsConfig = thing.getConfiguration().get(THING_CONFIG_MERGE_REPEATS);
+        mergeRepeats = mergeRepeatsConfig instanceof Boolean ? (Boolean) mergeRepeatsConfig
+                : Boolean.parseBoolean((String) mergeRepeatsConfig);
+        codeCache.clear();
+
+        connectionManager = new ConnectionManager();
+        pipeline = connectionManager.getPipeline();
+
+        final ConnectionManager manager = connectionManager;
+        startupJob = GlobalCacheTransport.getInstance().getExecutor().schedule(() -> manager.start(), 2,
+                TimeUnit.SECONDS);
     }
 
     @Override
     public void dispose() {
         logger.debug("Disposing thing {}", thingID());
-        commandProcessor.terminate();
-        if (scheduledFuture != null) {
-            scheduledFuture.cancel(false);
+        if (startupJob != null) {
+            startupJob.cancel(false);
+            startupJob = null;
+        }
+        if (connectionManager != null) {
+            connectionManager.stop();
+            connectionManager = null;
         }
+        pipeline = null;
     }
 
     @Override
@@ -168,7 +207,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
         logger.debug("Handling CC command {} on channel {} of thing {}", command, channelUID.getId(), thingID());
 
         if (command instanceof OnOffType) {
-            CommandSetstate setstate = new CommandSetstate(thing, command, sendQueue, modNum, conNum);
+            CommandSetstate setstate = new CommandSetstate(thing, command, pipeline, modNum, conNum);
             setstate.execute();
         }
     }
@@ -178,8 +217,12 @@ public class GlobalCacheHandler extends BaseThingHandler {
 
         String irCode = lookupCode(command, channelUID);
         if (irCode != null) {
-            CommandSendir sendir = new CommandSendir(thing, command, sendQueue, modNum, conNum, irCode, getCounter());
-            sendir.execute();
+            CommandSendir sendir = new CommandSendir(thing, command, pipeline, modNum, conNum, irCode, getCounter());
+            if (mergeRepeats) {
+                sendir.executeMerged();
+            } else {
+                sendir.execute();
+            }
         }
     }
 
@@ -188,7 +231,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
 
         String slCode = lookupCode(command, channelUID);
         if (slCode != null) {
-            CommandSendserial sendserial = new CommandSendserial(thing, command, sendQueue, modNum, conNum, slCode);
+            CommandSendserial sendserial = new CommandSendserial(thing, command, pipeline, modNum, conNum, slCode);
             sendserial.execute();
         }
     }
@@ -196,7 +239,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
     private void handleSerialDirect(String modNum, String conNum, Command command, ChannelUID channelUID) {
         logger.debug("Handle serial command {} on channel {} of thing {}", command, channelUID.getId(), thingID());
 
-        CommandSendserial sendserial = new CommandSendserial(thing, command, sendQueue, modNum, conNum,
+        CommandSendserial sendserial = new CommandSendserial(thing, command, pipeline, modNum, conNum,
                 command.toString());
         sendserial.execute();
     }
@@ -206,11 +249,12 @@ public class GlobalCacheHandler extends BaseThingHandler {
         if (channel.getChannelTypeUID().getId().equals(CHANNEL_TYPE_CC)) {
             logger.debug("Handle REFRESH command on channel {} for thing {}", channel.getUID().getId(), thingID());
 
-            CommandGetstate getstate = new CommandGetstate(thing, sendQueue, modNum, conNum);
-            getstate.execute();
-            if (getstate.isSuccessful()) {
-                updateState(channel.getUID(), getstate.state());
-            }
+            CommandGetstate getstate = new CommandGetstate(thing, pipeline, modNum, conNum);
+            getstate.execute(() -> {
+                if (getstate.isSuccessful()) {
+                    updateState(channel.getUID(), getstate.state());
+                }
+            });
         }
     }
 
@@ -219,7 +263,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
     }
 
     /*
-     * Look up the IR or serial command code in the MAP file.
+     * Look up the IR or serial command code in the MAP file. Codes are cached, until the MAP file is modified.
      *
      */
     private String lookupCode(Command command, ChannelUID channelUID) {
@@ -234,6 +278,13 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return null;
         }
 
+        checkCodeCache(mapFile);
+        String cachedCode = codeCache.get(command.toString());
+        if (cachedCode != null) {
+            logger.trace("Found {} for thing {} in code cache", command, thingID());
+            return cachedCode;
+        }
+
         TransformationService transformService = TransformationHelper.getTransformationService(bundleContext, "MAP");
         if (transformService == null) {
             logger.error("Failed to get MAP transformation service for thing {}; is bundle installed?", thingID());
@@ -268,15 +319,33 @@ public class GlobalCacheHandler extends BaseThingHandler {
                 return null;
             }
         }
+        codeCache.put(command.toString(), code);
         return code;
     }
 
+    /*
+     * Clear the code cache if another MAP file is used, or if the MAP file has been modified.
+     */
+    private void checkCodeCache(String mapFile) {
+        File file = new File(ConfigConstants.getConfigFolder() + File.separator + TRANSFORM_FOLDER_NAME
+                + File.separator + mapFile);
+        long modified = file.lastModified();
+
+        synchronized (codeCache) {
+            if (!mapFile.equals(codeCacheMapFile) || modified != codeCacheMapFileModified) {
+                logger.debug("Clearing code cache of thing {} for map file '{}'", thingID(), mapFile);
+                codeCache.clear();
+                codeCacheMapFile = mapFile;
+                codeCacheMapFileModified = modified;
+            }
+        }
+    }
+
     /*
      * Check if the string looks like a hex code; if not then assume it's GC format
      */
     private boolean isHexCode(String code) {
-        Pattern pattern = Pattern.compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
-        return pattern.matcher(code).find();
+        return HEX_CODE_PATTERN.matcher(code).find();
     }
 
     /*
@@ -407,165 +476,34 @@ public class GlobalCacheHandler extends BaseThingHandler {
         }
     }
 
-    /**
-     * The {@link CommandProcessor} class is responsible for handling communication with the GlobalCache
-     * device. It waits for requests to arrive on a queue. When a request arrives, it sends the command to the
-     * GlobalCache device, waits for a response from the device, parses the response, then responds to the caller by
-     * placing a message in a response queue. Device response time is typically well below 100 ms, hence the reason
-     * fgor a relatively low timeout when reading the response queue.
-     *
-     * @author Mark Hilbush - Initial contribution
-     */
-    private class CommandProcessor extends Thread {
-        private Logger logger = LoggerFactory.getLogger(CommandProcessor.class);
-
-        private boolean terminate = false;
-        private final String TERMINATE_COMMAND = "terminate";
-
-        private final int SEND_QUEUE_MAX_DEPTH = 10;
-        private final int SEND_QUEUE_TIMEOUT = 2000;
-
-        ConnectionManager connectionManager;
-
-        public CommandProcessor() {
-            super("GlobalCache Command Processor");
-            sendQueue = new LinkedBlockingQueue<RequestMessage>(SEND_QUEUE_MAX_DEPTH);
-            logger.debug("Processor for thing {} created request queue, depth={}", thingID(), SEND_QUEUE_MAX_DEPTH);
-        }
-
-        public void terminate() {
-            logger.debug("Processor for thing {} is being marked ready to terminate.", thingID());
-
-            try {
-                // Send the command processor a terminate message
-                sendQueue.put(new RequestMessage(TERMINATE_COMMAND, null, null, null));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                terminate = true;
-            }
-        }
-
-        @Override
-        public void run() {
-            logger.debug("Command processor STARTING for thing {} at IP {}", thingID(), getIP());
-            connectionManager = new ConnectionManager();
-            connectionManager.connect();
-            connectionManager.scheduleConnectionMonitorJob();
-            sendQueue.clear();
-            terminate = false;
-
-            try {
-                RequestMessage requestMessage;
-                while (!terminate) {
-                    requestMessage = sendQueue.poll(SEND_QUEUE_TIMEOUT, TimeUnit.MILLISECONDS);
-                    if (requestMessage != null) {
-                        if (requestMessage.getCommandName().equals(TERMINATE_COMMAND)) {
-                            logger.debug("Processor for thing {} received terminate message", thingID());
-                            break;
-                        }
-
-                        String deviceReply;
-                        connectionManager.connect();
-                        if (connectionManager.isConnected()) {
-                            try {
-                                long startTime = System.currentTimeMillis();
-                                writeCommandToDevice(requestMessage);
-                                deviceReply = readReplyFromDevice(requestMessage);
-                                long endTime = System.currentTimeMillis();
-                                logger.debug("Transaction '{}' for thing {} at {} took {} ms",
-                                        requestMessage.getCommandName(), thingID(), getIP(), endTime - startTime);
-
-                            } catch (IOException e) {
-                                logger.error("Comm error for thing {} at {}: {}", thingID(), getIP(), e.getMessage());
-                                deviceReply = "ERROR: " + e.getMessage();
-                                connectionManager.setCommError(deviceReply);
-                                connectionManager.disconnect();
-                            }
-                        } else {
-                            deviceReply = "ERROR: " + "No connection to device";
-                        }
-
-                        logger.trace("Processor for thing {} queuing response message: {}", thingID(), deviceReply);
-                        requestMessage.getReceiveQueue().put(new ResponseMessage(deviceReply));
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.warn("Processor for thing {} was interrupted: {}", thingID(), e.getMessage());
-                Thread.currentThread().interrupt();
-            }
-
-            connectionManager.cancelConnectionMonitorJob();
-            connectionManager.disconnect();
-            connectionManager = null;
-            logger.debug("Command processor TERMINATING for thing {} at IP {}", thingID(), getIP());
-        }
-
-        /*
-         * Write the command to the device.
-         */
-        private void writeCommandToDevice(RequestMessage requestMessage) throws IOException {
-            logger.trace("Processor for thing {} writing command to device", thingID());
-
-            if (connectionManager.getOut(requestMessage.getCommandType()) == null) {
-                logger.debug("Error writing to device because output stream object is null");
-                return;
-            }
-
-            byte[] deviceCommand;
-            if (requestMessage.isSerial()) {
-                String charset = "ISO-8859-1";
-                deviceCommand = URLDecoder.decode(requestMessage.getDeviceCommand(), charset).getBytes(charset);
-                logger.debug("Decoded deviceCommand byte array: {}", getAsHexString(deviceCommand));
-            } else {
-                deviceCommand = (requestMessage.getDeviceCommand() + '\r').getBytes();
-            }
-            connectionManager.getOut(requestMessage.getCommandType()).write(deviceCommand);
-            connectionManager.getOut(requestMessage.getCommandType()).flush();
-        }
-
-        private String getAsHexString(byte[] b) {
-            StringBuilder sb = new StringBuilder();
-
-            for (int j = 0; j < b.length; j++) {
-                String s = String.format("%02x ", b[j] & 0xff);
-                sb.append(s);
-            }
-            return sb.toString();
-        }
-
-        /*
-         * Read reply from the device, then remove the CR at the end of the line.
-         */
-        private String readReplyFromDevice(RequestMessage requestMessage) throws IOException {
-            // Nothing to do if it's a serial command, as the device won't reply to serial commands
-            if (requestMessage.isSerial()) {
-                return "successful";
-            }
-
-            if (connectionManager.getIn() == null) {
-                logger.debug("Error reading from device because input stream object is null");
-                return "ERROR: BufferedReader is null!";
-            }
-
-            logger.trace("Processor for thing {} reading response from device", thingID());
-            return connectionManager.getIn().readLine().trim();
-        }
-    }
-
     /*
      * The {@link ConnectionManager} class is responsible for managing the state of the connections to the
-     * command port and the serial port(s) of the device.
+     * command port and the serial port(s) of the device, and for the communication with the device. Commands
+     * are taken from the {@link CommandPipeline} and written to the device as soon as no earlier command to the
+     * same connector is outstanding. The command connection is non-blocking; its replies are received by the
+     * {@link GlobalCacheTransport}, correlated to the outstanding command, and dispatched on the binding's
+     * thread pool. Device response time is typically well below 100 ms, hence the reason for a relatively low
+     * response timeout.
      *
      * @author Mark Hilbush - Initial contribution
      */
-    private class ConnectionManager {
+    private class ConnectionManager implements GlobalCacheTransport.Session {
         private Logger logger = LoggerFactory.getLogger(ConnectionManager.class);
 
+        private final GlobalCacheTransport transport = GlobalCacheTransport.getInstance();
+        private final CommandPipeline pipeline;
+
         private DeviceConnection commandConnection;
         private DeviceConnection serial1Connection;
         private DeviceConnection serial2Connection;
 
+        // Guarded by this
         private boolean deviceIsConnected;
+        private boolean connecting;
+        private boolean stopped;
+        private SelectionKey selectionKey;
+        private final LinkedList<ByteBuffer> pendingWrites = new LinkedList<>();
+        private final StringBuilder replyLine = new StringBuilder();
 
         private final String COMMAND_NAME = "command";
         private final String SERIAL1_NAME = "serial-1";
@@ -577,6 +515,9 @@ public class GlobalCacheHandler extends BaseThingHandler {
 
         private final int SOCKET_CONNECT_TIMEOUT = 1500;
 
+        private final int READ_BUFFER_SIZE = 1024;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
         ScheduledFuture<?> connectionMonitorJob;
         private final int CONNECTION_MONITOR_FREQUENCY = 60;
         private final int CONNECTION_MONITOR_START_DELAY = 15;
@@ -590,6 +531,10 @@ public class GlobalCacheHandler extends BaseThingHandler {
         };
 
         public ConnectionManager() {
+            pipeline = new CommandPipeline(SEND_QUEUE_MAX_DEPTH, this::sendRequests);
+            logger.debug("Connection manager for thing {} created request queue, depth={}", thingID(),
+                    SEND_QUEUE_MAX_DEPTH);
+
             commandConnection = new DeviceConnection(COMMAND_NAME, COMMAND_PORT);
             serial1Connection = new DeviceConnection(SERIAL1_NAME, SERIAL1_PORT);
             serial2Connection = new DeviceConnection(SERIAL2_NAME, SERIAL2_PORT);
@@ -601,6 +546,10 @@ public class GlobalCacheHandler extends BaseThingHandler {
             deviceIsConnected = false;
         }
 
+        public CommandPipeline getPipeline() {
+            return pipeline;
+        }
+
         private String getIPAddress() {
             String ipAddress = ((GlobalCacheHandler) thing.getHandler()).getIP();
             if (StringUtils.isEmpty(ipAddress)) {
@@ -610,39 +559,107 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return ipAddress;
         }
 
+        protected void start() {
+            logger.debug("Connection manager STARTING for thing {} at IP {}", thingID(), getIP());
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                scheduleConnectionMonitorJob();
+            }
+            requestConnect();
+        }
+
+        protected void stop() {
+            synchronized (this) {
+                stopped = true;
+                cancelConnectionMonitorJob();
+                // The handler is disposed, nobody is interested in the replies anymore
+                pipeline.takeAll();
+            }
+            disconnect("Handler was disposed");
+            logger.debug("Connection manager TERMINATING for thing {} at IP {}", thingID(), getIP());
+        }
+
         /*
-         * Connect to the command and serial port(s) on the device. The serial connections are established only for
-         * devices that support serial.
+         * Connect to the device on the binding's thread pool, unless a connection exists or is being established.
          */
-        protected void connect() {
-            if (isConnected()) {
+        private synchronized void requestConnect() {
+            if (stopped || deviceIsConnected || connecting) {
                 return;
             }
+            connecting = true;
+            transport.getExecutor().execute(() -> {
+                boolean connected = false;
+                try {
+                    connected = connect();
+                } finally {
+                    synchronized (this) {
+                        connecting = false;
+                    }
+                }
+                if (connected) {
+                    sendRequests();
+                } else {
+                    completeAll("ERROR: " + "No connection to device");
+                }
+            });
+        }
 
+        /*
+         * Connect to the command and serial port(s) on the device. The serial connections are established only for
+         * devices that support serial.
+         */
+        private boolean connect() {
             // If device doesn't have a serial module, just open the command connection
-            if (!deviceSupportsSerial1()) {
-                if (deviceConnect(commandConnection)) {
-                    markThingOnline();
-                    deviceIsConnected = true;
-                    return;
-                }
-            } else {
-                // Open the command connection and either 1 or 2 serial connections
-                if (deviceConnect(commandConnection) && deviceConnect(serial1Connection)) {
-                    if (deviceSupportsSerial2()) {
-                        if (deviceConnect(serial2Connection)) {
-                            markThingOnline();
-                            deviceIsConnected = true;
-                            return;
-                        }
-                    } else {
-                        markThingOnline();
+            boolean connected = commandConnect(commandConnection);
+            if (connected && deviceSupportsSerial1()) {
+                // Open either 1 or 2 serial connections
+                connected = deviceConnect(serial1Connection)
+                        && (!deviceSupportsSerial2() || deviceConnect(serial2Connection));
+            }
+
+            synchronized (this) {
+                if (connected && !stopped) {
+                    try {
+                        transport.register(this);
                         deviceIsConnected = true;
-                        return;
+                    } catch (IOException e) {
+                        logger.debug("Error registering connection for thing {} at IP {}, exception={}", thingID(),
+                                commandConnection.getIP(), e.getMessage());
                     }
                 }
+                if (!deviceIsConnected) {
+                    closeConnections();
+                    return false;
+                }
+            }
+            markThingOnline();
+            return true;
+        }
+
+        private boolean commandConnect(DeviceConnection conn) {
+            logger.debug("Connecting to {} port for thing {} at IP {}", conn.getName(), thingID(), conn.getIP());
+
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.bind(new InetSocketAddress(ifAddress, 0));
+                // The channel is blocking while connecting, so that the connect timeout applies
+                channel.socket().connect(new InetSocketAddress(conn.getIP(), conn.getPort()), SOCKET_CONNECT_TIMEOUT);
+                channel.configureBlocking(false);
+            } catch (IOException e) {
+                logger.debug("Error connecting to {} port for thing {} at IP {}, exception={}", conn.getName(),
+                        thingID(), conn.getIP(), e.getMessage());
+                markThingOfflineWithError(ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, e.getMessage());
+                conn.setChannel(channel);
+                deviceDisconnect(conn);
+                return false;
             }
-            disconnect();
+            conn.setChannel(channel);
+            logger.info("Got a connection to {} port for thing {} at {}", conn.getName(), thingID(), conn.getIP());
+
+            return true;
         }
 
         private boolean deviceConnect(DeviceConnection conn) {
@@ -661,9 +678,8 @@ public class GlobalCacheHandler extends BaseThingHandler {
                 return false;
             }
 
-            // create streams
+            // create stream
             try {
-                conn.setIn(new BufferedReader(new InputStreamReader(conn.getSocket().getInputStream())));
                 conn.setOut(new DataOutputStream(conn.getSocket().getOutputStream()));
             } catch (IOException e) {
                 logger.debug("Error getting streams to {} port for thing {} at {}, exception={}", conn.getName(),
@@ -677,37 +693,52 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return true;
         }
 
-        protected void disconnect() {
-            if (!isConnected()) {
-                return;
+        /*
+         * Close the connections to the device, and fail the queued and outstanding commands with the reason.
+         */
+        protected void disconnect(String reason) {
+            boolean wasConnected;
+            synchronized (this) {
+                wasConnected = deviceIsConnected;
+                if (wasConnected) {
+                    closeConnections();
+                }
             }
-            deviceDisconnect(commandConnection);
-
-            if (deviceSupportsSerial1()) {
-                deviceDisconnect(serial1Connection);
+            if (wasConnected) {
+                markThingOffline();
             }
+            completeAll("ERROR: " + reason);
+        }
 
-            if (deviceSupportsSerial2()) {
-                deviceDisconnect(serial2Connection);
-            }
+        // Must be called while holding the lock on this
+        private void closeConnections() {
+            transport.unregister(this, selectionKey);
+            selectionKey = null;
+            pendingWrites.clear();
+            replyLine.setLength(0);
 
-            markThingOffline();
+            deviceDisconnect(commandConnection);
+            deviceDisconnect(serial1Connection);
+            deviceDisconnect(serial2Connection);
             deviceIsConnected = false;
         }
 
         private void deviceDisconnect(DeviceConnection conn) {
+            if (conn.getSocket() == null && conn.getChannel() == null) {
+                return;
+            }
             logger.debug("Disconnecting from {} port for thing {} at IP {}", conn.getName(), thingID(), conn.getIP());
 
             try {
                 if (conn.getOut() != null) {
                     conn.getOut().close();
                 }
-                if (conn.getIn() != null) {
-                    conn.getIn().close();
-                }
                 if (conn.getSocket() != null) {
                     conn.getSocket().close();
                 }
+                if (conn.getChannel() != null) {
+                    conn.getChannel().close();
+                }
             } catch (IOException e) {
                 logger.debug("Error closing {} port for thing {} at IP {}: exception={}", conn.getName(), thingID(),
                         conn.getIP(), e.getMessage());
@@ -715,7 +746,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
             conn.reset();
         }
 
-        private boolean isConnected() {
+        private synchronized boolean isConnected() {
             return deviceIsConnected;
         }
 
@@ -723,22 +754,239 @@ public class GlobalCacheHandler extends BaseThingHandler {
             markThingOfflineWithError(ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, errorMessage);
         }
 
+        private void onCommError(IOException e) {
+            logger.error("Comm error for thing {} at {}: {}", thingID(), getIP(), e.getMessage());
+            setCommError("ERROR: " + e.getMessage());
+            disconnect(e.getMessage());
+        }
+
+        /*
+         * Send the commands which aren't waiting for an earlier command to the same connector. Commands for the
+         * command port are written without blocking, serial commands are written on the binding's thread pool.
+         */
+        private void sendRequests() {
+            List<RequestMessage> requests;
+            IOException error = null;
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                if (!deviceIsConnected) {
+                    requestConnect();
+                    return;
+                }
+                requests = pipeline.takeSendable(System.currentTimeMillis());
+                for (RequestMessage request : requests) {
+                    if (!request.isSerial()) {
+                        logger.trace("Writing command '{}' to thing {}", request.getDeviceCommand(), thingID());
+                        pendingWrites.add(ByteBuffer.wrap((request.getDeviceCommand() + '\r').getBytes()));
+                    }
+                }
+                try {
+                    flush();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null) {
+                onCommError(error);
+                return;
+            }
+
+            for (RequestMessage request : requests) {
+                if (request.isSerial()) {
+                    transport.getExecutor().execute(() -> writeSerial(request));
+                }
+            }
+        }
+
         /*
-         * Retrieve the input/output streams for command and serial connections.
-         * We will never read from input stream for serial commands, so just return the command input stream
+         * Write the pending commands to the command port, as far as the socket accepts them without blocking.
+         * Must be called while holding the lock on this.
          */
-        protected BufferedReader getIn() {
-            return commandConnection.getIn();
+        private void flush() throws IOException {
+            SocketChannel channel = commandConnection.getChannel();
+            while (!pendingWrites.isEmpty()) {
+                ByteBuffer buffer = pendingWrites.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    // Continue once the channel is writable again
+                    setWriteInterest(true);
+                    return;
+                }
+                pendingWrites.poll();
+            }
+            setWriteInterest(false);
+        }
+
+        private void setWriteInterest(boolean write) {
+            if (selectionKey != null && selectionKey.isValid()) {
+                selectionKey.interestOps(write ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                if (write) {
+                    selectionKey.selector().wakeup();
+                }
+            }
         }
 
-        protected DataOutputStream getOut(CommandType commandType) {
+        /*
+         * Write a serial command to the device. The device won't reply to serial commands. The command stays
+         * outstanding until it is written, so the next command for the connector can't overtake it.
+         */
+        private void writeSerial(RequestMessage request) {
+            String deviceReply = "successful";
+            DataOutputStream out = getOut(request.getCommandType());
+            if (out == null) {
+                logger.debug("Error writing to device because output stream object is null");
+                deviceReply = "ERROR: " + "No connection to device";
+            } else {
+                try {
+                    String charset = "ISO-8859-1";
+                    byte[] deviceCommand = URLDecoder.decode(request.getDeviceCommand(), charset).getBytes(charset);
+                    logger.debug("Decoded deviceCommand byte array: {}", getAsHexString(deviceCommand));
+                    synchronized (out) {
+                        out.write(deviceCommand);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    deviceReply = "ERROR: " + e.getMessage();
+                    onCommError(e);
+                }
+            }
+
+            // Otherwise the request already was completed when it expired or the connection was lost
+            if (pipeline.remove(request)) {
+                complete(request, deviceReply);
+            }
+            sendRequests();
+        }
+
+        private String getAsHexString(byte[] b) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int j = 0; j < b.length; j++) {
+                String s = String.format("%02x ", b[j] & 0xff);
+                sb.append(s);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public synchronized SocketChannel getChannel() {
+            return commandConnection.getChannel();
+        }
+
+        @Override
+        public synchronized void setSelectionKey(SelectionKey key) {
+            selectionKey = key;
+            setWriteInterest(!pendingWrites.isEmpty());
+        }
+
+        @Override
+        public void onWritable() {
+            IOException error = null;
+            synchronized (this) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null) {
+                onCommError(error);
+            }
+        }
+
+        /*
+         * Read the replies from the device, then remove the CR at the end of the lines, and hand each reply to
+         * the outstanding command it belongs to.
+         */
+        @Override
+        public void onReadable() {
+            List<String> replies = new LinkedList<>();
+            try {
+                synchronized (this) {
+                    SocketChannel channel = commandConnection.getChannel();
+                    if (channel == null) {
+                        return;
+                    }
+                    int count;
+                    while ((count = channel.read(readBuffer)) > 0) {
+                        readBuffer.flip();
+                        while (readBuffer.hasRemaining()) {
+                            char c = (char) (readBuffer.get() & 0xff);
+                            if (c == '\r' || c == '\n') {
+                                String reply = replyLine.toString().trim();
+                                if (!reply.isEmpty()) {
+                                    replies.add(reply);
+                                }
+                                replyLine.setLength(0);
+                            } else {
+                                replyLine.append(c);
+                            }
+                        }
+                        readBuffer.clear();
+                    }
+                    if (count < 0) {
+                        throw new IOException("Connection closed by device");
+                    }
+                }
+            } catch (IOException e) {
+                onCommError(e);
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            for (String reply : replies) {
+                logger.trace("Connection manager for thing {} received reply: {}", thingID(), reply);
+                RequestMessage request = pipeline.takeReply(reply);
+                if (request != null) {
+                    logger.debug("Transaction '{}' for thing {} at {} took {} ms", request.getCommandName(), thingID(),
+                            getIP(), now - request.getSendTime());
+                    complete(request, reply);
+                }
+            }
+            if (!replies.isEmpty()) {
+                sendRequests();
+            }
+        }
+
+        @Override
+        public void onTick(long now) {
+            List<RequestMessage> expired = pipeline.takeExpired(now - RESPONSE_TIMEOUT);
+            for (RequestMessage request : expired) {
+                logger.debug("Transaction '{}' for thing {} at {} timed out", request.getCommandName(), thingID(),
+                        getIP());
+                complete(request, "ERROR: " + "Timed out waiting for reply from device");
+            }
+            if (!expired.isEmpty()) {
+                sendRequests();
+            }
+        }
+
+        /*
+         * Hand the reply to the command on the binding's thread pool.
+         */
+        private void complete(RequestMessage request, String deviceReply) {
+            logger.trace("Connection manager for thing {} dispatching response message: {}", thingID(), deviceReply);
+            transport.getExecutor().execute(() -> request.complete(new ResponseMessage(deviceReply)));
+        }
+
+        private void completeAll(String deviceReply) {
+            for (RequestMessage request : pipeline.takeAll()) {
+                complete(request, deviceReply);
+            }
+        }
+
+        /*
+         * Retrieve the output streams for serial connections.
+         */
+        protected synchronized DataOutputStream getOut(CommandType commandType) {
             if (commandType == CommandType.SERIAL1) {
                 return serial1Connection.getOut();
             } else if (commandType == CommandType.SERIAL2) {
                 return serial2Connection.getOut();
-            } else {
-                return commandConnection.getOut();
             }
+            return null;
         }
 
         private boolean deviceSupportsSerial1() {
@@ -766,7 +1014,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
          */
         private void scheduleConnectionMonitorJob() {
             logger.debug("Starting connection monitor job for thing {} at IP {}", thingID(), commandConnection.getIP());
-            connectionMonitorJob = scheduler.scheduleWithFixedDelay(connectionMonitorRunnable,
+            connectionMonitorJob = transport.getExecutor().scheduleWithFixedDelay(connectionMonitorRunnable,
                     CONNECTION_MONITOR_START_DELAY, CONNECTION_MONITOR_FREQUENCY, TimeUnit.SECONDS);
         }
 
@@ -780,25 +1028,33 @@ public class GlobalCacheHandler extends BaseThingHandler {
         }
 
         private void checkConnection() {
-            CommandGetversion getversion = new CommandGetversion(thing, sendQueue);
-            getversion.executeQuiet();
-
-            if (getversion.isSuccessful()) {
-                logger.trace("Connection check successful for thing {} at IP {}", thingID(), commandConnection.getIP());
-                markThingOnline();
-                deviceIsConnected = true;
-            } else {
-                logger.trace("Connection check failed for thing {} at IP {}", thingID(), commandConnection.getIP());
-                disconnect();
+            // Commands still waiting for a reply will time out if the connection is broken
+            if (isConnected() && pipeline.hasOutstanding()) {
+                logger.trace("Skipping connection check for busy thing {} at IP {}", thingID(),
+                        commandConnection.getIP());
+                return;
             }
+
+            CommandGetversion getversion = new CommandGetversion(thing, pipeline);
+            getversion.executeQuiet(() -> {
+                if (getversion.isSuccessful()) {
+                    logger.trace("Connection check successful for thing {} at IP {}", thingID(),
+                            commandConnection.getIP());
+                    markThingOnline();
+                } else {
+                    logger.trace("Connection check failed for thing {} at IP {}", thingID(), commandConnection.getIP());
+                    disconnect("Connection check failed");
+                }
+            });
         }
     }
 
     /*
      * The {@link DeviceConnection} class stores information about the connection to a globalcache device.
      * There can be two types of connections, command and serial. The command connection is used to
-     * send all but the serial strings to the device. The serial connection is used exclusively to
-     * send serial messages. These serial connections are applicable only to iTach SL and GC-100 devices.
+     * send all but the serial strings to the device, and is a non-blocking channel. The serial connection is
+     * used exclusively to send serial messages. These serial connections are applicable only to iTach SL and
+     * GC-100 devices.
      *
      * @author Mark Hilbush - Initial contribution
      */
@@ -807,7 +1063,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
         private int port;
         private String ipAddress;
         private Socket socket;
-        private BufferedReader in;
+        private SocketChannel channel;
         private DataOutputStream out;
 
         DeviceConnection(String connectionName, int port) {
@@ -815,13 +1071,13 @@ public class GlobalCacheHandler extends BaseThingHandler {
             setPort(port);
             setIP(null);
             setSocket(null);
-            setIn(null);
+            setChannel(null);
             setOut(null);
         }
 
         public void reset() {
             setSocket(null);
-            setIn(null);
+            setChannel(null);
             setOut(null);
         }
 
@@ -857,12 +1113,12 @@ public class GlobalCacheHandler extends BaseThingHandler {
             this.socket = socket;
         }
 
-        public BufferedReader getIn() {
-            return in;
+        public SocketChannel getChannel() {
+            return channel;
         }
 
-        public void setIn(BufferedReader in) {
-            this.in = in;
+        public void setChannel(SocketChannel channel) {
+            this.channel = channel;
         }
 
         public DataOutputStream getOut() {
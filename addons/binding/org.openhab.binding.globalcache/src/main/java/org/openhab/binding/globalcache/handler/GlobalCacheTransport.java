@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.globalcache.handler;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link GlobalCacheTransport} is shared by all {@link GlobalCacheHandler}s of the binding. A single selector
+ * thread waits for replies on the command connections of all devices, and hands them to the connection they
+ * were received on. Connecting, writing to the serial ports and dispatching the replies to the commands is done
+ * on the binding's thread pool, so no thread is bound to a single device.
+ *
+ * The selector thread is started with the first registered connection and stops once the last connection has
+ * been unregistered.
+ *
+ * @author agent - Initial contribution
+ */
+class GlobalCacheTransport {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalCacheTransport.class);
+
+    /**
+     * The name of the thread pool shared by all things of the binding
+     */
+    private static final String THREAD_POOL_NAME = "globalcache";
+
+    /**
+     * Interval (in ms) at which the connections are asked to expire unanswered requests
+     */
+    static final int TICK_INTERVAL = 500;
+
+    private static final GlobalCacheTransport INSTANCE = new GlobalCacheTransport();
+
+    /**
+     * A connection to a device registered with the transport
+     */
+    interface Session {
+        SocketChannel getChannel();
+
+        void setSelectionKey(SelectionKey key);
+
+        void onReadable();
+
+        void onWritable();
+
+        void onTick(long now);
+    }
+
+    // Registered sessions
+    private final Set<Session> sessions = new CopyOnWriteArraySet<>();
+
+    // Guarded by this, null if no session is registered
+    private Queue<Session> pendingRegistrations;
+    private Selector selector;
+
+    private GlobalCacheTransport() {
+    }
+
+    static GlobalCacheTransport getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the bounded thread pool shared by all things of the binding
+     */
+    ScheduledExecutorService getExecutor() {
+        return ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME);
+    }
+
+    /**
+     * Registers the channel of the session for reading. The channel must be connected and non-blocking.
+     *
+     * @throws IOException if the selector could not be opened
+     */
+    synchronized void register(Session session) throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+            pendingRegistrations = new ConcurrentLinkedQueue<>();
+            final Selector currentSelector = selector;
+            final Queue<Session> registrations = pendingRegistrations;
+            Thread thread = new Thread(() -> runSelector(currentSelector, registrations),
+                    "OH-binding-globalcache-socket");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        sessions.add(session);
+        pendingRegistrations.add(session);
+        selector.wakeup();
+    }
+
+    /**
+     * Unregisters the session. The session is responsible for closing its channel.
+     *
+     * @param key the {@link SelectionKey} of the session, may be null if the registration wasn't processed yet
+     */
+    synchronized void unregister(Session session, SelectionKey key) {
+        if (key != null) {
+            key.cancel();
+        }
+        if (sessions.remove(session) && sessions.isEmpty() && selector != null) {
+            logger.debug("Last connection unregistered, stopping selector");
+            try {
+                // wakes up the selector thread which will then end
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Exception closing selector: {}", e.getMessage());
+            }
+            selector = null;
+            pendingRegistrations = null;
+        }
+    }
+
+    private void runSelector(Selector currentSelector, Queue<Session> registrations) {
+        long lastTick = System.currentTimeMillis();
+        while (currentSelector.isOpen()) {
+            try {
+                processRegistrations(currentSelector, registrations);
+                currentSelector.select(TICK_INTERVAL);
+                if (!currentSelector.isOpen()) {
+                    break;
+                }
+
+                Iterator<SelectionKey> it = currentSelector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+
+                    Session session = (Session) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            session.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.onWritable();
+                        }
+                    } catch (CancelledKeyException e) {
+                        // session was disconnected while processing
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastTick >= TICK_INTERVAL) {
+                    lastTick = now;
+                    for (Session session : sessions) {
+                        session.onTick(now);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Exception in selector: {}", e.getMessage(), e);
+            } catch (RuntimeException e) {
+                if (currentSelector.isOpen()) {
+                    logger.warn("Uncaught exception in selector: {}", e.getMessage(), e);
+                }
+            }
+        }
+        logger.debug("Selector stopped");
+    }
+
+    /**
+     * Registers the channels of all pending sessions with the selector (which can only be done while the
+     * selector isn't selecting)
+     */
+    private void processRegistrations(Selector currentSelector, Queue<Session> registrations) {
+        Session session;
+        while ((session = registrations.poll()) != null) {
+            SocketChannel channel = session.getChannel();
+            if (channel == null || !channel.isOpen()) {
+                continue;
+            }
+            try {
+                session.setSelectionKey(channel.register(currentSelector, SelectionKey.OP_READ, session));
+            } catch (ClosedChannelException e) {
+                // session disconnected before we got to register it
+            }
+        }
+    }
+}
@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,10 +26,7 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractCommand implements CommandInterface {
     private final Logger logger = LoggerFactory.getLogger(AbstractCommand.class);
 
-    private LinkedBlockingQueue<RequestMessage> requestQueue;
-
-    private final int RESPONSE_QUEUE_MAX_DEPTH = 1;
-    private final int RESPONSE_QUEUE_TIMEOUT = 3000;
+    private CommandPipeline pipeline;
 
     protected Thing thing;
 
@@ -57,14 +52,17 @@ public abstract class AbstractCommand implements CommandInterface {
 
     private boolean isQuiet;
 
+    // Run once the command has completed, successfully or not
+    private Runnable completionCallback;
+
     /*
      * The {@link AbstractCommand} abstract class is the basis for all GlobalCache device command classes.
      *
      * @author Mark Hilbush - Initial contribution
      */
-    public AbstractCommand(Thing t, LinkedBlockingQueue<RequestMessage> q, String n, CommandType c) {
+    public AbstractCommand(Thing t, CommandPipeline p, String n, CommandType c) {
         thing = t;
-        requestQueue = q;
+        pipeline = p;
         commandName = n;
         commandType = c;
         setQuiet(false);
@@ -101,6 +99,10 @@ public abstract class AbstractCommand implements CommandInterface {
         connector = c;
     }
 
+    protected CommandPipeline getPipeline() {
+        return pipeline;
+    }
+
     public void setCommandType(CommandType commandType) {
         this.commandType = commandType;
     }
@@ -145,82 +147,77 @@ public abstract class AbstractCommand implements CommandInterface {
     }
 
     /*
-     * Execute a GlobalCache device command
+     * Execute a GlobalCache device command. The command is queued for the device and the method returns
+     * immediately. The device's reply is parsed and logged asynchronously, after which the callback, if
+     * not null, is run.
      */
-    public void executeQuiet() {
+    public void executeQuiet(Runnable callback) {
         setQuiet(true);
-        execute();
+        execute(callback);
     }
 
     public void execute() {
-        if (requestQueue == null) {
-            createGenericError("Execute method was called with a null requestQueue");
+        execute(null);
+    }
+
+    public void execute(Runnable callback) {
+        completionCallback = callback;
+
+        if (pipeline == null) {
+            createGenericError("Execute method was called with a null pipeline");
+            complete();
             return;
         }
 
         if (deviceCommand == null) {
             createGenericError("Execute method was called with a null deviceCommand");
+            complete();
             return;
         }
 
         if (thing == null) {
             createGenericError("Execute method was called with a null thing");
+            complete();
             return;
         }
 
-        // Send command & get response
-        if (sendCommand()) {
-            parseSuccessfulReply();
-            if (!isQuiet()) {
-                logSuccess();
-            }
-        } else {
-            if (!isQuiet()) {
-                logFailure();
-            }
+        String address = module != null && connector != null ? module + ":" + connector : null;
+        RequestMessage requestMsg = new RequestMessage(commandName, commandType, deviceCommand, address,
+                this::onResponse);
+
+        if (!pipeline.submit(requestMsg)) {
+            createGenericError("Request queue is full, command was rejected");
+            complete();
+            return;
         }
-        return;
+        logger.trace("Put request on queue, sent command '{}'", deviceCommand);
     }
 
     /*
-     * Place a request message onto the request queue, then wait on the response queue for the
-     * response message. The CommandHandler private class in GlobalCacheHandler.java
-     * is responsible for the actual device interaction.
+     * Called with the device's reply by the GlobalCacheHandler, which is responsible for the actual
+     * device interaction.
      */
-    private boolean sendCommand() {
-        // Create a response queue. The command processor will use this queue to return the device's reply.
-        LinkedBlockingQueue<ResponseMessage> responseQueue = new LinkedBlockingQueue<ResponseMessage>(
-                RESPONSE_QUEUE_MAX_DEPTH);
+    private void onResponse(ResponseMessage responseMsg) {
+        deviceReply = responseMsg.getDeviceReply();
+        logger.trace("Got response message, received reply '{}'", deviceReply);
 
-        // Create the request message
-        RequestMessage requestMsg = new RequestMessage(commandName, commandType, deviceCommand, responseQueue);
-
-        try {
-            // Put the request message on the request queue
-            requestQueue.put(requestMsg);
-            logger.trace("Put request on queue (depth={}), sent command '{}'", requestQueue.size(), deviceCommand);
-
-            // Wait on the response queue for the response message
-            ResponseMessage responseMsg = responseQueue.poll(RESPONSE_QUEUE_TIMEOUT, TimeUnit.MILLISECONDS);
-
-            if (responseMsg == null) {
-                createGenericError("Timed out waiting on response queue for message");
-                return false;
-            }
-
-            deviceReply = responseMsg.getDeviceReply();
-            logger.trace("Got response message off response queue, received reply '{}'", deviceReply);
+        if (!isErrorReply(deviceReply)) {
+            parseSuccessfulReply();
+        }
+        complete();
+    }
 
-            if (isErrorReply(deviceReply)) {
-                return false;
+    private void complete() {
+        if (!isQuiet()) {
+            if (isSuccessful()) {
+                logSuccess();
+            } else {
+                logFailure();
             }
-
-        } catch (InterruptedException e) {
-            createGenericError("Poll of response queue was interrupted");
-            return false;
         }
-
-        return true;
+        if (completionCallback != null) {
+            completionCallback.run();
+        }
     }
 
     /*
@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 import org.eclipse.smarthome.core.thing.Thing;
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
 import org.slf4j.Logger;
@@ -24,8 +22,8 @@ public class CommandGetdevices extends AbstractCommand {
 
     private final Logger logger = LoggerFactory.getLogger(CommandGetdevices.class);
 
-    public CommandGetdevices(Thing thing, LinkedBlockingQueue<RequestMessage> requestQueue) {
-        super(thing, requestQueue, "getdevices", CommandType.COMMAND);
+    public CommandGetdevices(Thing thing, CommandPipeline pipeline) {
+        super(thing, pipeline, "getdevices", CommandType.COMMAND);
         deviceCommand = "getdevices";
     }
 
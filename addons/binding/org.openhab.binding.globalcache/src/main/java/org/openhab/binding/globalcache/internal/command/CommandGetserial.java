@@ -8,7 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,8 +30,10 @@ public class CommandGetserial extends AbstractCommand {
     private String flow;
     private String parity;
 
-    public CommandGetserial(Thing thing, LinkedBlockingQueue<RequestMessage> requestQueue, String mod, String con) {
-        super(thing, requestQueue, "get_SERIAL", CommandType.COMMAND);
+    public CommandGetserial(Thing thing, CommandPipeline pipeline, String mod, String con) {
+        super(thing, pipeline, "get_SERIAL", CommandType.COMMAND);
+        setModule(mod);
+        setConnector(con);
 
         deviceCommand = "get_SERIAL," + mod + ":" + con;
     }
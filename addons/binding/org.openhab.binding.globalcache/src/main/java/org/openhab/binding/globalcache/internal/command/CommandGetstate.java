@@ -8,7 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,8 +29,10 @@ public class CommandGetstate extends AbstractCommand {
 
     private OnOffType state;
 
-    public CommandGetstate(Thing thing, LinkedBlockingQueue<RequestMessage> requestQueue, String mod, String con) {
-        super(thing, requestQueue, "getstate", CommandType.COMMAND);
+    public CommandGetstate(Thing thing, CommandPipeline pipeline, String mod, String con) {
+        super(thing, pipeline, "getstate", CommandType.COMMAND);
+        setModule(mod);
+        setConnector(con);
         deviceCommand = "getstate," + mod + ":" + con;
     }
 
@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 import org.eclipse.smarthome.core.thing.Thing;
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
 import org.slf4j.Logger;
@@ -27,8 +25,8 @@ public class CommandGetversion extends AbstractCommand {
 
     private String version;
 
-    public CommandGetversion(Thing thing, LinkedBlockingQueue<RequestMessage> requestQueue) {
-        super(thing, requestQueue, "getversion", CommandType.COMMAND);
+    public CommandGetversion(Thing thing, CommandPipeline pipeline) {
+        super(thing, pipeline, "getversion", CommandType.COMMAND);
         deviceCommand = "getversion";
     }
 
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.globalcache.internal.command;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * The {@link CommandPipeline} class holds the requests for a single GlobalCache device. Requests are queued per
+ * module:connector address, and one request per address may be outstanding at the device at any time, so
+ * that e.g. an IR command to one connector doesn't wait for the completeir of an IR command to another
+ * connector. The device's replies carry the module:connector address (completeir,1:1,<ID>, state,1:3,0,
+ * ERR_1:1,001), which is used to correlate them to the outstanding request. Requests which aren't addressed
+ * to a connector (e.g. getversion) are sent only when no other request is outstanding.
+ *
+ * The number of queued requests is bounded. A request is rejected when the queue is full instead of
+ * blocking the caller.
+ *
+ * @author agent - Initial contribution
+ */
+public class CommandPipeline {
+    private final Logger logger = LoggerFactory.getLogger(CommandPipeline.class);
+
+    // Key of the queue of requests which aren't addressed to a connector
+    private static final String NO_ADDRESS = "";
+
+    private final int maxDepth;
+    private final Runnable sendTrigger;
+
+    // Queued requests by address, guarded by this
+    private final Map<String, LinkedList<RequestMessage>> queues = new LinkedHashMap<>();
+    private int queued;
+    private long sequence;
+
+    // Requests sent to the device by address, in the order they were sent, guarded by this
+    private final LinkedHashMap<String, RequestMessage> outstanding = new LinkedHashMap<>();
+
+    /*
+     * Create a pipeline holding at most maxDepth queued requests. The sendTrigger is run whenever a request
+     * has been queued, and is expected to send the requests returned by takeSendable().
+     */
+    public CommandPipeline(int maxDepth, Runnable sendTrigger) {
+        this.maxDepth = maxDepth;
+        this.sendTrigger = sendTrigger;
+    }
+
+    /*
+     * Queue a request. Returns false if the queue is full.
+     */
+    public boolean submit(RequestMessage request) {
+        synchronized (this) {
+            if (queued >= maxDepth) {
+                return false;
+            }
+            String key = keyOf(request);
+            LinkedList<RequestMessage> queue = queues.get(key);
+            if (queue == null) {
+                queue = new LinkedList<>();
+                queues.put(key, queue);
+            }
+            request.setSequence(sequence++);
+            queue.add(request);
+            queued++;
+        }
+        sendTrigger.run();
+        return true;
+    }
+
+    /*
+     * Replace the command of the last queued request for the address by the command returned by the merger,
+     * so that the new command doesn't need to be queued. Returns false if no request for the address is queued
+     * (requests already sent to the device can't be changed), or if the merger returns null.
+     */
+    public synchronized boolean merge(String address, Function<String, String> merger) {
+        LinkedList<RequestMessage> queue = queues.get(address);
+        RequestMessage request = queue != null ? queue.peekLast() : null;
+        if (request == null) {
+            return false;
+        }
+        String mergedCommand = merger.apply(request.getDeviceCommand());
+        if (mergedCommand == null) {
+            return false;
+        }
+        request.setDeviceCommand(mergedCommand);
+        return true;
+    }
+
+    /*
+     * Take the requests which can be sent to the device now, and mark them as outstanding.
+     */
+    public synchronized List<RequestMessage> takeSendable(long now) {
+        List<RequestMessage> sendable = new ArrayList<>();
+        if (outstanding.containsKey(NO_ADDRESS)) {
+            return sendable;
+        }
+
+        // Unaddressed requests wait until the device has answered all earlier requests, and later requests
+        // wait for the unaddressed ones
+        LinkedList<RequestMessage> unaddressed = queues.get(NO_ADDRESS);
+        long barrier = unaddressed != null && !unaddressed.isEmpty() ? unaddressed.peek().getSequence()
+                : Long.MAX_VALUE;
+
+        for (Map.Entry<String, LinkedList<RequestMessage>> entry : queues.entrySet()) {
+            String key = entry.getKey();
+            RequestMessage head = entry.getValue().peek();
+            if (!key.equals(NO_ADDRESS) && head != null && head.getSequence() < barrier
+                    && !outstanding.containsKey(key)) {
+                sendable.add(take(key, entry.getValue(), now));
+            }
+        }
+
+        if (sendable.isEmpty() && outstanding.isEmpty() && barrier != Long.MAX_VALUE) {
+            sendable.add(take(NO_ADDRESS, unaddressed, now));
+        }
+        return sendable;
+    }
+
+    private RequestMessage take(String key, LinkedList<RequestMessage> queue, long now) {
+        RequestMessage request = queue.poll();
+        queued--;
+        request.setSendTime(now);
+        outstanding.put(key, request);
+        return request;
+    }
+
+    /*
+     * Remove an outstanding request which doesn't get a reply from the device (i.e. a serial command). Returns
+     * false if the request isn't outstanding anymore, e.g. because it expired or the connection was lost.
+     */
+    public synchronized boolean remove(RequestMessage request) {
+        return outstanding.remove(keyOf(request), request);
+    }
+
+    /*
+     * Find and remove the outstanding request a reply of the device belongs to. Replies without a
+     * module:connector address (e.g. the version string, or a GC-100 unknowncommand error) belong to the
+     * oldest outstanding request.
+     */
+    public synchronized RequestMessage takeReply(String reply) {
+        String address = parseAddress(reply);
+        if (address != null) {
+            RequestMessage request = outstanding.remove(address);
+            if (request == null) {
+                // e.g. the late reply to a request which has timed out
+                logger.debug("Discarding reply '{}' which matches no outstanding request", reply);
+            }
+            return request;
+        }
+        if (outstanding.isEmpty()) {
+            logger.debug("Discarding reply '{}' as no request is outstanding", reply);
+            return null;
+        }
+        Iterator<RequestMessage> iterator = outstanding.values().iterator();
+        RequestMessage request = iterator.next();
+        iterator.remove();
+        return request;
+    }
+
+    /*
+     * Remove and return the outstanding requests which were sent before the given time.
+     */
+    public synchronized List<RequestMessage> takeExpired(long sentBefore) {
+        List<RequestMessage> expired = new ArrayList<>();
+        Iterator<RequestMessage> iterator = outstanding.values().iterator();
+        while (iterator.hasNext()) {
+            RequestMessage request = iterator.next();
+            if (request.getSendTime() < sentBefore) {
+                expired.add(request);
+                iterator.remove();
+            }
+        }
+        return expired;
+    }
+
+    /*
+     * Remove and return all queued and outstanding requests.
+     */
+    public synchronized List<RequestMessage> takeAll() {
+        List<RequestMessage> all = new ArrayList<>(outstanding.values());
+        outstanding.clear();
+        for (LinkedList<RequestMessage> queue : queues.values()) {
+            all.addAll(queue);
+        }
+        queues.clear();
+        queued = 0;
+        return all;
+    }
+
+    public synchronized boolean hasOutstanding() {
+        return !outstanding.isEmpty();
+    }
+
+    private String keyOf(RequestMessage request) {
+        return request.getAddress() == null ? NO_ADDRESS : request.getAddress();
+    }
+
+    /*
+     * Extract the m:c address from a reply of the form name,m:c,... or ERR_m:c,eee
+     */
+    static String parseAddress(String reply) {
+        int colon = reply.indexOf(':');
+        if (colon < 1 || colon + 1 >= reply.length()) {
+            return null;
+        }
+        int start = colon;
+        while (start > 0 && Character.isDigit(reply.charAt(start - 1))) {
+            start--;
+        }
+        int end = colon + 1;
+        while (end < reply.length() && Character.isDigit(reply.charAt(end))) {
+            end++;
+        }
+        if (start == colon || end == colon + 1 || (start > 0 && reply.charAt(start - 1) != ','
+                && reply.charAt(start - 1) != '_')) {
+            return null;
+        }
+        return reply.substring(start, end);
+    }
+}
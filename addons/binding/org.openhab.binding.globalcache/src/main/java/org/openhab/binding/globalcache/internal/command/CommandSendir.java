@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
@@ -26,17 +24,61 @@ public class CommandSendir extends AbstractCommand {
 
     private final Logger logger = LoggerFactory.getLogger(CommandSendir.class);
 
+    // Highest repeat count accepted by all devices (iTach accepts up to 50, GC-100 up to 31)
+    private static final int MAX_REPEAT = 31;
+
     private String rcvCounter;
     Command command;
 
-    public CommandSendir(Thing thing, Command command, LinkedBlockingQueue<RequestMessage> queue, String mod,
+    public CommandSendir(Thing thing, Command command, CommandPipeline pipeline, String mod,
             String con, String code, int sendCounter) {
-        super(thing, queue, "sendir", CommandType.COMMAND);
+        super(thing, pipeline, "sendir", CommandType.COMMAND);
+        setModule(mod);
+        setConnector(con);
 
         this.command = command;
         deviceCommand = "sendir," + mod + ":" + con + "," + String.valueOf(sendCounter) + "," + code;
     }
 
+    /*
+     * Execute the command or, if the same IR code is still queued for the connector (e.g. while a key is held),
+     * add its repeat count to the queued command instead, so that the repeat doesn't need a frame and a device
+     * round trip of its own.
+     */
+    public void executeMerged() {
+        CommandPipeline pipeline = getPipeline();
+        if (pipeline != null && pipeline.merge(module + ":" + connector, this::mergeRepeat)) {
+            logger.debug("Merged '{}' for command {} on thing {} at {} into queued command", commandName,
+                    command.toString(), thing.getUID().getId(), ipAddress);
+            return;
+        }
+        execute();
+    }
+
+    /*
+     * Merge into a queued command of form sendir,m:c,<ID>,<frequency>,<repeat>,<offset>,<on/off pairs>
+     */
+    private String mergeRepeat(String queuedCommand) {
+        String[] queued = queuedCommand.split(",", 6);
+        String[] fields = deviceCommand.split(",", 6);
+        if (queued.length != 6 || fields.length != 6 || !queued[0].equals("sendir") || !queued[3].equals(fields[3])
+                || !queued[5].equals(fields[5])) {
+            return null;
+        }
+
+        int repeat;
+        try {
+            repeat = Integer.parseInt(queued[4]) + Integer.parseInt(fields[4]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (repeat > MAX_REPEAT) {
+            return null;
+        }
+        queued[4] = String.valueOf(repeat);
+        return String.join(",", queued);
+    }
+
     @Override
     public void parseSuccessfulReply() {
         if (deviceReply == null) {
@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
-
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
@@ -26,9 +24,11 @@ public class CommandSendserial extends AbstractCommand {
 
     private Command command;
 
-    public CommandSendserial(Thing thing, Command command, LinkedBlockingQueue<RequestMessage> queue, String mod,
+    public CommandSendserial(Thing thing, Command command, CommandPipeline pipeline, String mod,
             String con, String code) {
-        super(thing, queue, "sendserial", CommandType.SERIAL1);
+        super(thing, pipeline, "sendserial", CommandType.SERIAL1);
+        setModule(mod);
+        setConnector(con);
         // Check to see if this is for the second serial port on a GC-100-12
         if (isGC_100_12() && mod.equals("2")) {
             setCommandType(CommandType.SERIAL2);
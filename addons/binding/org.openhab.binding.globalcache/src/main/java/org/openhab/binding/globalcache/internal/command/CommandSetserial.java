@@ -8,7 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,9 +30,11 @@ public class CommandSetserial extends AbstractCommand {
     private String flow;
     private String parity;
 
-    public CommandSetserial(Thing thing, LinkedBlockingQueue<RequestMessage> requestQueue, String mod, String con,
+    public CommandSetserial(Thing thing, CommandPipeline pipeline, String mod, String con,
             String baud, String flowcontrol, String parity) {
-        super(thing, requestQueue, "set_SERIAL", CommandType.COMMAND);
+        super(thing, pipeline, "set_SERIAL", CommandType.COMMAND);
+        setModule(mod);
+        setConnector(con);
 
         deviceCommand = "set_SERIAL," + mod + ":" + con + "," + baud + "," + flowcontrol + "," + parity;
     }
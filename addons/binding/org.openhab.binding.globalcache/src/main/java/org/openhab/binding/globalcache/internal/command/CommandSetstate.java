@@ -8,7 +8,6 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,9 +30,11 @@ public class CommandSetstate extends AbstractCommand {
     private Command command;
     private OnOffType state;
 
-    public CommandSetstate(Thing thing, Command command, LinkedBlockingQueue<RequestMessage> queue, String mod,
+    public CommandSetstate(Thing thing, Command command, CommandPipeline pipeline, String mod,
             String con) {
-        super(thing, queue, "setstate", CommandType.COMMAND);
+        super(thing, pipeline, "setstate", CommandType.COMMAND);
+        setModule(mod);
+        setConnector(con);
 
         this.command = command;
         if (command instanceof OnOffType) {
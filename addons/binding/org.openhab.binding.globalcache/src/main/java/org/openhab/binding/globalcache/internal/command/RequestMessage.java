@@ -8,34 +8,43 @@
  */
 package org.openhab.binding.globalcache.internal.command;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 import org.openhab.binding.globalcache.GlobalCacheBindingConstants.CommandType;
 
 /**
  * The {@link RequestMessage} class is responsible for storing the command to be sent to the GlobalCache
- * device and for storing whether the command is serial or not.
+ * device, the module:connector address the device's reply will carry, and the listener the reply is
+ * handed to.
  *
  * @author Mark Hilbush - Initial contribution
  */
 public class RequestMessage {
-    private LinkedBlockingQueue<ResponseMessage> rcvQueue;
+    private Consumer<ResponseMessage> listener;
     private String deviceCommand;
     private CommandType commandType;
     private String commandName;
+    private String address;
+    private long sequence;
+    private long sendTime;
 
-    public RequestMessage(String commandName, CommandType commandType, String deviceCommand,
-            LinkedBlockingQueue<ResponseMessage> rcvQueue) {
+    public RequestMessage(String commandName, CommandType commandType, String deviceCommand, String address,
+            Consumer<ResponseMessage> listener) {
         this.commandName = commandName;
         this.commandType = commandType;
         this.deviceCommand = deviceCommand;
-        this.rcvQueue = rcvQueue;
+        this.address = address;
+        this.listener = listener;
     }
 
     public String getDeviceCommand() {
         return deviceCommand;
     }
 
+    void setDeviceCommand(String deviceCommand) {
+        this.deviceCommand = deviceCommand;
+    }
+
     public String getCommandName() {
         return commandName;
     }
@@ -44,6 +53,14 @@ public class RequestMessage {
         return commandType;
     }
 
+    /*
+     * The module:connector address of the command, or null if the command (e.g. getversion) is not
+     * addressed to a connector.
+     */
+    public String getAddress() {
+        return address;
+    }
+
     public boolean isCommand() {
         return commandType == CommandType.COMMAND;
     }
@@ -60,7 +77,23 @@ public class RequestMessage {
         return commandType == CommandType.SERIAL2;
     }
 
-    public LinkedBlockingQueue<ResponseMessage> getReceiveQueue() {
-        return rcvQueue;
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getSendTime() {
+        return sendTime;
+    }
+
+    void setSendTime(long sendTime) {
+        this.sendTime = sendTime;
+    }
+
+    public void complete(ResponseMessage response) {
+        listener.accept(response);
     }
 }
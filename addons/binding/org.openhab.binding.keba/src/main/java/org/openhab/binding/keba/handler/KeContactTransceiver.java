@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.keba.handler;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link KeContactTransceiver} owns the UDP port the KEBA KeContact wallboxes talk to, and is shared by all
+ * the {@link KeContactP20Handler}s of the binding. Received datagrams are handed over to the handler of the
+ * wallbox they are sent by.
+ *
+ * Commands are queued per wallbox and sent by the single thread of the transceiver. The next command to a wallbox
+ * is sent as soon as it answered the previous one (or did not answer it in time), so that requests to several
+ * wallboxes are pipelined and no thread has to sleep in between them.
+ *
+ * @author agent - Initial contribution
+ */
+public class KeContactTransceiver {
+
+    public static final int REMOTE_PORT_NUMBER = 7090;
+    public static final int LISTENER_PORT_NUMBER = 7090;
+
+    public static final int BUFFER_SIZE = 1024;
+
+    /** Minimum time in milliseconds between two commands sent to the same wallbox **/
+    public static final int COMMAND_INTERVAL = 100;
+
+    /** Time in milliseconds after which a command is considered unanswered **/
+    public static final int RESPONSE_TIMEOUT = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger(KeContactTransceiver.class);
+
+    // the wallboxes by their network address
+    private final Map<InetAddress, Wallbox> wallboxes = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private Selector selector;
+    private DatagramChannel channel;
+
+    private static class Wallbox {
+        private final KeContactP20Handler handler;
+        private final InetSocketAddress address;
+
+        // guarded by the transceiver
+        private final LinkedList<String> commands = new LinkedList<>();
+        private boolean awaitingResponse = false;
+        private long lastSent = 0;
+
+        private Wallbox(KeContactP20Handler handler, InetSocketAddress address) {
+            this.handler = handler;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Registers the handler of the wallbox at the given address, and opens the UDP port if it is the first one.
+     *
+     * @throws IOException if the UDP port can not be opened
+     */
+    public synchronized void register(KeContactP20Handler handler, InetAddress address) throws IOException {
+        if (wallboxes.isEmpty()) {
+            start();
+        }
+        wallboxes.put(address, new Wallbox(handler, new InetSocketAddress(address, REMOTE_PORT_NUMBER)));
+    }
+
+    /**
+     * Unregisters the handler of a wallbox, and closes the UDP port if it was the last one.
+     */
+    public synchronized void unregister(KeContactP20Handler handler) {
+        wallboxes.values().removeIf(wallbox -> wallbox.handler == handler);
+        if (wallboxes.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Queues a command for the wallbox of the given handler. The command is not queued again if it is queued
+     * already.
+     */
+    public void send(KeContactP20Handler handler, String command) {
+        Selector currentSelector;
+        synchronized (this) {
+            for (Wallbox wallbox : wallboxes.values()) {
+                if (wallbox.handler == handler) {
+                    if (!wallbox.commands.contains(command)) {
+                        wallbox.commands.add(command);
+                    }
+                    break;
+                }
+            }
+            currentSelector = selector;
+        }
+        if (currentSelector != null) {
+            currentSelector.wakeup();
+        }
+    }
+
+    private void start() throws IOException {
+        selector = Selector.open();
+        try {
+            channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(LISTENER_PORT_NUMBER));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+        logger.debug("Listening for incoming data on {}", channel.getLocalAddress());
+
+        Selector currentSelector = selector;
+        DatagramChannel currentChannel = channel;
+        Thread thread = new Thread(() -> run(currentSelector, currentChannel), "KEBA transceiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void stop() {
+        // closing the selector ends the thread of the transceiver
+        closeQuietly();
+        selector = null;
+        channel = null;
+    }
+
+    private void closeQuietly() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.debug("An exception occurred while closing the channel: {}", e.getMessage());
+        }
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            logger.debug("An exception occurred while closing the selector: {}", e.getMessage());
+        }
+    }
+
+    private void run(Selector currentSelector, DatagramChannel currentChannel) {
+        ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        try {
+            while (currentSelector.isOpen()) {
+                long timeout = sendCommands(currentChannel);
+                currentSelector.select(timeout);
+                if (currentSelector.selectedKeys().isEmpty()) {
+                    continue;
+                }
+                currentSelector.selectedKeys().clear();
+
+                while (true) {
+                    readBuffer.clear();
+                    InetSocketAddress source = (InetSocketAddress) currentChannel.receive(readBuffer);
+                    if (source == null) {
+                        break;
+                    }
+                    readBuffer.flip();
+                    onReceived(source.getAddress(),
+                            new String(readBuffer.array(), 0, readBuffer.limit(), StandardCharsets.US_ASCII));
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // the transceiver is stopped
+        } catch (IOException e) {
+            if (currentSelector.isOpen()) {
+                logger.error("An exception occurred while communicating with the KEBA wallboxes: {}",
+                        e.getMessage());
+            }
+        } finally {
+            try {
+                currentChannel.close();
+                currentSelector.close();
+            } catch (IOException e) {
+                logger.debug("An exception occurred while closing the channel: {}", e.getMessage());
+            }
+            logger.debug("Stopped listening on port {}", LISTENER_PORT_NUMBER);
+        }
+    }
+
+    private void onReceived(InetAddress address, String response) {
+        Wallbox wallbox = wallboxes.get(address);
+        if (wallbox == null) {
+            logger.debug("Received '{}' from '{}' which is not a configured KEBA wallbox", response, address);
+            return;
+        }
+        logger.trace("Received '{}' from '{}'", response, address);
+
+        synchronized (this) {
+            wallbox.awaitingResponse = false;
+        }
+        try {
+            wallbox.handler.onData(response);
+        } catch (RuntimeException e) {
+            logger.error("An exception occurred while handling '{}' from '{}': {}", response, address,
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends the commands which are due.
+     *
+     * @return the time in milliseconds until the next command is due, 0 if no command is queued
+     **/
+    private long sendCommands(DatagramChannel currentChannel) {
+        long timeout = 0;
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            for (Wallbox wallbox : wallboxes.values()) {
+                if (wallbox.commands.isEmpty()) {
+                    continue;
+                }
+
+                long due = wallbox.lastSent + (wallbox.awaitingResponse ? RESPONSE_TIMEOUT : COMMAND_INTERVAL);
+                if (now < due) {
+                    timeout = timeout == 0 ? due - now : Math.min(timeout, due - now);
+                    continue;
+                }
+                if (wallbox.awaitingResponse) {
+                    logger.debug("No response received from '{}' within {} ms", wallbox.address, RESPONSE_TIMEOUT);
+                }
+
+                String command = wallbox.commands.poll();
+                try {
+                    logger.debug("Sending '{}' to '{}'", command, wallbox.address);
+                    currentChannel.send(ByteBuffer.wrap(command.getBytes(StandardCharsets.US_ASCII)),
+                            wallbox.address);
+                } catch (IOException e) {
+                    logger.debug("An exception occurred while sending '{}' to '{}': {}", command, wallbox.address,
+                            e.getMessage());
+                }
+                wallbox.lastSent = now;
+                wallbox.awaitingResponse = true;
+
+                if (!wallbox.commands.isEmpty()) {
+                    timeout = timeout == 0 ? RESPONSE_TIMEOUT : Math.min(timeout, RESPONSE_TIMEOUT);
+                }
+            }
+        }
+        return timeout;
+    }
+
+}
@@ -18,6 +18,7 @@ import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.openhab.binding.keba.handler.KeContactP20Handler;
+import org.openhab.binding.keba.handler.KeContactTransceiver;
 
 /**
  * The {@link KebaHandlerFactory} is responsible for creating things and thing
@@ -29,6 +30,9 @@ public class KebaHandlerFactory extends BaseThingHandlerFactory {
 
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Collections.singleton(THING_TYPE_KECONTACTP20);
 
+    // shared by all the wallboxes, as they all talk to the same UDP port
+    private final KeContactTransceiver transceiver = new KeContactTransceiver();
+
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
         return SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID);
@@ -40,7 +44,7 @@ public class KebaHandlerFactory extends BaseThingHandlerFactory {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (thingTypeUID.equals(THING_TYPE_KECONTACTP20)) {
-            return new KeContactP20Handler(thing);
+            return new KeContactP20Handler(thing, transceiver);
         }
 
         return null;
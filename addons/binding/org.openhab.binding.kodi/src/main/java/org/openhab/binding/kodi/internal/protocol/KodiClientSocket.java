@@ -9,9 +9,16 @@
 package org.openhab.binding.kodi.internal.protocol;
 
 import java.net.URI;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
@@ -24,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -32,6 +40,9 @@ import com.google.gson.JsonParser;
  * KodiClientSocket implements the low level communication to kodi through websocket. Usually this communication is done
  * through port 9090
  *
+ * Responses are matched to their request by id, so that multiple requests can be in flight at the same time. Requests
+ * that don't depend on each other can also be sent as a single batch.
+ *
  * @author Paul Frank
  *
  */
@@ -41,9 +52,10 @@ public class KodiClientSocket {
     private final ScheduledExecutorService scheduler;
     private static final int REQUEST_TIMEOUT_MS = 60000;
 
-    private CountDownLatch commandLatch = null;
-    private JsonObject commandResponse = null;
-    private int nextMessageId = 1;
+    private final AtomicInteger nextMessageId = new AtomicInteger(1);
+    private final Map<Integer, CompletableFuture<JsonElement>> pendingRequests = new ConcurrentHashMap<>();
+    // blocking sends must not overlap, Jetty rejects a send while another one is pending
+    private final Object sendLock = new Object();
 
     private boolean connected = false;
 
@@ -85,6 +97,7 @@ public class KodiClientSocket {
      * Close this connection to the kodi instance
      */
     public void close() {
+        failPendingRequests();
         // if there is an old web socket then clean up and destroy
         if (session != null) {
             try {
@@ -137,14 +150,20 @@ public class KodiClientSocket {
         @OnWebSocketMessage
         public void onMessage(String message) {
             logger.debug("Message received from server: {}", message);
-            final JsonObject json = parser.parse(message).getAsJsonObject();
-            if (json.has("id")) {
-                logger.debug("Response received from server: {}", json);
-                int messageId = json.get("id").getAsInt();
-                if (messageId == nextMessageId - 1) {
-                    commandResponse = json;
-                    commandLatch.countDown();
+            final JsonElement element = parser.parse(message);
+            if (element.isJsonArray()) {
+                // the responses of a batch
+                for (JsonElement response : element.getAsJsonArray()) {
+                    if (response.isJsonObject()) {
+                        handleResponse(response.getAsJsonObject());
+                    }
                 }
+                return;
+            }
+
+            final JsonObject json = element.getAsJsonObject();
+            if (json.has("id")) {
+                handleResponse(json);
             } else {
                 logger.debug("Event received from server: {}", json);
                 try {
@@ -175,6 +194,7 @@ public class KodiClientSocket {
             session = null;
             connected = false;
             logger.debug("Closing a WebSocket due to {}", reason);
+            failPendingRequests();
             scheduler.submit(new Runnable() {
 
                 @Override
@@ -190,11 +210,43 @@ public class KodiClientSocket {
     }
 
     private void sendMessage(String str) throws Exception {
-        if (isConnected()) {
-            logger.debug("send message: {}", str);
-            session.getRemote().sendString(str);
-        } else {
-            throw new Exception("socket not initialized");
+        synchronized (sendLock) {
+            Session currentSession = session;
+            if (isConnected() && currentSession != null) {
+                logger.debug("send message: {}", str);
+                currentSession.getRemote().sendString(str);
+            } else {
+                throw new Exception("socket not initialized");
+            }
+        }
+    }
+
+    private void handleResponse(JsonObject json) {
+        logger.debug("Response received from server: {}", json);
+        JsonElement id = json.get("id");
+        CompletableFuture<JsonElement> future = id != null && !id.isJsonNull()
+                ? pendingRequests.remove(id.getAsInt())
+                : null;
+        if (future == null) {
+            // the request timed out already
+            logger.debug("Ignoring response without pending request: {}", json);
+            return;
+        }
+        if (json.has("error")) {
+            logger.debug("Error response received from server: {}", json.get("error"));
+        }
+        future.complete(json.get("result"));
+    }
+
+    /**
+     * Completes all pending requests with a null result, as no response can be received anymore
+     */
+    private void failPendingRequests() {
+        for (Integer id : pendingRequests.keySet()) {
+            CompletableFuture<JsonElement> future = pendingRequests.remove(id);
+            if (future != null) {
+                future.complete(null);
+            }
         }
     }
 
@@ -202,32 +254,125 @@ public class KodiClientSocket {
         return callMethod(methodName, null);
     }
 
-    public synchronized JsonElement callMethod(String methodName, JsonObject params) {
-        try {
-            JsonObject payloadObject = new JsonObject();
-            payloadObject.addProperty("jsonrpc", "2.0");
-            payloadObject.addProperty("id", nextMessageId);
-            payloadObject.addProperty("method", methodName);
+    public JsonElement callMethod(String methodName, JsonObject params) {
+        return getResult(callMethodAsync(methodName, params));
+    }
 
-            if (params != null) {
-                payloadObject.add("params", params);
-            }
+    /**
+     * Sends a request without waiting for its response
+     *
+     * @param methodName the method to call
+     * @param params the parameters of the method, may be null
+     * @return a future completed with the result, or with null on error or timeout
+     */
+    public CompletableFuture<JsonElement> callMethodAsync(String methodName, JsonObject params) {
+        JsonObject payloadObject = createRequest(methodName, params);
+        CompletableFuture<JsonElement> future = addPendingRequest(payloadObject);
+        send(payloadObject);
+        return future;
+    }
+
+    /**
+     * Calls multiple methods with a single (batch) request
+     *
+     * @param methodNames the methods to call
+     * @param params the parameters of each method, entries may be null
+     * @return the result of each method, entries are null on error or timeout
+     */
+    public JsonElement[] callMethods(String[] methodNames, JsonObject[] params) {
+        List<CompletableFuture<JsonElement>> futures = callMethodsAsync(methodNames, params);
+        JsonElement[] results = new JsonElement[futures.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = getResult(futures.get(i));
+        }
+        return results;
+    }
 
-            String message = mapper.toJson(payloadObject);
+    /**
+     * Calls multiple methods with a single (batch) request without waiting for the responses
+     *
+     * @param methodNames the methods to call
+     * @param params the parameters of each method, entries may be null
+     * @return a future for each method, completed with the result, or with null on error or timeout
+     */
+    public List<CompletableFuture<JsonElement>> callMethodsAsync(String[] methodNames, JsonObject[] params) {
+        JsonArray batch = new JsonArray();
+        List<CompletableFuture<JsonElement>> futures = new ArrayList<>(methodNames.length);
+        for (int i = 0; i < methodNames.length; i++) {
+            JsonObject payloadObject = createRequest(methodNames[i], params[i]);
+            batch.add(payloadObject);
+            futures.add(addPendingRequest(payloadObject));
+        }
+        send(batch);
+        return futures;
+    }
 
-            commandLatch = new CountDownLatch(1);
-            commandResponse = null;
-            nextMessageId++;
+    private JsonObject createRequest(String methodName, JsonObject params) {
+        JsonObject payloadObject = new JsonObject();
+        payloadObject.addProperty("jsonrpc", "2.0");
+        payloadObject.addProperty("id", nextMessageId.getAndIncrement());
+        payloadObject.addProperty("method", methodName);
 
-            sendMessage(message);
-            if (commandLatch.await(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-                logger.debug("callMethod returns {}", commandResponse.toString());
-                return commandResponse.get("result");
-            } else {
-                logger.error("Timeout during callMethod({}, {})", methodName, params != null ? params.toString() : "");
-                return null;
+        if (params != null) {
+            payloadObject.add("params", params);
+        }
+        return payloadObject;
+    }
+
+    /**
+     * Registers the request so that its response can be matched, and schedules its timeout. A timed out request is
+     * completed with null and its late response will be ignored.
+     */
+    private CompletableFuture<JsonElement> addPendingRequest(final JsonObject payloadObject) {
+        final int id = payloadObject.get("id").getAsInt();
+        final CompletableFuture<JsonElement> future = new CompletableFuture<>();
+        pendingRequests.put(id, future);
+        final ScheduledFuture<?> timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (pendingRequests.remove(id, future)) {
+                    logger.error("Timeout during callMethod({}, {})", payloadObject.get("method").getAsString(),
+                            payloadObject.has("params") ? payloadObject.get("params").toString() : "");
+                    future.complete(null);
+                }
             }
+        }, REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, e) -> timeout.cancel(false));
+        return future;
+    }
+
+    private void send(JsonElement payload) {
+        try {
+            sendMessage(mapper.toJson(payload));
         } catch (Exception e) {
+            logger.error("Error during callMethod", e);
+            // complete the requests right away rather than on timeout
+            List<Integer> ids = new ArrayList<>();
+            if (payload.isJsonArray()) {
+                for (JsonElement request : payload.getAsJsonArray()) {
+                    ids.add(request.getAsJsonObject().get("id").getAsInt());
+                }
+            } else {
+                ids.add(payload.getAsJsonObject().get("id").getAsInt());
+            }
+            for (Integer id : ids) {
+                CompletableFuture<JsonElement> future = pendingRequests.remove(id);
+                if (future != null) {
+                    future.complete(null);
+                }
+            }
+        }
+    }
+
+    private JsonElement getResult(CompletableFuture<JsonElement> future) {
+        try {
+            JsonElement result = future.get();
+            logger.debug("callMethod returns {}", result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
             logger.error("Error during callMethod", e);
             return null;
         }
@@ -38,6 +38,8 @@ public class KodiConnection implements KodiClientSocketEventListener {
 
     private int volume = 0;
     private KodiState currentState = KodiState.Stop;
+    // the player that was active during the last status update, -1 if none
+    private int lastActivePlayer = -1;
 
     private final KodiEventListener listener;
 
@@ -66,7 +68,10 @@ public class KodiConnection implements KodiClientSocketEventListener {
     }
 
     private int getActivePlayer() {
-        JsonElement response = socket.callMethod("Player.GetActivePlayers");
+        return getActivePlayer(socket.callMethod("Player.GetActivePlayers"));
+    }
+
+    private int getActivePlayer(JsonElement response) {
         if (response != null) {
             boolean playing = response.isJsonArray() && response.getAsJsonArray().size() > 0;
             if (playing) {
@@ -167,43 +172,72 @@ public class KodiConnection implements KodiClientSocketEventListener {
         socket.callMethod("Application.SetMute", params);
     }
 
-    private int getSpeed(int activePlayer) {
+    private JsonObject getSpeedParams(int activePlayer) {
         final String[] properties = { "speed", "position" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetProperties", params);
-
-        JsonObject result = response.getAsJsonObject();
-        return result.get("speed").getAsInt();
+        return params;
     }
 
     public synchronized void updatePlayerStatus() {
         if (socket.isConnected()) {
-            int activePlayer = getActivePlayer();
+            int activePlayer;
+            JsonElement speedResponse = null;
+            JsonElement itemResponse = null;
+
+            if (lastActivePlayer >= 0) {
+                // Ask for the volume and the state of the player that was active last time along with the active
+                // players. Unless another player became active, this takes a single round trip.
+                JsonElement[] responses = socket.callMethods(
+                        new String[] { "Player.GetActivePlayers", "Application.GetProperties", "Player.GetProperties",
+                                "Player.GetItem" },
+                        new JsonObject[] { null, getVolumeParams(), getSpeedParams(lastActivePlayer),
+                                getItemParams(lastActivePlayer) });
+                activePlayer = getActivePlayer(responses[0]);
+                updateVolume(responses[1]);
+                if (activePlayer == lastActivePlayer) {
+                    speedResponse = responses[2];
+                    itemResponse = responses[3];
+                }
+            } else {
+                JsonElement[] responses = socket.callMethods(
+                        new String[] { "Player.GetActivePlayers", "Application.GetProperties" },
+                        new JsonObject[] { null, getVolumeParams() });
+                activePlayer = getActivePlayer(responses[0]);
+                updateVolume(responses[1]);
+            }
+
+            if (activePlayer >= 0 && (speedResponse == null || itemResponse == null)) {
+                JsonElement[] responses = socket.callMethods(
+                        new String[] { "Player.GetProperties", "Player.GetItem" },
+                        new JsonObject[] { getSpeedParams(activePlayer), getItemParams(activePlayer) });
+                speedResponse = responses[0];
+                itemResponse = responses[1];
+            }
+            lastActivePlayer = activePlayer;
+
             if (activePlayer >= 0) {
-                int speed = getSpeed(activePlayer);
-                if (speed == 0) {
-                    updateState(KodiState.Stop);
-                } else if (speed == 1) {
-                    updateState(KodiState.Play);
-                } else if (speed < 0) {
-                    updateState(KodiState.Rewind);
-                } else {
-                    updateState(KodiState.FastForward);
+                if (speedResponse instanceof JsonObject) {
+                    int speed = ((JsonObject) speedResponse).get("speed").getAsInt();
+                    if (speed == 0) {
+                        updateState(KodiState.Stop);
+                    } else if (speed == 1) {
+                        updateState(KodiState.Play);
+                    } else if (speed < 0) {
+                        updateState(KodiState.Rewind);
+                    } else {
+                        updateState(KodiState.FastForward);
+                    }
                 }
-                requestPlayerUpdate(activePlayer);
+                updatePlayerItem(itemResponse, true);
             } else {
                 updateState(KodiState.Stop);
             }
         }
     }
 
-    private void requestPlayerUpdate(int activePlayer) {
-        requestPlayerUpdate(activePlayer, true);
-    }
-
     private void updateFanartUrl(String imagePath) {
         if (imagePath == null || imagePath.isEmpty()) {
             return;
@@ -225,15 +259,25 @@ public class KodiConnection implements KodiClientSocketEventListener {
          */
     }
 
-    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+    private JsonObject getItemParams(int activePlayer) {
         final String[] properties = { "title", "album", "artist", "director", "thumbnail", "file", "fanart",
                 "showtitle", "streamdetails" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetItem", params);
+        return params;
+    }
+
+    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+        JsonElement response = socket.callMethod("Player.GetItem", getItemParams(activePlayer));
+        updatePlayerItem(response, updateMediaType);
+    }
 
+    private void updatePlayerItem(JsonElement response, boolean updateMediaType) {
+        if (!(response instanceof JsonObject)) {
+            return;
+        }
         JsonObject item = ((JsonObject) response).get("item").getAsJsonObject();
 
         String title = "";
@@ -443,33 +487,38 @@ public class KodiConnection implements KodiClientSocketEventListener {
     }
 
     public synchronized void close() {
+        lastActivePlayer = -1;
         socket = null;
     }
 
     public synchronized void updateVolume() {
         if (socket.isConnected()) {
-            String[] props = { "volume", "version", "name", "muted" };
-
-            JsonObject params = new JsonObject();
-            params.add("properties", getJsonArray(props));
+            updateVolume(socket.callMethod("Application.GetProperties", getVolumeParams()));
+        } else {
+            listener.updateMuted(false);
+            listener.updateVolume(100);
+        }
+    }
 
-            JsonElement response = socket.callMethod("Application.GetProperties", params);
+    private JsonObject getVolumeParams() {
+        String[] props = { "volume", "version", "name", "muted" };
 
-            if (response instanceof JsonObject) {
-                JsonObject result = (JsonObject) response;
-                if (result.has("volume")) {
-                    volume = result.get("volume").getAsInt();
-                    listener.updateVolume(volume);
-                }
-                if (result.has("muted")) {
-                    boolean muted = result.get("muted").getAsBoolean();
-                    listener.updateMuted(muted);
-                }
+        JsonObject params = new JsonObject();
+        params.add("properties", getJsonArray(props));
+        return params;
+    }
 
+    private void updateVolume(JsonElement response) {
+        if (response instanceof JsonObject) {
+            JsonObject result = (JsonObject) response;
+            if (result.has("volume")) {
+                volume = result.get("volume").getAsInt();
+                listener.updateVolume(volume);
+            }
+            if (result.has("muted")) {
+                boolean muted = result.get("muted").getAsBoolean();
+                listener.updateMuted(muted);
             }
-        } else {
-            listener.updateMuted(false);
-            listener.updateVolume(100);
         }
     }
 
@@ -58,6 +58,10 @@ public class LutronBindingConstants {
     public static final String PASSWORD = "password";
     public static final String SERIAL_NUMBER = "serialNumber";
 
+    // Bridge properties
+    public static final String PROPERTY_SYNC_DURATION = "syncDuration";
+    public static final String PROPERTY_SYNC_QUERIES = "syncQueries";
+
     // Thing config properties
     public static final String INTEGRATION_ID = "integrationId";
 }
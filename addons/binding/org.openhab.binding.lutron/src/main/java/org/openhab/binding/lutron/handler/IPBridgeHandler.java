@@ -8,17 +8,23 @@
  */
 package org.openhab.binding.lutron.handler;
 
+import static org.openhab.binding.lutron.LutronBindingConstants.*;
+
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -28,6 +34,7 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.lutron.config.IPBridgeConfig;
 import org.openhab.binding.lutron.internal.discovery.LutronDeviceDiscoveryService;
@@ -46,7 +53,10 @@ import org.slf4j.LoggerFactory;
  * @author Allan Tong - Initial contribution
  */
 public class IPBridgeHandler extends BaseBridgeHandler {
-    private static final Pattern STATUS_REGEX = Pattern.compile("~(OUTPUT|DEVICE|SYSTEM),([^,]+),(.*)");
+    private static final String STATUS_PREFIX = "~";
+    private static final String ERROR_PREFIX = "~ERROR";
+    private static final LutronCommandType[] STATUS_TYPES = { LutronCommandType.OUTPUT, LutronCommandType.DEVICE,
+            LutronCommandType.SYSTEM };
 
     private static final String DB_UPDATE_DATE_FORMAT = "MM/dd/yyyy HH:mm:ss";
 
@@ -60,6 +70,11 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     private static final String DEFAULT_USER = "lutron";
     private static final String DEFAULT_PASSWORD = "integration";
 
+    // Number of queries sent without a response yet, to not overrun the input buffer of the repeater
+    private static final int MAX_PENDING_QUERIES = 10;
+    // Time in milliseconds after which a query is considered unanswered
+    private static final long QUERY_TIMEOUT = 5000;
+
     private Logger logger = LoggerFactory.getLogger(IPBridgeHandler.class);
 
     private IPBridgeConfig config;
@@ -67,6 +82,18 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     private TelnetSession session;
     private BlockingQueue<LutronCommand> sendQueue = new LinkedBlockingQueue<>();
 
+    // Child handlers by integration ID
+    private Map<Integer, LutronHandler> childHandlers = new ConcurrentHashMap<>();
+
+    // Queries sent and not answered yet, the oldest first
+    private LinkedList<PendingQuery> pendingQueries = new LinkedList<>();
+
+    // Initial synchronization after connecting, guarded by pendingQueries
+    private boolean syncing;
+    private long syncStart;
+    private int syncQueries;
+    private int syncTimeouts;
+
     private ScheduledFuture<?> messageSender;
     private ScheduledFuture<?> keepAlive;
     private ScheduledFuture<?> keepAliveReconnect;
@@ -74,6 +101,18 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     private Date lastDbUpdateDate;
     private ServiceRegistration<DiscoveryService> discoveryServiceRegistration;
 
+    private static class PendingQuery {
+        private final LutronCommandType type;
+        private final int integrationId;
+        private final long timestamp;
+
+        private PendingQuery(LutronCommandType type, int integrationId, long timestamp) {
+            this.type = type;
+            this.integrationId = integrationId;
+            this.timestamp = timestamp;
+        }
+    }
+
     public IPBridgeHandler(Bridge bridge) {
         super(bridge);
 
@@ -170,6 +209,14 @@ public class IPBridgeHandler extends BaseBridgeHandler {
             return;
         }
 
+        synchronized (this.pendingQueries) {
+            this.pendingQueries.clear();
+            this.syncing = true;
+            this.syncStart = System.currentTimeMillis();
+            this.syncQueries = 0;
+            this.syncTimeouts = 0;
+        }
+
         this.messageSender = this.scheduler.schedule(new Runnable() {
             @Override
             public void run() {
@@ -192,16 +239,41 @@ public class IPBridgeHandler extends BaseBridgeHandler {
             while (true) {
                 LutronCommand command = this.sendQueue.take();
 
-                this.logger.debug("Sending command {}", command);
+                if (command.getOperation() == LutronOperation.QUERY) {
+                    awaitQuerySlot();
+                }
+
+                // Send the commands queued in the meantime along, as long as the repeater can take their queries
+                List<LutronCommand> commands = new ArrayList<>();
+                StringBuilder lines = new StringBuilder();
+                while (command != null) {
+                    this.logger.debug("Sending command {}", command);
+
+                    commands.add(command);
+                    if (lines.length() > 0) {
+                        lines.append("\r\n");
+                    }
+                    lines.append(command);
+                    if (command.getOperation() == LutronOperation.QUERY) {
+                        querySent(command);
+                    }
+
+                    LutronCommand next = this.sendQueue.peek();
+                    if (next != null && (next.getOperation() != LutronOperation.QUERY || hasQuerySlot())) {
+                        command = this.sendQueue.poll();
+                    } else {
+                        command = null;
+                    }
+                }
 
                 try {
-                    this.session.writeLine(command.toString());
+                    this.session.writeLine(lines.toString());
                 } catch (IOException e) {
                     this.logger.error("Communication error, will try to reconnect", e);
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
 
-                    // Requeue command
-                    this.sendQueue.add(command);
+                    // Requeue commands
+                    this.sendQueue.addAll(commands);
 
                     reconnect();
 
@@ -214,6 +286,84 @@ public class IPBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    private boolean hasQuerySlot() {
+        synchronized (this.pendingQueries) {
+            expirePendingQueries();
+
+            return this.pendingQueries.size() < MAX_PENDING_QUERIES;
+        }
+    }
+
+    private void awaitQuerySlot() throws InterruptedException {
+        synchronized (this.pendingQueries) {
+            expirePendingQueries();
+
+            while (this.pendingQueries.size() >= MAX_PENDING_QUERIES) {
+                long timeout = this.pendingQueries.getFirst().timestamp + QUERY_TIMEOUT - System.currentTimeMillis();
+                if (timeout > 0) {
+                    this.pendingQueries.wait(timeout);
+                }
+                expirePendingQueries();
+            }
+        }
+    }
+
+    private void querySent(LutronCommand command) {
+        synchronized (this.pendingQueries) {
+            this.pendingQueries.add(
+                    new PendingQuery(command.getType(), command.getIntegrationId(), System.currentTimeMillis()));
+            // The queries of the bridge itself are not part of the synchronization of the things
+            if (this.syncing && command.getType() != LutronCommandType.SYSTEM) {
+                this.syncQueries++;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest pending query matching a response, or the oldest pending query at all if the type is null.
+     */
+    private void queryAnswered(LutronCommandType type, int integrationId) {
+        synchronized (this.pendingQueries) {
+            Iterator<PendingQuery> iterator = this.pendingQueries.iterator();
+            while (iterator.hasNext()) {
+                PendingQuery query = iterator.next();
+                if (type == null || (query.type == type && query.integrationId == integrationId)) {
+                    iterator.remove();
+                    this.pendingQueries.notifyAll();
+                    break;
+                }
+            }
+            checkSyncCompleted();
+        }
+    }
+
+    // must be called with the lock on pendingQueries held
+    private void expirePendingQueries() {
+        long now = System.currentTimeMillis();
+        while (!this.pendingQueries.isEmpty() && now - this.pendingQueries.getFirst().timestamp >= QUERY_TIMEOUT) {
+            PendingQuery query = this.pendingQueries.removeFirst();
+            this.logger.debug("No response to query of {} {} within {} ms", query.type, query.integrationId,
+                    QUERY_TIMEOUT);
+            if (this.syncing) {
+                this.syncTimeouts++;
+            }
+        }
+        checkSyncCompleted();
+    }
+
+    // must be called with the lock on pendingQueries held
+    private void checkSyncCompleted() {
+        if (this.syncing && this.syncQueries > 0 && this.pendingQueries.isEmpty() && this.sendQueue.isEmpty()) {
+            this.syncing = false;
+
+            long duration = System.currentTimeMillis() - this.syncStart;
+            this.logger.info("Initial synchronization of {} queries ({} unanswered) completed in {} ms",
+                    this.syncQueries, this.syncTimeouts, duration);
+            updateProperty(PROPERTY_SYNC_DURATION, duration + " ms");
+            updateProperty(PROPERTY_SYNC_QUERIES, String.valueOf(this.syncQueries));
+        }
+    }
+
     private synchronized void disconnect() {
         this.logger.debug("Disconnecting from bridge");
 
@@ -271,18 +421,27 @@ public class IPBridgeHandler extends BaseBridgeHandler {
         this.sendQueue.add(command);
     }
 
-    private LutronHandler findThingHandler(int integrationId) {
-        for (Thing thing : getThing().getThings()) {
-            if (thing.getHandler() instanceof LutronHandler) {
-                LutronHandler handler = (LutronHandler) thing.getHandler();
-
-                if (handler.getIntegrationId() == integrationId) {
-                    return handler;
-                }
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        if (childHandler instanceof LutronHandler) {
+            LutronHandler handler = (LutronHandler) childHandler;
+
+            try {
+                this.childHandlers.values().remove(handler);
+                this.childHandlers.put(handler.getIntegrationId(), handler);
+            } catch (IllegalStateException e) {
+                this.logger.debug("Thing {} has no integration ID", childThing.getUID());
             }
         }
+    }
 
-        return null;
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        this.childHandlers.values().remove(childHandler);
+    }
+
+    private LutronHandler findThingHandler(int integrationId) {
+        return this.childHandlers.get(integrationId);
     }
 
     private void parseUpdates() {
@@ -299,37 +458,109 @@ public class IPBridgeHandler extends BaseBridgeHandler {
                 this.keepAliveReconnect.cancel(true);
             }
 
-            Matcher matcher = STATUS_REGEX.matcher(line);
+            parseUpdate(line);
+        }
+    }
+
+    /**
+     * Parses a status message like '~OUTPUT,12,1,75.00' and hands it over to the handler of the integration ID.
+     * This is done without regular expressions, as a busy system sends many messages.
+     */
+    private void parseUpdate(String line) {
+        int start = line.indexOf(STATUS_PREFIX);
+
+        if (start != -1 && line.startsWith(ERROR_PREFIX, start)) {
+            // The repeater answers commands in order, so an error is taken as the response to the oldest query
+            this.logger.debug("Received error {}", line);
+            queryAnswered(null, -1);
+
+            return;
+        }
 
-            if (matcher.find()) {
-                LutronCommandType type = LutronCommandType.valueOf(matcher.group(1));
+        LutronCommandType type = start == -1 ? null : parseType(line, start + 1);
+        // The type is followed by a comma, and the integration ID by another one
+        int idStart = start + 1 + (type == null ? 0 : type.name().length() + 1);
+        int idEnd = type == null ? -1 : line.indexOf(',', idStart);
 
-                if (type == LutronCommandType.SYSTEM) {
-                    // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
-                    // query. The response returns the last time the device database was updated.
-                    setDbUpdateDate(matcher.group(2), matcher.group(3));
+        if (idEnd == -1 || idEnd == idStart) {
+            this.logger.info("Ignoring message {}", line);
 
-                    continue;
-                }
+            return;
+        }
 
-                Integer integrationId = new Integer(matcher.group(2));
-                LutronHandler handler = findThingHandler(integrationId);
+        if (type == LutronCommandType.SYSTEM) {
+            // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
+            // query. The response returns the last time the device database was updated.
+            queryAnswered(type, -1);
+            setDbUpdateDate(line.substring(idStart, idEnd), line.substring(idEnd + 1));
 
-                if (handler != null) {
-                    String paramString = matcher.group(3);
+            return;
+        }
 
-                    try {
-                        handler.handleUpdate(type, paramString.split(","));
-                    } catch (Exception e) {
-                        this.logger.error("Error processing update", e);
-                    }
-                } else {
-                    this.logger.info("No thing configured for integration ID {}", integrationId);
-                }
-            } else {
+        int integrationId = 0;
+        for (int i = idStart; i < idEnd; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
                 this.logger.info("Ignoring message {}", line);
+
+                return;
+            }
+            integrationId = integrationId * 10 + (c - '0');
+        }
+
+        queryAnswered(type, integrationId);
+
+        LutronHandler handler = findThingHandler(integrationId);
+
+        if (handler != null) {
+            try {
+                handler.handleUpdate(type, parseParameters(line, idEnd + 1));
+            } catch (Exception e) {
+                this.logger.error("Error processing update", e);
+            }
+        } else {
+            this.logger.info("No thing configured for integration ID {}", integrationId);
+        }
+    }
+
+    private static LutronCommandType parseType(String line, int offset) {
+        for (LutronCommandType type : STATUS_TYPES) {
+            String name = type.name();
+            if (line.startsWith(name, offset) && line.length() > offset + name.length()
+                    && line.charAt(offset + name.length()) == ',') {
+                return type;
             }
         }
+
+        return null;
+    }
+
+    private static String[] parseParameters(String line, int offset) {
+        // Trailing empty parameters are dropped, like String.split() does
+        int length = line.length();
+        while (length > offset && line.charAt(length - 1) == ',') {
+            length--;
+        }
+
+        int count = 1;
+        for (int i = offset; i < length; i++) {
+            if (line.charAt(i) == ',') {
+                count++;
+            }
+        }
+
+        String[] parameters = new String[count];
+        int start = offset;
+        for (int i = 0; i < count; i++) {
+            int end = line.indexOf(',', start);
+            if (end == -1 || end > length) {
+                end = length;
+            }
+            parameters[i] = line.substring(start, end);
+            start = end + 1;
+        }
+
+        return parameters;
     }
 
     private void sendKeepAlive() {
@@ -27,6 +27,10 @@ public class LutronCommand {
         this.parameters = parameters;
     }
 
+    public LutronOperation getOperation() {
+        return this.operation;
+    }
+
     public LutronCommandType getType() {
         return this.type;
     }
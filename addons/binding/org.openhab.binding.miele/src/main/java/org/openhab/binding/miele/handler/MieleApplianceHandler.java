@@ -132,7 +132,10 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
     public void handleCommand(ChannelUID channelUID, Command command) {
         // Here we could handle commands that are common to all Miele Appliances, but so far I don't know of any
         if (command instanceof RefreshType) {
-            // Placeholder for future refinement
+            MieleBridgeHandler bridgeHandler = getMieleBridgeHandler();
+            if (bridgeHandler != null && UID != null) {
+                bridgeHandler.scheduleApplianceRefresh("hdm:ZigBee:" + UID);
+            }
             return;
         }
     }
@@ -241,7 +244,7 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
     @Override
     public void onApplianceRemoved(HomeDevice appliance) {
         if (UID != null) {
-            if (UID.equals(appliance.UID)) {
+            if (("hdm:ZigBee:" + UID).equals(appliance.UID)) {
                 updateStatus(ThingStatus.OFFLINE);
             }
         }
@@ -250,7 +253,7 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
     @Override
     public void onApplianceAdded(HomeDevice appliance) {
         if (UID != null) {
-            if (UID.equals(appliance.UID)) {
+            if (("hdm:ZigBee:" + UID).equals(appliance.UID)) {
                 updateStatus(ThingStatus.ONLINE);
             }
         }
@@ -265,7 +268,9 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
             ThingHandler handler = bridge.getHandler();
             if (handler instanceof MieleBridgeHandler) {
                 this.bridgeHandler = (MieleBridgeHandler) handler;
-                this.bridgeHandler.registerApplianceStatusListener(this);
+                this.bridgeHandler.registerApplianceStatusListener(
+                        "hdm:ZigBee:" + (String) getThing().getConfiguration().getProperties().get(APPLIANCE_ID),
+                        this);
             } else {
                 return null;
             }
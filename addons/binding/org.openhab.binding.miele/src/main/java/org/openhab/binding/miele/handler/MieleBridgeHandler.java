@@ -27,10 +27,12 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -71,6 +73,9 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             .compile("^(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
 
     protected final int POLLING_PERIOD = 15; // in seconds
+    protected final int CONSISTENCY_PERIOD = 300; // in seconds
+    protected final int REFRESH_DELAY = 2; // in seconds
+    protected final int EVENT_SOCKET_TIMEOUT = 1000; // in milliseconds
     protected final int JSON_RPC_PORT = 2810;
     protected final String JSON_RPC_MULTICAST_IP1 = "239.255.68.139";
     protected final String JSON_RPC_MULTICAST_IP2 = "224.255.68.139";
@@ -81,11 +86,20 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
     protected Gson gson = new Gson();
     private final Logger logger = LoggerFactory.getLogger(MieleBridgeHandler.class);
 
+    // listeners for all appliances, and listeners by UID of the appliance
     protected List<ApplianceStatusListener> applianceStatusListeners = new CopyOnWriteArrayList<>();
+    protected Map<String, List<ApplianceStatusListener>> applianceListeners = new ConcurrentHashMap<>();
     protected ScheduledFuture<?> pollingJob;
     protected ScheduledFuture<?> eventListenerJob;
+    protected ScheduledFuture<?> refreshJob;
+    protected MulticastSocket eventSocket;
 
-    protected List<HomeDevice> previousHomeDevices = new CopyOnWriteArrayList<HomeDevice>();
+    // home devices of the last consistency sweep by UID
+    protected Map<String, HomeDevice> previousHomeDevices = new ConcurrentHashMap<>();
+    protected long lastConsistencySweep = 0;
+
+    // UIDs of the appliances which announced a change and are to be refreshed, guarded by itself
+    protected Set<String> changedAppliances = new HashSet<>();
 
     protected URL url;
     protected Map<String, String> headers;
@@ -205,70 +219,12 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
                         onConnectionResumed();
                     }
 
-                    if (currentBridgeConnectionState) {
-                        if (getThing().getStatus() == ThingStatus.ONLINE) {
-                            List<HomeDevice> currentHomeDevices = getHomeDevices();
-                            for (HomeDevice hd : currentHomeDevices) {
-                                boolean isExisting = false;
-                                for (HomeDevice phd : previousHomeDevices) {
-                                    if (phd.UID.equals(hd.UID)) {
-                                        isExisting = true;
-                                        break;
-                                    }
-                                }
-                                if (!isExisting) {
-                                    logger.info("A new appliance with ID '{}' has been added", hd.UID);
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onApplianceAdded(hd);
-                                    }
-                                }
-                            }
-
-                            for (HomeDevice hd : previousHomeDevices) {
-                                boolean isCurrent = false;
-                                for (HomeDevice chd : currentHomeDevices) {
-                                    if (chd.UID.equals(hd.UID)) {
-                                        isCurrent = true;
-                                        break;
-                                    }
-                                }
-                                if (!isCurrent) {
-                                    logger.info("The appliance with ID '{}' has been removed", hd);
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onApplianceRemoved(hd);
-                                    }
-                                }
-                            }
-
-                            previousHomeDevices = currentHomeDevices;
-
-                            for (Thing appliance : getThing().getThings()) {
-                                if (appliance.getStatus() == ThingStatus.ONLINE) {
-                                    String UID = "hdm:ZigBee:"
-                                            + (String) appliance.getConfiguration().getProperties().get(APPLIANCE_ID);
-
-                                    Object[] args = new Object[2];
-                                    args[0] = UID;
-                                    args[1] = true;
-                                    JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
-
-                                    if (result != null) {
-                                        for (JsonElement obj : result.getAsJsonArray()) {
-                                            try {
-                                                DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
-
-                                                for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                                    listener.onApplianceStateChanged(UID, dco);
-                                                }
-                                            } catch (Exception e) {
-                                                logger.error("An exception occurred while quering an appliance : '{}'",
-                                                        e.getMessage());
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
+                    if (currentBridgeConnectionState && getThing().getStatus() == ThingStatus.ONLINE
+                            && System.currentTimeMillis() - lastConsistencySweep >= CONSISTENCY_PERIOD * 1000L) {
+                        // the appliances announce their changes by multicast events, a full poll is only
+                        // done once in a while in case events were lost
+                        lastConsistencySweep = System.currentTimeMillis();
+                        sweep();
                     }
 
                 } catch (Exception e) {
@@ -300,6 +256,125 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         }
     };
 
+    /**
+     * Polls the home devices to find the added and removed appliances, and the state of all the appliances.
+     */
+    private void sweep() {
+        logger.debug("Polling all the appliances of the Miele@Home gateway {}", getConfig().get(HOST));
+
+        Map<String, HomeDevice> currentHomeDevices = new HashMap<>();
+        for (HomeDevice hd : getHomeDevices()) {
+            currentHomeDevices.put(hd.UID, hd);
+        }
+
+        for (HomeDevice hd : currentHomeDevices.values()) {
+            if (!previousHomeDevices.containsKey(hd.UID)) {
+                logger.info("A new appliance with ID '{}' has been added", hd.UID);
+                for (ApplianceStatusListener listener : getApplianceStatusListeners(hd.UID)) {
+                    listener.onApplianceAdded(hd);
+                }
+            }
+        }
+
+        for (HomeDevice hd : previousHomeDevices.values()) {
+            if (!currentHomeDevices.containsKey(hd.UID)) {
+                logger.info("The appliance with ID '{}' has been removed", hd);
+                for (ApplianceStatusListener listener : getApplianceStatusListeners(hd.UID)) {
+                    listener.onApplianceRemoved(hd);
+                }
+            }
+        }
+
+        previousHomeDevices = new ConcurrentHashMap<>(currentHomeDevices);
+
+        for (Thing appliance : getThing().getThings()) {
+            if (appliance.getStatus() == ThingStatus.ONLINE) {
+                refreshAppliance(
+                        "hdm:ZigBee:" + (String) appliance.getConfiguration().getProperties().get(APPLIANCE_ID));
+            }
+        }
+    }
+
+    /**
+     * Schedules the refresh of the state of an appliance. Several changes announced in a short time are
+     * handled with a single refresh.
+     *
+     * @param UID the UID of the appliance, e.g. 'hdm:ZigBee:001D63FFFE01EB5A'
+     */
+    public void scheduleApplianceRefresh(String UID) {
+        synchronized (changedAppliances) {
+            changedAppliances.add(UID);
+            if (refreshJob == null) {
+                refreshJob = scheduler.schedule(refreshRunnable, REFRESH_DELAY, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Runnable refreshRunnable = new Runnable() {
+
+        @Override
+        public void run() {
+            while (true) {
+                List<String> UIDs;
+                synchronized (changedAppliances) {
+                    if (changedAppliances.isEmpty()) {
+                        refreshJob = null;
+                        return;
+                    }
+                    UIDs = new ArrayList<>(changedAppliances);
+                    changedAppliances.clear();
+                }
+
+                for (String UID : UIDs) {
+                    try {
+                        refreshAppliance(UID);
+                    } catch (Exception e) {
+                        logger.error("An exception occurred while refreshing an appliance :'{}'", e.getMessage());
+                    }
+                }
+            }
+        }
+    };
+
+    private void refreshAppliance(String UID) {
+        List<ApplianceStatusListener> listeners = applianceListeners.get(UID);
+        if (listeners == null || listeners.isEmpty() || getThing().getStatus() != ThingStatus.ONLINE) {
+            return;
+        }
+
+        Object[] args = new Object[2];
+        args[0] = UID;
+        args[1] = true;
+        JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
+
+        if (result != null) {
+            for (JsonElement obj : result.getAsJsonArray()) {
+                try {
+                    DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
+
+                    for (ApplianceStatusListener listener : listeners) {
+                        listener.onApplianceStateChanged(UID, dco);
+                    }
+                } catch (Exception e) {
+                    logger.error("An exception occurred while quering an appliance : '{}'", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the listeners for all appliances, followed by the ones of the given appliance.
+     */
+    private List<ApplianceStatusListener> getApplianceStatusListeners(String UID) {
+        List<ApplianceStatusListener> listeners = applianceListeners.get(UID);
+        if (listeners == null || listeners.isEmpty()) {
+            return applianceStatusListeners;
+        }
+        List<ApplianceStatusListener> result = new ArrayList<>(applianceStatusListeners);
+        result.addAll(listeners);
+        return result;
+    }
+
     public List<HomeDevice> getHomeDevices() {
 
         List<HomeDevice> devices = new ArrayList<HomeDevice>();
@@ -326,86 +401,64 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         @Override
         public void run() {
             if (IP_PATTERN.matcher((String) getConfig().get(INTERFACE)).matches()) {
-                while (true) {
-                    // Get the address that we are going to connect to.
-                    InetAddress address1 = null;
-                    InetAddress address2 = null;
-                    try {
-                        address1 = InetAddress.getByName(JSON_RPC_MULTICAST_IP1);
-                        address2 = InetAddress.getByName(JSON_RPC_MULTICAST_IP2);
-                    } catch (UnknownHostException e) {
-                        logger.error("An exception occurred while setting up the multicast receiver : '{}'",
-                                e.getMessage());
-                    }
+                // Get the address that we are going to connect to.
+                InetAddress address1 = null;
+                InetAddress address2 = null;
+                try {
+                    address1 = InetAddress.getByName(JSON_RPC_MULTICAST_IP1);
+                    address2 = InetAddress.getByName(JSON_RPC_MULTICAST_IP2);
+                } catch (UnknownHostException e) {
+                    logger.error("An exception occurred while setting up the multicast receiver : '{}'",
+                            e.getMessage());
+                    return;
+                }
+
+                byte[] buf = new byte[256];
+                MulticastSocket clientSocket = null;
 
-                    byte[] buf = new byte[256];
-                    MulticastSocket clientSocket = null;
-
-                    while (true) {
-                        try {
-                            clientSocket = new MulticastSocket(JSON_RPC_PORT);
-                            clientSocket.setSoTimeout(100);
-
-                            clientSocket.setInterface(InetAddress.getByName((String) getConfig().get(INTERFACE)));
-                            clientSocket.joinGroup(address1);
-                            clientSocket.joinGroup(address2);
-
-                            while (true) {
-                                try {
-                                    buf = new byte[256];
-                                    DatagramPacket packet = new DatagramPacket(buf, buf.length);
-                                    clientSocket.receive(packet);
-
-                                    String event = new String(packet.getData());
-                                    logger.debug("Received a multicast event '{}' from '{}:{}'",
-                                            new Object[] { event, packet.getAddress(), packet.getPort() });
-
-                                    DeviceProperty dp = new DeviceProperty();
-                                    String uid = null;
-
-                                    String[] parts = StringUtils.split(event, "&");
-                                    for (String p : parts) {
-                                        String[] subparts = StringUtils.split(p, "=");
-                                        switch (subparts[0]) {
-                                            case "property": {
-                                                dp.Name = subparts[1];
-                                                break;
-                                            }
-                                            case "value": {
-                                                dp.Value = subparts[1];
-                                                break;
-                                            }
-                                            case "id": {
-                                                uid = subparts[1];
-                                                break;
-                                            }
-                                        }
-                                    }
-
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onAppliancePropertyChanged(uid, dp);
-                                    }
-                                } catch (SocketTimeoutException e) {
-                                    Thread.sleep(500);
-                                }
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        clientSocket = new MulticastSocket(JSON_RPC_PORT);
+                        clientSocket.setSoTimeout(EVENT_SOCKET_TIMEOUT);
+
+                        clientSocket.setInterface(InetAddress.getByName((String) getConfig().get(INTERFACE)));
+                        clientSocket.joinGroup(address1);
+                        clientSocket.joinGroup(address2);
+                        eventSocket = clientSocket;
+
+                        while (!Thread.currentThread().isInterrupted()) {
+                            try {
+                                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+                                clientSocket.receive(packet);
+
+                                String event = new String(packet.getData(), 0, packet.getLength());
+                                logger.debug("Received a multicast event '{}' from '{}:{}'",
+                                        new Object[] { event, packet.getAddress(), packet.getPort() });
+
+                                onEvent(event);
+                            } catch (SocketTimeoutException e) {
+                                // check for interruption
                             }
-                        } catch (Exception ex) {
+                        }
+                    } catch (Exception ex) {
+                        if (!Thread.currentThread().isInterrupted()) {
                             logger.error("An exception occurred while receiving multicast packets : '{}'",
                                     ex.getMessage());
                         }
+                    }
 
-                        // restart the cycle with a clean slate
-                        try {
-                            if (clientSocket != null) {
-                                clientSocket.leaveGroup(address1);
-                                clientSocket.leaveGroup(address2);
-                            }
-                        } catch (IOException e) {
-                            logger.error("An exception occurred while leaving multicast group : '{}'", e.getMessage());
-                        }
-                        if (clientSocket != null) {
-                            clientSocket.close();
+                    // restart the cycle with a clean slate
+                    eventSocket = null;
+                    try {
+                        if (clientSocket != null && !clientSocket.isClosed()) {
+                            clientSocket.leaveGroup(address1);
+                            clientSocket.leaveGroup(address2);
                         }
+                    } catch (IOException e) {
+                        logger.error("An exception occurred while leaving multicast group : '{}'", e.getMessage());
+                    }
+                    if (clientSocket != null) {
+                        clientSocket.close();
                     }
                 }
             } else {
@@ -415,6 +468,48 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         }
     };
 
+    /**
+     * Hands a property change announced by an appliance over to the listeners of the appliance, and schedules
+     * the refresh of its whole state.
+     *
+     * @param event the event, e.g. 'id=hdm:ZigBee:001D63FFFE01EB5A&property=state&value=5'
+     */
+    private void onEvent(String event) {
+        DeviceProperty dp = new DeviceProperty();
+        String uid = null;
+
+        String[] parts = StringUtils.split(event, "&");
+        for (String p : parts) {
+            String[] subparts = StringUtils.split(p, "=");
+            if (subparts.length < 2) {
+                continue;
+            }
+            switch (subparts[0]) {
+                case "property": {
+                    dp.Name = subparts[1];
+                    break;
+                }
+                case "value": {
+                    dp.Value = subparts[1];
+                    break;
+                }
+                case "id": {
+                    uid = subparts[1];
+                    break;
+                }
+            }
+        }
+
+        if (uid == null) {
+            return;
+        }
+
+        for (ApplianceStatusListener listener : getApplianceStatusListeners(uid)) {
+            listener.onAppliancePropertyChanged(uid, dp);
+        }
+        scheduleApplianceRefresh(uid);
+    }
+
     public JsonElement invokeOperation(String UID, String modelID, String methodName) {
         if (getThing().getStatus() == ThingStatus.ONLINE) {
             Object[] args = new Object[4];
@@ -575,6 +670,8 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
      */
     public void onConnectionResumed() {
         updateStatus(ThingStatus.ONLINE);
+        // events may have been lost in the meantime
+        lastConsistencySweep = 0;
         for (Thing thing : getThing().getThings()) {
             MieleApplianceHandler<?> handler = (MieleApplianceHandler<?>) thing.getHandler();
             if (handler != null) {
@@ -583,6 +680,9 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Registers a listener for all appliances.
+     */
     public boolean registerApplianceStatusListener(ApplianceStatusListener applianceStatusListener) {
         if (applianceStatusListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null ApplianceStatusListener.");
@@ -599,8 +699,34 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         return result;
     }
 
+    /**
+     * Registers a listener for a single appliance, which is given the events of this appliance only.
+     *
+     * @param UID the UID of the appliance, e.g. 'hdm:ZigBee:001D63FFFE01EB5A'
+     */
+    public boolean registerApplianceStatusListener(String UID, ApplianceStatusListener applianceStatusListener) {
+        if (applianceStatusListener == null) {
+            throw new IllegalArgumentException("It's not allowed to pass a null ApplianceStatusListener.");
+        }
+        boolean result = applianceListeners.computeIfAbsent(UID, k -> new CopyOnWriteArrayList<>())
+                .add(applianceStatusListener);
+        if (result && isInitialized()) {
+            onUpdate();
+
+            HomeDevice hd = previousHomeDevices.get(UID);
+            if (hd != null) {
+                applianceStatusListener.onApplianceAdded(hd);
+            }
+            scheduleApplianceRefresh(UID);
+        }
+        return result;
+    }
+
     public boolean unregisterApplianceStatusListener(ApplianceStatusListener applianceStatusListener) {
         boolean result = applianceStatusListeners.remove(applianceStatusListener);
+        for (List<ApplianceStatusListener> listeners : applianceListeners.values()) {
+            result |= listeners.remove(applianceStatusListener);
+        }
         if (result && isInitialized()) {
             onUpdate();
         }
@@ -623,5 +749,21 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
+        synchronized (changedAppliances) {
+            if (refreshJob != null) {
+                refreshJob.cancel(true);
+                refreshJob = null;
+            }
+            changedAppliances.clear();
+        }
+        if (eventListenerJob != null) {
+            eventListenerJob.cancel(true);
+            eventListenerJob = null;
+        }
+        MulticastSocket socket = eventSocket;
+        if (socket != null) {
+            // unblocks the event listener
+            socket.close();
+        }
     }
 }
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.milight.test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.milight.MilightBindingConstants;
+import org.openhab.binding.milight.internal.protocol.AbstractBulbInterface;
+import org.openhab.binding.milight.internal.protocol.MilightV6SessionManager;
+import org.openhab.binding.milight.internal.protocol.QueuedSend;
+
+/**
+ * Tests the coalescing, the drop counting and the pacing of the {@link QueuedSend}. The pacing is tested against the
+ * {@link EmulatedV6Bridge}, which confirms each command like an iBox bridge does.
+ *
+ * @author agent
+ * @since 2.1
+ *
+ */
+public class QueuedSendTest {
+    private static final int TIMEOUT = 2000;
+    private static final int DELAY_BETWEEN_COMMANDS = 100;
+    private static final String BRIDGE_ID = "ACCF23F57AD4";
+
+    private static final int POWER = AbstractBulbInterface.CAT_POWER_SET;
+    private static final int BRIGHTNESS = AbstractBulbInterface.CAT_BRIGHTNESS_SET;
+
+    private QueuedSend sendQueue;
+    private DatagramSocket receiver;
+
+    @Before
+    public void setUp() throws IOException {
+        sendQueue = new QueuedSend();
+        sendQueue.setDelayBetweenCommands(DELAY_BETWEEN_COMMANDS);
+        sendQueue.setAddress(InetAddress.getLoopbackAddress());
+
+        receiver = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        receiver.setSoTimeout(TIMEOUT);
+        sendQueue.setPort(receiver.getLocalPort());
+    }
+
+    @After
+    public void tearDown() {
+        sendQueue.dispose();
+        sendQueue.getSocket().close();
+        receiver.close();
+    }
+
+    @Test
+    public void replacedCommandsKeepTheOrderTheyWereIssuedIn() throws IOException {
+        sendQueue.queueRepeatable(POWER, new byte[] { 1 });
+        sendQueue.queueRepeatable(BRIGHTNESS, new byte[] { 2 });
+        sendQueue.queueRepeatable(POWER, new byte[] { 3 });
+
+        assertEquals(2, sendQueue.getQueueDepth());
+        assertEquals(3, sendQueue.getQueuedCount());
+        assertEquals(1, sendQueue.getCoalescedCount());
+        assertEquals(0, sendQueue.getDroppedCount());
+
+        sendQueue.start();
+
+        // The last command wins, the bulb has to be off in the end
+        assertEquals(2, receive());
+        assertEquals(3, receive());
+        try {
+            receive();
+            fail("The replaced command has been sent");
+        } catch (SocketTimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void fullQueueDropsCommands() {
+        for (int i = 0; i < 19; ++i) {
+            sendQueue.queueRepeatable(QueuedSend.NO_CATEGORY, new byte[] { (byte) i });
+        }
+        sendQueue.queueRepeatable(BRIGHTNESS, new byte[] { 19 });
+        assertEquals(20, sendQueue.getQueueDepth());
+        assertEquals(0, sendQueue.getDroppedCount());
+
+        // Replacing a queued command doesn't need room in the queue
+        sendQueue.queueRepeatable(BRIGHTNESS, new byte[] { 20 });
+        assertEquals(1, sendQueue.getCoalescedCount());
+        assertEquals(0, sendQueue.getDroppedCount());
+
+        sendQueue.queueRepeatable(QueuedSend.NO_CATEGORY, new byte[] { 21 });
+        sendQueue.queueRepeatable(POWER, new byte[] { 22 });
+        assertEquals(20, sendQueue.getQueueDepth());
+        assertEquals(23, sendQueue.getQueuedCount());
+        assertEquals(2, sendQueue.getDroppedCount());
+    }
+
+    @Test
+    public void sendIntervalFollowsTheResponseTimeOfTheBridge() throws InterruptedException {
+        assertEquals(0, sendQueue.getResponseTime());
+        assertEquals(DELAY_BETWEEN_COMMANDS, sendQueue.getSendInterval());
+
+        EmulatedV6Bridge bridge = new EmulatedV6Bridge();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        MilightV6SessionManager session = null;
+        try {
+            sendQueue.setPort(MilightBindingConstants.PORT_VER6);
+            session = new MilightV6SessionManager(sendQueue, BRIDGE_ID, scheduler, state -> {
+            });
+            // Skip the handshake, the emulated bridge always uses the same session id
+            session.setSessionID((byte) 0xED, (byte) 0xAB);
+            sendQueue.start();
+
+            // The emulated bridge may not listen yet, send commands until the first one is confirmed
+            long end = System.currentTimeMillis() + TIMEOUT;
+            for (byte seq = 0; sendQueue.getResponseTime() == 0; ++seq) {
+                assertTrue("The emulated bridge didn't confirm a command", System.currentTimeMillis() < end);
+                sendQueue.queueRepeatable(QueuedSend.NO_CATEGORY, createCommand(session, seq));
+                Thread.sleep(DELAY_BETWEEN_COMMANDS);
+            }
+
+            // Confirmations on the loopback interface are much faster than the configured delay
+            assertTrue(sendQueue.getSendInterval() < DELAY_BETWEEN_COMMANDS);
+        } finally {
+            if (session != null) {
+                session.dispose();
+            }
+            scheduler.shutdownNow();
+            bridge.close();
+        }
+    }
+
+    private byte receive() throws IOException {
+        byte[] buffer = new byte[64];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        receiver.receive(packet);
+        assertEquals(1, packet.getLength());
+        return buffer[0];
+    }
+
+    /**
+     * Create a "zone 1 on" command of a RGBWW bulb with the given sequence number.
+     */
+    private byte[] createCommand(MilightV6SessionManager session, byte seq) {
+        byte zone = 1;
+        byte[] t = { (byte) 0x80, 0x00, 0x00, 0x00, 0x11, session.getSid1(), session.getSid2(),
+                session.getNextSequenceNo1(), seq, 0x00, 0x31, session.getPw1(), session.getPw2(), 0x08, 0x04, 0x01,
+                0, 0, 0, zone, 0, 0 };
+        byte chksum = 0;
+        for (int i = 10; i < 19; ++i) {
+            chksum += t[i];
+        }
+        t[21] = (byte) (chksum + zone);
+        return t;
+    }
+}
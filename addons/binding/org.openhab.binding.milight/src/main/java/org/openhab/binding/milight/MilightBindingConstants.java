@@ -69,4 +69,8 @@ public class MilightBindingConstants {
 
     public static final String PROPERTY_SESSIONID = "sessionid";
     public static final String PROPERTY_SESSIONCONFIRMED = "sessionid_last_refresh";
+    public static final String PROPERTY_QUEUE_DEPTH = "queue_depth";
+    public static final String PROPERTY_QUEUE_COALESCED = "queue_coalesced";
+    public static final String PROPERTY_QUEUE_DROPPED = "queue_dropped";
+    public static final String PROPERTY_RESPONSE_TIME = "response_time_ms";
 }
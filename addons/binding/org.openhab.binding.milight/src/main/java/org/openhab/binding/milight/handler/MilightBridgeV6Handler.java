@@ -94,6 +94,11 @@ public class MilightBridgeV6Handler extends AbstractMilightBridgeHandler impleme
                 updateProperty(MilightBindingConstants.PROPERTY_SESSIONID, session.getSession());
                 updateProperty(MilightBindingConstants.PROPERTY_SESSIONCONFIRMED,
                         String.valueOf(session.getLastSessionValidConfirmation()));
+                updateProperty(MilightBindingConstants.PROPERTY_QUEUE_DEPTH, String.valueOf(com.getQueueDepth()));
+                updateProperty(MilightBindingConstants.PROPERTY_QUEUE_COALESCED,
+                        String.valueOf(com.getCoalescedCount()));
+                updateProperty(MilightBindingConstants.PROPERTY_QUEUE_DROPPED, String.valueOf(com.getDroppedCount()));
+                updateProperty(MilightBindingConstants.PROPERTY_RESPONSE_TIME, String.valueOf(com.getResponseTime()));
             }
         };
     }
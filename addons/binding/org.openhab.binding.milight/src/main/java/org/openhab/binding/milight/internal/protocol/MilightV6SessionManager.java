@@ -18,7 +18,7 @@ import java.nio.ByteBuffer;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -100,8 +100,8 @@ public class MilightV6SessionManager implements Runnable {
     private long lastSessionConfirmed = 0;
     // Quits the receive thread if set to true
     private boolean willbeclosed = false;
-    // Keep track of send commands and their sequence number
-    private Map<Byte, Long> used_sequence_no = new TreeMap<Byte, Long>();
+    // Keep track of send commands and their sequence number. Accessed by the send and the receive thread.
+    private Map<Byte, Long> used_sequence_no = new ConcurrentHashMap<Byte, Long>();
     // The receive thread for all bridge responses.
     private Thread sessionThread;
 
@@ -139,6 +139,7 @@ public class MilightV6SessionManager implements Runnable {
         for (int i = 0; i < 6; ++i) {
             BRIDGE_MAC[i] = Integer.valueOf(bridgeId.substring(i * 2, i * 2 + 2), 16).byteValue();
         }
+        sendQueue.setSendObserver(this::packetSent);
         sessionThread = new Thread(this, "SessionThread");
         sessionThread.start();
     }
@@ -186,20 +187,31 @@ public class MilightV6SessionManager implements Runnable {
         return lastSessionConfirmed;
     }
 
-    // Get the first byte of a new sequence number. Add that to a queue of used sequence numbers.
-    // The bridge response will remove the queued number. This method also checks
-    // for non confirmed sequence numbers older that 2 seconds and report them.
+    // Get the first byte of a new sequence number.
     public byte getNextSequenceNo1() {
         return fixed_seq_no;
     }
 
-    // Get the second byte of a new sequence number. Add that to a queue of used sequence numbers.
-    // The bridge response will remove the queued number. This method also checks
-    // for non confirmed sequence numbers older that 2 seconds and report them.
+    // Get the second byte of a new sequence number. The number is added to the used sequence numbers as soon as
+    // the command has been send (see packetSent), the bridge response will remove it again.
     byte getNextSequenceNo2() {
         byte t = sequence_no;
+        ++sequence_no;
+        return t;
+    }
+
+    // Called by the send queue for each packet send. Remember the send time of commands, to measure the response time
+    // of the bridge. This method also checks for non confirmed sequence numbers older that 2 seconds and report them.
+    private void packetSent(byte[] data) {
+        if (data.length < 11 || data[10] != 0x31) {
+            return;
+        }
+        if (data[0] != (byte) 0x80 && data[0] != (byte) 0x3D && data[0] != (byte) 0x3E) {
+            return;
+        }
+
         long current = System.currentTimeMillis();
-        used_sequence_no.put(t, current);
+        used_sequence_no.put(data[8], current);
         // Check old seq no:
         for (Iterator<Map.Entry<Byte, Long>> it = used_sequence_no.entrySet().iterator(); it.hasNext();) {
             Map.Entry<Byte, Long> entry = it.next();
@@ -208,8 +220,6 @@ public class MilightV6SessionManager implements Runnable {
                 it.remove();
             }
         }
-        ++sequence_no;
-        return t;
     }
 
     // You have to call that if you are done with this object, we have to clean up
@@ -217,6 +227,7 @@ public class MilightV6SessionManager implements Runnable {
     public void dispose() {
         willbeclosed = true;
         scheduler = null;
+        sendQueue.setSendObserver(null);
         if (sessionThread != null) {
             try {
                 sessionThread.join(100);
@@ -488,8 +499,11 @@ public class MilightV6SessionManager implements Runnable {
                         break;
                     }
                     // 88 00 00 00 03 SN SN 00 // two byte sequence number, we use the later one only
-                    case (byte) 0x88:
-                        used_sequence_no.remove(buffer[6]);
+                    case (byte) 0x88: {
+                        Long sendTime = used_sequence_no.remove(buffer[6]);
+                        if (sendTime != null) {
+                            sendQueue.reportResponseTime(System.currentTimeMillis() - sendTime);
+                        }
                         if (buffer[07] == 0) {
                             if (DEBUG_SESSION) {
                                 logger.debug("Confirmation received for command:{}", String.valueOf(buffer[6]));
@@ -498,6 +512,7 @@ public class MilightV6SessionManager implements Runnable {
                             logger.info("Bridge reports an error for command:{}", String.valueOf(buffer[6]));
                         }
                         break;
+                    }
                     // D8 00 00 00 07 (AC CF 23 F5 7A D4) 01
                     // Response to the keepAlive() packet
                     case (byte) 0xD8: {
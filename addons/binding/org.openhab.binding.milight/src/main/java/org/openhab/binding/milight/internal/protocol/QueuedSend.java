@@ -13,9 +13,7 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.LinkedList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +25,14 @@ import org.slf4j.LoggerFactory;
  * delay only. The user may issue absolute brightness or color changes faster than 1/10s though, and we don't
  * want to just queue up those commands but apply the newest command only.
  *
+ * The ids of the bulb interfaces incorporate the bulb type, zone and command category, so per zone only the newest
+ * color, brightness, on/off etc. command is kept. The queued item is removed and the replacement is appended, so
+ * commands of different categories are still sent in the order they were issued and the last command wins.
+ *
+ * Sending is paced by a token bucket. The tokens are refilled every {@link #getSendInterval()} ms, which is the
+ * configured delay between commands for bridges that don't confirm commands, and the measured response time
+ * (see {@link #reportResponseTime(long)}) for bridges that do.
+ *
  * @author David Graeff <david.graeff@web.de>
  * @since 2.1
  *
@@ -34,16 +40,46 @@ import org.slf4j.LoggerFactory;
 public class QueuedSend implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(QueuedSend.class);
 
-    BlockingQueue<QueueItem> queue = new LinkedBlockingQueue<>(20);
+    // Maximum number of queued items. Items with the id of a queued item don't count, they replace that item.
+    private static final int MAX_QUEUE_SIZE = 20;
+    // Number of packets that may be sent back to back after the queue was idle
+    private static final int MAX_BURST = 2;
+    // Bounds for the send interval derived from the response time of the bridge
+    private static final int MIN_SEND_INTERVAL = 10;
+    private static final int MAX_SEND_INTERVAL = 400;
+    // Weight of a new response time sample in the moving average
+    private static final double RESPONSE_TIME_WEIGHT = 0.25;
+
+    // Guarded by this
+    private final LinkedList<QueueItem> queue = new LinkedList<>();
+    private long queuedCount = 0;
+    private long coalescedCount = 0;
+    private long droppedCount = 0;
+
     protected final DatagramPacket packet;
     protected final DatagramSocket datagramSocket;
     private int delay_between_commands = 100;
     private int repeat_commands = 1;
-    private boolean willbeclosed = false;
+    private volatile boolean willbeclosed = false;
     private Thread thread;
+    private ISendObserver sendObserver;
+
+    // Moving average of the response time of the bridge in ms, 0 if the bridge doesn't confirm commands
+    private volatile double responseTime = 0;
+
+    // Token bucket, only used by the send thread
+    private double tokens = MAX_BURST;
+    private long lastRefill = 0;
 
     public static final byte NO_CATEGORY = 0;
 
+    /**
+     * Implement this interface to get notified about each packet that has been send.
+     */
+    public interface ISendObserver {
+        void packetSent(byte[] data);
+    }
+
     /**
      * Creates a new send queue and starts the background thread. Call setAddress and
      * setPort before using any of the queue commands.
@@ -83,32 +119,90 @@ public class QueuedSend implements Runnable {
         delay_between_commands = ms;
     }
 
+    public void setSendObserver(ISendObserver sendObserver) {
+        this.sendObserver = sendObserver;
+    }
+
+    /**
+     * Report the time it took the bridge to confirm a command. Once a response time has been reported, the send
+     * interval follows the moving average of the reported times instead of the configured delay between commands.
+     *
+     * @param ms Time between sending a command and receiving its confirmation
+     */
+    public void reportResponseTime(long ms) {
+        double current = responseTime;
+        responseTime = current == 0 ? ms : current + RESPONSE_TIME_WEIGHT * (ms - current);
+    }
+
+    /**
+     * @return The moving average of the response time of the bridge in ms, 0 if the bridge doesn't confirm commands.
+     */
+    public int getResponseTime() {
+        return (int) Math.round(responseTime);
+    }
+
+    /**
+     * @return The time in ms between two commands send to the bridge in a row.
+     */
+    public int getSendInterval() {
+        double current = responseTime;
+        if (current == 0) {
+            return delay_between_commands;
+        }
+        return (int) Math.max(MIN_SEND_INTERVAL, Math.min(MAX_SEND_INTERVAL, Math.round(current)));
+    }
+
+    /**
+     * @return The number of items waiting to be send.
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return The number of items that have been added to the queue.
+     */
+    public synchronized long getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * @return The number of items that replaced a queued item with the same id.
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * @return The number of items that have been dropped, because the queue was full.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
     /**
      * The queue process
      */
     @Override
     public void run() {
         QueueItem item = null;
+        lastRefill = System.currentTimeMillis();
         while (!willbeclosed) {
-            // If the command belongs to a chain of commands, get the next command now.
-            if (item != null && item.next != null) {
-                item = item.next;
-            } else {
-                try {
+            try {
+                // If the command belongs to a chain of commands, get the next command now.
+                if (item != null && item.next != null) {
+                    item = item.next;
+                } else {
                     // block/wait for another item
-                    item = queue.take();
-                } catch (InterruptedException e) {
-                    if (!willbeclosed) {
-                        logger.error("Queue take failed: {}", e.getLocalizedMessage());
-                    }
-                    break;
+                    item = take();
                 }
-            }
 
-            if (item == null || item.unique_command_id == QueueItem.INVALID) {
-                // Just in case it is a command chain, set the item to null to not process any chained commands.
-                item = null;
-                continue;
+                waitForToken();
+            } catch (InterruptedException e) {
+                if (!willbeclosed) {
+                    logger.error("Queue take failed: {}", e.getLocalizedMessage());
+                }
+                break;
             }
 
             packet.setData(item.data);
@@ -126,21 +220,66 @@ public class QueuedSend implements Runnable {
                     }
                 }
 
+                ISendObserver observer = sendObserver;
+                if (observer != null) {
+                    observer.packetSent(item.data);
+                }
             } catch (Exception e) {
                 logger.error("Failed to send Message to '{}': {}", packet.getAddress().getHostAddress(),
                         e.getMessage());
             }
 
-            try {
-                Thread.sleep((item.custom_delay_time != 0) ? item.custom_delay_time : delay_between_commands);
-            } catch (InterruptedException e) {
-                if (!willbeclosed) {
-                    logger.error("Queue sleep failed: {}", e.getLocalizedMessage());
+            // Animations need their own delay before the next command, regardless of the pacing.
+            if (item.custom_delay_time != 0) {
+                try {
+                    Thread.sleep(item.custom_delay_time);
+                } catch (InterruptedException e) {
+                    if (!willbeclosed) {
+                        logger.error("Queue sleep failed: {}", e.getLocalizedMessage());
+                    }
+                    break;
                 }
-                break;
+                tokens = 0;
+                lastRefill = System.currentTimeMillis();
+            }
+        }
+
+    }
+
+    /**
+     * Wait for an item and remove it from the queue.
+     */
+    private synchronized QueueItem take() throws InterruptedException {
+        while (queue.isEmpty()) {
+            if (willbeclosed) {
+                throw new InterruptedException("Queue disposed");
             }
+            wait();
         }
+        return queue.removeFirst();
+    }
+
+    /**
+     * Wait until the token bucket allows sending another packet, and take the token.
+     */
+    private void waitForToken() throws InterruptedException {
+        while (true) {
+            int interval = getSendInterval();
+            long now = System.currentTimeMillis();
+            if (interval == 0) {
+                lastRefill = now;
+                return;
+            }
+
+            tokens = Math.min(MAX_BURST, tokens + (double) (now - lastRefill) / interval);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
 
+            Thread.sleep((long) Math.ceil((1 - tokens) * interval));
+        }
     }
 
     /**
@@ -148,6 +287,9 @@ public class QueuedSend implements Runnable {
      */
     public void dispose() {
         willbeclosed = true;
+        synchronized (this) {
+            notifyAll();
+        }
         if (thread != null) {
             try {
                 thread.join(delay_between_commands);
@@ -163,29 +305,40 @@ public class QueuedSend implements Runnable {
     }
 
     /**
-     * Mark all commands in the queue invalid that have the same unique id as the given one. This does not synchronise
-     * with the sender thread. If an element has been started to being processed, this method has no more effect on that
-     * element. Command chains are always executed in a row. Even if the head of the command queue has been marked
-     * as invalid, if the processing has been started, the chain will be processed completely.
+     * Add an item to the queue. An item with a category replaces a queued item with the same unique id, the queued
+     * item is removed and the new item is appended to keep the order of the issued commands. If the
+     * processing of an item has been started already, the item is not replaced anymore. Command chains are always
+     * executed in a row. Even if the head of the command queue has been replaced, if the processing has been
+     * started, the chain will be processed completely.
+     *
+     * If the queue is full, the item is dropped.
      *
-     * @param unique_command_id
+     * @param item A queue item
      */
-    private void remove_from_queue(int unique_command_id) {
-        Iterator<QueueItem> iterator = queue.iterator();
-        while (iterator.hasNext()) {
-            try {
-                QueueItem item = iterator.next();
-                if (item != null && item.unique_command_id == unique_command_id) {
-                    item.unique_command_id = QueueItem.INVALID; // invalidate
+    private synchronized void offer(QueueItem item) {
+        queuedCount++;
+
+        if (item.unique_command_id != NO_CATEGORY) {
+            for (Iterator<QueueItem> iterator = queue.iterator(); iterator.hasNext();) {
+                if (iterator.next().unique_command_id == item.unique_command_id) {
+                    iterator.remove();
+                    coalescedCount++;
+                    queue.add(item);
+                    notifyAll();
+                    return;
                 }
-            } catch (IllegalStateException e) {
-                // Ignore threading errors
-                logger.error("{}", e.getLocalizedMessage());
-            } catch (NoSuchElementException e) {
-                // The element might have been processed already while iterate.
-                // Ignore NoSuchElementException here.
             }
         }
+
+        if (queue.size() >= MAX_QUEUE_SIZE) {
+            droppedCount++;
+            logger.debug("Send queue for bridge {} is full, dropped command ({} dropped so far)",
+                    packet.getAddress() != null ? packet.getAddress().getHostAddress() : null, droppedCount);
+            return;
+        }
+
+        queue.add(item);
+        notifyAll();
     }
 
     /**
@@ -202,13 +355,12 @@ public class QueuedSend implements Runnable {
      * @param data Data to be send
      */
     public void queueRepeatable(int unique_command_id, byte[]... data) {
-        remove_from_queue(unique_command_id);
         QueueItem item = QueueItem.createRepeatable(unique_command_id, data[0]);
         QueueItem next = item;
         for (int i = 1; i < data.length; ++i) {
             next = next.addRepeatable(data[i]);
         }
-        queue.offer(item);
+        offer(item);
     }
 
     /**
@@ -220,10 +372,7 @@ public class QueuedSend implements Runnable {
      * @param item A queue item, cannot be null.
      */
     public void queue(QueueItem item) {
-        if (item.unique_command_id != NO_CATEGORY) {
-            remove_from_queue(item.unique_command_id);
-        }
-        queue.offer(item);
+        offer(item);
     }
 
     public InetAddress getAddr() {
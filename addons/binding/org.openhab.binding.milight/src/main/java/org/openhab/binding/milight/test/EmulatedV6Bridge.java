@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
  */
 public class EmulatedV6Bridge {
     protected final Logger logger = LoggerFactory.getLogger(EmulatedV6Bridge.class);
-    private boolean willbeclosed = false;
+    private volatile boolean willbeclosed = false;
+    private DatagramSocket discoverSocket;
+    private DatagramSocket bridgeSocket;
     private byte SID1 = (byte) 0xed;
     private byte SID2 = (byte) 0xab;
     private byte PW1 = 0;
@@ -103,6 +105,21 @@ public class EmulatedV6Bridge {
         }).start();
     }
 
+    /**
+     * Quit the discovery and control threads and release the ports.
+     */
+    void close() {
+        willbeclosed = true;
+        DatagramSocket socket = discoverSocket;
+        if (socket != null) {
+            socket.close();
+        }
+        socket = bridgeSocket;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
     private void replaceWithMac(byte data[], int offset) {
         data[offset + 0] = FAKE_MAC[0];
         data[offset + 1] = FAKE_MAC[1];
@@ -119,6 +136,7 @@ public class EmulatedV6Bridge {
             byte[] a = new byte[0];
             DatagramPacket s_packet = new DatagramPacket(a, a.length);
             DatagramSocket datagramSocket = new DatagramSocket(MilightBindingConstants.PORT_DISCOVER);
+            discoverSocket = datagramSocket;
 
             debug_session("EmulatedV6Bridge discover thread ready");
             byte[] buffer = new byte[1024];
@@ -156,6 +174,7 @@ public class EmulatedV6Bridge {
             byte[] a = new byte[0];
             DatagramPacket s_packet = new DatagramPacket(a, a.length);
             DatagramSocket datagramSocket = new DatagramSocket(MilightBindingConstants.PORT_VER6);
+            bridgeSocket = datagramSocket;
 
             debug_session("EmulatedV6Bridge control thread ready");
             byte[] buffer = new byte[1024];
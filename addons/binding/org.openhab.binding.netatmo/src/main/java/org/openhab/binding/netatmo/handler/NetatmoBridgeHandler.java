@@ -9,15 +9,22 @@
 package org.openhab.binding.netatmo.handler;
 
 import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.oltu.oauth2.client.request.OAuthClientRequest;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.netatmo.config.NetatmoBridgeConfiguration;
+import org.openhab.binding.netatmo.internal.NAPlugAdapter;
+import org.openhab.binding.netatmo.internal.NAStationAdapter;
+import org.openhab.binding.netatmo.internal.NetatmoDataCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +34,8 @@ import io.swagger.client.api.StationApi;
 import io.swagger.client.api.ThermostatApi;
 import io.swagger.client.auth.OAuth;
 import io.swagger.client.auth.OAuthFlow;
+import io.swagger.client.model.NAMain;
+import io.swagger.client.model.NAPlug;
 import io.swagger.client.model.NAStationDataBody;
 import io.swagger.client.model.NAThermostatDataBody;
 import retrofit.RestAdapter.LogLevel;
@@ -41,12 +50,25 @@ import retrofit.RetrofitError;
  *
  */
 public class NetatmoBridgeHandler extends BaseBridgeHandler {
+    // Netatmo equipments upload their data every 10 minutes, the margin allows for the upload to be processed
+    private static final long UPLOAD_CADENCE = 600000;
+    private static final long UPLOAD_MARGIN = 30000;
+    private static final long MIN_REFRESH_DELAY = 60000;
+
     private Logger logger = LoggerFactory.getLogger(NetatmoBridgeHandler.class);
     private NetatmoBridgeConfiguration configuration;
     private ApiClient apiClient;
     private StationApi stationApi = null;
     private ThermostatApi thermostatApi = null;
     private PartnerApi partnerApi = null;
+    private ScheduledFuture<?> refreshJob;
+
+    // The data of all the stations (resp. thermostats) of the account, shared by all devices
+    private final NetatmoDataCache<NAStationDataBody> stationsDataCache = new NetatmoDataCache<>(
+            () -> fetchStationsDataBody(null), body -> getNextRefresh(getLastStatusStore(body)), MIN_REFRESH_DELAY);
+    private final NetatmoDataCache<NAThermostatDataBody> thermostatsDataCache = new NetatmoDataCache<>(
+            () -> fetchThermostatsDataBody(null), body -> getNextRefresh(getLastStatusStore(body)),
+            MIN_REFRESH_DELAY);
 
     public NetatmoBridgeHandler(Bridge bridge) {
         super(bridge);
@@ -71,6 +93,120 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
             }
         }
         super.initialize();
+        scheduleRefresh(0);
+    }
+
+    @Override
+    public void dispose() {
+        if (refreshJob != null && !refreshJob.isCancelled()) {
+            refreshJob.cancel(true);
+            refreshJob = null;
+        }
+        super.dispose();
+    }
+
+    private synchronized void scheduleRefresh(long delay) {
+        if (refreshJob != null && !refreshJob.isDone()) {
+            refreshJob.cancel(false);
+        }
+        logger.debug("Scheduling the refresh of the devices in {} ms", delay);
+        refreshJob = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                refreshDevices();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refreshes all devices (and their modules) from the shared data, then schedules the next
+     * refresh for when the equipments are expected to have uploaded new data
+     */
+    private void refreshDevices() {
+        long nextRefresh = Long.MAX_VALUE;
+        try {
+            for (Thing thing : getThing().getThings()) {
+                ThingHandler thingHandler = thing.getHandler();
+                if (thingHandler instanceof NetatmoDeviceHandler) {
+                    NetatmoDeviceHandler<?> deviceHandler = (NetatmoDeviceHandler<?>) thingHandler;
+                    deviceHandler.updateChannels(deviceHandler.configuration.getEquipmentId());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("An error occurred while refreshing the devices : {}", e.getMessage());
+        } finally {
+            if (configuration.readStation) {
+                nextRefresh = Math.min(nextRefresh, stationsDataCache.getExpiry());
+            }
+            if (configuration.readThermostat) {
+                nextRefresh = Math.min(nextRefresh, thermostatsDataCache.getExpiry());
+            }
+            long delay = nextRefresh == Long.MAX_VALUE ? UPLOAD_CADENCE : nextRefresh - System.currentTimeMillis();
+            scheduleRefresh(Math.max(delay, MIN_REFRESH_DELAY));
+        }
+    }
+
+    /**
+     * Returns when data uploaded at the given time will be superseded by the next upload. If the
+     * upload time is unknown, or the next upload is overdue, the configured refresh interval is used.
+     *
+     * @param lastStatusStore the time (in s) of the last upload, may be null
+     * @return the time (in ms) of the next refresh
+     */
+    private long getNextRefresh(Integer lastStatusStore) {
+        long now = System.currentTimeMillis();
+        if (lastStatusStore != null) {
+            long nextUpload = lastStatusStore * 1000L + UPLOAD_CADENCE + UPLOAD_MARGIN;
+            if (nextUpload > now) {
+                return Math.max(nextUpload, now + MIN_REFRESH_DELAY);
+            }
+        }
+        return now + getRefreshInterval();
+    }
+
+    /**
+     * Returns the smallest refresh interval configured on the devices of the bridge
+     */
+    private long getRefreshInterval() {
+        long refreshInterval = Long.MAX_VALUE;
+        for (Thing thing : getThing().getThings()) {
+            ThingHandler thingHandler = thing.getHandler();
+            if (thingHandler instanceof NetatmoDeviceHandler) {
+                NetatmoDeviceHandler<?> deviceHandler = (NetatmoDeviceHandler<?>) thingHandler;
+                if (deviceHandler.configuration != null && deviceHandler.configuration.refreshInterval > 0) {
+                    refreshInterval = Math.min(refreshInterval, deviceHandler.configuration.refreshInterval);
+                }
+            }
+        }
+        return refreshInterval == Long.MAX_VALUE ? UPLOAD_CADENCE : Math.max(refreshInterval, MIN_REFRESH_DELAY);
+    }
+
+    /**
+     * Returns the earliest upload time of the devices, the data is refreshed as soon as the first device uploads
+     * again
+     */
+    private static Integer getLastStatusStore(NAStationDataBody body) {
+        Integer lastStatusStore = null;
+        if (body.getDevices() != null) {
+            for (NAMain device : body.getDevices()) {
+                lastStatusStore = min(lastStatusStore, device.getLastStatusStore());
+            }
+        }
+        return lastStatusStore;
+    }
+
+    private static Integer getLastStatusStore(NAThermostatDataBody body) {
+        Integer lastStatusStore = null;
+        if (body.getDevices() != null) {
+            for (NAPlug device : body.getDevices()) {
+                lastStatusStore = min(lastStatusStore, device.getLastStatusStore());
+            }
+        }
+        return lastStatusStore;
+    }
+
+    private static Integer min(Integer a, Integer b) {
+        return (a == null || (b != null && b < a)) ? b : a;
     }
 
     // We'll use TrustingOkHttpClient because Netatmo certificate is a StartTTLS
@@ -132,7 +268,70 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
         return partnerApi;
     }
 
+    /**
+     * Returns the data of the given station, or of all stations if equipmentId is null. The
+     * data of all stations is shared and only requested once per upload of the equipments.
+     */
     public NAStationDataBody getStationsDataBody(String equipmentId) {
+        if (equipmentId == null) {
+            return stationsDataCache.get();
+        }
+        return fetchStationsDataBody(equipmentId);
+    }
+
+    /**
+     * Returns the data of the given thermostat, or of all thermostats if equipmentId is null. The
+     * data of all thermostats is shared and only requested once per upload of the equipments.
+     */
+    public NAThermostatDataBody getThermostatsDataBody(String equipmentId) {
+        if (equipmentId == null) {
+            return thermostatsDataCache.get();
+        }
+        return fetchThermostatsDataBody(equipmentId);
+    }
+
+    /**
+     * Returns the given station, based on the shared data of all stations
+     *
+     * @return the station, or null if not available
+     */
+    public NAStationAdapter getStation(String equipmentId) {
+        NAStationDataBody body = getStationsDataBody(null);
+        if (body != null && body.getDevices() != null) {
+            for (NAMain device : body.getDevices()) {
+                if (device.getId().equalsIgnoreCase(equipmentId)) {
+                    return new NAStationAdapter(device, body.getUser().getAdministrative());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the given thermostat plug, based on the shared data of all thermostats
+     *
+     * @return the plug, or null if not available
+     */
+    public NAPlugAdapter getPlug(String equipmentId) {
+        NAThermostatDataBody body = getThermostatsDataBody(null);
+        if (body != null && body.getDevices() != null) {
+            for (NAPlug device : body.getDevices()) {
+                if (device.getId().equalsIgnoreCase(equipmentId)) {
+                    return new NAPlugAdapter(device, body.getUser().getAdministrative());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the next request for thermostat data go to the API, e.g. after a setpoint was changed
+     */
+    public void invalidateThermostatsData() {
+        thermostatsDataCache.invalidate();
+    }
+
+    private NAStationDataBody fetchStationsDataBody(String equipmentId) {
         if (getStationApi() != null) {
             try {
                 return getStationApi().getstationsdata(equipmentId).getBody();
@@ -143,7 +342,7 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
         return null;
     }
 
-    public NAThermostatDataBody getThermostatsDataBody(String equipmentId) {
+    private NAThermostatDataBody fetchThermostatsDataBody(String equipmentId) {
         if (getThermostatApi() != null) {
             try {
                 return getThermostatApi().getthermostatsdata(equipmentId).getBody();
@@ -10,9 +10,6 @@ package org.openhab.binding.netatmo.handler;
 
 import static org.openhab.binding.netatmo.NetatmoBindingConstants.*;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.PointType;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -42,7 +39,6 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
 
     protected NADeviceAdapter<?> device;
     private Logger logger = LoggerFactory.getLogger(NetatmoDeviceHandler.class);
-    private ScheduledFuture<?> refreshJob;
 
     public NetatmoDeviceHandler(Thing thing, Class<X> configurationClass) {
         super(thing, configurationClass);
@@ -57,13 +53,13 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
             if (getBridge().getStatus() == ThingStatus.ONLINE) {
                 logger.debug("setting device '{}' online", configuration.getEquipmentId());
                 updateStatus(ThingStatus.ONLINE);
-                logger.debug("scheduling update channel thread to run every {} ms", configuration.refreshInterval);
-                refreshJob = scheduler.scheduleWithFixedDelay(new Runnable() {
+                // further refreshes are scheduled by the bridge, following the data uploads of the equipments
+                scheduler.execute(new Runnable() {
                     @Override
                     public void run() {
                         updateChannels(configuration.getEquipmentId());
                     }
-                }, 1, configuration.refreshInterval, TimeUnit.MILLISECONDS);
+                });
             } else {
                 logger.debug("setting device '{}' offline (bridge or thing offline)", configuration.getEquipmentId());
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.BRIDGE_OFFLINE);
@@ -74,15 +70,6 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
         }
     }
 
-    @Override
-    public void dispose() {
-        logger.debug("Running dispose()");
-        if (refreshJob != null && !refreshJob.isCancelled()) {
-            refreshJob.cancel(true);
-            refreshJob = null;
-        }
-    }
-
     protected abstract NADeviceAdapter<?> updateReadings(String equipmentId);
 
     @Override
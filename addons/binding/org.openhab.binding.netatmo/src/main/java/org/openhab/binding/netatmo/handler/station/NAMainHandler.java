@@ -20,7 +20,6 @@ import org.openhab.binding.netatmo.internal.NADeviceAdapter;
 import org.openhab.binding.netatmo.internal.NAStationAdapter;
 
 import io.swagger.client.model.NADashboardData;
-import io.swagger.client.model.NAStationDataBody;
 import io.swagger.client.model.NAUserAdministrative;
 
 /**
@@ -38,12 +37,7 @@ public class NAMainHandler extends NetatmoDeviceHandler<NetatmoDeviceConfigurati
 
     @Override
     protected NADeviceAdapter<?> updateReadings(String equipmentId) {
-        NAStationDataBody stationDataBody = getBridgeHandler().getStationsDataBody(equipmentId);
-        if (stationDataBody != null) {
-            return new NAStationAdapter(stationDataBody);
-        } else {
-            return null;
-        }
+        return getBridgeHandler().getStation(equipmentId);
     }
 
     @Override
@@ -145,6 +145,7 @@ public class NATherm1Handler extends NetatmoModuleHandler<NATherm1Configuration>
                                 configuration.getEquipmentId(), command.toString(), null, null);
 
                         updateState(channelUID, new StringType(command.toString()));
+                        getBridgeHandler().invalidateThermostatsData();
                         requestParentRefresh();
                         break;
                     }
@@ -156,6 +157,7 @@ public class NATherm1Handler extends NetatmoModuleHandler<NATherm1Configuration>
                                 configuration.getEquipmentId(), "manual", (int) (cal.getTimeInMillis() / 1000),
                                 Float.parseFloat(command.toString()));
                         updateState(channelUID, new DecimalType(command.toString()));
+                        getBridgeHandler().invalidateThermostatsData();
                         requestParentRefresh();
                         break;
                     }
@@ -38,6 +38,15 @@ public abstract class NADeviceAdapter<DeviceClass> {
         }
     }
 
+    public NADeviceAdapter(DeviceClass device, NAUserAdministrative userAdministrative) {
+        if (device != null) {
+            this.device = device;
+            this.userAdministrative = userAdministrative;
+        } else {
+            throw new IllegalArgumentException("device can not be null");
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public NADeviceAdapter(NAStationDataBody stationDataBody) {
         if (stationDataBody != null) {
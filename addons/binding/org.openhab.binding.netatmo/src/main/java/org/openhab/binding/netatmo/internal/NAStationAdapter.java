@@ -13,6 +13,7 @@ import io.swagger.client.model.NAMain;
 import io.swagger.client.model.NAPlace;
 import io.swagger.client.model.NAStationDataBody;
 import io.swagger.client.model.NAStationModule;
+import io.swagger.client.model.NAUserAdministrative;
 
 /**
  * {@link NAStationAdapter} handles specifics of the NAMain device
@@ -26,6 +27,10 @@ public class NAStationAdapter extends NADeviceAdapter<NAMain> {
         super(device);
     }
 
+    public NAStationAdapter(NAMain device, NAUserAdministrative userAdministrative) {
+        super(device, userAdministrative);
+    }
+
     public NAStationAdapter(NAStationDataBody stationDataBody) {
         super(stationDataBody);
     }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.netatmo.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link NetatmoDataCache} holds the last data fetched from the Netatmo API
+ * until it expires. Concurrent callers asking for expired data share a single
+ * request to the API.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class NetatmoDataCache<T> {
+    private final Supplier<T> fetcher;
+    private final ToLongFunction<T> expiryCalculator;
+    private final long retryDelay;
+
+    private T data = null;
+    private long expiry = 0;
+    private CompletableFuture<T> pendingFetch = null;
+
+    /**
+     * @param fetcher requests the data from the API, returns null on failure
+     * @param expiryCalculator gives the time (in ms) at which freshly fetched data expires
+     * @param retryDelay the delay (in ms) before a failed request is retried
+     */
+    public NetatmoDataCache(Supplier<T> fetcher, ToLongFunction<T> expiryCalculator, long retryDelay) {
+        this.fetcher = fetcher;
+        this.expiryCalculator = expiryCalculator;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Returns the cached data, fetching it first if it expired
+     *
+     * @return the data, or null if it could never be fetched
+     */
+    public T get() {
+        CompletableFuture<T> fetch;
+        boolean fetching = false;
+
+        synchronized (this) {
+            if (System.currentTimeMillis() < expiry) {
+                return data;
+            }
+            if (pendingFetch == null) {
+                pendingFetch = new CompletableFuture<T>();
+                fetching = true;
+            }
+            fetch = pendingFetch;
+        }
+
+        if (fetching) {
+            T result = null;
+            try {
+                result = fetcher.get();
+            } finally {
+                synchronized (this) {
+                    if (result != null) {
+                        data = result;
+                        expiry = expiryCalculator.applyAsLong(result);
+                    } else {
+                        expiry = System.currentTimeMillis() + retryDelay;
+                    }
+                    pendingFetch = null;
+                    result = data;
+                }
+                fetch.complete(result);
+            }
+        }
+
+        return fetch.join();
+    }
+
+    /**
+     * Returns the time (in ms) at which the cached data expires
+     */
+    public synchronized long getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * Makes the next call to {@link #get()} fetch the data again, e.g. after a
+     * change was sent to the API
+     */
+    public synchronized void invalidate() {
+        expiry = 0;
+    }
+}
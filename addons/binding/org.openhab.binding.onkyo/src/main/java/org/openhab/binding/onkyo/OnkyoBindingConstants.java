@@ -83,6 +83,10 @@ public class OnkyoBindingConstants {
     public static final String UDN_PARAMETER = "udn";
     public static final String REFRESH_INTERVAL = "refreshInterval";
 
+    // List of thing properties
+    public static final String PROPERTY_ROUND_TRIP_TIME = "roundTripTime";
+    public static final String PROPERTY_TIMED_OUT_QUERIES = "timedOutQueries";
+
     // List of all Channel ids
     public static final String CHANNEL_POWER = "zone1#power";
     public static final String CHANNEL_INPUT = "zone1#input";
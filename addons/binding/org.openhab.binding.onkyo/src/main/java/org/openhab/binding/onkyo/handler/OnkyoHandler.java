@@ -729,11 +729,24 @@ public class OnkyoHandler extends UpnpAudioSinkHandler implements OnkyoEventList
                 sendCommand(EiscpCommand.ZONE3_SOURCE_QUERY);
                 sendCommand(EiscpCommand.ZONE3_MUTE_QUERY);
             }
+
+            updateConnectionProperties();
         } else {
             updateStatus(ThingStatus.OFFLINE);
         }
     }
 
+    /**
+     * Publishes the round trip statistics of the queries as thing properties.
+     */
+    private void updateConnectionProperties() {
+        long roundTripTime = connection.getAverageRoundTripTime();
+        if (roundTripTime >= 0) {
+            updateProperty(PROPERTY_ROUND_TRIP_TIME, roundTripTime + " ms");
+        }
+        updateProperty(PROPERTY_TIMED_OUT_QUERIES, String.valueOf(connection.getTimedOutQueries()));
+    }
+
     private boolean isChannelAvailable(String channel) {
         List<Channel> channels = getThing().getChannels();
         if (channels != null) {
@@ -16,8 +16,12 @@ import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -34,6 +38,12 @@ import org.slf4j.LoggerFactory;
 /**
  * This class open a TCP/IP connection to the Onkyo device and send a command.
  *
+ * Commands are queued and written by a single writer thread. A queued volume or input command is
+ * superseded by a newer one for the same zone, and a query which is already queued is not queued twice.
+ * Queries are pipelined: up to {@link #MAX_PENDING_QUERIES} queries are sent before their responses
+ * arrive, and each response is matched to the oldest pending query of the same command to measure
+ * the round trip time.
+ *
  * @author Pauli Anttila
  */
 public class OnkyoConnection {
@@ -59,6 +69,20 @@ public class OnkyoConnection {
     private static final int FAST_CONNECTION_RETRY_DELAY = 1000;
     private static final int SLOW_CONNECTION_RETRY_DELAY = 60000;
 
+    /** Maximum number of queries sent without having received their response **/
+    private static final int MAX_PENDING_QUERIES = 4;
+
+    /** Time in milliseconds after which a query is considered unanswered **/
+    private static final int QUERY_TIMEOUT = 3000;
+
+    private static final String QUERY_VALUE = "QSTN";
+
+    /** Commands of which a queued absolute value is superseded by a newer one **/
+    private static final Set<String> COALESCED_COMMANDS = new HashSet<String>(Arrays.asList(
+            EiscpCommand.VOLUME_SET.getCommand(), EiscpCommand.ZONE2_VOLUME_SET.getCommand(),
+            EiscpCommand.ZONE3_VOLUME_SET.getCommand(), EiscpCommand.SOURCE_SET.getCommand(),
+            EiscpCommand.ZONE2_SOURCE_SET.getCommand(), EiscpCommand.ZONE3_SOURCE_SET.getCommand()));
+
     private String ip;
     private int port;
     private Socket eiscpSocket = null;
@@ -69,6 +93,14 @@ public class OnkyoConnection {
     private List<OnkyoEventListener> listeners = new ArrayList<OnkyoEventListener>();
     private int retryCount = 1;
     private ConnectionSupervisor connectionSupervisor = null;
+    private DataWriter dataWriter = null;
+
+    // guarded by sendQueue
+    private final LinkedList<EiscpMessage> sendQueue = new LinkedList<EiscpMessage>();
+    private final LinkedList<PendingQuery> pendingQueries = new LinkedList<PendingQuery>();
+    private long lastRoundTripTime = -1;
+    private long averageRoundTripTime = -1;
+    private long timedOutQueries = 0;
 
     public OnkyoConnection(String ip) {
         this.ip = ip;
@@ -86,6 +118,7 @@ public class OnkyoConnection {
      **/
     public void openConnection() {
         connectSocket();
+        startDataWriter();
     }
 
     /**
@@ -93,6 +126,7 @@ public class OnkyoConnection {
      *
      **/
     public void closeConnection() {
+        stopDataWriter();
         closeSocket();
     }
 
@@ -112,6 +146,34 @@ public class OnkyoConnection {
         return connected;
     }
 
+    /**
+     * Returns the round trip time in milliseconds of the last answered query, -1 if no query was answered yet.
+     */
+    public long getLastRoundTripTime() {
+        synchronized (sendQueue) {
+            return lastRoundTripTime;
+        }
+    }
+
+    /**
+     * Returns the smoothed round trip time in milliseconds of the answered queries, -1 if no query was answered
+     * yet.
+     */
+    public long getAverageRoundTripTime() {
+        synchronized (sendQueue) {
+            return averageRoundTripTime;
+        }
+    }
+
+    /**
+     * Returns the number of queries which were not answered within the query timeout.
+     */
+    public long getTimedOutQueries() {
+        synchronized (sendQueue) {
+            return timedOutQueries;
+        }
+    }
+
     /**
      * Sends a command to Onkyo device.
      *
@@ -120,13 +182,132 @@ public class OnkyoConnection {
     public void send(final String cmd, final String value) {
 
         try {
-            sendCommand(new EiscpMessage.MessageBuilder().command(cmd).value(value).build());
+            queueCommand(new EiscpMessage.MessageBuilder().command(cmd).value(value).build());
         } catch (Exception e) {
             logger.error("Could not send command to device on {}: {}", ip + ":" + port, e);
         }
 
     }
 
+    /**
+     * Queues a command for the writer thread. If the last queued command of the same kind is superseded by
+     * the new one, it takes over its value instead, so that it keeps its position in the queue.
+     **/
+    private void queueCommand(EiscpMessage msg) {
+        synchronized (sendQueue) {
+            Iterator<EiscpMessage> iterator = sendQueue.descendingIterator();
+            while (iterator.hasNext()) {
+                EiscpMessage queued = iterator.next();
+                if (queued.getCommand().equals(msg.getCommand())) {
+                    if (supersedes(msg, queued)) {
+                        logger.debug("Command {} supersedes queued command {}", msg, queued);
+                        queued.setValue(msg.getValue());
+                        return;
+                    }
+                    break;
+                }
+            }
+            sendQueue.add(msg);
+            sendQueue.notifyAll();
+        }
+    }
+
+    private boolean supersedes(EiscpMessage msg, EiscpMessage queued) {
+        if (!msg.getCommand().equals(queued.getCommand())) {
+            return false;
+        }
+        if (isQuery(msg)) {
+            return isQuery(queued);
+        }
+        return COALESCED_COMMANDS.contains(msg.getCommand()) && isAbsoluteValue(msg.getValue())
+                && isAbsoluteValue(queued.getValue());
+    }
+
+    private static boolean isQuery(EiscpMessage msg) {
+        return QUERY_VALUE.equals(msg.getValue());
+    }
+
+    /**
+     * Returns whether the value sets a level or a source, rather than stepping it (UP, DOWN,...) or querying it.
+     */
+    private static boolean isAbsoluteValue(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the next command from the queue, waiting while the queue is empty or while
+     * the next command is a query and too many queries are pending.
+     *
+     * @throws InterruptedException
+     **/
+    private EiscpMessage takeCommand() throws InterruptedException {
+        synchronized (sendQueue) {
+            while (true) {
+                long now = System.currentTimeMillis();
+                expirePendingQueries(now);
+
+                EiscpMessage msg = sendQueue.peek();
+                if (msg != null && (!isQuery(msg) || pendingQueries.size() < MAX_PENDING_QUERIES)) {
+                    sendQueue.poll();
+                    if (isQuery(msg)) {
+                        pendingQueries.add(new PendingQuery(msg.getCommand(), now));
+                    }
+                    return msg;
+                }
+
+                if (msg != null) {
+                    // wait until the oldest pending query is answered or expires
+                    sendQueue.wait(Math.max(1, pendingQueries.peek().timestamp + QUERY_TIMEOUT - now));
+                } else {
+                    sendQueue.wait();
+                }
+            }
+        }
+    }
+
+    private void expirePendingQueries(long now) {
+        Iterator<PendingQuery> iterator = pendingQueries.iterator();
+        while (iterator.hasNext()) {
+            PendingQuery query = iterator.next();
+            if (now - query.timestamp < QUERY_TIMEOUT) {
+                break;
+            }
+            logger.debug("No response received for query {} within {} ms", query.command, QUERY_TIMEOUT);
+            iterator.remove();
+            timedOutQueries++;
+        }
+    }
+
+    /**
+     * Matches a received message to the oldest pending query of the same command.
+     **/
+    private void responseReceived(EiscpMessage message) {
+        synchronized (sendQueue) {
+            Iterator<PendingQuery> iterator = pendingQueries.iterator();
+            while (iterator.hasNext()) {
+                PendingQuery query = iterator.next();
+                if (query.command.equals(message.getCommand())) {
+                    iterator.remove();
+                    lastRoundTripTime = System.currentTimeMillis() - query.timestamp;
+                    // smooth the round trip time like TCP does (alpha = 1/8)
+                    averageRoundTripTime = averageRoundTripTime < 0 ? lastRoundTripTime
+                            : (7 * averageRoundTripTime + lastRoundTripTime) / 8;
+                    logger.trace("Response to query {} received after {} ms", query.command, lastRoundTripTime);
+                    sendQueue.notifyAll();
+                    break;
+                }
+            }
+        }
+    }
+
     private void sendCommand(EiscpMessage msg) {
         logger.debug("Send command: {} to {}:{} ({})", msg.toString(), ip, port, eiscpSocket);
         sendCommand(msg, retryCount);
@@ -157,7 +338,7 @@ public class OnkyoConnection {
                 if (retry > 0) {
                     logger.debug("Retry {}...", retry);
                     closeSocket();
-                    sendCommand(msg, retry--);
+                    sendCommand(msg, retry - 1);
                 } else {
                     sendConnectionErrorEvent();
                 }
@@ -264,6 +445,7 @@ public class OnkyoConnection {
 
             while (true) {
                 EiscpMessage message = EiscpProtocol.getNextMessage(inStream);
+                responseReceived(message);
                 sendMessageEvent(message);
             }
 
@@ -339,7 +521,7 @@ public class OnkyoConnection {
                         connected = false;
                         connectSocket();
                         logger.debug("Test connection to {}:{}", ip, port);
-                        sendCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
+                        queueCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
                                 .value(EiscpCommand.POWER_QUERY.getValue()).build());
 
                     } catch (Exception ex) {
@@ -360,6 +542,68 @@ public class OnkyoConnection {
         }
     }
 
+    private void startDataWriter() {
+        synchronized (sendQueue) {
+            if (dataWriter == null) {
+                dataWriter = new DataWriter();
+                dataWriter.start();
+            }
+        }
+    }
+
+    private void stopDataWriter() {
+        synchronized (sendQueue) {
+            if (dataWriter != null) {
+                dataWriter.setInterrupted(true);
+                dataWriter = null;
+                logger.debug("closed data writer!");
+            }
+            sendQueue.clear();
+            pendingQueries.clear();
+        }
+    }
+
+    private static class PendingQuery {
+        private final String command;
+        private final long timestamp;
+
+        PendingQuery(String command, long timestamp) {
+            this.command = command;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private class DataWriter extends Thread {
+
+        private boolean interrupted = false;
+
+        DataWriter() {
+        }
+
+        public void setInterrupted(boolean interrupted) {
+            this.interrupted = interrupted;
+            this.interrupt();
+        }
+
+        @Override
+        public void run() {
+
+            logger.debug("Data writer started");
+
+            while (!interrupted) {
+                try {
+                    sendCommand(takeCommand());
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (Exception e) {
+                    logger.error("Could not send command to device on {}: {}", ip + ":" + port, e.getMessage());
+                }
+            }
+
+            logger.debug("Data writer stopped");
+        }
+    }
+
     private class ConnectionSupervisor {
         private Timer timer;
 
@@ -378,7 +622,7 @@ public class OnkyoConnection {
             @Override
             public void run() {
                 logger.debug("Test connection to {}:{}", ip, port);
-                sendCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
+                queueCommand(new EiscpMessage.MessageBuilder().command(EiscpCommand.POWER_QUERY.getCommand())
                         .value(EiscpCommand.POWER_QUERY.getValue()).build());
             }
         }
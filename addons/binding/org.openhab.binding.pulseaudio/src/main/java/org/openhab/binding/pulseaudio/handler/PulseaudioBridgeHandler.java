@@ -13,8 +13,10 @@ import static org.openhab.binding.pulseaudio.PulseaudioBindingConstants.*;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
@@ -31,6 +33,8 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.openhab.binding.pulseaudio.PulseaudioBindingConstants;
 import org.openhab.binding.pulseaudio.internal.PulseaudioClient;
 import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig;
+import org.openhab.binding.pulseaudio.internal.items.Sink;
+import org.openhab.binding.pulseaudio.internal.items.SinkInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,14 +59,22 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
     private PulseaudioClient client;
 
     private HashSet<String> lastActiveDevices = new HashSet<String>();
+    // the state of the devices at the last update, to only notify the listeners of changed devices
+    private Map<String, String> lastDeviceStates = new HashMap<String, String>();
 
     private ScheduledFuture<?> pollingJob;
     private Runnable pollingRunnable = new Runnable() {
         @Override
         public void run() {
-            client.update();
-            for (AbstractAudioDeviceConfig device : client.getItems()) {
+            Map<String, String> deviceStates = new HashMap<String, String>();
+            for (AbstractAudioDeviceConfig device : client.update().getItems()) {
+                String deviceKey = device.getClass().getSimpleName() + ":" + device.getPaName();
+                String deviceState = getDeviceState(device);
+                deviceStates.put(deviceKey, deviceState);
                 if (lastActiveDevices != null && lastActiveDevices.contains(device.getPaName())) {
+                    if (deviceState.equals(lastDeviceStates.get(deviceKey))) {
+                        continue;
+                    }
                     for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
                         try {
                             deviceStatusListener.onDeviceStateChanged(getThing().getUID(), device);
@@ -82,9 +94,24 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
                     }
                 }
             }
+            lastDeviceStates = deviceStates;
         }
     };
 
+    /**
+     * returns the state of the device that is reflected by the channels
+     */
+    private String getDeviceState(AbstractAudioDeviceConfig device) {
+        StringBuilder state = new StringBuilder(device.toString());
+        if (device instanceof SinkInput && ((SinkInput) device).getSink() != null) {
+            state.append(", sink: ").append(((SinkInput) device).getSink().getPaName());
+        }
+        if (device instanceof Sink) {
+            state.append(", slaves: ").append(((Sink) device).getCombinedSinkNames());
+        }
+        return state.toString();
+    }
+
     private List<DeviceStatusListener> deviceStatusListeners = new CopyOnWriteArrayList<>();
 
     public PulseaudioBridgeHandler(Bridge bridge) {
@@ -107,7 +134,7 @@ public class PulseaudioBridgeHandler extends BaseBridgeHandler {
     }
 
     public AbstractAudioDeviceConfig getDevice(String name) {
-        return client.getGenericAudioItem(name);
+        return client != null ? client.getGenericAudioItem(name) : null;
     }
 
     public PulseaudioClient getClient() {
@@ -140,6 +140,11 @@ public class PulseaudioHandler extends BaseThingHandler implements DeviceStatusL
             if (handler instanceof PulseaudioBridgeHandler) {
                 this.bridgeHandler = (PulseaudioBridgeHandler) handler;
                 this.bridgeHandler.registerDeviceStatusListener(this);
+                // the bridge only notifies about changes, so start from the current state
+                AbstractAudioDeviceConfig device = this.bridgeHandler.getDevice(name);
+                if (device != null) {
+                    onDeviceStateChanged(bridge.getUID(), device);
+                }
             } else {
                 logger.debug("No available bridge handler found for device {} bridge {} .", name, bridge.getUID());
                 return null;
@@ -156,7 +161,11 @@ public class PulseaudioHandler extends BaseThingHandler implements DeviceStatusL
             return;
         }
         if (command instanceof RefreshType) {
-            bridge.handleCommand(channelUID, command);
+            // the bridge keeps the state of all devices up to date
+            AbstractAudioDeviceConfig device = bridge.getDevice(name);
+            if (device != null) {
+                onDeviceStateChanged(getBridge().getUID(), device);
+            }
             return;
         }
 
@@ -170,9 +179,7 @@ public class PulseaudioHandler extends BaseThingHandler implements DeviceStatusL
             State updateState = UnDefType.UNDEF;
             if (channelUID.getId().equals(PulseaudioBindingConstants.VOLUME_CHANNEL)) {
                 if (command instanceof IncreaseDecreaseType) {
-                    // refresh to get the current volume level
-                    bridge.getClient().update();
-                    device = bridge.getDevice(name);
+                    // the current volume level is kept up to date by the bridge and by volume commands
                     int volume = device.getVolume();
                     if (command.equals(IncreaseDecreaseType.INCREASE)) {
                         volume = Math.min(100, volume + 5);
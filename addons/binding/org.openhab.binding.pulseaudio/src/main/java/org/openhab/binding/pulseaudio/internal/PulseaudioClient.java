@@ -17,6 +17,7 @@ import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.pulseaudio.internal.cli.Parser;
@@ -48,8 +49,11 @@ public class PulseaudioClient {
     private int port;
     private Socket client;
 
-    private List<AbstractAudioDeviceConfig> items;
-    private List<Module> modules;
+    private volatile PulseaudioSnapshot snapshot = new PulseaudioSnapshot();
+
+    // the update in progress, shared by concurrent callers of update()
+    private final Object updateLock = new Object();
+    private CompletableFuture<PulseaudioSnapshot> pendingUpdate;
 
     /**
      * corresponding name to execute actions on sink items
@@ -119,9 +123,6 @@ public class PulseaudioClient {
         this.host = host;
         this.port = port;
 
-        items = new ArrayList<AbstractAudioDeviceConfig>();
-        modules = new ArrayList<Module>();
-
         connect();
         update();
     }
@@ -131,19 +132,71 @@ public class PulseaudioClient {
     }
 
     /**
-     * updates the item states and their relationships
+     * updates the item states and their relationships by reading a new snapshot from the server.
+     * Concurrent callers share the same update.
+     *
+     * @return the new snapshot
      */
-    public void update() {
-        modules.clear();
-        modules.addAll(Parser.parseModules(listModules()));
+    public PulseaudioSnapshot update() {
+        CompletableFuture<PulseaudioSnapshot> update;
+        boolean updating = false;
 
-        items.clear();
-        items.addAll(Parser.parseSinks(listSinks(), this));
-        items.addAll(Parser.parseSources(listSources(), this));
-        items.addAll(Parser.parseSinkInputs(listSinkInputs(), this));
-        items.addAll(Parser.parseSourceOutputs(listSourceOutputs(), this));
+        synchronized (updateLock) {
+            if (pendingUpdate == null) {
+                pendingUpdate = new CompletableFuture<PulseaudioSnapshot>();
+                updating = true;
+            }
+            update = pendingUpdate;
+        }
+
+        if (updating) {
+            try {
+                snapshot = readSnapshot();
+            } finally {
+                synchronized (updateLock) {
+                    pendingUpdate = null;
+                }
+                update.complete(snapshot);
+            }
+        }
 
-        logger.debug("Pulseaudio server {}: {} modules and {} items updated", host, modules.size(), items.size());
+        return update.join();
+    }
+
+    /**
+     * updates the item states after a command that changed them in a way that can't be
+     * reproduced in place. An update that was already running might not reflect the command,
+     * so the command's caller waits for it and starts a new one.
+     */
+    private PulseaudioSnapshot updateAfterCommand() {
+        CompletableFuture<PulseaudioSnapshot> runningUpdate;
+        synchronized (updateLock) {
+            runningUpdate = pendingUpdate;
+        }
+        if (runningUpdate != null) {
+            runningUpdate.join();
+        }
+        return update();
+    }
+
+    private PulseaudioSnapshot readSnapshot() {
+        PulseaudioSnapshot newSnapshot = new PulseaudioSnapshot();
+        newSnapshot.addModules(Parser.parseModules(listModules()));
+        newSnapshot.addItems(Parser.parseSinks(listSinks(), newSnapshot));
+        newSnapshot.addItems(Parser.parseSources(listSources(), newSnapshot));
+        newSnapshot.addItems(Parser.parseSinkInputs(listSinkInputs(), newSnapshot));
+        newSnapshot.addItems(Parser.parseSourceOutputs(listSourceOutputs(), newSnapshot));
+
+        logger.debug("Pulseaudio server {}: {} modules and {} items updated", host, newSnapshot.getModules().size(),
+                newSnapshot.getItems().size());
+        return newSnapshot;
+    }
+
+    /**
+     * returns the last snapshot read from the server
+     */
+    public PulseaudioSnapshot getSnapshot() {
+        return snapshot;
     }
 
     private String listModules() {
@@ -173,12 +226,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Module} to the given <code>id</code>
      */
     public Module getModule(int id) {
-        for (Module module : modules) {
-            if (module.getId() == id) {
-                return module;
-            }
-        }
-        return null;
+        return snapshot.getModule(id);
     }
 
     /**
@@ -198,12 +246,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Sink} to the given <code>name</code>
      */
     public Sink getSink(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof Sink) {
-                return (Sink) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(Sink.class, name);
     }
 
     /**
@@ -212,12 +255,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Sink} to the given <code>id</code>
      */
     public Sink getSink(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof Sink) {
-                return (Sink) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(Sink.class, id);
     }
 
     /**
@@ -226,12 +264,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SinkInput} to the given <code>name</code>
      */
     public SinkInput getSinkInput(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof SinkInput) {
-                return (SinkInput) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(SinkInput.class, name);
     }
 
     /**
@@ -240,12 +273,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SinkInput} to the given <code>id</code>
      */
     public SinkInput getSinkInput(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof SinkInput) {
-                return (SinkInput) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(SinkInput.class, id);
     }
 
     /**
@@ -254,12 +282,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Source} to the given <code>name</code>
      */
     public Source getSource(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof Source) {
-                return (Source) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(Source.class, name);
     }
 
     /**
@@ -268,12 +291,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link Source} to the given <code>id</code>
      */
     public Source getSource(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof Source) {
-                return (Source) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(Source.class, id);
     }
 
     /**
@@ -282,12 +300,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SourceOutput} to the given <code>name</code>
      */
     public SourceOutput getSourceOutput(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name) && item instanceof SourceOutput) {
-                return (SourceOutput) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(SourceOutput.class, name);
     }
 
     /**
@@ -296,12 +309,7 @@ public class PulseaudioClient {
      * @return the corresponding {@link SourceOutput} to the given <code>id</code>
      */
     public SourceOutput getSourceOutput(int id) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getId() == id && item instanceof SourceOutput) {
-                return (SourceOutput) item;
-            }
-        }
-        return null;
+        return snapshot.getItem(SourceOutput.class, id);
     }
 
     /**
@@ -310,16 +318,11 @@ public class PulseaudioClient {
      * @return the corresponding {@link AbstractAudioDeviceConfig} to the given <code>name</code>
      */
     public AbstractAudioDeviceConfig getGenericAudioItem(String name) {
-        for (AbstractAudioDeviceConfig item : items) {
-            if (item.getPaName().equalsIgnoreCase(name)) {
-                return item;
-            }
-        }
-        return null;
+        return snapshot.getGenericAudioItem(name);
     }
 
     public List<AbstractAudioDeviceConfig> getItems() {
-        return items;
+        return snapshot.getItems();
     }
 
     /**
@@ -427,7 +430,7 @@ public class PulseaudioClient {
         _sendRawCommand(CMD_LOAD_MODULE + " " + MODULE_COMBINE_SINK + " sink_name=" + combinedSink.getPaName()
                 + " slaves=" + StringUtils.join(slaves, ","));
         // 3. update internal data structure because the combined sink has a new number + other slaves
-        update();
+        updateAfterCommand();
     }
 
     /**
@@ -475,7 +478,7 @@ public class PulseaudioClient {
             _sendRawCommand("suspend-source " + source.getId() + " 0");
             // unsuspending the source could result in different states (RUNNING,IDLE,...)
             // update to get the new state
-            update();
+            updateAfterCommand();
         }
     }
 
@@ -496,7 +499,7 @@ public class PulseaudioClient {
             _sendRawCommand("suspend-sink " + sink.getId() + " 0");
             // unsuspending the sink could result in different states (RUNNING,IDLE,...)
             // update to get the new state
-            update();
+            updateAfterCommand();
         }
     }
 
@@ -518,10 +521,10 @@ public class PulseaudioClient {
         _sendRawCommand(CMD_LOAD_MODULE + " " + MODULE_COMBINE_SINK + " sink_name=" + combinedSinkName + " slaves="
                 + StringUtils.join(slaves, ","));
         // update internal data structure because the combined sink is new
-        update();
+        updateAfterCommand();
     }
 
-    private void _sendRawCommand(String command) {
+    private synchronized void _sendRawCommand(String command) {
         checkConnection();
         try {
             PrintStream out = new PrintStream(client.getOutputStream(), true);
@@ -534,7 +537,7 @@ public class PulseaudioClient {
         }
     }
 
-    private String _sendRawRequest(String command) {
+    private synchronized String _sendRawRequest(String command) {
         logger.trace("_sendRawRequest({})", command);
         checkConnection();
         String result = "";
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.pulseaudio.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig;
+import org.openhab.binding.pulseaudio.internal.items.Module;
+import org.openhab.binding.pulseaudio.internal.items.Sink;
+import org.openhab.binding.pulseaudio.internal.items.SinkInput;
+import org.openhab.binding.pulseaudio.internal.items.Source;
+import org.openhab.binding.pulseaudio.internal.items.SourceOutput;
+
+/**
+ * The state of a pulseaudio server (its modules and items) at the time it was read. The items
+ * are indexed by type and by id and name, so that they can be looked up without scanning
+ * all of them.
+ *
+ * A snapshot is filled while the server's answers are parsed and must not be changed once it
+ * was published by the {@link PulseaudioClient}. Only the state of the items (volume, mute,...)
+ * is updated in place when a command is sent to the server.
+ *
+ * @author agent
+ */
+public class PulseaudioSnapshot {
+
+    /**
+     * the item types, in the order they are looked up by name
+     */
+    private static final List<Class<? extends AbstractAudioDeviceConfig>> ITEM_TYPES = Collections
+            .unmodifiableList(Arrays.<Class<? extends AbstractAudioDeviceConfig>> asList(Sink.class, Source.class,
+                    SinkInput.class, SourceOutput.class));
+
+    private final long timestamp = System.currentTimeMillis();
+
+    private final List<Module> modules = new ArrayList<Module>();
+    private final Map<Integer, Module> modulesById = new HashMap<Integer, Module>();
+
+    private final List<AbstractAudioDeviceConfig> items = new ArrayList<AbstractAudioDeviceConfig>();
+    private final Map<Class<?>, Map<Integer, AbstractAudioDeviceConfig>> itemsById = new HashMap<>();
+    private final Map<Class<?>, Map<String, AbstractAudioDeviceConfig>> itemsByName = new HashMap<>();
+
+    public PulseaudioSnapshot() {
+        for (Class<? extends AbstractAudioDeviceConfig> type : ITEM_TYPES) {
+            itemsById.put(type, new HashMap<Integer, AbstractAudioDeviceConfig>());
+            itemsByName.put(type, new HashMap<String, AbstractAudioDeviceConfig>());
+        }
+    }
+
+    /**
+     * returns the time (in ms) the snapshot was taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void addModules(Collection<Module> newModules) {
+        for (Module module : newModules) {
+            modules.add(module);
+            if (!modulesById.containsKey(module.getId())) {
+                modulesById.put(module.getId(), module);
+            }
+        }
+    }
+
+    public void addItems(Collection<? extends AbstractAudioDeviceConfig> newItems) {
+        for (AbstractAudioDeviceConfig item : newItems) {
+            items.add(item);
+            Map<Integer, AbstractAudioDeviceConfig> byId = itemsById.get(item.getClass());
+            Map<String, AbstractAudioDeviceConfig> byName = itemsByName.get(item.getClass());
+            if (byId == null || byName == null) {
+                continue;
+            }
+            // keep the first item as a linear search would
+            if (!byId.containsKey(item.getId())) {
+                byId.put(item.getId(), item);
+            }
+            String key = getNameKey(item.getPaName());
+            if (!byName.containsKey(key)) {
+                byName.put(key, item);
+            }
+        }
+    }
+
+    private String getNameKey(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * retrieves a module by its id
+     *
+     * @param id
+     * @return the corresponding {@link Module} to the given <code>id</code>
+     */
+    public Module getModule(int id) {
+        return modulesById.get(id);
+    }
+
+    /**
+     * retrieves an item of the given type by its id
+     *
+     * @return the corresponding item to the given <code>id</code>
+     */
+    public <T extends AbstractAudioDeviceConfig> T getItem(Class<T> type, int id) {
+        Map<Integer, AbstractAudioDeviceConfig> byId = itemsById.get(type);
+        return byId != null ? type.cast(byId.get(id)) : null;
+    }
+
+    /**
+     * retrieves an item of the given type by its name (case insensitive)
+     *
+     * @return the corresponding item to the given <code>name</code>
+     */
+    public <T extends AbstractAudioDeviceConfig> T getItem(Class<T> type, String name) {
+        Map<String, AbstractAudioDeviceConfig> byName = itemsByName.get(type);
+        return byName != null && name != null ? type.cast(byName.get(getNameKey(name))) : null;
+    }
+
+    /**
+     * retrieves a {@link Sink} by its id
+     *
+     * @return the corresponding {@link Sink} to the given <code>id</code>
+     */
+    public Sink getSink(int id) {
+        return getItem(Sink.class, id);
+    }
+
+    /**
+     * retrieves a {@link Source} by its id
+     *
+     * @return the corresponding {@link Source} to the given <code>id</code>
+     */
+    public Source getSource(int id) {
+        return getItem(Source.class, id);
+    }
+
+    /**
+     * retrieves a {@link AbstractAudioDeviceConfig} of any type by its name
+     *
+     * @return the corresponding {@link AbstractAudioDeviceConfig} to the given <code>name</code>
+     */
+    public AbstractAudioDeviceConfig getGenericAudioItem(String name) {
+        for (Class<? extends AbstractAudioDeviceConfig> type : ITEM_TYPES) {
+            AbstractAudioDeviceConfig item = getItem(type, name);
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    public List<Module> getModules() {
+        return Collections.unmodifiableList(modules);
+    }
+
+    public List<AbstractAudioDeviceConfig> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+}
@@ -15,7 +15,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.openhab.binding.pulseaudio.internal.PulseaudioClient;
+import org.openhab.binding.pulseaudio.internal.PulseaudioSnapshot;
 import org.openhab.binding.pulseaudio.internal.items.AbstractAudioDeviceConfig;
 import org.openhab.binding.pulseaudio.internal.items.Module;
 import org.openhab.binding.pulseaudio.internal.items.Sink;
@@ -93,7 +93,7 @@ public class Parser {
      * @param raw the given string from the pulseaudio server
      * @return list of sinks
      */
-    public static Collection<Sink> parseSinks(String raw, PulseaudioClient client) {
+    public static Collection<Sink> parseSinks(String raw, PulseaudioSnapshot snapshot) {
         Hashtable<String, Sink> sinks = new Hashtable<String, Sink>();
         String[] parts = raw.split("index: ");
         if (parts.length <= 1) {
@@ -123,7 +123,7 @@ public class Parser {
             }
             if (properties.containsKey("name")) {
                 Sink sink = new Sink(id, properties.get("name"),
-                        client.getModule(getNumberValue(properties.get("module"))));
+                        snapshot.getModule(getNumberValue(properties.get("module"))));
                 if (properties.containsKey("state")) {
                     try {
                         sink.setState(AbstractAudioDeviceConfig.State.valueOf(properties.get("state")));
@@ -162,7 +162,7 @@ public class Parser {
      * @param raw the given string from the pulseaudio server
      * @return list of sink-inputs
      */
-    public static List<SinkInput> parseSinkInputs(String raw, PulseaudioClient client) {
+    public static List<SinkInput> parseSinkInputs(String raw, PulseaudioSnapshot snapshot) {
         List<SinkInput> items = new ArrayList<SinkInput>();
         String[] parts = raw.split("index: ");
         if (parts.length <= 1) {
@@ -191,7 +191,7 @@ public class Parser {
             if (properties.containsKey("sink")) {
                 String name = properties.containsKey("media.name") ? properties.get("media.name")
                         : properties.get("sink");
-                SinkInput item = new SinkInput(id, name, client.getModule(getNumberValue(properties.get("module"))));
+                SinkInput item = new SinkInput(id, name, snapshot.getModule(getNumberValue(properties.get("module"))));
                 if (properties.containsKey("state")) {
                     try {
                         item.setState(AbstractAudioDeviceConfig.State.valueOf(properties.get("state")));
@@ -206,7 +206,7 @@ public class Parser {
                     item.setVolume(Integer.valueOf(parseVolume(properties.get("volume"))));
                 }
                 if (properties.containsKey("sink")) {
-                    item.setSink(client.getSink(Integer.valueOf(getNumberValue(properties.get("sink")))));
+                    item.setSink(snapshot.getSink(Integer.valueOf(getNumberValue(properties.get("sink")))));
                 }
                 items.add(item);
             }
@@ -221,7 +221,7 @@ public class Parser {
      * @param raw the given string from the pulseaudio server
      * @return list of sources
      */
-    public static List<Source> parseSources(String raw, PulseaudioClient client) {
+    public static List<Source> parseSources(String raw, PulseaudioSnapshot snapshot) {
         List<Source> sources = new ArrayList<Source>();
         String[] parts = raw.split("index: ");
         if (parts.length <= 1) {
@@ -250,7 +250,7 @@ public class Parser {
             }
             if (properties.containsKey("name")) {
                 Source source = new Source(id, properties.get("name"),
-                        client.getModule(getNumberValue(properties.get("module"))));
+                        snapshot.getModule(getNumberValue(properties.get("module"))));
                 if (properties.containsKey("state")) {
                     try {
                         source.setState(AbstractAudioDeviceConfig.State.valueOf(properties.get("state")));
@@ -265,7 +265,7 @@ public class Parser {
                     source.setVolume(Integer.valueOf(parseVolume(properties.get("volume"))));
                 }
                 if (properties.containsKey("monitor_of")) {
-                    source.setMonitorOf(client.getSink(Integer.valueOf(parseVolume(properties.get("monitor_of")))));
+                    source.setMonitorOf(snapshot.getSink(Integer.valueOf(parseVolume(properties.get("monitor_of")))));
                 }
                 sources.add(source);
             }
@@ -280,7 +280,7 @@ public class Parser {
      * @param raw the given string from the pulseaudio server
      * @return list of source-outputs
      */
-    public static List<SourceOutput> parseSourceOutputs(String raw, PulseaudioClient client) {
+    public static List<SourceOutput> parseSourceOutputs(String raw, PulseaudioSnapshot snapshot) {
         List<SourceOutput> items = new ArrayList<SourceOutput>();
         String[] parts = raw.split("index: ");
         if (parts.length <= 1) {
@@ -309,7 +309,7 @@ public class Parser {
             }
             if (properties.containsKey("source")) {
                 SourceOutput item = new SourceOutput(id, properties.get("source"),
-                        client.getModule(getNumberValue(properties.get("module"))));
+                        snapshot.getModule(getNumberValue(properties.get("module"))));
                 if (properties.containsKey("state")) {
                     try {
                         item.setState(AbstractAudioDeviceConfig.State.valueOf(properties.get("state")));
@@ -324,7 +324,7 @@ public class Parser {
                     item.setVolume(Integer.valueOf(parseVolume(properties.get("volume"))));
                 }
                 if (properties.containsKey("source")) {
-                    item.setSource(client.getSource(Integer.valueOf(getNumberValue(properties.get("source")))));
+                    item.setSource(snapshot.getSource(Integer.valueOf(getNumberValue(properties.get("source")))));
                 }
                 items.add(item);
             }
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.net;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SocketChannelSession} against a local echo server, including commands that don't fit into the
+ * socket buffers (and are finished by the selector thread once the channel is writable) and reconnecting.
+ *
+ * @author agent
+ */
+public class SocketChannelSessionTest {
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * A command larger than the socket buffers of both ends
+     */
+    private static final int LARGE_COMMAND_SIZE = 8 * 1024 * 1024;
+
+    private EchoServer server;
+    private SocketChannelSession session;
+
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<String>();
+    private final BlockingQueue<IOException> exceptions = new LinkedBlockingQueue<IOException>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EchoServer();
+        session = new SocketChannelSession(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+        session.addListener(new SocketSessionListener() {
+            @Override
+            public void responseReceived(String response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void responseException(IOException e) {
+                exceptions.add(e);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        session.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void commandIsEchoed() throws Exception {
+        session.connect();
+        session.sendCommand("status");
+
+        assertEquals("status", responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(1, session.getLatencyCount());
+    }
+
+    @Test
+    public void partialWriteIsFinishedOnceWritable() throws Exception {
+        server.pause();
+        session.connect();
+
+        final String command = largeCommand();
+        final Thread sender = send(command, new AtomicReference<Exception>());
+
+        // the command doesn't fit into the socket buffers, the sender waits for the channel to become writable
+        sender.join(500);
+        assertTrue("The command was written at once", sender.isAlive());
+
+        server.resume();
+        sender.join(TIMEOUT);
+        assertFalse(sender.isAlive());
+
+        assertEquals(command, responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        // the session is still usable after the partial write
+        session.sendCommand("status");
+        assertEquals("status", responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void reconnectAfterServerClosedConnection() throws Exception {
+        session.connect();
+        session.sendCommand("first");
+        assertEquals("first", responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        server.closeConnection();
+        assertNotNull(exceptions.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        session.connect();
+        session.sendCommand("second");
+        assertEquals("second", responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void pendingWriteFailsOnDisconnect() throws Exception {
+        server.pause();
+        session.connect();
+
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final Thread sender = send(largeCommand(), failure);
+        sender.join(500);
+        assertTrue(sender.isAlive());
+
+        session.disconnect();
+        sender.join(TIMEOUT);
+        assertFalse(sender.isAlive());
+        assertTrue(failure.get() instanceof IOException);
+
+        server.resume();
+        session.connect();
+        session.sendCommand("status");
+        assertEquals("status", responses.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    private String largeCommand() {
+        final char[] chars = new char[LARGE_COMMAND_SIZE];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private Thread send(final String command, final AtomicReference<Exception> failure) {
+        final Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    session.sendCommand(command);
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            }
+        });
+        sender.start();
+        return sender;
+    }
+
+    /**
+     * Echoes every line received back to the client. Reading can be paused to fill up the socket buffers.
+     */
+    private static class EchoServer implements Runnable {
+        private final ServerSocket serverSocket;
+        private volatile CountDownLatch paused = new CountDownLatch(0);
+        private volatile Socket client;
+
+        EchoServer() throws IOException {
+            serverSocket = new ServerSocket();
+            serverSocket.setReceiveBufferSize(4096);
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            final Thread thread = new Thread(this, "EchoServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void pause() {
+            paused = new CountDownLatch(1);
+        }
+
+        void resume() {
+            paused.countDown();
+        }
+
+        void closeConnection() throws IOException {
+            final Socket current = client;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        void close() throws IOException {
+            resume();
+            serverSocket.close();
+            closeConnection();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    client = socket;
+                    paused.await();
+
+                    final BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    final OutputStream out = socket.getOutputStream();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // connection closed, wait for the next one
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.rio;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.russound.internal.net.SocketSession;
+import org.openhab.binding.russound.internal.net.SocketSessionListener;
+
+/**
+ * Tests that the {@link RioRoutingSession} hands each response only to the handlers owning its key path. The
+ * listeners are registered with the same routes the protocol handlers use.
+ *
+ * @author agent
+ */
+public class RioRoutingSessionTest {
+
+    private FakeSession session;
+    private RioRoutingSession routingSession;
+
+    private RecordingListener system;
+    private RecordingListener systemFavorites;
+    private RecordingListener controller1;
+    private RecordingListener controller2;
+    private RecordingListener zone1;
+    private RecordingListener zone3;
+    private RecordingListener zone3OfController2;
+    private RecordingListener source1;
+    private RecordingListener source2;
+    private RecordingListener presets;
+    private RecordingListener all;
+
+    @Before
+    public void setUp() {
+        session = new FakeSession();
+        routingSession = new RioRoutingSession(session);
+
+        system = listen(RioRoutingSession.ROUTE_SYSTEM, RioRoutingSession.ROUTE_UNROUTED);
+        systemFavorites = listen(RioRoutingSession.ROUTE_SYSTEM);
+        controller1 = listen(RioRoutingSession.getControllerRoute(1));
+        controller2 = listen(RioRoutingSession.getControllerRoute(2));
+        zone1 = listen(RioRoutingSession.getZoneRoute(1, 1));
+        zone3 = listen(RioRoutingSession.getZoneRoute(1, 3));
+        zone3OfController2 = listen(RioRoutingSession.getZoneRoute(2, 3));
+        source1 = listen(RioRoutingSession.getSourceRoute(1), RioRoutingSession.ROUTE_UNROUTED);
+        source2 = listen(RioRoutingSession.getSourceRoute(2), RioRoutingSession.ROUTE_UNROUTED);
+        presets = listen(RioRoutingSession.ROUTE_ALL_SOURCES);
+
+        all = new RecordingListener();
+        routingSession.addListener(all);
+    }
+
+    @Test
+    public void zoneNotificationsOnlyReachTheirZone() throws InterruptedException {
+        session.receive("N C[1].Z[3].volume=\"10\"");
+        session.receive("S C[2].Z[3].name=\"Kitchen\"");
+        session.receive("n c[1].z[1].status=\"ON\"");
+
+        assertEquals(Arrays.asList("N C[1].Z[3].volume=\"10\""), zone3.responses);
+        assertEquals(Arrays.asList("S C[2].Z[3].name=\"Kitchen\""), zone3OfController2.responses);
+        assertEquals(Arrays.asList("n c[1].z[1].status=\"ON\""), zone1.responses);
+        assertNothingReceived(controller1, controller2, source1, source2, presets, system, systemFavorites);
+    }
+
+    @Test
+    public void controllerNotificationsDontReachItsZones() throws InterruptedException {
+        session.receive("S C[1].type=\"MCA-C5\"");
+
+        assertEquals(Arrays.asList("S C[1].type=\"MCA-C5\""), controller1.responses);
+        assertNothingReceived(controller2, zone1, zone3, zone3OfController2, source1, source2, presets, system);
+    }
+
+    @Test
+    public void sourceNotificationsReachTheirSourceAndThePresets() throws InterruptedException {
+        session.receive("N S[2].songName=\"Song\"");
+        session.receive("N S[1].B[1].P[2].name=\"Station\"");
+
+        assertEquals(Arrays.asList("N S[2].songName=\"Song\""), source2.responses);
+        assertEquals(Arrays.asList("N S[1].B[1].P[2].name=\"Station\""), source1.responses);
+        assertEquals(Arrays.asList("N S[2].songName=\"Song\"", "N S[1].B[1].P[2].name=\"Station\""),
+                presets.responses);
+        assertNothingReceived(controller1, zone1, zone3, system, systemFavorites);
+    }
+
+    @Test
+    public void systemNotificationsReachTheSystemHandlers() throws InterruptedException {
+        session.receive("N System.status=\"ON\"");
+        session.receive("S System.favorite[1].name=\"Favorite\"");
+
+        final List<String> expected = Arrays.asList("N System.status=\"ON\"",
+                "S System.favorite[1].name=\"Favorite\"");
+        assertEquals(expected, system.responses);
+        assertEquals(expected, systemFavorites.responses);
+        assertNothingReceived(controller1, zone1, source1, presets);
+    }
+
+    @Test
+    public void unroutedResponsesReachTheSystemAndTheSources() throws InterruptedException {
+        final List<String> unrouted = Arrays.asList("S VERSION=\"02.00.00\"", "E Invalid command", "",
+                "N C[x].Z[1].volume=\"1\"", "N C[1].Z[999].volume=\"1\"", "N S[1", "M state=\"ON\"");
+        for (String response : unrouted) {
+            session.receive(response);
+        }
+
+        assertEquals(unrouted, system.responses);
+        assertEquals(unrouted, source1.responses);
+        assertEquals(unrouted, source2.responses);
+        assertNothingReceived(systemFavorites, controller1, zone1, presets);
+    }
+
+    @Test
+    public void plainListenersReceiveEveryResponse() throws InterruptedException {
+        session.receive("N C[1].Z[3].volume=\"10\"");
+        session.receive("N S[2].songName=\"Song\"");
+        session.receive("S VERSION=\"02.00.00\"");
+
+        assertEquals(
+                Arrays.asList("N C[1].Z[3].volume=\"10\"", "N S[2].songName=\"Song\"", "S VERSION=\"02.00.00\""),
+                all.responses);
+    }
+
+    @Test
+    public void removedListenersReceiveNothing() throws InterruptedException {
+        assertTrue(routingSession.removeListener(RioRoutingSession.getZoneRoute(1, 3), zone3));
+        assertFalse(routingSession.removeListener(RioRoutingSession.getZoneRoute(1, 3), zone3));
+
+        session.receive("N C[1].Z[3].volume=\"10\"");
+
+        assertNothingReceived(zone3);
+        assertEquals(1, all.responses.size());
+    }
+
+    @Test
+    public void exceptionsReachEveryListenerOnce() throws InterruptedException {
+        session.fail(new IOException("connection lost"));
+
+        for (RecordingListener listener : Arrays.asList(system, systemFavorites, controller1, controller2, zone1,
+                zone3, zone3OfController2, source1, source2, presets, all)) {
+            assertEquals(1, listener.exceptions);
+        }
+    }
+
+    private RecordingListener listen(int... routes) {
+        final RecordingListener listener = new RecordingListener();
+        for (int route : routes) {
+            routingSession.addListener(route, listener);
+        }
+        return listener;
+    }
+
+    private void assertNothingReceived(RecordingListener... listeners) {
+        for (RecordingListener listener : listeners) {
+            assertEquals(Collections.emptyList(), listener.responses);
+        }
+    }
+
+    /**
+     * Records the responses and the number of exceptions it received
+     */
+    private static class RecordingListener implements SocketSessionListener {
+        private final List<String> responses = new ArrayList<String>();
+        private int exceptions;
+
+        @Override
+        public void responseReceived(String response) {
+            responses.add(response);
+        }
+
+        @Override
+        public void responseException(IOException e) {
+            exceptions++;
+        }
+    }
+
+    /**
+     * A {@link SocketSession} without a connection that hands the responses given by the test to its listeners
+     */
+    private static class FakeSession implements SocketSession {
+        private final List<SocketSessionListener> listeners = new ArrayList<SocketSessionListener>();
+
+        void receive(String response) throws InterruptedException {
+            for (SocketSessionListener listener : listeners) {
+                listener.responseReceived(response);
+            }
+        }
+
+        void fail(IOException e) throws InterruptedException {
+            for (SocketSessionListener listener : listeners) {
+                listener.responseException(e);
+            }
+        }
+
+        @Override
+        public void addListener(SocketSessionListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void clearListeners() {
+            listeners.clear();
+        }
+
+        @Override
+        public boolean removeListener(SocketSessionListener listener) {
+            return listeners.remove(listener);
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void connect(int timeout) {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void sendCommand(String command) {
+        }
+    }
+}
@@ -9,15 +9,20 @@
 package org.openhab.binding.russound.internal.net;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -26,13 +31,24 @@ import org.slf4j.LoggerFactory;
 /**
  * Represents a restartable socket connection to the underlying telnet session. Commands can be sent via
  * {@link #sendCommand(String)} and responses will be received on any {@link SocketSessionListener}. This implementation
- * of {@link SocketSession} communicates using a {@link SocketChannel} connection.
+ * of {@link SocketSession} communicates using a non-blocking {@link SocketChannel} connection that is read by the
+ * {@link SocketChannelTransport} shared by all sessions.
  *
  * @author Tim Roberts
  */
 public class SocketChannelSession implements SocketSession {
     private final Logger logger = LoggerFactory.getLogger(SocketChannelSession.class);
 
+    /**
+     * The maximum number of responses waiting to be dispatched. Reading from the socket is paused when reached
+     */
+    private static final int MAX_RESPONSES = 50;
+
+    /**
+     * How long (in milliseconds) a command may take to be written before giving up
+     */
+    private static final long WRITE_TIMEOUT = 5000;
+
     /**
      * The host/ip address to connect to
      */
@@ -43,15 +59,80 @@ public class SocketChannelSession implements SocketSession {
      */
     private final int port;
 
+    /**
+     * The transport that reads from the socket and dispatches the responses
+     */
+    private final SocketChannelTransport transport = SocketChannelTransport.getInstance();
+
     /**
      * The actual socket being used. Will be null if not connected
      */
     private final AtomicReference<SocketChannel> socketChannel = new AtomicReference<SocketChannel>();
 
     /**
-     * The responses read from the {@link #responseReader}
+     * The {@link SelectionKey} of the {@link #socketChannel}. Will be null if not registered with the transport
+     */
+    private volatile SelectionKey selectionKey;
+
+    /**
+     * The buffer the socket is read into (only used by the selector thread)
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+
+    /**
+     * The response currently being read (only used by the selector thread)
+     */
+    private final StringBuilder response = new StringBuilder(100);
+
+    /**
+     * The buffer commands are written from (guarded by the {@link #sendCommand(String)} lock)
+     */
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(256);
+
+    /**
+     * The rest of a command waiting for the channel to become writable, null if none (guarded by {@link #writeLock})
+     */
+    private ByteBuffer pendingWrite;
+
+    /**
+     * The exception that ended the pending write, null if none (guarded by {@link #writeLock})
+     */
+    private IOException writeException;
+
+    /**
+     * The lock the sender waits on until the selector thread has finished the pending write
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The lock guarding changes to the interest set of the {@link #selectionKey}
+     */
+    private final Object interestLock = new Object();
+
+    /**
+     * The responses read from the socket, waiting to be dispatched
      */
-    private final BlockingQueue<Object> responses = new ArrayBlockingQueue<Object>(50);
+    private final Queue<Object> responses = new ConcurrentLinkedQueue<Object>();
+
+    /**
+     * Whether a dispatch of {@link #responses} is currently scheduled or running
+     */
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+    /**
+     * Whether reading from the socket is paused because too many responses are waiting to be dispatched
+     */
+    private final AtomicBoolean readPaused = new AtomicBoolean(false);
+
+    /**
+     * The dispatcher of responses from {@link #responses}
+     */
+    private final Runnable dispatcher = new Runnable() {
+        @Override
+        public void run() {
+            dispatchResponses();
+        }
+    };
 
     /**
      * The {@link SocketSessionListener} that the {@link #dispatcher} will call
@@ -59,14 +140,17 @@ public class SocketChannelSession implements SocketSession {
     private List<SocketSessionListener> sessionListeners = new CopyOnWriteArrayList<SocketSessionListener>();
 
     /**
-     * The thread dispatching responses - will be null if not connected
+     * The time (from {@link System#nanoTime()}) the oldest unanswered command was sent or 0 if none
      */
-    private Thread dispatchingThread = null;
+    private final AtomicLong commandSent = new AtomicLong();
 
     /**
-     * The thread processing responses - will be null if not connected
+     * Latency statistics (guarded by this lock)
      */
-    private Thread responseThread = null;
+    private final Object latencyLock = new Object();
+    private long latencyCount;
+    private long latencyTotal;
+    private long latencyMax;
 
     /**
      * Creates the socket session from the given host and port
@@ -99,6 +183,9 @@ public class SocketChannelSession implements SocketSession {
             throw new IllegalArgumentException("listener cannot be null");
         }
         sessionListeners.add(listener);
+
+        // responses may have piled up while there were no listeners
+        scheduleDispatch();
     }
 
     /*
@@ -146,17 +233,28 @@ public class SocketChannelSession implements SocketSession {
         channel.configureBlocking(true);
 
         logger.debug("Connecting to {}:{}", host, port);
-        channel.socket().connect(new InetSocketAddress(host, port), timeout);
-
-        socketChannel.set(channel);
+        try {
+            channel.socket().connect(new InetSocketAddress(host, port), timeout);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
 
+        readBuffer.clear();
+        response.setLength(0);
         responses.clear();
+        readPaused.set(false);
+        commandSent.set(0);
 
-        dispatchingThread = new Thread(new Dispatcher());
-        responseThread = new Thread(new ResponseReader());
-
-        dispatchingThread.start();
-        responseThread.start();
+        socketChannel.set(channel);
+        try {
+            transport.register(this);
+        } catch (IOException e) {
+            socketChannel.set(null);
+            channel.close();
+            throw e;
+        }
     }
 
     /*
@@ -170,13 +268,10 @@ public class SocketChannelSession implements SocketSession {
             logger.debug("Disconnecting from {}:{}", host, port);
 
             final SocketChannel channel = socketChannel.getAndSet(null);
+            transport.unregister(selectionKey);
+            selectionKey = null;
             channel.close();
-
-            dispatchingThread.interrupt();
-            dispatchingThread = null;
-
-            responseThread.interrupt();
-            responseThread = null;
+            failPendingWrite(new IOException("disconnected"));
 
             responses.clear();
         }
@@ -204,157 +299,360 @@ public class SocketChannelSession implements SocketSession {
             throw new IllegalArgumentException("command cannot be null");
         }
 
-        // if (command.trim().length() == 0) {
-        // throw new IllegalArgumentException("Command cannot be empty");
-        // }
-
         if (!isConnected()) {
             throw new IOException("Cannot send message - disconnected");
         }
 
-        ByteBuffer toSend = ByteBuffer.wrap((command + "\r\n").getBytes());
-
         final SocketChannel channel = socketChannel.get();
         if (channel == null) {
             logger.debug("Cannot send command '{}' - socket channel was closed", command);
-        } else {
-            logger.debug("Sending Command: '{}'", command);
-            channel.write(toSend);
+            return;
+        }
+
+        final int length = command.length() + 2;
+        if (writeBuffer.capacity() < length) {
+            writeBuffer = ByteBuffer.allocate(Math.max(length, writeBuffer.capacity() * 2));
+        }
+        writeBuffer.clear();
+        for (int i = 0; i < command.length(); i++) {
+            writeBuffer.put((byte) command.charAt(i));
+        }
+        writeBuffer.put((byte) '\r').put((byte) '\n');
+        writeBuffer.flip();
+
+        logger.debug("Sending Command: '{}'", command);
+        commandSent.compareAndSet(0, System.nanoTime());
+
+        channel.write(writeBuffer);
+        if (writeBuffer.hasRemaining()) {
+            // the socket buffer is full - the selector thread finishes the write once the channel is writable
+            awaitPendingWrite(command);
         }
     }
 
     /**
-     * This is the runnable that will read from the socket and add messages to the responses queue (to be processed by
-     * the dispatcher)
+     * Hands the rest of the {@link #writeBuffer} to the selector thread and waits until it has been written
      *
-     * @author Tim Roberts
+     * @param command the command being sent (for logging)
+     * @throws IOException if the write failed, timed out or the session was disconnected
+     */
+    private void awaitPendingWrite(String command) throws IOException {
+        synchronized (writeLock) {
+            pendingWrite = writeBuffer;
+            writeException = null;
+            setInterest(selectionKey, SelectionKey.OP_WRITE, true);
+
+            final long timeout = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT);
+            try {
+                while (pendingWrite != null) {
+                    final long remaining = timeout - System.nanoTime();
+                    if (remaining <= 0) {
+                        pendingWrite = null;
+                        setInterest(selectionKey, SelectionKey.OP_WRITE, false);
+                        throw new IOException("Timed out sending command '" + command + "'");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(writeLock, remaining);
+                }
+            } catch (InterruptedException e) {
+                pendingWrite = null;
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted sending command '" + command + "'");
+            }
+
+            if (writeException != null) {
+                final IOException e = writeException;
+                writeException = null;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of responses that have been timed against a command
      *
+     * @return the number of timed responses
      */
-    private class ResponseReader implements Runnable {
+    public long getLatencyCount() {
+        synchronized (latencyLock) {
+            return latencyCount;
+        }
+    }
 
-        /**
-         * Runs the logic to read from the socket until {@link #isRunning} is false. A 'response' is anything that ends
-         * with a carriage-return/newline combo. Additionally, the special "Login: " and "Password: " prompts are
-         * treated as responses for purposes of logging in.
-         */
-        @Override
-        public void run() {
-            final StringBuilder sb = new StringBuilder(100);
-            final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+    /**
+     * Returns the average time between sending a command and receiving the next response
+     *
+     * @return the average latency in milliseconds (0 if nothing was timed yet)
+     */
+    public double getAverageLatency() {
+        synchronized (latencyLock) {
+            return latencyCount == 0 ? 0 : latencyTotal / (latencyCount * 1000000d);
+        }
+    }
 
-            responses.clear();
+    /**
+     * Returns the largest time between sending a command and receiving the next response
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxLatency() {
+        synchronized (latencyLock) {
+            return latencyMax / 1000000d;
+        }
+    }
 
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    // if reader is null, sleep and try again
-                    if (readBuffer == null) {
-                        Thread.sleep(250);
-                        continue;
-                    }
+    /**
+     * Returns the channel to register with the selector
+     *
+     * @return the possibly null {@link SocketChannel}
+     */
+    SocketChannel getChannel() {
+        return socketChannel.get();
+    }
 
-                    final SocketChannel channel = socketChannel.get();
-                    if (channel == null) {
-                        // socket was closed
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+    /**
+     * Called by the transport once the channel has been registered with the selector
+     *
+     * @param key the non-null {@link SelectionKey}
+     */
+    void setSelectionKey(SelectionKey key) {
+        selectionKey = key;
+        if (socketChannel.get() != key.channel()) {
+            // disconnected while the registration was pending
+            key.cancel();
+            return;
+        }
 
-                    int bytesRead = channel.read(readBuffer);
-                    if (bytesRead == -1) {
-                        responses.put(new IOException("server closed connection"));
-                        break;
-                    } else if (bytesRead == 0) {
-                        readBuffer.clear();
-                        continue;
-                    }
+        synchronized (writeLock) {
+            if (pendingWrite != null) {
+                // a command was sent while the registration was pending
+                setInterest(key, SelectionKey.OP_WRITE, true);
+            }
+        }
+    }
 
-                    readBuffer.flip();
-                    while (readBuffer.hasRemaining()) {
-                        final char ch = (char) readBuffer.get();
-                        sb.append(ch);
-                        if (ch == '\n' || ch == ' ') {
-                            final String str = sb.toString();
-                            if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
-                                sb.setLength(0);
-                                final String response = str.substring(0, str.length() - 2);
-                                responses.put(response);
-                            }
+    /**
+     * Called by the selector thread when the channel has data available. Reads all the available data and queues every
+     * complete response. A 'response' is anything that ends with a carriage-return/newline combo. Additionally, the
+     * special "Login: " and "Password: " prompts are treated as responses for purposes of logging in.
+     *
+     * @param key the non-null {@link SelectionKey} that is readable
+     */
+    void onReadable(SelectionKey key) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            int bytesRead;
+            while ((bytesRead = channel.read(readBuffer)) > 0) {
+                readBuffer.flip();
+                while (readBuffer.hasRemaining()) {
+                    final char ch = (char) readBuffer.get();
+                    response.append(ch);
+                    if (ch == '\n' || ch == ' ') {
+                        final String str = response.toString();
+                        if (str.endsWith("\r\n") || str.endsWith("Login: ") || str.endsWith("Password: ")) {
+                            response.setLength(0);
+                            recordLatency();
+                            addResponse(str.substring(0, str.length() - 2));
                         }
                     }
+                }
+                readBuffer.clear();
+
+                if (responses.size() >= MAX_RESPONSES) {
+                    pauseReading(key);
+                    return;
+                }
+            }
 
-                    readBuffer.flip();
+            if (bytesRead == -1) {
+                key.cancel();
+                final IOException e = new IOException("server closed connection");
+                failPendingWrite(e);
+                addResponse(e);
+            }
+        } catch (IOException e) {
+            key.cancel();
+            failPendingWrite(e);
+            if (channel.isOpen()) {
+                addResponse(e);
+            }
+        }
+    }
 
-                } catch (InterruptedException e) {
-                    // Ending thread execution
-                    Thread.currentThread().interrupt();
-                } catch (AsynchronousCloseException e) {
-                    // socket was closed by another thread but interrupt our loop anyway
-                    Thread.currentThread().interrupt();
-                } catch (IOException e) {
-                    // set before pushing the response since we'll likely call back our stop
-                    Thread.currentThread().interrupt();
-
-                    try {
-                        responses.put(e);
-                        break;
-                    } catch (InterruptedException e1) {
-                        // Do nothing - probably shutting down
-                        // Since we set isRunning to false, will drop out of loop and end the thread
+    /**
+     * Called by the selector thread when the channel has room for the pending write. Writes as much as possible and
+     * wakes up the sender once the command has been written completely.
+     *
+     * @param key the non-null {@link SelectionKey} that is writable
+     */
+    void onWritable(SelectionKey key) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        synchronized (writeLock) {
+            if (pendingWrite != null) {
+                try {
+                    channel.write(pendingWrite);
+                    if (pendingWrite.hasRemaining()) {
+                        return;
                     }
+                } catch (IOException e) {
+                    writeException = e;
                 }
+                pendingWrite = null;
+                writeLock.notifyAll();
             }
+            setInterest(key, SelectionKey.OP_WRITE, false);
         }
     }
 
     /**
-     * The dispatcher runnable is responsible for reading the response queue and dispatching it to the current callable.
-     * Since the dispatcher is ONLY started when a callable is set, responses may pile up in the queue and be dispatched
-     * when a callable is set. Unlike the socket reader, this can be assigned to another thread (no state outside of the
-     * class).
+     * Ends a pending write with the given exception
      *
-     * @author Tim Roberts
+     * @param e the non-null exception to throw to the sender
      */
-    private class Dispatcher implements Runnable {
-        /**
-         * Runs the logic to dispatch any responses to the current listeners until {@link #isRunning} is false.
-         */
-        @Override
-        public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    final SocketSessionListener[] listeners = sessionListeners.toArray(new SocketSessionListener[0]);
+    private void failPendingWrite(IOException e) {
+        synchronized (writeLock) {
+            if (pendingWrite != null) {
+                pendingWrite = null;
+                writeException = e;
+                writeLock.notifyAll();
+            }
+        }
+    }
 
-                    // if no listeners, we don't want to start dispatching yet.
-                    if (listeners.length == 0) {
-                        Thread.sleep(250);
-                        continue;
-                    }
+    /**
+     * Adds or removes an operation to/from the interest set of the key. Reading and writing are enabled independently
+     * of each other, from the selector thread as well as from the sender and the dispatcher.
+     *
+     * @param key the possibly null {@link SelectionKey} (null if not registered yet)
+     * @param op the {@link SelectionKey} operation
+     * @param enable true to add the operation, false to remove it
+     */
+    private void setInterest(SelectionKey key, int op, boolean enable) {
+        if (key == null) {
+            return;
+        }
+        synchronized (interestLock) {
+            try {
+                final int ops = key.interestOps();
+                key.interestOps(enable ? ops | op : ops & ~op);
+            } catch (CancelledKeyException e) {
+                // disconnected in the meantime
+                return;
+            }
+        }
+        if (enable) {
+            key.selector().wakeup();
+        }
+    }
 
-                    final Object response = responses.poll(1, TimeUnit.SECONDS);
-
-                    if (response != null) {
-                        if (response instanceof String) {
-                            logger.debug("Dispatching response: {}", response);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseReceived((String) response);
-                            }
-                        } else if (response instanceof IOException) {
-                            logger.debug("Dispatching exception: {}", response);
-                            for (SocketSessionListener listener : listeners) {
-                                listener.responseException((IOException) response);
-                            }
-                        } else {
-                            logger.warn("Unknown response class: {}", response);
-                        }
+    /**
+     * Stops selecting the channel for reading until the dispatcher has caught up. The data stays in the socket buffer
+     * (eventually pushing back on the sender) rather than piling up in memory.
+     *
+     * @param key the non-null {@link SelectionKey} of the channel
+     */
+    private void pauseReading(SelectionKey key) {
+        logger.debug("Too many responses waiting to be dispatched - pausing reading from {}:{}", host, port);
+        setInterest(key, SelectionKey.OP_READ, false);
+        readPaused.set(true);
+
+        // the dispatcher may have drained the queue in the meantime
+        if (responses.size() < MAX_RESPONSES) {
+            resumeReading();
+        }
+    }
+
+    /**
+     * Resumes selecting the channel for reading if it was paused by {@link #pauseReading(SelectionKey)}
+     */
+    private void resumeReading() {
+        if (readPaused.compareAndSet(true, false)) {
+            setInterest(selectionKey, SelectionKey.OP_READ, true);
+        }
+    }
+
+    /**
+     * Records the time since the oldest unanswered command was sent
+     */
+    private void recordLatency() {
+        final long sent = commandSent.getAndSet(0);
+        if (sent != 0) {
+            final long latency = System.nanoTime() - sent;
+            synchronized (latencyLock) {
+                latencyCount++;
+                latencyTotal += latency;
+                latencyMax = Math.max(latencyMax, latency);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response received {}ms after command", TimeUnit.NANOSECONDS.toMillis(latency));
+            }
+        }
+    }
+
+    /**
+     * Queues the response (or exception) and schedules its dispatch
+     *
+     * @param response a non-null {@link String} or {@link IOException}
+     */
+    private void addResponse(Object response) {
+        responses.add(response);
+        scheduleDispatch();
+    }
+
+    /**
+     * Schedules the dispatch of the queued responses unless one is already scheduled. Responses are only dispatched
+     * once there is a listener to receive them.
+     */
+    private void scheduleDispatch() {
+        if (sessionListeners.isEmpty() || responses.isEmpty()) {
+            return;
+        }
+
+        if (dispatching.compareAndSet(false, true)) {
+            try {
+                transport.getDispatchExecutor().execute(dispatcher);
+            } catch (RejectedExecutionException e) {
+                dispatching.set(false);
+                logger.debug("Could not dispatch responses: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Dispatches the queued responses, in order, to the current listeners
+     */
+    private void dispatchResponses() {
+        try {
+            Object response;
+            while (!sessionListeners.isEmpty() && (response = responses.poll()) != null) {
+                final SocketSessionListener[] listeners = sessionListeners.toArray(new SocketSessionListener[0]);
+                if (response instanceof String) {
+                    logger.debug("Dispatching response: {}", response);
+                    for (SocketSessionListener listener : listeners) {
+                        listener.responseReceived((String) response);
+                    }
+                } else if (response instanceof IOException) {
+                    logger.debug("Dispatching exception: {}", response);
+                    for (SocketSessionListener listener : listeners) {
+                        listener.responseException((IOException) response);
                     }
-                } catch (InterruptedException e) {
-                    // Ending thread execution
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    logger.debug("Uncaught exception {}: {}", e.getMessage(), e);
-                    Thread.currentThread().interrupt();
+                } else {
+                    logger.warn("Unknown response class: {}", response);
+                }
+
+                if (readPaused.get() && responses.size() < MAX_RESPONSES / 2) {
+                    resumeReading();
                 }
             }
+        } catch (InterruptedException e) {
+            // Ending dispatch - the remaining responses are dispatched on the next run
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.debug("Uncaught exception {}: {}", e.getMessage(), e);
+        } finally {
+            dispatching.set(false);
         }
+
+        // a response may have been queued after the queue was found empty
+        scheduleDispatch();
     }
 }
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.net;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The transport shared by all {@link SocketChannelSession}s of the binding. A single selector thread waits for data on
+ * all registered channels and hands readable channels to their session, as well as writable channels a command is
+ * waiting to be written to. Responses are dispatched to the listeners on a small shared thread pool, so no thread is
+ * bound to a single connection.
+ *
+ * The selector thread is started with the first registered session and stops once the last session has been
+ * unregistered.
+ *
+ * @author agent
+ */
+class SocketChannelTransport {
+    private static final Logger logger = LoggerFactory.getLogger(SocketChannelTransport.class);
+
+    /**
+     * The name of the thread pool used for dispatching responses
+     */
+    private static final String THREAD_POOL_NAME = "russound";
+
+    /**
+     * The single instance shared by all sessions
+     */
+    private static final SocketChannelTransport INSTANCE = new SocketChannelTransport();
+
+    /**
+     * Channel registrations to be processed by the selector thread - will be null if no session is registered
+     */
+    private Queue<SocketChannelSession> pendingRegistrations;
+
+    /**
+     * The selector - will be null if no session is registered
+     */
+    private Selector selector;
+
+    /**
+     * The selector thread - will be null if no session is registered
+     */
+    private Thread selectorThread;
+
+    /**
+     * Number of registered sessions
+     */
+    private int sessionCount;
+
+    private SocketChannelTransport() {
+    }
+
+    /**
+     * Returns the transport shared by all sessions
+     *
+     * @return a non-null {@link SocketChannelTransport}
+     */
+    static SocketChannelTransport getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the executor used to dispatch responses
+     *
+     * @return a non-null {@link ExecutorService}
+     */
+    ExecutorService getDispatchExecutor() {
+        return ThreadPoolManager.getPool(THREAD_POOL_NAME);
+    }
+
+    /**
+     * Registers the channel of the session for reading. The channel must be connected and non-blocking.
+     *
+     * @param session a non-null, connected session
+     * @throws IOException if the selector could not be opened
+     */
+    synchronized void register(SocketChannelSession session) throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+            pendingRegistrations = new ConcurrentLinkedQueue<SocketChannelSession>();
+            final Selector newSelector = selector;
+            final Queue<SocketChannelSession> registrations = pendingRegistrations;
+            selectorThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runSelector(newSelector, registrations);
+                }
+            }, "OH-binding-russound-socket");
+            selectorThread.setDaemon(true);
+            selectorThread.start();
+        }
+        sessionCount++;
+        pendingRegistrations.add(session);
+        selector.wakeup();
+    }
+
+    /**
+     * Unregisters the session. The session is responsible for closing its channel.
+     *
+     * @param key the {@link SelectionKey} of the session, may be null if the registration wasn't processed yet
+     */
+    synchronized void unregister(SelectionKey key) {
+        if (key != null) {
+            key.cancel();
+        }
+        if (sessionCount > 0 && --sessionCount == 0 && selector != null) {
+            logger.debug("Last session unregistered, stopping selector");
+            final Selector oldSelector = selector;
+            selector = null;
+            selectorThread = null;
+            pendingRegistrations = null;
+            try {
+                // wakes up the selector thread which will then end
+                oldSelector.close();
+            } catch (IOException e) {
+                logger.debug("Exception closing selector: {}", e.getMessage());
+            }
+        } else if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * The selector loop. Waits for readable or writable channels and lets the owning session read from or write to them
+     * until the selector is closed.
+     *
+     * @param selector the non-null selector to run
+     * @param registrations the non-null queue of sessions to register with the selector
+     */
+    private void runSelector(Selector selector, Queue<SocketChannelSession> registrations) {
+        while (selector.isOpen()) {
+            try {
+                processRegistrations(selector, registrations);
+                selector.select();
+                if (!selector.isOpen()) {
+                    break;
+                }
+
+                final Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    final SelectionKey key = it.next();
+                    it.remove();
+
+                    final SocketChannelSession session = (SocketChannelSession) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            session.onReadable(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.onWritable(key);
+                        }
+                    } catch (CancelledKeyException e) {
+                        // session was disconnected while processing
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Exception in selector: {}", e.getMessage(), e);
+            } catch (RuntimeException e) {
+                if (selector.isOpen()) {
+                    logger.warn("Uncaught exception in selector: {}", e.getMessage(), e);
+                }
+            }
+        }
+        logger.debug("Selector stopped");
+    }
+
+    /**
+     * Registers the channels of all pending sessions with the selector (which can only be done while the selector
+     * isn't selecting)
+     *
+     * @param selector the non-null selector
+     * @param registrations the non-null queue of sessions to register
+     */
+    private void processRegistrations(Selector selector, Queue<SocketChannelSession> registrations) {
+        SocketChannelSession session;
+        while ((session = registrations.poll()) != null) {
+            final SocketChannel channel = session.getChannel();
+            if (channel == null || !channel.isOpen()) {
+                continue;
+            }
+            try {
+                session.setSelectionKey(channel.register(selector, SelectionKey.OP_READ, session));
+            } catch (ClosedChannelException e) {
+                // session disconnected before we got to register it
+            }
+        }
+    }
+}
@@ -35,6 +35,11 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
      */
     private final RioHandlerCallback callback;
 
+    /**
+     * The {@link RioRoutingSession} routes this handler listens to (empty to listen to every response)
+     */
+    private final int[] routes;
+
     /**
      * Constructs the protocol handler from given parameters and will add this handler as a
      * {@link SocketSessionListener} to the specified {@link SocketSession} via
@@ -44,6 +49,20 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
      * @param callback a non-null {@link RioHandlerCallback} to update state and status
      */
     protected AbstractRioProtocol(SocketSession session, RioHandlerCallback callback) {
+        this(session, callback, new int[0]);
+    }
+
+    /**
+     * Constructs the protocol handler from given parameters. If the session is a {@link RioRoutingSession}, this
+     * handler will only be added as a {@link SocketSessionListener} for the specified routes (via
+     * {@link RioRoutingSession#addListener(int, SocketSessionListener)}). Otherwise (or if no routes are specified),
+     * this handler will receive every response.
+     *
+     * @param session a non-null {@link SocketSession} (may be connected or disconnected)
+     * @param callback a non-null {@link RioHandlerCallback} to update state and status
+     * @param routes a non-null, possibly empty list of {@link RioRoutingSession} routes
+     */
+    protected AbstractRioProtocol(SocketSession session, RioHandlerCallback callback, int... routes) {
 
         if (session == null) {
             throw new IllegalArgumentException("session cannot be null");
@@ -53,9 +72,21 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
             throw new IllegalArgumentException("callback cannot be null");
         }
 
+        if (routes == null) {
+            throw new IllegalArgumentException("routes cannot be null");
+        }
+
         this.session = session;
-        this.session.addListener(this);
         this.callback = callback;
+        this.routes = routes;
+
+        if (routes.length > 0 && session instanceof RioRoutingSession) {
+            for (int route : routes) {
+                ((RioRoutingSession) session).addListener(route, this);
+            }
+        } else {
+            this.session.addListener(this);
+        }
     }
 
     /**
@@ -108,10 +139,17 @@ public abstract class AbstractRioProtocol implements SocketSessionListener {
 
     /**
      * Disposes of the protocol by removing ourselves from listening to the socket via
-     * {@link SocketSession#removeListener(SocketSessionListener)}
+     * {@link SocketSession#removeListener(SocketSessionListener)} (or
+     * {@link RioRoutingSession#removeListener(int, SocketSessionListener)})
      */
     public void dispose() {
-        session.removeListener(this);
+        if (routes.length > 0 && session instanceof RioRoutingSession) {
+            for (int route : routes) {
+                ((RioRoutingSession) session).removeListener(route, this);
+            }
+        } else {
+            session.removeListener(this);
+        }
     }
 
     /**
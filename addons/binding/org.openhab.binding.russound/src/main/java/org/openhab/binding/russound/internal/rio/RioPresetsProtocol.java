@@ -106,7 +106,7 @@ public class RioPresetsProtocol extends AbstractRioProtocol {
      * @param callback a non-null {@link RioHandlerCallback} to use
      */
     public RioPresetsProtocol(SocketSession session, RioHandlerCallback callback) {
-        super(session, callback);
+        super(session, callback, RioRoutingSession.ROUTE_ALL_SOURCES);
 
         gson = GsonUtilities.createGson();
         for (int s = 1; s <= 8; s++) {
@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.russound.internal.rio;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.openhab.binding.russound.internal.net.SocketSession;
+import org.openhab.binding.russound.internal.net.SocketSessionListener;
+
+/**
+ * A {@link SocketSession} that wraps another session and routes each response to the listeners owning the key path of
+ * the response. The key path of a notification (like <code>N C[1].Z[3].volume="10"</code>) is parsed once and the
+ * response is only given to the listeners registered for that route (the zone 3 of controller 1 in the example)
+ * rather than to every protocol handler of the system.
+ *
+ * Listeners added via {@link #addListener(SocketSessionListener)} still receive every response.
+ *
+ * @author agent
+ */
+public class RioRoutingSession implements SocketSession, SocketSessionListener {
+    /**
+     * The route of responses that have no (known) key path (like <code>S VERSION="..."</code>, errors or media
+     * management menus)
+     */
+    public static final int ROUTE_UNROUTED = 0;
+
+    /**
+     * The route of system notifications (<code>System.xxx</code>), including the system favorites
+     */
+    public static final int ROUTE_SYSTEM = 1;
+
+    /**
+     * The route receiving the notifications of all sources (in addition to the {@link #getSourceRoute(int)} routes)
+     */
+    public static final int ROUTE_ALL_SOURCES = 2;
+
+    // The route kinds (top bits of a route)
+    private static final int KIND_CONTROLLER = 0x10000;
+    private static final int KIND_ZONE = 0x20000;
+    private static final int KIND_SOURCE = 0x30000;
+    private static final int KIND_MASK = 0xF0000;
+
+    // The largest identifier that can be encoded in a route
+    private static final int MAX_ID = 0xFF;
+
+    /**
+     * The wrapped {@link SocketSession}
+     */
+    private final SocketSession session;
+
+    /**
+     * The listeners receiving every response
+     */
+    private final List<SocketSessionListener> allListeners = new CopyOnWriteArrayList<SocketSessionListener>();
+
+    /**
+     * The listeners by route
+     */
+    private final ConcurrentHashMap<Integer, List<SocketSessionListener>> routeListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the routing session around the given session
+     *
+     * @param session a non-null {@link SocketSession}
+     */
+    public RioRoutingSession(SocketSession session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session cannot be null");
+        }
+        this.session = session;
+        this.session.addListener(this);
+    }
+
+    /**
+     * Returns the route of the notifications for the given controller (excluding the notifications for its zones)
+     *
+     * @param controller the controller identifier
+     * @return the route
+     */
+    public static int getControllerRoute(int controller) {
+        return KIND_CONTROLLER | (controller & MAX_ID);
+    }
+
+    /**
+     * Returns the route of the notifications for the given zone, including the zone favorites
+     *
+     * @param controller the controller identifier
+     * @param zone the zone identifier
+     * @return the route
+     */
+    public static int getZoneRoute(int controller, int zone) {
+        return KIND_ZONE | ((controller & MAX_ID) << 8) | (zone & MAX_ID);
+    }
+
+    /**
+     * Returns the route of the notifications for the given source, including its banks and presets
+     *
+     * @param source the source identifier
+     * @return the route
+     */
+    public static int getSourceRoute(int source) {
+        return KIND_SOURCE | (source & MAX_ID);
+    }
+
+    /**
+     * Parses the key path of the response and returns its route. Only the type (<code>S</code> or <code>N</code>) and
+     * the identifiers of the key path are parsed - validating the response remains up to the listeners.
+     *
+     * @param response a possibly null, possibly empty response
+     * @return the route of the response ({@link #ROUTE_UNROUTED} if not a known key path)
+     */
+    static int getRoute(String response) {
+        if (response == null || response.length() < 5 || response.charAt(1) != ' ') {
+            return ROUTE_UNROUTED;
+        }
+
+        final char type = response.charAt(0);
+        if (type != 'S' && type != 's' && type != 'N' && type != 'n') {
+            return ROUTE_UNROUTED;
+        }
+
+        if (response.regionMatches(true, 2, "System.", 0, 7)) {
+            return ROUTE_SYSTEM;
+        }
+
+        if (response.charAt(3) != '[') {
+            return ROUTE_UNROUTED;
+        }
+
+        final int idEnd = response.indexOf(']', 4);
+        final int id = parseId(response, 4, idEnd);
+        if (id < 0) {
+            return ROUTE_UNROUTED;
+        }
+
+        final char entity = response.charAt(2);
+        if (entity == 'C' || entity == 'c') {
+            if (response.regionMatches(true, idEnd + 1, ".Z[", 0, 3)) {
+                final int zoneEnd = response.indexOf(']', idEnd + 4);
+                final int zone = parseId(response, idEnd + 4, zoneEnd);
+                return zone < 0 ? ROUTE_UNROUTED : getZoneRoute(id, zone);
+            }
+            return getControllerRoute(id);
+        } else if (entity == 'S' || entity == 's') {
+            return getSourceRoute(id);
+        }
+        return ROUTE_UNROUTED;
+    }
+
+    /**
+     * Parses the identifier between the given positions
+     *
+     * @param response a non-null response
+     * @param start the start of the identifier
+     * @param end the end (exclusive) of the identifier or -1 if not found
+     * @return the identifier or -1 if not a valid identifier
+     */
+    private static int parseId(String response, int start, int end) {
+        if (end <= start) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = start; i < end; i++) {
+            final char ch = response.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            id = id * 10 + (ch - '0');
+            if (id > MAX_ID) {
+                return -1;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Adds a {@link SocketSessionListener} that will only receive the responses of the given route
+     *
+     * @param route the route (see {@link #ROUTE_SYSTEM}, {@link #getZoneRoute(int, int)}, etc)
+     * @param listener a non-null {@link SocketSessionListener}
+     */
+    public void addListener(int route, SocketSessionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+
+        List<SocketSessionListener> listeners = routeListeners.get(route);
+        if (listeners == null) {
+            final List<SocketSessionListener> newListeners = new CopyOnWriteArrayList<SocketSessionListener>();
+            listeners = routeListeners.putIfAbsent(route, newListeners);
+            if (listeners == null) {
+                listeners = newListeners;
+            }
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a {@link SocketSessionListener} from the given route
+     *
+     * @param route the route the listener was added to
+     * @param listener a non-null {@link SocketSessionListener}
+     * @return true if removed, false otherwise
+     */
+    public boolean removeListener(int route, SocketSessionListener listener) {
+        final List<SocketSessionListener> listeners = routeListeners.get(route);
+        return listeners != null && listeners.remove(listener);
+    }
+
+    @Override
+    public void addListener(SocketSessionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        allListeners.add(listener);
+    }
+
+    @Override
+    public void clearListeners() {
+        allListeners.clear();
+        routeListeners.clear();
+    }
+
+    @Override
+    public boolean removeListener(SocketSessionListener listener) {
+        return allListeners.remove(listener);
+    }
+
+    @Override
+    public void connect() throws IOException {
+        session.connect();
+    }
+
+    @Override
+    public void connect(int timeout) throws IOException {
+        session.connect(timeout);
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        session.disconnect();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return session.isConnected();
+    }
+
+    @Override
+    public void sendCommand(String command) throws IOException {
+        session.sendCommand(command);
+    }
+
+    /**
+     * Routes the response to the listeners receiving every response and then to the listeners of the route of the
+     * response
+     *
+     * @param response a non-null, possibly empty response
+     */
+    @Override
+    public void responseReceived(String response) throws InterruptedException {
+        for (SocketSessionListener listener : allListeners) {
+            listener.responseReceived(response);
+        }
+
+        final int route = getRoute(response);
+        notifyRoute(route, response);
+        if ((route & KIND_MASK) == KIND_SOURCE) {
+            notifyRoute(ROUTE_ALL_SOURCES, response);
+        }
+    }
+
+    /**
+     * Calls the listeners of the route with the response
+     *
+     * @param route the route
+     * @param response a non-null, possibly empty response
+     * @throws InterruptedException if the response processing was interrupted
+     */
+    private void notifyRoute(int route, String response) throws InterruptedException {
+        final List<SocketSessionListener> listeners = routeListeners.get(route);
+        if (listeners != null) {
+            for (SocketSessionListener listener : listeners) {
+                listener.responseReceived(response);
+            }
+        }
+    }
+
+    /**
+     * Exceptions aren't specific to any route - calls every listener (once, even if added to multiple routes)
+     *
+     * @param e a non-null io exception
+     */
+    @Override
+    public void responseException(IOException e) throws InterruptedException {
+        final Set<SocketSessionListener> notified = Collections
+                .newSetFromMap(new IdentityHashMap<SocketSessionListener, Boolean>());
+        for (SocketSessionListener listener : allListeners) {
+            if (notified.add(listener)) {
+                listener.responseException(e);
+            }
+        }
+        for (List<SocketSessionListener> listeners : routeListeners.values()) {
+            for (SocketSessionListener listener : listeners) {
+                if (notified.add(listener)) {
+                    listener.responseException(e);
+                }
+            }
+        }
+    }
+}
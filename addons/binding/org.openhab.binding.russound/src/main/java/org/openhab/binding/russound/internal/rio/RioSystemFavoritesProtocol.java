@@ -88,7 +88,7 @@ public class RioSystemFavoritesProtocol extends AbstractRioProtocol {
      * @param callback a non-null {@link RioHandlerCallback} to use
      */
     public RioSystemFavoritesProtocol(SocketSession session, RioHandlerCallback callback) {
-        super(session, callback);
+        super(session, callback, RioRoutingSession.ROUTE_SYSTEM);
 
         gson = GsonUtilities.createGson();
 
@@ -17,6 +17,7 @@ import org.openhab.binding.russound.internal.net.SocketSessionListener;
 import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
+import org.openhab.binding.russound.internal.rio.RioRoutingSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,7 +54,7 @@ class RioControllerProtocol extends AbstractRioProtocol {
      * @param callback a non-null {@link RioHandlerCallback} to callback
      */
     RioControllerProtocol(int controller, SocketSession session, RioHandlerCallback callback) {
-        super(session, callback);
+        super(session, callback, RioRoutingSession.getControllerRoute(controller));
         this.controller = controller;
     }
 
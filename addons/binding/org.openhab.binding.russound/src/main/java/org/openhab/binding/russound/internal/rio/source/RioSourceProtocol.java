@@ -27,6 +27,7 @@ import org.openhab.binding.russound.internal.net.SocketSessionListener;
 import org.openhab.binding.russound.internal.rio.AbstractRioProtocol;
 import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
+import org.openhab.binding.russound.internal.rio.RioRoutingSession;
 import org.openhab.binding.russound.internal.rio.StatefulHandlerCallback;
 import org.openhab.binding.russound.internal.rio.models.GsonUtilities;
 import org.openhab.binding.russound.internal.rio.models.RioBank;
@@ -153,7 +154,7 @@ class RioSourceProtocol extends AbstractRioProtocol {
      * @throws Exception exception when starting the {@link HttpClient}
      */
     RioSourceProtocol(int source, SocketSession session, RioHandlerCallback callback) throws Exception {
-        super(session, callback);
+        super(session, callback, RioRoutingSession.getSourceRoute(source), RioRoutingSession.ROUTE_UNROUTED);
         if (source < 1 || source > 12) {
             throw new IllegalArgumentException("Source must be between 1-12: " + source);
         }
@@ -34,6 +34,7 @@ import org.openhab.binding.russound.internal.rio.RioConstants;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallback;
 import org.openhab.binding.russound.internal.rio.RioHandlerCallbackListener;
 import org.openhab.binding.russound.internal.rio.RioPresetsProtocol;
+import org.openhab.binding.russound.internal.rio.RioRoutingSession;
 import org.openhab.binding.russound.internal.rio.RioSystemFavoritesProtocol;
 import org.openhab.binding.russound.internal.rio.StatefulHandlerCallback;
 import org.openhab.binding.russound.internal.rio.controller.RioControllerHandler;
@@ -254,7 +255,7 @@ public class RioSystemHandler extends AbstractBridgeHandler<RioSystemProtocol> {
 
         sessionLock.lock();
         try {
-            session = new SocketChannelSession(rioConfig.getIpAddress(), RioConstants.RioPort);
+            session = new RioRoutingSession(new SocketChannelSession(rioConfig.getIpAddress(), RioConstants.RioPort));
         } finally {
             sessionLock.unlock();
         }
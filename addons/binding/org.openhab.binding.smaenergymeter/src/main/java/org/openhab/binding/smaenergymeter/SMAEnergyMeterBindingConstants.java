@@ -33,5 +33,26 @@ public class SMAEnergyMeterBindingConstants {
     public static final String CHANNEL_POWER_OUT = "powerOut";
     public static final String CHANNEL_ENERGY_IN = "energyIn";
     public static final String CHANNEL_ENERGY_OUT = "energyOut";
+    public static final String CHANNEL_REACTIVE_POWER_IN = "reactivePowerIn";
+    public static final String CHANNEL_REACTIVE_POWER_OUT = "reactivePowerOut";
+    public static final String CHANNEL_REACTIVE_ENERGY_IN = "reactiveEnergyIn";
+    public static final String CHANNEL_REACTIVE_ENERGY_OUT = "reactiveEnergyOut";
+    public static final String CHANNEL_APPARENT_POWER_IN = "apparentPowerIn";
+    public static final String CHANNEL_APPARENT_POWER_OUT = "apparentPowerOut";
+    public static final String CHANNEL_APPARENT_ENERGY_IN = "apparentEnergyIn";
+    public static final String CHANNEL_APPARENT_ENERGY_OUT = "apparentEnergyOut";
+    public static final String CHANNEL_POWER_FACTOR = "powerFactor";
+    public static final String CHANNEL_FREQUENCY = "frequency";
+    public static final String CHANNEL_CURRENT = "current";
+    public static final String CHANNEL_VOLTAGE = "voltage";
+
+    // The channels of a phase are named after the total ones, followed by the phase (i.e. powerInL1)
+    public static final String[] PHASES = { "L1", "L2", "L3" };
+
+    // List of all aggregations of the current values over the polling period
+    public static final String AGGREGATION_NONE = "none";
+    public static final String AGGREGATION_AVERAGE = "average";
+    public static final String AGGREGATION_MINIMUM = "minimum";
+    public static final String AGGREGATION_MAXIMUM = "maximum";
 
 }
@@ -18,6 +18,8 @@ public class EnergyMeterConfig {
     private String mcastGroup;
     private Integer port;
     private Integer pollingPeriod;
+    private String serialNumber;
+    private String aggregation;
 
     public String getMcastGroup() {
         return mcastGroup;
@@ -43,4 +45,20 @@ public class EnergyMeterConfig {
         this.pollingPeriod = pollingPeriod;
     }
 
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public void setSerialNumber(String serialNumber) {
+        this.serialNumber = serialNumber;
+    }
+
+    public String getAggregation() {
+        return aggregation;
+    }
+
+    public void setAggregation(String aggregation) {
+        this.aggregation = aggregation;
+    }
+
 }
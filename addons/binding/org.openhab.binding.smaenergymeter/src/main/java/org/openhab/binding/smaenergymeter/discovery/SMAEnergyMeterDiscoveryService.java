@@ -10,8 +10,8 @@ package org.openhab.binding.smaenergymeter.discovery;
 
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
-import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -23,19 +23,29 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.smaenergymeter.handler.EnergyMeter;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterListener;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterReceiver;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterTelegram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@link SMAEnergyMeterDiscoveryService} class implements a service
- * for discovering the SMA Energy Meter.
+ * for discovering the SMA Energy Meter. All devices sending a telegram on the default multicast
+ * group while listening are discovered.
  *
  * @author Osman Basha - Initial contribution
  */
-public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
+public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService implements EnergyMeterListener {
+
+    /** Time in seconds telegrams are listened to **/
+    private static final int DISCOVERY_TIME = 5;
 
     private final Logger logger = LoggerFactory.getLogger(SMAEnergyMeterDiscoveryService.class);
 
+    private EnergyMeterReceiver receiver;
+    private final Set<String> discoveredSerialNumbers = new HashSet<>();
+
     public SMAEnergyMeterDiscoveryService() {
         super(SUPPORTED_THING_TYPES_UIDS, 15, true);
     }
@@ -63,22 +73,49 @@ public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
     }
 
     private synchronized void discover() {
+        if (receiver != null) {
+            // already listening
+            return;
+        }
         logger.debug("Try to discover a SMA Energy Meter device");
 
-        EnergyMeter energyMeter = new EnergyMeter(EnergyMeter.DEFAULT_MCAST_GRP, EnergyMeter.DEFAULT_MCAST_PORT);
-        try {
-            energyMeter.update();
-        } catch (IOException e) {
+        discoveredSerialNumbers.clear();
+        receiver = EnergyMeterReceiver.acquire(EnergyMeter.DEFAULT_MCAST_GRP, EnergyMeter.DEFAULT_MCAST_PORT);
+        receiver.addListener(this);
+
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                stopListening();
+            }
+        }, DISCOVERY_TIME, TimeUnit.SECONDS);
+    }
+
+    private synchronized void stopListening() {
+        if (receiver != null) {
+            receiver.removeListener(this);
+            receiver.release();
+            receiver = null;
+        }
+        if (discoveredSerialNumbers.isEmpty()) {
             logger.debug("No SMA Energy Meter found.");
-            logger.debug("Diagnostic: ", e);
-            return;
+        }
+    }
+
+    @Override
+    public void telegramReceived(EnergyMeterTelegram telegram) {
+        String serialNumber = telegram.getSerialNumber();
+        synchronized (this) {
+            if (receiver == null || !discoveredSerialNumbers.add(serialNumber)) {
+                return;
+            }
         }
 
-        logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", energyMeter.getSerialNumber());
+        logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", serialNumber);
         Map<String, Object> properties = new HashMap<>();
         properties.put(Thing.PROPERTY_VENDOR, "SMA");
-        properties.put(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-        ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, energyMeter.getSerialNumber());
+        properties.put(Thing.PROPERTY_SERIAL_NUMBER, serialNumber);
+        ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, serialNumber);
         DiscoveryResult result = DiscoveryResultBuilder.create(uid)
                 .withProperties(properties)
                 .withLabel("SMA Energy Meter")
@@ -8,99 +8,169 @@
  */
 package org.openhab.binding.smaenergymeter.handler;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
+import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 
 /**
- * The {@link EnergyMeter} class is responsible for communication with the SMA device
- * and extracting the data fields out of the received telegrams.
+ * The {@link EnergyMeter} class holds the last telegrams received from a single SMA device in a ring buffer,
+ * and extracts the data fields out of them, either from a single telegram or aggregated over several ones.
  *
  * @author Osman Basha - Initial contribution
  */
-public class EnergyMeter {
-
-    private String multicastGroup;
-    private int port;
-
-    private String serialNumber;
-    private Date lastUpdate;
-
-    private final FieldDTO powerIn;
-    private final FieldDTO energyIn;
-    private final FieldDTO powerOut;
-    private final FieldDTO energyOut;
+public class EnergyMeter implements EnergyMeterListener {
 
     public static final String DEFAULT_MCAST_GRP = "239.12.255.254";
     public static final int DEFAULT_MCAST_PORT = 9522;
 
-    public EnergyMeter(String multicastGroup, int port) {
-        this.multicastGroup = multicastGroup;
-        this.port = port;
-
-        powerIn = new FieldDTO(0x20, 4, 10);
-        energyIn = new FieldDTO(0x28, 8, 3600000);
-        powerOut = new FieldDTO(0x34, 4, 10);
-        energyOut = new FieldDTO(0x3C, 8, 3600000);
+    /** The fields of all the channels **/
+    public static final List<FieldDTO> FIELDS;
+
+    static {
+        List<FieldDTO> fields = new ArrayList<>();
+        addFields(fields, "", 0);
+        fields.add(new FieldDTO(CHANNEL_FREQUENCY, 14, FieldDTO.TYPE_ACTUAL, 1000));
+        for (int phase = 1; phase <= PHASES.length; phase++) {
+            String suffix = PHASES[phase - 1];
+            // the measurement indexes of a phase are offset by 20 from the total ones
+            addFields(fields, suffix, phase * 20);
+            fields.add(new FieldDTO(CHANNEL_CURRENT + suffix, phase * 20 + 11, FieldDTO.TYPE_ACTUAL, 1000));
+            fields.add(new FieldDTO(CHANNEL_VOLTAGE + suffix, phase * 20 + 12, FieldDTO.TYPE_ACTUAL, 1000));
+        }
+        FIELDS = Collections.unmodifiableList(fields);
     }
 
-    public void update() throws IOException {
-        byte[] bytes = new byte[600];
-        try (MulticastSocket socket = new MulticastSocket(port)) {
-            socket.setSoTimeout(5000);
-            InetAddress address = InetAddress.getByName(multicastGroup);
-            socket.joinGroup(address);
-
-            DatagramPacket msgPacket = new DatagramPacket(bytes, bytes.length);
-            socket.receive(msgPacket);
+    private static void addFields(List<FieldDTO> fields, String suffix, int offset) {
+        fields.add(new FieldDTO(CHANNEL_POWER_IN + suffix, offset + 1, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_ENERGY_IN + suffix, offset + 1, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_POWER_OUT + suffix, offset + 2, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_ENERGY_OUT + suffix, offset + 2, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_REACTIVE_POWER_IN + suffix, offset + 3, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_REACTIVE_ENERGY_IN + suffix, offset + 3, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_REACTIVE_POWER_OUT + suffix, offset + 4, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_REACTIVE_ENERGY_OUT + suffix, offset + 4, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_APPARENT_POWER_IN + suffix, offset + 9, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_APPARENT_ENERGY_IN + suffix, offset + 9, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_APPARENT_POWER_OUT + suffix, offset + 10, FieldDTO.TYPE_ACTUAL, 10));
+        fields.add(new FieldDTO(CHANNEL_APPARENT_ENERGY_OUT + suffix, offset + 10, FieldDTO.TYPE_COUNTER, 3600000));
+        fields.add(new FieldDTO(CHANNEL_POWER_FACTOR + suffix, offset + 13, FieldDTO.TYPE_ACTUAL, 1000));
+    }
 
-            String sma = new String(Arrays.copyOfRange(bytes, 0x00, 0x03));
-            if (!sma.equals("SMA")) {
-                throw new IOException("Not a SMA telegram." + sma);
-            }
+    private final String serialNumber;
 
-            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOfRange(bytes, 0x14, 0x18));
-            serialNumber = String.valueOf(buffer.getInt());
+    // ring buffer of the last telegrams, guarded by this
+    private final EnergyMeterTelegram[] telegrams;
+    private int next = 0;
+    private int count = 0;
 
-            powerIn.updateValue(bytes);
-            energyIn.updateValue(bytes);
-            powerOut.updateValue(bytes);
-            energyOut.updateValue(bytes);
+    /**
+     * @param serialNumber the serial number of the device
+     * @param capacity the number of telegrams kept
+     */
+    public EnergyMeter(String serialNumber, int capacity) {
+        this.serialNumber = serialNumber;
+        this.telegrams = new EnergyMeterTelegram[Math.max(1, capacity)];
+    }
 
-            lastUpdate = new Date(System.currentTimeMillis());
-        } catch (Exception e) {
-            throw new IOException(e);
+    @Override
+    public synchronized void telegramReceived(EnergyMeterTelegram telegram) {
+        if (!serialNumber.equals(telegram.getSerialNumber())) {
+            return;
         }
+        telegrams[next] = telegram;
+        next = (next + 1) % telegrams.length;
+        count = Math.min(count + 1, telegrams.length);
     }
 
     public String getSerialNumber() {
         return serialNumber;
     }
 
-    public Date getLastUpdate() {
-        return lastUpdate;
+    /**
+     * Returns the last received telegram, or null if none was received yet.
+     */
+    public synchronized EnergyMeterTelegram getLastTelegram() {
+        return count > 0 ? telegrams[(next + telegrams.length - 1) % telegrams.length] : null;
     }
 
-    public DecimalType getPowerIn() {
-        return new DecimalType(powerIn.getValue());
+    public Date getLastUpdate() {
+        EnergyMeterTelegram telegram = getLastTelegram();
+        return telegram != null ? new Date(telegram.getTimestamp()) : null;
     }
 
-    public DecimalType getPowerOut() {
-        return new DecimalType(powerOut.getValue());
+    /**
+     * Returns the kept telegrams received after the given time, the oldest first.
+     *
+     * @param since the time in ms
+     */
+    public synchronized List<EnergyMeterTelegram> getTelegrams(long since) {
+        List<EnergyMeterTelegram> result = new ArrayList<>(count);
+        for (int i = count; i > 0; i--) {
+            EnergyMeterTelegram telegram = telegrams[(next + telegrams.length - i) % telegrams.length];
+            if (telegram.getTimestamp() > since) {
+                result.add(telegram);
+            }
+        }
+        return result;
     }
 
-    public DecimalType getEnergyIn() {
-        return new DecimalType(energyIn.getValue());
+    /**
+     * Returns the value of a field from a single telegram.
+     *
+     * @return the value, or null if the telegram does not contain the field
+     */
+    public static DecimalType getValue(EnergyMeterTelegram telegram, FieldDTO field) {
+        Double value = telegram.getValue(field);
+        return value != null ? new DecimalType(value) : null;
     }
 
-    public DecimalType getEnergyOut() {
-        return new DecimalType(energyOut.getValue());
+    /**
+     * Returns the value of a field aggregated over several telegrams. The meter readings are not aggregated,
+     * the one of the last telegram is returned.
+     *
+     * @param telegrams the telegrams, the oldest first
+     * @param field the field
+     * @param aggregation one of the AGGREGATION_* constants, AGGREGATION_NONE returns the last value
+     * @return the value, or null if none of the telegrams contains the field
+     */
+    public static DecimalType getValue(List<EnergyMeterTelegram> telegrams, FieldDTO field, String aggregation) {
+        if (telegrams.isEmpty()) {
+            return null;
+        }
+        if (field.isCounter() || AGGREGATION_NONE.equals(aggregation)) {
+            return getValue(telegrams.get(telegrams.size() - 1), field);
+        }
+
+        int values = 0;
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (EnergyMeterTelegram telegram : telegrams) {
+            Double value = telegram.getValue(field);
+            if (value != null) {
+                values++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (values == 0) {
+            return null;
+        }
+
+        switch (aggregation) {
+            case AGGREGATION_MINIMUM:
+                return new DecimalType(min);
+            case AGGREGATION_MAXIMUM:
+                return new DecimalType(max);
+            default:
+                return new DecimalType(sum / values);
+        }
     }
 
 }
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+/**
+ * The {@link EnergyMeterListener} is notified by the {@link EnergyMeterReceiver} of the received telegrams.
+ *
+ * @author agent - Initial contribution
+ */
+public interface EnergyMeterListener {
+
+    /**
+     * Called on the receiver thread for each received telegram.
+     *
+     * @param telegram the received telegram
+     */
+    void telegramReceived(EnergyMeterTelegram telegram);
+
+}
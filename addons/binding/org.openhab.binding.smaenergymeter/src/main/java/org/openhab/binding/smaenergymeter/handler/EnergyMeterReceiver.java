@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EnergyMeterReceiver} class keeps listening to a multicast group for the telegrams of the
+ * SMA devices and hands them over to the listeners of the sending device. There is a single receiver per
+ * multicast group and port, shared by all the things and the discovery service using it.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterReceiver {
+
+    private static final Map<String, EnergyMeterReceiver> RECEIVERS = new HashMap<>();
+
+    private static final int MAX_TELEGRAM_SIZE = 1024;
+
+    /** Receive timeout in milliseconds, after which the socket is checked to be still wanted **/
+    private static final int RECEIVE_TIMEOUT = 5000;
+
+    /** Delay in milliseconds before the socket is opened again after an error **/
+    private static final int RETRY_DELAY = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(EnergyMeterReceiver.class);
+
+    private final String multicastGroup;
+    private final int port;
+
+    // listeners of all devices
+    private final List<EnergyMeterListener> listeners = new CopyOnWriteArrayList<>();
+    // listeners by serial number of the device
+    private final Map<String, List<EnergyMeterListener>> meterListeners = new ConcurrentHashMap<>();
+
+    // guarded by RECEIVERS
+    private int references = 0;
+    private Thread thread;
+
+    private volatile boolean running;
+    private volatile MulticastSocket socket;
+
+    private EnergyMeterReceiver(String multicastGroup, int port) {
+        this.multicastGroup = multicastGroup;
+        this.port = port;
+    }
+
+    /**
+     * Returns the receiver of a multicast group and port, starting it if it is not running yet. Each call
+     * has to be followed by a call to {@link #release()} once the receiver is not needed anymore.
+     */
+    public static EnergyMeterReceiver acquire(String multicastGroup, int port) {
+        synchronized (RECEIVERS) {
+            String key = multicastGroup + ":" + port;
+            EnergyMeterReceiver receiver = RECEIVERS.get(key);
+            if (receiver == null) {
+                receiver = new EnergyMeterReceiver(multicastGroup, port);
+                RECEIVERS.put(key, receiver);
+            }
+            if (receiver.references++ == 0) {
+                receiver.start();
+            }
+            return receiver;
+        }
+    }
+
+    /**
+     * Releases the receiver, which is stopped when nobody uses it anymore.
+     */
+    public void release() {
+        synchronized (RECEIVERS) {
+            if (references > 0 && --references == 0) {
+                RECEIVERS.remove(multicastGroup + ":" + port);
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Adds a listener for the telegrams of all devices.
+     */
+    public void addListener(EnergyMeterListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EnergyMeterListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener for the telegrams of the device with the given serial number.
+     */
+    public void addListener(String serialNumber, EnergyMeterListener listener) {
+        meterListeners.computeIfAbsent(serialNumber, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removeListener(String serialNumber, EnergyMeterListener listener) {
+        List<EnergyMeterListener> list = meterListeners.get(serialNumber);
+        if (list != null) {
+            list.remove(listener);
+        }
+    }
+
+    private void start() {
+        running = true;
+        thread = new Thread(this::receive, "SMAEnergyMeter receiver " + multicastGroup + ":" + port);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void stop() {
+        running = false;
+        MulticastSocket currentSocket = socket;
+        if (currentSocket != null) {
+            // unblocks the receiving thread
+            currentSocket.close();
+        }
+        thread.interrupt();
+        thread = null;
+    }
+
+    private void receive() {
+        logger.debug("Start receiving telegrams on {}:{}", multicastGroup, port);
+
+        byte[] bytes = new byte[MAX_TELEGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+
+        while (running) {
+            try (MulticastSocket multicastSocket = new MulticastSocket(port)) {
+                multicastSocket.setSoTimeout(RECEIVE_TIMEOUT);
+                multicastSocket.joinGroup(InetAddress.getByName(multicastGroup));
+                socket = multicastSocket;
+
+                while (running) {
+                    try {
+                        packet.setLength(bytes.length);
+                        multicastSocket.receive(packet);
+                    } catch (SocketTimeoutException e) {
+                        continue;
+                    }
+
+                    EnergyMeterTelegram telegram = EnergyMeterTelegram.parse(bytes, packet.getLength());
+                    if (telegram != null) {
+                        dispatch(telegram);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Error receiving telegrams on {}:{}: {}", multicastGroup, port, e.getMessage());
+                    try {
+                        Thread.sleep(RETRY_DELAY);
+                    } catch (InterruptedException ie) {
+                        break;
+                    }
+                }
+            } finally {
+                socket = null;
+            }
+        }
+
+        logger.debug("Stop receiving telegrams on {}:{}", multicastGroup, port);
+    }
+
+    private void dispatch(EnergyMeterTelegram telegram) {
+        for (EnergyMeterListener listener : listeners) {
+            notify(listener, telegram);
+        }
+        List<EnergyMeterListener> list = meterListeners.get(telegram.getSerialNumber());
+        if (list != null) {
+            for (EnergyMeterListener listener : list) {
+                notify(listener, telegram);
+            }
+        }
+    }
+
+    private void notify(EnergyMeterListener listener, EnergyMeterTelegram telegram) {
+        try {
+            listener.telegramReceived(telegram);
+        } catch (RuntimeException e) {
+            logger.warn("Error handling telegram of SMA device '{}': {}", telegram.getSerialNumber(),
+                    e.getMessage(), e);
+        }
+    }
+
+}
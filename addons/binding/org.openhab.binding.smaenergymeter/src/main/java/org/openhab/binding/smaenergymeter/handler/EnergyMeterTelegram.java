@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link EnergyMeterTelegram} class holds the measurements of a single telegram sent by a SMA device
+ * (an Energy Meter or a Sunny Home Manager). A telegram is made of a header, which identifies the device,
+ * followed by OBIS records: a 4 byte OBIS id (channel, measurement index, type and tariff) and a 4 byte
+ * (current value) or 8 byte (meter reading) value.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterTelegram {
+
+    private static final int PROTOCOL_EMETER = 0x6069;
+
+    private static final int OFFSET_DATA_LENGTH = 0x0C;
+    private static final int OFFSET_PROTOCOL = 0x10;
+    private static final int OFFSET_SERIAL_NUMBER = 0x14;
+    private static final int OFFSET_TICKER = 0x18;
+    private static final int OFFSET_RECORDS = 0x1C;
+
+    // channel of the software version record, which has a 4 byte value but no type
+    private static final int CHANNEL_VERSION = 0x90;
+
+    private final String serialNumber;
+    private final long ticker;
+    private final long timestamp;
+    private final Map<Integer, Long> values;
+
+    private EnergyMeterTelegram(String serialNumber, long ticker, long timestamp, Map<Integer, Long> values) {
+        this.serialNumber = serialNumber;
+        this.ticker = ticker;
+        this.timestamp = timestamp;
+        this.values = values;
+    }
+
+    /**
+     * Decodes a received datagram.
+     *
+     * @param bytes the datagram
+     * @param length the length of the datagram
+     * @return the telegram, or null if the datagram is not a telegram of a SMA Energy Meter
+     */
+    public static EnergyMeterTelegram parse(byte[] bytes, int length) {
+        if (length < OFFSET_RECORDS || bytes[0] != 'S' || bytes[1] != 'M' || bytes[2] != 'A') {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        if ((buffer.getShort(OFFSET_PROTOCOL) & 0xFFFF) != PROTOCOL_EMETER) {
+            return null;
+        }
+
+        String serialNumber = String.valueOf(buffer.getInt(OFFSET_SERIAL_NUMBER) & 0xFFFFFFFFL);
+        long ticker = buffer.getInt(OFFSET_TICKER) & 0xFFFFFFFFL;
+
+        // the data length counts from the protocol id on
+        int end = Math.min(length, OFFSET_PROTOCOL + (buffer.getShort(OFFSET_DATA_LENGTH) & 0xFFFF));
+
+        Map<Integer, Long> values = new HashMap<>();
+        int position = OFFSET_RECORDS;
+        while (position + 4 <= end) {
+            int channel = bytes[position] & 0xFF;
+            int index = bytes[position + 1] & 0xFF;
+            int type = bytes[position + 2] & 0xFF;
+            if (channel == 0 && index == 0 && type == 0) {
+                // end of the records
+                break;
+            }
+            position += 4;
+
+            int size = (channel == CHANNEL_VERSION) ? 4 : type;
+            if ((size != FieldDTO.TYPE_ACTUAL && size != FieldDTO.TYPE_COUNTER) || position + size > end) {
+                // unknown record, its length cannot be known
+                break;
+            }
+            if (channel != CHANNEL_VERSION) {
+                long value = (size == FieldDTO.TYPE_ACTUAL) ? buffer.getInt(position) & 0xFFFFFFFFL
+                        : buffer.getLong(position);
+                values.put(FieldDTO.getObisId(index, type), value);
+            }
+            position += size;
+        }
+
+        return new EnergyMeterTelegram(serialNumber, ticker, System.currentTimeMillis(), values);
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    /**
+     * Returns the time (in ms) of the device the telegram was sent at.
+     */
+    public long getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Returns the time (in ms) the telegram was received at.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the value of a field, or null if the telegram does not contain it.
+     */
+    public Double getValue(FieldDTO field) {
+        Long value = values.get(field.getObisId());
+        return (value != null) ? field.toValue(value) : null;
+    }
+
+}
@@ -8,50 +8,59 @@
  */
 package org.openhab.binding.smaenergymeter.handler;
 
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-
 /**
- * The {@link FieldDTO} class holds the data for a single field (i.e. the power purchased).
+ * The {@link FieldDTO} class holds the definition of a single field (i.e. the power purchased):
+ * the channel it is published on, the OBIS measurement it is read from and its divisor.
  *
  * @author Osman Basha - Initial contribution
  */
 public class FieldDTO {
 
-    private final int address;
-    private final int length;
+    /** OBIS type of the current value of a measurement, 4 bytes long **/
+    public static final int TYPE_ACTUAL = 4;
+
+    /** OBIS type of the meter reading of a measurement, 8 bytes long **/
+    public static final int TYPE_COUNTER = 8;
+
+    private final String channelId;
+    private final int index;
+    private final int type;
     private final int divisor;
-    private float value;
 
-    public FieldDTO(int address, int length, int divisor) {
-        this.address = address;
-        if ((length != 4) && (length != 8)) {
-            throw new IllegalArgumentException("length should be 4 or 8 bytes");
+    public FieldDTO(String channelId, int index, int type, int divisor) {
+        if ((type != TYPE_ACTUAL) && (type != TYPE_COUNTER)) {
+            throw new IllegalArgumentException("type should be 4 or 8");
         }
-        this.length = length;
+        this.channelId = channelId;
+        this.index = index;
+        this.type = type;
         this.divisor = divisor;
     }
 
-    public float getValue() {
-        return value;
+    public String getChannelId() {
+        return channelId;
     }
 
-    public void updateValue(byte[] bytes) {
-        if (length == 4) {
-            value = (float) bytesToUInt16(Arrays.copyOfRange(bytes, address, address + 4)) / divisor;
-        } else {
-            value = (float) bytesToUInt32(Arrays.copyOfRange(bytes, address, address + 8)) / divisor;
-        }
+    /**
+     * Returns the OBIS id of the field, made of its measurement index and type (the tariff is ignored).
+     */
+    public int getObisId() {
+        return getObisId(index, type);
+    }
+
+    public static int getObisId(int index, int type) {
+        return ((index & 0xFF) << 16) | ((type & 0xFF) << 8);
     }
 
-    private int bytesToUInt16(byte[] bytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        return buffer.getInt();
+    /**
+     * Returns whether the field is a meter reading, which is never aggregated.
+     */
+    public boolean isCounter() {
+        return type == TYPE_COUNTER;
     }
 
-    private long bytesToUInt32(byte[] bytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        return buffer.getLong();
+    public double toValue(long rawValue) {
+        return (double) rawValue / divisor;
     }
 
 }
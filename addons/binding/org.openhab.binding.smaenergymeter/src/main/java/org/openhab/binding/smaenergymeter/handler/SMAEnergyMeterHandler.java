@@ -10,10 +10,12 @@ package org.openhab.binding.smaenergymeter.handler;
 
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -29,12 +31,23 @@ import org.slf4j.LoggerFactory;
  * The {@link SMAEnergyMeterHandler} is responsible for handling commands, which are
  * sent to one of the channels.
  *
+ * The telegrams of the device are received by the {@link EnergyMeterReceiver} shared by all things of the
+ * same multicast group, and either published as they arrive, or kept by the {@link EnergyMeter} and
+ * published aggregated over the polling period.
+ *
  * @author Osman Basha - Initial contribution
  */
-public class SMAEnergyMeterHandler extends BaseThingHandler {
+public class SMAEnergyMeterHandler extends BaseThingHandler implements EnergyMeterListener {
+
+    /** Number of telegrams a device sends per second **/
+    private static final int TELEGRAMS_PER_SECOND = 1;
 
     private Logger logger = LoggerFactory.getLogger(SMAEnergyMeterHandler.class);
-    private EnergyMeter energyMeter;
+    private EnergyMeterReceiver receiver;
+    private volatile EnergyMeter energyMeter;
+    private String aggregation;
+    private int pollingPeriod;
+    private long lastPoll;
     private ScheduledFuture<?> pollingJob;
 
     public SMAEnergyMeterHandler(Thing thing) {
@@ -45,7 +58,18 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command == RefreshType.REFRESH) {
             logger.debug("Refreshing {}", channelUID);
-            updateData();
+            EnergyMeter meter = energyMeter;
+            EnergyMeterTelegram telegram = meter != null ? meter.getLastTelegram() : null;
+            if (telegram != null) {
+                for (FieldDTO field : EnergyMeter.FIELDS) {
+                    if (field.getChannelId().equals(channelUID.getId())) {
+                        DecimalType value = EnergyMeter.getValue(telegram, field);
+                        if (value != null) {
+                            updateState(channelUID, value);
+                        }
+                    }
+                }
+            }
         } else {
             logger.warn("This binding is a read-only binding and cannot handle commands");
         }
@@ -57,29 +81,35 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
 
         EnergyMeterConfig config = getConfigAs(EnergyMeterConfig.class);
 
+        String multicastGroup = StringUtils.isBlank(config.getMcastGroup()) ? EnergyMeter.DEFAULT_MCAST_GRP
+                : config.getMcastGroup();
         int port = (config.getPort() == null) ? EnergyMeter.DEFAULT_MCAST_PORT : config.getPort();
-        energyMeter = new EnergyMeter(config.getMcastGroup(), port);
-        try {
-            energyMeter.update();
-
-            updateProperty(Thing.PROPERTY_VENDOR, "SMA");
-            updateProperty(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-            logger.debug("Found a SMA Energy Meter with S/N '{}'", energyMeter.getSerialNumber());
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
-            return;
+        pollingPeriod = (config.getPollingPeriod() == null) ? 30 : Math.max(1, config.getPollingPeriod());
+        aggregation = StringUtils.isBlank(config.getAggregation()) ? AGGREGATION_AVERAGE : config.getAggregation();
+        lastPoll = System.currentTimeMillis();
+        updateStatus(ThingStatus.UNKNOWN);
+
+        String serialNumber = config.getSerialNumber();
+        if (StringUtils.isBlank(serialNumber)) {
+            serialNumber = getThing().getProperties().get(Thing.PROPERTY_SERIAL_NUMBER);
+        }
+
+        receiver = EnergyMeterReceiver.acquire(multicastGroup, port);
+        if (StringUtils.isBlank(serialNumber)) {
+            // use the first device sending a telegram
+            logger.debug("Waiting for a telegram of any SMA Energy Meter for '{}'", getThing().getUID());
+            receiver.addListener(this);
+        } else {
+            attach(serialNumber);
         }
 
-        int pollingPeriod = (config.getPollingPeriod() == null) ? 30 : config.getPollingPeriod();
         pollingJob = scheduler.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
                 updateData();
             }
-        }, 0, pollingPeriod, TimeUnit.SECONDS);
+        }, pollingPeriod, pollingPeriod, TimeUnit.SECONDS);
         logger.debug("Polling job scheduled to run every {} sec. for '{}'", pollingPeriod, getThing().getUID());
-
-        updateStatus(ThingStatus.ONLINE);
     }
 
     @Override
@@ -90,25 +120,95 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
+        if (receiver != null) {
+            receiver.removeListener(this);
+            if (energyMeter != null) {
+                receiver.removeListener(energyMeter.getSerialNumber(), energyMeter);
+                receiver.removeListener(energyMeter.getSerialNumber(), this);
+            }
+            receiver.release();
+            receiver = null;
+        }
         energyMeter = null;
     }
 
+    /**
+     * Starts keeping and publishing the telegrams of the device with the given serial number.
+     */
+    private synchronized void attach(String serialNumber) {
+        if (energyMeter != null || receiver == null) {
+            return;
+        }
+
+        updateProperty(Thing.PROPERTY_VENDOR, "SMA");
+        updateProperty(Thing.PROPERTY_SERIAL_NUMBER, serialNumber);
+        logger.debug("Using the SMA Energy Meter with S/N '{}' for '{}'", serialNumber, getThing().getUID());
+
+        // keep the telegrams of two polling periods, in case they arrive late
+        energyMeter = new EnergyMeter(serialNumber, 2 * pollingPeriod * TELEGRAMS_PER_SECOND);
+        receiver.addListener(serialNumber, energyMeter);
+        if (AGGREGATION_NONE.equals(aggregation)) {
+            receiver.addListener(serialNumber, this);
+        }
+    }
+
+    @Override
+    public void telegramReceived(EnergyMeterTelegram telegram) {
+        EnergyMeter meter = energyMeter;
+        if (meter == null) {
+            // the first telegram of any device, when no serial number is configured. The receiver
+            // hands it over to the listeners of the device registered by attach() as well.
+            if (receiver != null) {
+                receiver.removeListener(this);
+            }
+            attach(telegram.getSerialNumber());
+        } else if (AGGREGATION_NONE.equals(aggregation)
+                && meter.getSerialNumber().equals(telegram.getSerialNumber())) {
+            publish(telegram);
+        }
+    }
+
+    private void publish(EnergyMeterTelegram telegram) {
+        for (FieldDTO field : EnergyMeter.FIELDS) {
+            if (isLinked(field.getChannelId())) {
+                DecimalType value = EnergyMeter.getValue(telegram, field);
+                if (value != null) {
+                    updateState(field.getChannelId(), value);
+                }
+            }
+        }
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
+        }
+    }
+
     private synchronized void updateData() {
         logger.debug("Update SMAEnergyMeter data '{}'", getThing().getUID());
 
-        try {
-            energyMeter.update();
+        long now = System.currentTimeMillis();
+        List<EnergyMeterTelegram> telegrams = energyMeter != null ? energyMeter.getTelegrams(lastPoll)
+                : null;
+        lastPoll = now;
 
-            updateState(CHANNEL_POWER_IN, energyMeter.getPowerIn());
-            updateState(CHANNEL_POWER_OUT, energyMeter.getPowerOut());
-            updateState(CHANNEL_ENERGY_IN, energyMeter.getEnergyIn());
-            updateState(CHANNEL_ENERGY_OUT, energyMeter.getEnergyOut());
+        if (telegrams == null || telegrams.isEmpty()) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "No telegram received within " + pollingPeriod + " s");
+            return;
+        }
 
-            if (getThing().getStatus().equals(ThingStatus.OFFLINE)) {
-                updateStatus(ThingStatus.ONLINE);
+        if (!AGGREGATION_NONE.equals(aggregation)) {
+            for (FieldDTO field : EnergyMeter.FIELDS) {
+                if (isLinked(field.getChannelId())) {
+                    DecimalType value = EnergyMeter.getValue(telegrams, field, aggregation);
+                    if (value != null) {
+                        updateState(field.getChannelId(), value);
+                    }
+                }
             }
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, e.getMessage());
+        }
+
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
         }
     }
 
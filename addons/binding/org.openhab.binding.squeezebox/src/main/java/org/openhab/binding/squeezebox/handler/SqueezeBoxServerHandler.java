@@ -18,13 +18,15 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.Socket;
 import java.net.URLDecoder;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -67,8 +69,48 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     private static final int VOLUME_CHANGE_SIZE = 5;
     private static final String NEW_LINE = System.getProperty("line.separator");
 
-    private List<SqueezeBoxPlayerEventListener> squeezeBoxPlayerListeners = Collections
-            .synchronizedList(new ArrayList<SqueezeBoxPlayerEventListener>());
+    /**
+     * The status parameters we handle, by their (encoded) name
+     */
+    private enum StatusParameter {
+        POWER("power"),
+        VOLUME("mixer%20volume"),
+        MODE("mode"),
+        TIME("time"),
+        DURATION("duration"),
+        PLAYLIST_INDEX("playlist_cur_index"),
+        PLAYLIST_TRACKS("playlist_tracks"),
+        PLAYLIST_REPEAT("playlist%20repeat"),
+        PLAYLIST_SHUFFLE("playlist%20shuffle"),
+        TITLE("title"),
+        REMOTE_TITLE("remote_title"),
+        ARTIST("artist"),
+        ALBUM("album"),
+        GENRE("genre"),
+        YEAR("year"),
+        ARTWORK("artwork_track_id");
+
+        private final String name;
+
+        private StatusParameter(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Map<String, StatusParameter> STATUS_PARAMETERS = new HashMap<>();
+    static {
+        for (StatusParameter parameter : StatusParameter.values()) {
+            STATUS_PARAMETERS.put(parameter.name, parameter);
+        }
+    }
+
+    // listeners receiving the events of all players
+    private List<SqueezeBoxPlayerEventListener> squeezeBoxPlayerListeners = new CopyOnWriteArrayList<>();
+    // listeners receiving the events of a single player, by mac
+    private ConcurrentHashMap<String, List<SqueezeBoxPlayerEventListener>> playerListeners = new ConcurrentHashMap<>();
+    // child Squeeze Player handlers by mac (null if there is no thing for the player)
+    private Map<String, SqueezeBoxPlayerHandler> playerHandlers = Collections
+            .synchronizedMap(new HashMap<String, SqueezeBoxPlayerHandler>());
     private Map<String, SqueezeBoxPlayer> players = Collections
             .synchronizedMap(new HashMap<String, SqueezeBoxPlayer>());
     // client socket and listener thread
@@ -344,6 +386,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             listener = null;
         }
         players.clear();
+        playerHandlers.clear();
         logger.trace("Squeeze Server connection stopped.");
     }
 
@@ -416,15 +459,6 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             logger.debug("Squeeze Server listener exiting.");
         }
 
-        private String decode(String raw) {
-            try {
-                return URLDecoder.decode(raw, "UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                logger.debug("Failed to decode '{}' ", raw, e);
-                return null;
-            }
-        }
-
         private void handlePlayersList(String message) {
             // Split out players
             String[] playersList = message.split("playerindex\\S*\\s");
@@ -469,7 +503,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                 if (!players.containsKey(macAddress)) {
                     players.put(macAddress, player);
 
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(macAddress, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.playerAdded(player);
@@ -483,253 +517,272 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         }
 
         private void handlePlayerUpdate(String message) {
-            String[] messageParts = message.split("\\s");
-            if (messageParts.length < 2) {
+            // the message is parsed in place: only the parts that are needed are extracted (and decoded)
+            final int macEnd = message.indexOf(' ');
+            final int typeEnd = macEnd < 0 ? -1 : tokenEnd(message, macEnd + 1);
+            if (macEnd <= 0 || typeEnd == macEnd + 1) {
                 logger.warn("Invalid message - expecting at least 2 parts. Ignoring.");
                 return;
             }
 
-            final String mac = decode(messageParts[0]);
+            final String mac = decode(message, 0, macEnd);
 
             // get the message type
-            String messageType = messageParts[1];
-
-            if (messageType.equals("status")) {
-                handleStatusMessage(mac, messageParts);
-            } else if (messageType.equals("playlist")) {
-                handlePlaylistMessage(mac, messageParts);
-            } else if (messageType.equals("prefset")) {
-                handlePrefsetMessage(mac, messageParts);
-            } else if (messageType.equals("ir")) {
-                final String ircode = messageParts[2];
-                updatePlayer(new PlayerUpdateEvent() {
-                    @Override
-                    public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                        listener.irCodeChangeEvent(mac, ircode);
+            String messageType = message.substring(macEnd + 1, typeEnd);
+            int parametersStart = typeEnd + 1;
+
+            switch (messageType) {
+                case "status":
+                    handleStatusMessage(mac, message, parametersStart);
+                    break;
+                case "playlist":
+                    handlePlaylistMessage(mac, message, getParameters(message, parametersStart, 2));
+                    break;
+                case "prefset":
+                    handlePrefsetMessage(mac, getParameters(message, parametersStart, 3));
+                    break;
+                case "ir":
+                    String[] parameters = getParameters(message, parametersStart, 1);
+                    if (parameters.length < 1) {
+                        return;
                     }
-                });
-            } else if (messageType.equals("power")) {
-                // ignore these for now
-                // player.setPowered(messageParts[1].equals("1"));
-            } else if (messageType.equals("play") || messageType.equals("pause") || messageType.equals("stop")) {
-                // ignore these for now
-                // player.setMode(Mode.valueOf(messageType));
-            } else if (messageType.equals("mixer") || messageType.equals("menustatus")
-                    || messageType.equals("button")) {
-                // ignore these for now
-            } else {
-                logger.trace("Unhandled player update message type '{}'.", messageType);
+                    final String ircode = parameters[0];
+                    updatePlayer(mac, new PlayerUpdateEvent() {
+                        @Override
+                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                            listener.irCodeChangeEvent(mac, ircode);
+                        }
+                    });
+                    break;
+                case "power":
+                    // ignore these for now
+                    // player.setPowered(messageParts[1].equals("1"));
+                    break;
+                case "play":
+                case "pause":
+                case "stop":
+                    // ignore these for now
+                    // player.setMode(Mode.valueOf(messageType));
+                    break;
+                case "mixer":
+                case "menustatus":
+                case "button":
+                    // ignore these for now
+                    break;
+                default:
+                    logger.trace("Unhandled player update message type '{}'.", messageType);
+                    break;
+            }
+        }
+
+        private void handleStatusMessage(final String mac, String message, int parametersStart) {
+            int start = parametersStart;
+            while (start < message.length()) {
+                int end = tokenEnd(message, start);
+                if (end > start) {
+                    try {
+                        handleStatusParameter(mac, message, start, end);
+                    } catch (NumberFormatException e) {
+                        logger.debug("Invalid status parameter '{}'", message.substring(start, end));
+                    }
+                }
+                start = end + 1;
             }
         }
 
-        private void handleStatusMessage(final String mac, String[] messageParts) {
-            for (String messagePart : messageParts) {
-                // Parameter Power
-                if (messagePart.startsWith("power%3A")) {
-                    String value = messagePart.substring("power%3A".length());
-                    final boolean power = value.matches("1");
-                    updatePlayer(new PlayerUpdateEvent() {
+        private void handleStatusParameter(final String mac, String message, int start, int end) {
+            // parameters are encoded as <name>%3A<value>
+            int separator = message.indexOf("%3A", start);
+            StatusParameter parameter = separator < 0 || separator > end ? null
+                    : STATUS_PARAMETERS.get(message.substring(start, separator));
+            if (parameter == null) {
+                // Added to be able to see additional status message types
+                logger.trace("Unhandled status message type '{}'", message.substring(start, end));
+                return;
+            }
+
+            int valueStart = separator + 3;
+            switch (parameter) {
+                case POWER:
+                    final boolean power = end - valueStart == 1 && message.charAt(valueStart) == '1';
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.powerChangeEvent(mac, power);
                         }
                     });
-                }
-                // Parameter Volume
-                else if (messagePart.startsWith("mixer%20volume%3A")) {
-                    String value = messagePart.substring("mixer%20volume%3A".length());
-                    final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case VOLUME:
+                    final int volume = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.volumeChangeEvent(mac, volume);
                         }
                     });
-                }
-                // Parameter Mode
-                else if (messagePart.startsWith("mode%3A")) {
-                    final String mode = messagePart.substring("mode%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case MODE:
+                    final String mode = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.modeChangeEvent(mac, mode);
                         }
                     });
-                }
-                // Parameter Playing Time
-                else if (messagePart.startsWith("time%3A")) {
-                    String value = messagePart.substring("time%3A".length());
-                    final int time = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case TIME:
+                    final int time = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.currentPlayingTimeEvent(mac, time);
                         }
                     });
-                }
-                // Parameter duration
-                else if (messagePart.startsWith("duration%3A")) {
-                    String value = messagePart.substring("duration%3A".length());
-                    final int duration = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case DURATION:
+                    final int duration = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.durationEvent(mac, duration);
                         }
                     });
-                }
-                // Parameter Playing Playlist Index
-                else if (messagePart.startsWith("playlist_cur_index%3A")) {
-                    String value = messagePart.substring("playlist_cur_index%3A".length());
-                    // player.setCurrentPlaylistIndex((int)
-                    // Integer.parseInt(value));
-                    final int index = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case PLAYLIST_INDEX:
+                    final int index = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.currentPlaylistIndexEvent(mac, index);
                         }
                     });
-                }
-                // Parameter Playlist Number Tracks
-                else if (messagePart.startsWith("playlist_tracks%3A")) {
-                    String value = messagePart.substring("playlist_tracks%3A".length());
-                    final int track = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case PLAYLIST_TRACKS:
+                    final int track = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.numberPlaylistTracksEvent(mac, track);
                         }
                     });
-                }
-                // Parameter Playlist Repeat Mode
-                else if (messagePart.startsWith("playlist%20repeat%3A")) {
-                    String value = messagePart.substring("playlist%20repeat%3A".length());
-                    final int repeat = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case PLAYLIST_REPEAT:
+                    final int repeat = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.currentPlaylistRepeatEvent(mac, repeat);
                         }
                     });
-                }
-                // Parameter Playlist Shuffle Mode
-                else if (messagePart.startsWith("playlist%20shuffle%3A")) {
-                    String value = messagePart.substring("playlist%20shuffle%3A".length());
-                    final int shuffle = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case PLAYLIST_SHUFFLE:
+                    final int shuffle = parseNumber(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.currentPlaylistShuffleEvent(mac, shuffle);
                         }
                     });
-                }
-                // Parameter Title
-                else if (messagePart.startsWith("title%3A")) {
-                    final String value = messagePart.substring("title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case TITLE:
+                    final String title = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.titleChangeEvent(mac, decode(value));
+                            listener.titleChangeEvent(mac, title);
                         }
                     });
-
-                }
-                // Parameter Remote Title (radio)
-                else if (messagePart.startsWith("remote_title%3A")) {
-                    final String value = messagePart.substring("remote_title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case REMOTE_TITLE:
+                    final String remoteTitle = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.remoteTitleChangeEvent(mac, decode(value));
+                            listener.remoteTitleChangeEvent(mac, remoteTitle);
                         }
                     });
-                }
-                // Parameter Artist
-                else if (messagePart.startsWith("artist%3A")) {
-                    final String value = messagePart.substring("artist%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case ARTIST:
+                    final String artist = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.artistChangeEvent(mac, decode(value));
+                            listener.artistChangeEvent(mac, artist);
                         }
                     });
-                }
-                // Parameter Album
-                else if (messagePart.startsWith("album%3A")) {
-                    final String value = messagePart.substring("album%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case ALBUM:
+                    final String album = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.albumChangeEvent(mac, decode(value));
+                            listener.albumChangeEvent(mac, album);
                         }
                     });
-                }
-                // Parameter Genre
-                else if (messagePart.startsWith("genre%3A")) {
-                    final String value = messagePart.substring("genre%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case GENRE:
+                    final String genre = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.genreChangeEvent(mac, decode(value));
+                            listener.genreChangeEvent(mac, genre);
                         }
                     });
-                }
-                // Parameter Year
-                else if (messagePart.startsWith("year%3A")) {
-                    final String value = messagePart.substring("year%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
+                    break;
+                case YEAR:
+                    final String year = decode(message, valueStart, end);
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.yearChangeEvent(mac, decode(value));
+                            listener.yearChangeEvent(mac, year);
                         }
                     });
-                }
-                // Parameter Artwork
-                else if (messagePart.startsWith("artwork_track_id%3A")) {
-                    String url = messagePart.substring("artwork_track_id%3A".length());
+                    break;
+                case ARTWORK:
+                    String url = decode(message, valueStart, end);
                     // NOTE: what is returned if not an artwork id? i.e. if a
                     // space?
                     if (!url.startsWith(" ")) {
                         url = "http://" + host + ":" + webport + "/music/" + url + "/cover.jpg";
                     }
-                    final String value = url;
-                    updatePlayer(new PlayerUpdateEvent() {
+                    final String coverArtUrl = url;
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.coverArtChangeEvent(mac, decode(value));
+                            listener.coverArtChangeEvent(mac, coverArtUrl);
                         }
                     });
-                } else {
-                    // Added to be able to see additional status message types
-                    logger.trace("Unhandled status message type '{}'", messagePart);
-                }
+                    break;
             }
         }
 
-        private void handlePlaylistMessage(final String mac, String[] messageParts) {
-            String action = messageParts[2];
+        private void handlePlaylistMessage(final String mac, String message, String[] parameters) {
+            if (parameters.length < 1) {
+                return;
+            }
+
+            String action = parameters[0];
             String mode;
             if (action.equals("newsong")) {
                 mode = "play";
                 // Set the track duration to 0
-                updatePlayer(new PlayerUpdateEvent() {
+                updatePlayer(mac, new PlayerUpdateEvent() {
                     @Override
                     public void updateListener(SqueezeBoxPlayerEventListener listener) {
                         listener.durationEvent(mac, 0);
                     }
                 });
-            } else if (action.equals("pause")) {
-                mode = messageParts[3].equals("0") ? "play" : "pause";
+            } else if (action.equals("pause") && parameters.length > 1) {
+                mode = parameters[1].equals("0") ? "play" : "pause";
             } else if (action.equals("stop")) {
                 mode = "stop";
             } else {
                 // Added so that actions (such as delete, index, jump, open) are not treated as "play"
-                logger.trace("Unhandled playlist message type '{}'", Arrays.toString(messageParts));
+                logger.trace("Unhandled playlist message type '{}'", message);
                 return;
             }
             final String value = mode;
-            updatePlayer(new PlayerUpdateEvent() {
+            updatePlayer(mac, new PlayerUpdateEvent() {
                 @Override
                 public void updateListener(SqueezeBoxPlayerEventListener listener) {
                     listener.modeChangeEvent(mac, value);
@@ -737,19 +790,19 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             });
         }
 
-        private void handlePrefsetMessage(final String mac, String[] messageParts) {
-            if (messageParts.length < 5) {
+        private void handlePrefsetMessage(final String mac, String[] parameters) {
+            if (parameters.length < 3) {
                 return;
             }
 
             // server prefsets
-            if (messageParts[2].equals("server")) {
-                String function = messageParts[3];
-                String value = messageParts[4];
+            if (parameters[0].equals("server")) {
+                String function = parameters[1];
+                String value = parameters[2];
 
                 if (function.equals("power")) {
                     final boolean power = value.equals("1");
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.powerChangeEvent(mac, power);
@@ -757,7 +810,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                     });
                 } else if (function.equals("volume")) {
                     final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.volumeChangeEvent(mac, volume);
@@ -768,6 +821,102 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Returns the end (exclusive) of the space separated token starting at the given position
+     *
+     * @param message the CLI message
+     * @param start the start of the token
+     * @return the position of the next space or the length of the message
+     */
+    private static int tokenEnd(String message, int start) {
+        int end = message.indexOf(' ', start);
+        return end < 0 ? message.length() : end;
+    }
+
+    /**
+     * Extracts (without decoding them) up to the given number of the space separated parameters
+     *
+     * @param message the CLI message
+     * @param start the start of the first parameter
+     * @param count the maximum number of parameters to extract
+     * @return the parameters, possibly less than requested
+     */
+    private static String[] getParameters(String message, int start, int count) {
+        String[] parameters = new String[count];
+        int found = 0;
+        while (found < count && start < message.length()) {
+            int end = tokenEnd(message, start);
+            if (end > start) {
+                parameters[found++] = message.substring(start, end);
+            }
+            start = end + 1;
+        }
+        return found == count ? parameters : Arrays.copyOf(parameters, found);
+    }
+
+    /**
+     * Parses the (possibly decimal) number between the given positions
+     *
+     * @throws NumberFormatException if not a number
+     */
+    private static int parseNumber(String message, int start, int end) {
+        return (int) Double.parseDouble(message.substring(start, end));
+    }
+
+    private String decode(String raw) {
+        try {
+            return URLDecoder.decode(raw, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            logger.debug("Failed to decode '{}' ", raw, e);
+            return null;
+        }
+    }
+
+    /**
+     * URL decodes the part of the message between the given positions. Parts
+     * that don't need decoding (most of them) are returned as is.
+     *
+     * @param message the CLI message
+     * @param start the start of the part
+     * @param end the end (exclusive) of the part
+     * @return the decoded part
+     */
+    static String decode(String message, int start, int end) {
+        int i = start;
+        while (i < end && message.charAt(i) != '%' && message.charAt(i) != '+') {
+            i++;
+        }
+        if (i == end) {
+            return message.substring(start, end);
+        }
+
+        // the server encodes anything but ASCII, decode the escaped UTF-8 bytes
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (c == '%' && i + 2 < end) {
+                int high = Character.digit(message.charAt(i + 1), 16);
+                int low = Character.digit(message.charAt(i + 2), 16);
+                if (high >= 0 && low >= 0) {
+                    bytes[length++] = (byte) ((high << 4) + low);
+                    i += 2;
+                    continue;
+                }
+            }
+            if (c > 0x7F) {
+                // not expected from the server, leave it to the JDK
+                try {
+                    return URLDecoder.decode(message.substring(start, end), "UTF-8");
+                } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                    return message.substring(start, end);
+                }
+            }
+            bytes[length++] = c == '+' ? (byte) ' ' : (byte) c;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
     /**
      * Interface to allow us to pass function call-backs to SqueezeBox Player
      * Event Listeners
@@ -780,33 +929,76 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Update Listeners and child Squeeze Player Things
+     * Update the listeners of all players, and the listeners and child Squeeze
+     * Player Thing of the player the event is about
      *
+     * @param mac
      * @param event
      */
-    private void updatePlayer(PlayerUpdateEvent event) {
+    private void updatePlayer(String mac, PlayerUpdateEvent event) {
         // update listeners like disco services
         for (SqueezeBoxPlayerEventListener listener : squeezeBoxPlayerListeners) {
             event.updateListener(listener);
         }
-        // update our children
-        Bridge bridge = getThing();
 
+        List<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        if (listeners != null) {
+            for (SqueezeBoxPlayerEventListener listener : listeners) {
+                event.updateListener(listener);
+            }
+        }
+
+        // update our child
+        SqueezeBoxPlayerHandler handler = getPlayerHandler(mac);
+        if (handler != null) {
+            event.updateListener(handler);
+        }
+    }
+
+    /**
+     * Returns the child Squeeze Player handler of the given player. The
+     * handlers are looked up once and cached until a child handler changes.
+     *
+     * @param mac
+     * @return the handler or null if the player has no thing
+     */
+    private SqueezeBoxPlayerHandler getPlayerHandler(String mac) {
+        synchronized (playerHandlers) {
+            if (playerHandlers.containsKey(mac)) {
+                return playerHandlers.get(mac);
+            }
+        }
+
+        Bridge bridge = getThing();
         if (bridge == null) {
-            return;
+            return null;
         }
 
-        List<Thing> things = bridge.getThings();
-        for (Thing thing : things) {
+        SqueezeBoxPlayerHandler playerHandler = null;
+        for (Thing thing : bridge.getThings()) {
             ThingHandler handler = thing.getHandler();
-            if (handler instanceof SqueezeBoxPlayerEventListener && !squeezeBoxPlayerListeners.contains(handler)) {
-                event.updateListener((SqueezeBoxPlayerEventListener) handler);
+            if (handler instanceof SqueezeBoxPlayerHandler
+                    && mac.equals(((SqueezeBoxPlayerHandler) handler).getMac())) {
+                playerHandler = (SqueezeBoxPlayerHandler) handler;
+                break;
             }
         }
+        playerHandlers.put(mac, playerHandler);
+        return playerHandler;
+    }
+
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        playerHandlers.clear();
+    }
+
+    @Override
+    public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
+        playerHandlers.clear();
     }
 
     /**
-     * Adds a listener for player events
+     * Adds a listener for the events of all players
      *
      * @param squeezeBoxPlayerListener
      * @return
@@ -817,7 +1009,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Removes a listener from player events
+     * Removes a listener from the events of all players
      *
      * @param squeezeBoxPlayerListener
      * @return
@@ -827,6 +1019,41 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         return squeezeBoxPlayerListeners.remove(squeezeBoxPlayerListener);
     }
 
+    /**
+     * Adds a listener for the events of a single player
+     *
+     * @param mac
+     * @param squeezeBoxPlayerListener
+     * @return
+     */
+    public boolean registerSqueezeBoxPlayerListener(String mac,
+            SqueezeBoxPlayerEventListener squeezeBoxPlayerListener) {
+        logger.trace("Registering player listener for {}", mac);
+        List<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        if (listeners == null) {
+            List<SqueezeBoxPlayerEventListener> newListeners = new CopyOnWriteArrayList<>();
+            listeners = playerListeners.putIfAbsent(mac, newListeners);
+            if (listeners == null) {
+                listeners = newListeners;
+            }
+        }
+        return listeners.add(squeezeBoxPlayerListener);
+    }
+
+    /**
+     * Removes a listener from the events of a single player
+     *
+     * @param mac
+     * @param squeezeBoxPlayerListener
+     * @return
+     */
+    public boolean unregisterSqueezeBoxPlayerListener(String mac,
+            SqueezeBoxPlayerEventListener squeezeBoxPlayerListener) {
+        logger.trace("Unregistering player listener for {}", mac);
+        List<SqueezeBoxPlayerEventListener> listeners = playerListeners.get(mac);
+        return listeners != null && listeners.remove(squeezeBoxPlayerListener);
+    }
+
     /**
      * Removed a player from our known list of players, will populate again if
      * player is seen
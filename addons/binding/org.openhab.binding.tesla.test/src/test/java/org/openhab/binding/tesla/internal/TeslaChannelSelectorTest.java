@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.junit.Test;
+import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy.TeslaChannelSelector;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Regression tests for the lookup of {@link TeslaChannelSelector}s and the decoding of responses with them. The
+ * lookups have to find the same selector as a search through all selectors in declaration order, also for the
+ * channels that are shared by several selectors.
+ *
+ * @author agent - Initial contribution
+ */
+public class TeslaChannelSelectorTest {
+
+    private static final String DRIVE_STATE = "{\"shift_state\":\"D\",\"speed\":null,\"latitude\":\"52.1\","
+            + "\"longitude\":\"4.3\",\"heading\":180,\"gps_as_of\":1490000000,\"not_yet_supported\":\"x\"}";
+
+    private static final String CHARGE_STATE = "{\"charging_state\":\"Charging\",\"battery_level\":80}";
+
+    @Test
+    public void channelIdLookupFindsTheFirstDeclaredSelector() {
+        for (TeslaChannelSelector selector : TeslaChannelSelector.values()) {
+            String channelID = selector.getChannelID();
+            assertSame(channelID, findFirstByChannelID(channelID),
+                    TeslaChannelSelector.getValueSelectorFromChannelID(channelID));
+        }
+
+        assertSame(TeslaChannelSelector.ELEVATION, TeslaChannelSelector.getValueSelectorFromChannelID("location"));
+        assertSame(TeslaChannelSelector.DISPLAY_NAME, TeslaChannelSelector.getValueSelectorFromChannelID("name"));
+    }
+
+    @Test
+    public void restIdLookupFindsTheFirstDeclaredSelector() {
+        for (TeslaChannelSelector selector : TeslaChannelSelector.values()) {
+            String restID = selector.toString();
+            if (restID != null) {
+                assertSame(restID, findFirstByRESTID(restID), TeslaChannelSelector.findValueSelectorFromRESTID(restID));
+                assertSame(restID, findFirstByRESTID(restID), TeslaChannelSelector.getValueSelectorFromRESTID(restID));
+            }
+        }
+    }
+
+    @Test
+    public void unknownIdsAreNotFound() {
+        assertNull(TeslaChannelSelector.findValueSelectorFromRESTID("not_yet_supported"));
+
+        try {
+            TeslaChannelSelector.getValueSelectorFromRESTID("not_yet_supported");
+            fail("An unknown REST ID was found");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            TeslaChannelSelector.getValueSelectorFromChannelID("notyetsupported");
+            fail("An unknown channel ID was found");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void responsesAreDecoded() {
+        TeslaChannelSelectorProxy proxy = new TeslaChannelSelectorProxy();
+        Map<String, String> properties = new HashMap<>();
+
+        Map<String, State> states = decode(DRIVE_STATE, proxy, properties);
+        assertEquals(new StringType("D"), states.get("shiftstate"));
+        assertEquals(UnDefType.UNDEF, states.get("speed"));
+        assertEquals(new PointType(new StringType("52.1"), new StringType("4.3"), new StringType("0")),
+                states.get("location"));
+        assertFalse(states.containsKey("not_yet_supported"));
+
+        states = decode(CHARGE_STATE, proxy, properties);
+        assertEquals(new StringType("Charging"), states.get("chargingstate"));
+        assertEquals(new DecimalType(80), states.get("batterylevel"));
+    }
+
+    /**
+     * Decodes a response the way the handler does, the last state of each channel wins
+     */
+    private Map<String, State> decode(String json, TeslaChannelSelectorProxy proxy, Map<String, String> properties) {
+        Map<String, State> states = new HashMap<>();
+        JsonObject jsonObject = new JsonParser().parse(json).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+            TeslaChannelSelector selector = TeslaChannelSelector.findValueSelectorFromRESTID(entry.getKey());
+            if (selector == null || selector.isProperty()) {
+                continue;
+            }
+            if (entry.getValue().isJsonNull()) {
+                states.put(selector.getChannelID(), UnDefType.UNDEF);
+            } else {
+                states.put(selector.getChannelID(),
+                        proxy.getState(entry.getValue().getAsString(), selector, properties));
+            }
+        }
+        return states;
+    }
+
+    private TeslaChannelSelector findFirstByChannelID(String channelID) {
+        for (TeslaChannelSelector selector : TeslaChannelSelector.values()) {
+            if (selector.getChannelID().equals(channelID)) {
+                return selector;
+            }
+        }
+        return null;
+    }
+
+    private TeslaChannelSelector findFirstByRESTID(String restID) {
+        for (TeslaChannelSelector selector : TeslaChannelSelector.values()) {
+            if (restID.equals(selector.toString())) {
+                return selector;
+            }
+        }
+        return null;
+    }
+}
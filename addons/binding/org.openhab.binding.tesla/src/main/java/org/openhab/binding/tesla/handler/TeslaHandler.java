@@ -23,6 +23,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -60,6 +61,8 @@ import org.openhab.binding.tesla.TeslaBindingConstants;
 import org.openhab.binding.tesla.TeslaBindingConstants.EventKeys;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy.TeslaChannelSelector;
+import org.openhab.binding.tesla.internal.TeslaPollingGovernor;
+import org.openhab.binding.tesla.internal.TeslaPollingGovernor.PollingState;
 import org.openhab.binding.tesla.internal.protocol.ChargeState;
 import org.openhab.binding.tesla.internal.protocol.ClimateState;
 import org.openhab.binding.tesla.internal.protocol.DriveState;
@@ -90,8 +93,7 @@ import com.google.gson.JsonParser;
 public class TeslaHandler extends BaseThingHandler {
 
     public static final int EVENT_REFRESH_INTERVAL = 200;
-    public static final int FAST_STATUS_REFRESH_INTERVAL = 15000;
-    public static final int SLOW_STATUS_REFRESH_INTERVAL = 60000;
+    public static final int POLL_INTERVAL = 5000;
     public static final int EVENT_RETRY_INTERVAL = 5000;
     public static final int EVENT_RECOVERY_INTERVAL = 180000;
     public static final int EVENT_MISSING_WHILE_STATIONARY_INTERVAL = 305000;
@@ -100,6 +102,18 @@ public class TeslaHandler extends BaseThingHandler {
     public static final int MAXIMUM_ERRORS_IN_INTERVAL = 2;
     public static final int ERROR_INTERVAL_SECONDS = 15;
 
+    // The selectors of the values of an event, in the order of the event keys
+    private static final TeslaChannelSelector[] EVENT_SELECTORS = new TeslaChannelSelector[EventKeys.values().length];
+
+    static {
+        for (EventKeys key : EventKeys.values()) {
+            EVENT_SELECTORS[key.ordinal()] = TeslaChannelSelector.getValueSelectorFromRESTID(key.toString());
+        }
+    }
+
+    // The request budget shared by all the vehicles of an account
+    private static final Map<String, Rate[]> ACCOUNT_RATES = new ConcurrentHashMap<>();
+
     private Logger logger = LoggerFactory.getLogger(TeslaHandler.class);
 
     // Vehicle state variables
@@ -125,9 +139,9 @@ public class TeslaHandler extends BaseThingHandler {
     // Threading and Job related variables
     protected ScheduledFuture<?> connectJob;
     protected ScheduledFuture<?> eventJob;
-    protected ScheduledFuture<?> fastStateJob;
-    protected ScheduledFuture<?> slowStateJob;
+    protected ScheduledFuture<?> pollJob;
     protected QueueChannelThrottler stateThrottler;
+    protected final TeslaPollingGovernor governor = new TeslaPollingGovernor();
 
     protected long lastTimeStamp;
     protected long intervalTimestamp = 0;
@@ -137,6 +151,7 @@ public class TeslaHandler extends BaseThingHandler {
     private StorageService storageService;
     protected Gson gson = new Gson();
     protected TeslaChannelSelectorProxy teslaChannelSelectorProxy = new TeslaChannelSelectorProxy();
+    protected final Map<String, State> publishedStates = new ConcurrentHashMap<>();
     private TokenResponse logonToken;
 
     public TeslaHandler(Thing thing, StorageService storageService) {
@@ -152,6 +167,7 @@ public class TeslaHandler extends BaseThingHandler {
         updateStatus(ThingStatus.UNKNOWN);
 
         lock = new ReentrantLock();
+        publishedStates.clear();
 
         lock.lock();
         try {
@@ -173,15 +189,14 @@ public class TeslaHandler extends BaseThingHandler {
             Rate secondRate = new Rate(200, 10, TimeUnit.MINUTES);
             stateThrottler = new QueueChannelThrottler(firstRate, scheduler, channels);
             stateThrottler.addRate(secondRate);
-
-            if (fastStateJob == null || fastStateJob.isCancelled()) {
-                fastStateJob = scheduler.scheduleWithFixedDelay(fastStateRunnable, 0, FAST_STATUS_REFRESH_INTERVAL,
-                        TimeUnit.MILLISECONDS);
+            for (Rate accountRate : getAccountRates()) {
+                stateThrottler.addRate(accountRate);
             }
 
-            if (slowStateJob == null || slowStateJob.isCancelled()) {
-                slowStateJob = scheduler.scheduleWithFixedDelay(slowStateRunnable, 0, SLOW_STATUS_REFRESH_INTERVAL,
-                        TimeUnit.MILLISECONDS);
+            governor.reset();
+
+            if (pollJob == null || pollJob.isCancelled()) {
+                pollJob = scheduler.scheduleWithFixedDelay(pollRunnable, 0, POLL_INTERVAL, TimeUnit.MILLISECONDS);
             }
         } finally {
             lock.unlock();
@@ -195,14 +210,9 @@ public class TeslaHandler extends BaseThingHandler {
 
         lock.lock();
         try {
-            if (fastStateJob != null && !fastStateJob.isCancelled()) {
-                fastStateJob.cancel(true);
-                fastStateJob = null;
-            }
-
-            if (slowStateJob != null && !slowStateJob.isCancelled()) {
-                slowStateJob.cancel(true);
-                slowStateJob = null;
+            if (pollJob != null && !pollJob.isCancelled()) {
+                pollJob.cancel(true);
+                pollJob = null;
             }
 
             if (eventJob != null && !eventJob.isCancelled()) {
@@ -227,6 +237,8 @@ public class TeslaHandler extends BaseThingHandler {
         TeslaChannelSelector selector = TeslaChannelSelector.getValueSelectorFromChannelID(channelID);
 
         if (command instanceof RefreshType) {
+            // Make sure the refreshed values get published, even when unchanged
+            publishedStates.clear();
             if (isAwake()) {
                 // Request the state of all known variables. This is sub-optimal, but the requests get scheduled and
                 // throttled so we are safe not to break the Tesla SLA
@@ -238,6 +250,8 @@ public class TeslaHandler extends BaseThingHandler {
             }
         } else {
             if (selector != null) {
+                // the vehicle is being used, keep polling it for a while
+                governor.onActivity(System.currentTimeMillis());
                 try {
                     switch (selector) {
                         case CHARGE_LIMIT_SOC: {
@@ -368,6 +382,20 @@ public class TeslaHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Returns the rates limiting the requests of all the vehicles of the account
+     * of this vehicle
+     */
+    protected Rate[] getAccountRates() {
+        String account = (String) getConfig().get(USERNAME);
+        if (StringUtils.isEmpty(account)) {
+            // token based authentication only, so the account is unknown
+            account = getThing().getUID().getAsString();
+        }
+        return ACCOUNT_RATES.computeIfAbsent(account, key -> new Rate[] { new Rate(30, 1, TimeUnit.MINUTES),
+                new Rate(300, 10, TimeUnit.MINUTES) });
+    }
+
     public void sendCommand(String command, String payLoad, WebTarget target) {
         Request request = new Request(command, payLoad, target);
         if (stateThrottler != null) {
@@ -409,7 +437,7 @@ public class TeslaHandler extends BaseThingHandler {
         sendCommand(parameter, null, target);
     }
 
-    protected String invokeAndParse(String command, String payLoad, WebTarget target) {
+    protected JsonElement invokeAndParse(String command, String payLoad, WebTarget target) {
 
         logger.debug("Invoking: {}", command);
 
@@ -442,9 +470,11 @@ public class TeslaHandler extends BaseThingHandler {
             if (response != null && response.getStatus() == 200) {
                 try {
                     JsonObject jsonObject = parser.parse(response.readEntity(String.class)).getAsJsonObject();
-                    logger.trace("Request : {}:{}:{} yields {}", new Object[] { command, payLoad, target.toString(),
-                            jsonObject.get("response").toString() });
-                    return jsonObject.get("response").toString();
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Request : {}:{}:{} yields {}", new Object[] { command, payLoad,
+                                target.toString(), jsonObject.get("response").toString() });
+                    }
+                    return jsonObject.get("response");
                 } catch (Exception e) {
                     logger.error("An exception occurred while invoking a REST request : '{}'", e.getMessage());
                 }
@@ -478,13 +508,23 @@ public class TeslaHandler extends BaseThingHandler {
     }
 
     public void parseAndUpdate(String request, String payLoad, String result) {
+        if (result != null && !"null".equals(result)) {
+            try {
+                parseAndUpdate(request, payLoad, new JsonParser().parse(result));
+            } catch (Exception p) {
+                logger.error("An exception occurred while parsing data received from the vehicle: '{}'",
+                        p.getMessage());
+            }
+        }
+    }
+
+    public void parseAndUpdate(String request, String payLoad, JsonElement result) {
 
-        JsonParser parser = new JsonParser();
         JsonObject jsonObject = null;
 
         try {
-            if (request != null && result != null && !"null".equals(result)) {
-                // first, update state objects
+            if (request != null && result != null && !result.isJsonNull()) {
+                // first, update state objects, using the already parsed tree rather than parsing the response again
                 switch (request) {
                     case TESLA_DRIVE_STATE: {
                         driveState = gson.fromJson(result, DriveState.class);
@@ -501,9 +541,9 @@ public class TeslaHandler extends BaseThingHandler {
                     case TESLA_CHARGE_STATE: {
                         chargeState = gson.fromJson(result, ChargeState.class);
                         if (chargeState.charging_state != null && "Charging".equals(chargeState.charging_state)) {
-                            updateState(CHANNEL_CHARGE, OnOffType.ON);
+                            publishState(CHANNEL_CHARGE, OnOffType.ON);
                         } else {
-                            updateState(CHANNEL_CHARGE, OnOffType.OFF);
+                            publishState(CHANNEL_CHARGE, OnOffType.OFF);
                         }
 
                         break;
@@ -514,23 +554,23 @@ public class TeslaHandler extends BaseThingHandler {
                     }
                 }
 
-                // secondly, reformat the response string to a JSON compliant
+                // secondly, reformat the response to a JSON compliant
                 // object for some specific non-JSON compatible requests
                 switch (request) {
                     case TESLA_MOBILE_ENABLED_STATE: {
                         jsonObject = new JsonObject();
-                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result);
+                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result.getAsString());
                         break;
                     }
                     default: {
-                        jsonObject = parser.parse(result).getAsJsonObject();
+                        jsonObject = result.getAsJsonObject();
                         break;
                     }
                 }
             }
 
             // process the result
-            if (jsonObject != null && result != null && !"null".equals(result)) {
+            if (jsonObject != null) {
                 // deal with responses for "set" commands, which get confirmed
                 // positively, or negatively, in which case a reason for failure
                 // is provided
@@ -542,15 +582,13 @@ public class TeslaHandler extends BaseThingHandler {
                     Set<Map.Entry<String, JsonElement>> entrySet = jsonObject.entrySet();
 
                     long resultTimeStamp = 0;
-                    for (Map.Entry<String, JsonElement> entry : entrySet) {
-                        if ("timestamp".equals(entry.getKey())) {
-                            resultTimeStamp = Long.valueOf(entry.getValue().getAsString());
-                            if (logger.isTraceEnabled()) {
-                                Date date = new Date(resultTimeStamp);
-                                SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
-                                logger.trace("The request result timestamp is {}", dateFormatter.format(date));
-                            }
-                            break;
+                    JsonElement timestamp = jsonObject.get("timestamp");
+                    if (timestamp != null && !timestamp.isJsonNull()) {
+                        resultTimeStamp = timestamp.getAsLong();
+                        if (logger.isTraceEnabled()) {
+                            Date date = new Date(resultTimeStamp);
+                            SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+                            logger.trace("The request result timestamp is {}", dateFormatter.format(date));
                         }
                     }
 
@@ -565,22 +603,32 @@ public class TeslaHandler extends BaseThingHandler {
                         }
 
                         if (proceed) {
+                            Map<String, String> properties = editProperties();
+                            boolean propertiesChanged = false;
+
                             for (Map.Entry<String, JsonElement> entry : entrySet) {
+                                TeslaChannelSelector selector = TeslaChannelSelector
+                                        .findValueSelectorFromRESTID(entry.getKey());
+                                if (selector == null) {
+                                    logger.trace("The variable/value pair '{}':'{}' is not (yet) supported",
+                                            entry.getKey(), entry.getValue());
+                                    continue;
+                                }
+
                                 try {
-                                    TeslaChannelSelector selector = TeslaChannelSelector
-                                            .getValueSelectorFromRESTID(entry.getKey());
                                     if (!selector.isProperty()) {
                                         if (!entry.getValue().isJsonNull()) {
-                                            updateState(selector.getChannelID(), teslaChannelSelectorProxy.getState(
-                                                    entry.getValue().getAsString(), selector, editProperties()));
+                                            publishState(selector.getChannelID(), teslaChannelSelectorProxy
+                                                    .getState(entry.getValue().getAsString(), selector, properties));
                                         } else {
-                                            updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                            publishState(selector.getChannelID(), UnDefType.UNDEF);
                                         }
                                     } else {
                                         if (!entry.getValue().isJsonNull()) {
-                                            Map<String, String> properties = editProperties();
-                                            properties.put(selector.getChannelID(), entry.getValue().getAsString());
-                                            updateProperties(properties);
+                                            String value = entry.getValue().getAsString();
+                                            if (!value.equals(properties.put(selector.getChannelID(), value))) {
+                                                propertiesChanged = true;
+                                            }
                                         }
                                     }
                                 } catch (IllegalArgumentException e) {
@@ -591,6 +639,10 @@ public class TeslaHandler extends BaseThingHandler {
                                             e.getMessage(), e);
                                 }
                             }
+
+                            if (propertiesChanged) {
+                                updateProperties(properties);
+                            }
                         } else {
                             logger.warn("The result for request '{}' is discarded due to an out of sync timestamp",
                                     request);
@@ -605,6 +657,18 @@ public class TeslaHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Updates the state of a channel, unless the state is unchanged since it was last published
+     *
+     * @param channelID the channel to update
+     * @param state the new state of the channel, may be null if the value could not be converted
+     */
+    protected void publishState(String channelID, State state) {
+        if (state != null && !state.equals(publishedStates.put(channelID, state))) {
+            updateState(channelID, state);
+        }
+    }
+
     protected boolean isAwake() {
         return (vehicle != null) ? (!"asleep".equals(vehicle.state) && vehicle.vehicle_id != null) : false;
     }
@@ -841,43 +905,42 @@ public class TeslaHandler extends BaseThingHandler {
         return ThingStatusDetail.CONFIGURATION_ERROR;
     }
 
-    protected Runnable fastStateRunnable = new Runnable() {
+    protected Runnable pollRunnable = new Runnable() {
 
         @Override
         public void run() {
-            if (getThing().getStatus() == ThingStatus.ONLINE) {
-                if (isAwake()) {
-                    requestData(TESLA_DRIVE_STATE);
-                    requestData(TESLA_VEHICLE_STATE);
-                } else {
-                    if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
-                    } else {
-                        vehicle = queryVehicle();
+            try {
+                if (getThing().getStatus() == ThingStatus.ONLINE) {
+                    long now = System.currentTimeMillis();
+
+                    // the list of vehicles tells whether the vehicle is asleep, without waking it up
+                    if (vehicle == null || governor.isVehicleQueryDue(now)) {
+                        Vehicle queriedVehicle = queryVehicle();
+                        if (queriedVehicle != null) {
+                            vehicle = queriedVehicle;
+                        }
+                        governor.onVehicleQueried(now, isAwake());
                     }
-                }
-            }
-        }
-    };
 
-    protected Runnable slowStateRunnable = new Runnable() {
+                    PollingState previousState = governor.getState();
+                    PollingState state = governor.update(now, isAwake(),
+                            driveState != null ? driveState.shift_state : null,
+                            chargeState != null ? chargeState.charging_state : null);
+                    if (state != previousState) {
+                        logger.debug("The polling state of vehicle '{}' changed from {} to {}", getConfig().get(VIN),
+                                previousState, state);
+                    }
 
-        @Override
-        public void run() {
-            if (getThing().getStatus() == ThingStatus.ONLINE) {
-                if (isAwake()) {
-                    requestData(TESLA_CHARGE_STATE);
-                    requestData(TESLA_CLIMATE_STATE);
-                    requestData(TESLA_GUI_STATE);
-                    queryVehicle(TESLA_MOBILE_ENABLED_STATE);
-                    parseAndUpdate("queryVehicle", null, vehicleJSON);
-                } else {
-                    if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
-                    } else {
-                        vehicle = queryVehicle();
+                    for (String request : governor.getDueRequests(now)) {
+                        if (TESLA_MOBILE_ENABLED_STATE.equals(request)) {
+                            queryVehicle(TESLA_MOBILE_ENABLED_STATE);
+                        } else {
+                            requestData(request);
+                        }
                     }
                 }
+            } catch (Exception e) {
+                logger.error("An exception occurred while polling the vehicle: '{}'", e.getMessage());
             }
         }
     };
@@ -981,12 +1044,22 @@ public class TeslaHandler extends BaseThingHandler {
             return isEstablished;
         }
 
+        protected void closeEventStream() {
+            isEstablished = false;
+            eventBufferedReader = null;
+            if (eventResponse != null) {
+                eventResponse.close();
+                eventResponse = null;
+            }
+        }
+
         @Override
         public void run() {
             try {
                 if (getThing().getStatus() == ThingStatus.ONLINE) {
-                    if (isAwake()) {
+                    if (isAwake() && governor.isStreamPreferred()) {
                         if (establishEventStream()) {
+                            governor.setStreaming(true);
 
                             String line = null;
                             try {
@@ -999,7 +1072,7 @@ public class TeslaHandler extends BaseThingHandler {
 
                             Date date = new Date();
 
-                            while (line != null) {
+                            while (line != null && governor.isStreamPreferred()) {
                                 try {
                                     logger.debug("Event Stream : Received an event: '{}'", line);
                                     String vals[] = line.split(",");
@@ -1014,22 +1087,20 @@ public class TeslaHandler extends BaseThingHandler {
                                                 logger.trace("Event Stream : Event stamp is {}",
                                                         dateFormatter.format(date));
                                             }
-                                            for (int i = 0; i < EventKeys.values().length; i++) {
+                                            Map<String, String> properties = editProperties();
+                                            for (int i = 0; i < EVENT_SELECTORS.length; i++) {
                                                 try {
-                                                    TeslaChannelSelector selector = TeslaChannelSelector
-                                                            .getValueSelectorFromRESTID(
-                                                                    (EventKeys.values()[i]).toString());
+                                                    TeslaChannelSelector selector = EVENT_SELECTORS[i];
                                                     if (!selector.isProperty()) {
                                                         State newState = teslaChannelSelectorProxy.getState(vals[i],
-                                                                selector, editProperties());
+                                                                selector, properties);
                                                         if (newState != null && !"".equals(vals[i])) {
-                                                            updateState(selector.getChannelID(), newState);
+                                                            publishState(selector.getChannelID(), newState);
                                                         } else {
-                                                            updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                                            publishState(selector.getChannelID(), UnDefType.UNDEF);
 
                                                         }
                                                     } else {
-                                                        Map<String, String> properties = editProperties();
                                                         properties.put(selector.getChannelID(),
                                                                 (selector.getState(vals[i])).toString());
                                                         updateProperties(properties);
@@ -1075,22 +1146,23 @@ public class TeslaHandler extends BaseThingHandler {
                                 logger.trace(
                                         "Event Stream : The end of stream was reached, or an exception just occurred");
                                 isEstablished = false;
-                            }
-                        } else {
-                            logger.debug("Event stream : The vehicle is not awake");
-                            if (vehicle != null) {
-                                // wake up the vehicle until streaming token <> 0
-                                logger.debug("Event stream : Waking up the vehicle");
-                                sendCommand(TESLA_COMMAND_WAKE_UP);
                             } else {
-                                logger.debug("Event stream : Querying the vehicle");
-                                vehicle = queryVehicle();
+                                logger.debug("Event Stream : Closing the event stream, as the vehicle is not driving");
+                                closeEventStream();
                             }
+                        } else {
+                            // the vehicle is not woken up for the event stream, the poll job refreshes the vehicle
+                            // (and its streaming token) as often as the governor allows
+                            logger.debug("Event stream : The event stream could not be established");
                         }
+                    } else if (isEstablished) {
+                        closeEventStream();
                     }
                 }
             } catch (Exception t) {
                 logger.error("Event Stream : An exception ocurred in the event stream thread: '{}'", t.getMessage());
+            } finally {
+                governor.setStreaming(isEstablished);
             }
         }
     };
@@ -1111,13 +1183,13 @@ public class TeslaHandler extends BaseThingHandler {
         public void run() {
             try {
 
-                String result = "";
+                JsonElement result = null;
 
                 if (isAwake() && getThing().getStatus() == ThingStatus.ONLINE) {
                     result = invokeAndParse(request, payLoad, target);
                 }
 
-                if (result != null && !"".equals(result)) {
+                if (result != null && !result.isJsonNull()) {
                     parseAndUpdate(request, payLoad, result);
                 }
             } catch (Exception e) {
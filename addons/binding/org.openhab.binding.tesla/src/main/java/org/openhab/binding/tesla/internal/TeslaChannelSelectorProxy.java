@@ -8,11 +8,11 @@
  */
 package org.openhab.binding.tesla.internal;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -933,9 +933,23 @@ public class TeslaChannelSelectorProxy {
         },
         WHEEL_TYPE("wheel_type", "wheeltype", StringType.class, true);
 
+        private static final Map<String, TeslaChannelSelector> RESTID_INDEX = new HashMap<>();
+        private static final Map<String, TeslaChannelSelector> CHANNELID_INDEX = new HashMap<>();
+
+        static {
+            // several selectors share a channel, e.g. "location" and "name", the first one declared is found
+            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
+                if (c.RESTID != null) {
+                    RESTID_INDEX.putIfAbsent(c.RESTID, c);
+                }
+                CHANNELID_INDEX.putIfAbsent(c.channelID, c);
+            }
+        }
+
         private final String RESTID;
         private final String channelID;
         private Class<? extends Type> typeClass;
+        private final Function<String, State> converter;
         private final boolean isProperty;
 
         private TeslaChannelSelector(String RESTID, String channelID, Class<? extends Type> typeClass,
@@ -943,9 +957,29 @@ public class TeslaChannelSelectorProxy {
             this.RESTID = RESTID;
             this.channelID = channelID;
             this.typeClass = typeClass;
+            this.converter = getConverter(typeClass);
             this.isProperty = isProperty;
         }
 
+        private static Function<String, State> getConverter(Class<? extends Type> typeClass) {
+            if (typeClass == DecimalType.class) {
+                return DecimalType::valueOf;
+            } else if (typeClass == OnOffType.class) {
+                return OnOffType::valueOf;
+            } else if (typeClass == OpenClosedType.class) {
+                return OpenClosedType::valueOf;
+            } else if (typeClass == PercentType.class) {
+                return PercentType::valueOf;
+            } else if (typeClass == StringType.class) {
+                return StringType::valueOf;
+            } else if (typeClass == DateTimeType.class) {
+                return DateTimeType::valueOf;
+            } else if (typeClass == PointType.class) {
+                return PointType::valueOf;
+            }
+            throw new IllegalArgumentException("Unsupported type " + typeClass.getSimpleName());
+        }
+
         @Override
         public String toString() {
             return RESTID;
@@ -969,27 +1003,18 @@ public class TeslaChannelSelectorProxy {
 
         public State getState(String s) {
             try {
-                Method valueOf = typeClass.getMethod("valueOf", String.class);
-                State state = (State) valueOf.invoke(typeClass, s);
-                if (state != null) {
-                    return state;
-                }
-            } catch (NoSuchMethodException e) {
+                return converter.apply(s);
             } catch (IllegalArgumentException e) {
-            } catch (IllegalAccessException e) {
-            } catch (InvocationTargetException e) {
+                return null;
             }
-
-            return null;
         }
 
         public static TeslaChannelSelector getValueSelectorFromChannelID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.channelID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = CHANNELID_INDEX.get(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
@@ -998,14 +1023,23 @@ public class TeslaChannelSelectorProxy {
         public static TeslaChannelSelector getValueSelectorFromRESTID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.RESTID != null && c.RESTID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = findValueSelectorFromRESTID(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
         }
+
+        /**
+         * Looks up the selector for a REST ID without throwing, since most responses contain variables that
+         * are not (yet) supported
+         *
+         * @return the selector, or null if the REST ID is not supported
+         */
+        public static TeslaChannelSelector findValueSelectorFromRESTID(String valueSelectorText) {
+            return RESTID_INDEX.get(valueSelectorText);
+        }
     }
 
     public String latitude = "0";
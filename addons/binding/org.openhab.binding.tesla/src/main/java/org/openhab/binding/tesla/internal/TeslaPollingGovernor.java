@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal;
+
+import static org.openhab.binding.tesla.TeslaBindingConstants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link TeslaPollingGovernor} decides which state requests are due, based on
+ * what the vehicle is doing. A sleeping vehicle is not polled at all (as polling
+ * would keep it awake), and only the list of vehicles is queried, with an
+ * exponential backoff. A parked vehicle is only polled for a while after it was
+ * last used, so that it gets the opportunity to fall asleep. While driving, the
+ * event stream is preferred over polling the drive state.
+ *
+ * @author agent - Initial contribution
+ */
+public class TeslaPollingGovernor {
+
+    public enum PollingState {
+        ASLEEP,
+        PARKED,
+        CHARGING,
+        DRIVING
+    }
+
+    // The requests the governor schedules
+    private static final String[] REQUESTS = { TESLA_DRIVE_STATE, TESLA_VEHICLE_STATE, TESLA_CHARGE_STATE,
+            TESLA_CLIMATE_STATE, TESLA_GUI_STATE, TESLA_MOBILE_ENABLED_STATE };
+
+    // The interval (in seconds) of each request in REQUESTS, for each PollingState
+    private static final int[][] INTERVALS = { //
+            { 0, 0, 0, 0, 0, 0 }, // ASLEEP
+            { 60, 60, 120, 120, 600, 600 }, // PARKED
+            { 120, 60, 15, 120, 600, 600 }, // CHARGING
+            { 15, 60, 300, 60, 600, 600 } // DRIVING
+    };
+
+    // The interval (in seconds) of the drive state while driving and the event stream is up
+    private static final int STREAMING_DRIVE_STATE_INTERVAL = 120;
+
+    // The requests (indexes in REQUESTS) that are probed while a parked vehicle is left alone
+    // to fall asleep, to learn about it being driven or charged
+    private static final int[] PARKED_PROBE_REQUESTS = { 0, 2 };
+
+    // The period (in ms) a parked vehicle is polled after it was last used, and the
+    // interval (in ms) at which the drive and charge state are probed afterwards
+    public static final int PARKED_ACTIVE_PERIOD = 900000;
+    public static final int PARKED_PROBE_INTERVAL = 1800000;
+
+    public static final int VEHICLE_QUERY_INTERVAL = 300000;
+    public static final int ASLEEP_MIN_QUERY_INTERVAL = 15000;
+    public static final int ASLEEP_MAX_QUERY_INTERVAL = 900000;
+
+    private PollingState state = PollingState.ASLEEP;
+    private long lastActivity = 0;
+    private boolean streaming = false;
+    private final long[] lastRequests = new long[REQUESTS.length];
+    private long nextVehicleQuery = 0;
+    private long asleepQueryInterval = ASLEEP_MIN_QUERY_INTERVAL;
+
+    /**
+     * Updates the polling state from the latest known vehicle state
+     *
+     * @param now the current time in ms
+     * @param awake whether the vehicle is awake
+     * @param shiftState the shift state of the vehicle, may be null
+     * @param chargingState the charging state of the vehicle, may be null
+     * @return the (possibly new) polling state
+     */
+    public synchronized PollingState update(long now, boolean awake, String shiftState, String chargingState) {
+        PollingState newState;
+        if (!awake) {
+            newState = PollingState.ASLEEP;
+        } else if (shiftState != null && !"P".equals(shiftState) && !"Undefined".equals(shiftState)) {
+            newState = PollingState.DRIVING;
+        } else if ("Charging".equals(chargingState)) {
+            newState = PollingState.CHARGING;
+        } else {
+            newState = PollingState.PARKED;
+        }
+
+        if (newState != state) {
+            // poll what's relevant to the new state right away
+            for (int i = 0; i < lastRequests.length; i++) {
+                lastRequests[i] = 0;
+            }
+            if (newState != PollingState.ASLEEP) {
+                asleepQueryInterval = ASLEEP_MIN_QUERY_INTERVAL;
+            }
+            lastActivity = now;
+            state = newState;
+        }
+        return state;
+    }
+
+    /**
+     * Tells the governor the vehicle is being used (e.g. a command was sent), which
+     * restarts the period during which a parked vehicle is polled
+     *
+     * @param now the current time in ms
+     */
+    public synchronized void onActivity(long now) {
+        lastActivity = now;
+    }
+
+    public synchronized PollingState getState() {
+        return state;
+    }
+
+    /**
+     * Returns whether the event stream should be used, which is only worth it while driving
+     */
+    public synchronized boolean isStreamPreferred() {
+        return state == PollingState.DRIVING;
+    }
+
+    /**
+     * Tells the governor whether the event stream is established, in which case the
+     * drive state is polled less often
+     */
+    public synchronized void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns the requests that are due, and marks them as requested
+     *
+     * @param now the current time in ms
+     * @return the list of due requests, empty if nothing is due
+     */
+    public synchronized List<String> getDueRequests(long now) {
+        List<String> due = new ArrayList<String>();
+
+        if (state == PollingState.PARKED && now - lastActivity > PARKED_ACTIVE_PERIOD) {
+            // let the vehicle fall asleep, only check once in a while whether it is being driven or charged
+            for (int i : PARKED_PROBE_REQUESTS) {
+                if (now - lastRequests[i] >= PARKED_PROBE_INTERVAL) {
+                    lastRequests[i] = now;
+                    due.add(REQUESTS[i]);
+                }
+            }
+            return due;
+        }
+
+        int[] intervals = INTERVALS[state.ordinal()];
+        for (int i = 0; i < REQUESTS.length; i++) {
+            int interval = intervals[i];
+            if (i == 0 && state == PollingState.DRIVING && streaming) {
+                interval = STREAMING_DRIVE_STATE_INTERVAL;
+            }
+            if (interval > 0 && now - lastRequests[i] >= interval * 1000L) {
+                lastRequests[i] = now;
+                due.add(REQUESTS[i]);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Returns whether the list of vehicles should be queried to learn about the
+     * vehicle waking up or falling asleep. Querying the list does not wake up the vehicle.
+     *
+     * @param now the current time in ms
+     */
+    public synchronized boolean isVehicleQueryDue(long now) {
+        return now >= nextVehicleQuery;
+    }
+
+    /**
+     * Schedules the next query of the list of vehicles. The interval doubles for
+     * as long as the vehicle stays asleep.
+     *
+     * @param now the current time in ms
+     * @param awake whether the queried vehicle is awake
+     */
+    public synchronized void onVehicleQueried(long now, boolean awake) {
+        if (awake) {
+            asleepQueryInterval = ASLEEP_MIN_QUERY_INTERVAL;
+            nextVehicleQuery = now + VEHICLE_QUERY_INTERVAL;
+        } else {
+            nextVehicleQuery = now + asleepQueryInterval;
+            asleepQueryInterval = Math.min(asleepQueryInterval * 2, ASLEEP_MAX_QUERY_INTERVAL);
+        }
+    }
+
+    /**
+     * Makes all requests (and the query of the list of vehicles) due again
+     */
+    public synchronized void reset() {
+        state = PollingState.ASLEEP;
+        streaming = false;
+        lastActivity = 0;
+        for (int i = 0; i < lastRequests.length; i++) {
+            lastRequests[i] = 0;
+        }
+        nextVehicleQuery = 0;
+        asleepQueryInterval = ASLEEP_MIN_QUERY_INTERVAL;
+    }
+}
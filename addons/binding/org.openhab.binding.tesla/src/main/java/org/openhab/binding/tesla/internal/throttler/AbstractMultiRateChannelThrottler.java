@@ -16,7 +16,9 @@ import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * The {@link AbstractMultiRateChannelThrottler} is abstract class implementing
- * a throttler with multiple global execution rates, or rate limiters
+ * a throttler with multiple global execution rates, or rate limiters. A rate
+ * can be shared by several throttlers, e.g. to limit the requests of all the
+ * vehicles of an account, hence all throttlers use the same lock
  *
  * @author Karel Goderis - Initial contribution
  */
@@ -27,6 +29,8 @@ abstract class AbstractMultiRateChannelThrottler implements ChannelThrottler {
     protected final Map<Object, Rate> channels = new HashMap<Object, Rate>();
     protected final ArrayList<Rate> rates = new ArrayList<Rate>();
 
+    private static final Object RATE_LOCK = new Object();
+
     protected AbstractMultiRateChannelThrottler(Rate rate, ScheduledExecutorService scheduler,
             Map<Object, Rate> channels, TimeProvider timeProvider) {
         this.rates.add(rate);
@@ -35,11 +39,19 @@ abstract class AbstractMultiRateChannelThrottler implements ChannelThrottler {
         this.timeProvider = timeProvider;
     }
 
-    public synchronized void addRate(Rate rate) {
-        this.rates.add(rate);
+    public void addRate(Rate rate) {
+        synchronized (RATE_LOCK) {
+            this.rates.add(rate);
+        }
+    }
+
+    protected long callTime(Rate channel) {
+        synchronized (RATE_LOCK) {
+            return doCallTime(channel);
+        }
     }
 
-    protected synchronized long callTime(Rate channel) {
+    private long doCallTime(Rate channel) {
         long maxCallTime = 0;
         long finalCallTime = 0;
         long now = timeProvider.getCurrentTimeInMillis();
@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -131,6 +132,21 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
     private ScheduledFuture<?> taskRefreshData = null;
     private ScheduledFuture<?> taskPriorityRefreshData = null;
 
+    /**
+     * Maximum number of refresh cycles the monitors are skipped while idle. Only used when triggers are enabled in
+     * ZoneMinder, since the trigger events then refresh the affected monitor right away.
+     */
+    private static final int MAX_MONITOR_POLL_BACKOFF = 8;
+
+    /** Triggers (ZM_OPT_TRIGGERS) enabled in ZoneMinder */
+    private boolean triggersEnabled = false;
+
+    /** Number of refresh cycles between monitor refreshes (doubled while all monitors are idle) */
+    private volatile int monitorPollBackoff = 1;
+
+    /** Number of refresh cycles skipped since the monitors were last refreshed */
+    private volatile int monitorPollSkipped = 0;
+
     private Runnable refreshDataRunnable = new Runnable() {
         @Override
         public void run() {
@@ -496,14 +512,47 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         /*
          * Request Things attached to Bridge to refresh
          */
+        if (!shouldRefreshMonitors()) {
+            logger.debug("{}: Monitors idle, skipping refresh (backoff={})", getLogIdentifier(), monitorPollBackoff);
+            return;
+        }
+
+        // Fetch the data of all monitors in a single request, rather than once per monitor
+        Map<String, IZoneMinderMonitorData> monitorData = new HashMap<String, IZoneMinderMonitorData>();
+        if ((zoneMinderServerProxy != null) && isConnected()) {
+            try {
+                // The entries are deserialized from the bulk response and carry no response code of their own, so
+                // the success of the request is taken from the proxy
+                ArrayList<IZoneMinderMonitorData> monitors = zoneMinderServerProxy.getMonitors();
+                if (monitors == null) {
+                    logger.debug("{}: No data returned for all monitors, fetching per monitor", getLogIdentifier());
+                } else if (zoneMinderServerProxy.getHttpResponseCode() != 200) {
+                    logger.debug(
+                            "{}: Failed to fetch data for all monitors, fetching per monitor - Code='{}', Message='{}'",
+                            getLogIdentifier(), zoneMinderServerProxy.getHttpResponseCode(),
+                            zoneMinderServerProxy.getHttpResponseMessage());
+                } else {
+                    for (IZoneMinderMonitorData data : monitors) {
+                        monitorData.put(data.getId(), data);
+                    }
+                }
+            } catch (Exception ex) {
+                logger.debug("{}: Failed to fetch data for all monitors, fetching per monitor - Exception='{}'",
+                        getLogIdentifier(), ex.getMessage());
+            }
+        }
+
+        boolean active = false;
         for (Thing thing : things) {
             try {
 
                 if (thing.getThingTypeUID().equals(ZoneMinderConstants.THING_TYPE_THING_ZONEMINDER_MONITOR)) {
-                    Thing thingMonitor = thing;
-                    ZoneMinderBaseThingHandler thingHandler = (ZoneMinderBaseThingHandler) thing.getHandler();
+                    ZoneMinderThingMonitorHandler thingHandler = (ZoneMinderThingMonitorHandler) thing.getHandler();
 
-                    thingHandler.refreshThing(session, DataRefreshPriorityEnum.SCHEDULED);
+                    // Monitors missing in the bulk data are fetched individually
+                    IZoneMinderMonitorData data = monitorData.get(thingHandler.getZoneMinderId());
+                    thingHandler.refreshThing(session, data);
+                    active |= thingHandler.consumeActivity();
                 }
 
             } catch (NullPointerException ex) {
@@ -520,6 +569,39 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
             }
         }
 
+        updateMonitorPollBackoff(active);
+
+    }
+
+    /**
+     * Returns whether the monitors have to be refreshed in this refresh cycle.
+     */
+    private boolean shouldRefreshMonitors() {
+        if (++monitorPollSkipped < monitorPollBackoff) {
+            return false;
+        }
+        monitorPollSkipped = 0;
+        return true;
+    }
+
+    /**
+     * Doubles the number of cycles between monitor refreshes if no monitor was active (only when triggers are enabled,
+     * since the monitors would miss events otherwise), resets it otherwise.
+     */
+    private void updateMonitorPollBackoff(boolean active) {
+        if (active || !triggersEnabled) {
+            monitorPollBackoff = 1;
+        } else if (monitorPollBackoff < MAX_MONITOR_POLL_BACKOFF) {
+            monitorPollBackoff *= 2;
+        }
+    }
+
+    /**
+     * Called by a monitor when it received an event, so all monitors are refreshed again in the next cycle.
+     */
+    public void onMonitorActivity() {
+        monitorPollBackoff = 1;
+        monitorPollSkipped = 0;
     }
 
     /**
@@ -1171,6 +1253,7 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
             properties.put(ZoneMinderProperties.PROPERTY_SERVER_USE_API, configUseApi.getValueAsString());
             properties.put(ZoneMinderProperties.PROPERTY_SERVER_USE_AUTHENTIFICATION, configUseAuth.getValueAsString());
             properties.put(ZoneMinderProperties.PROPERTY_SERVER_TRIGGERS_ENABLED, configTrigerrs.getValueAsString());
+            triggersEnabled = "1".equals(configTrigerrs.getValueAsString());
         } catch (FailedLoginException | ZoneMinderUrlNotFoundException | IOException e) {
             logger.warn("{}: Exception occurred when updating monitor properties (Exception='{}'", getLogIdentifier(),
                     e.getMessage());
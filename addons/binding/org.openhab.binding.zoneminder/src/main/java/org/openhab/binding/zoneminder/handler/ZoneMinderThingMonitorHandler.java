@@ -13,6 +13,7 @@ import java.math.BigDecimal;
 import java.security.GeneralSecurityException;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -67,6 +68,9 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
     private static final String MONITOR_STATUS_NOT_INIT = "<Not Initialized>";
     private static final int MAX_MONITOR_STATUS_WATCH_COUNT = 3;
 
+    /** Minimum time (in ms) between fetching the daemon states, since they rarely change */
+    private static final long DAEMON_STATUS_REFRESH_INTERVAL = 60000;
+
     /** Make sure we can log errors, warnings or what ever somewhere */
     private Logger logger = LoggerFactory.getLogger(ZoneMinderThingMonitorHandler.class);
 
@@ -95,6 +99,21 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
     private int forceAlarmManualState = -1;
 
+    /** Monitor data fetched for all monitors by the bridge (null if it has to be fetched for this monitor) */
+    private IZoneMinderMonitorData bulkMonitorData = null;
+
+    /** Last successfully fetched monitor data, reused by priority refreshes */
+    private IZoneMinderMonitorData lastMonitorData = null;
+
+    /** Time the daemon states were last fetched (0 forces a fetch) */
+    private long lastDaemonStatusRefresh = 0;
+
+    /** Last state published for each channel, so only changed states are published */
+    private final Map<String, State> publishedStates = new ConcurrentHashMap<String, State>();
+
+    /** Set when a published state has changed, cleared by {@link #consumeActivity()} */
+    private boolean stateChanged = false;
+
     public ZoneMinderThingMonitorHandler(Thing thing) {
         super(thing);
 
@@ -161,6 +180,11 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
             logger.debug("{}: Calling parent onBridgeConnected()", getLogIdentifier());
             super.onBridgeDisconnected(bridge);
 
+            // Make sure everything is published again once reconnected
+            publishedStates.clear();
+            lastMonitorData = null;
+            lastDaemonStatusRefresh = 0;
+
         } catch (Exception ex) {
             logger.error("{}: Exception occurred when calling 'onBridgeDisonencted()'. Exception='{}'",
                     getLogIdentifier(), ex.getMessage());
@@ -179,6 +203,7 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
             // Allow refresh of channels
             if (command == RefreshType.REFRESH) {
+                publishedStates.remove(channelUID.getId());
                 updateChannel(channelUID);
                 return;
             }
@@ -258,6 +283,7 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
                         }
 
                         channelEnabled = newState;
+                        lastMonitorData = null;
 
                         logger.info("{}: Setting enabled to '{}'", getLogIdentifier(), command);
                     }
@@ -282,6 +308,7 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
                         // Make sure local copy is set to new value
                         channelFunction = ZoneMinderMonitorFunctionEnum.getEnum(command.toString());
+                        lastMonitorData = null;
 
                         logger.info("{}: Setting function to '{}'", getLogIdentifier(), commandString);
 
@@ -343,6 +370,18 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
             } else {
                 curEvent = null;
             }
+
+            // Refresh right away instead of waiting for the next (possibly backed off) poll
+            ZoneMinderServerBridgeHandler bridge = getZoneMinderBridgeHandler();
+            if (bridge != null) {
+                bridge.onMonitorActivity();
+            }
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refreshThing(null, null, getRefreshPriority());
+                }
+            });
         } catch (Exception ex) {
             logger.error("{}: Exception occurred inTrippedForceAlarm() Exception='{}'", getLogIdentifier(),
                     ex.getMessage());
@@ -604,11 +643,13 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
                     super.updateChannel(channel);
             }
 
-            if (state != null) {
+            // Only publish states that have changed
+            if (state != null && !state.equals(publishedStates.put(channel.getId(), state))) {
 
                 logger.debug("{}: Setting channel '{}' to '{}'", getLogIdentifier(), channel.toString(),
                         state.toString());
                 updateState(channel.getId(), state);
+                stateChanged = true;
             }
         } catch (Exception ex) {
             logger.error("{}: Error when 'updateChannel' was called (channelId='{}'state='{}', exception'{}')",
@@ -721,6 +762,48 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
     }
 
+    /**
+     * Refreshes the monitor with the monitor data the bridge fetched for all monitors in a single request.
+     *
+     * @param session the session of the bridge
+     * @param monitorData the data of this monitor or null if it wasn't part of the data fetched by the bridge
+     */
+    public void refreshThing(IZoneMinderSession session, IZoneMinderMonitorData monitorData) {
+        refreshThing(session, monitorData, DataRefreshPriorityEnum.SCHEDULED);
+    }
+
+    /**
+     * Refreshes the monitor with the given bulk monitor data. Every refresh of the monitor goes through here, so that
+     * it can't overlap with a refresh using the bulk data of the bridge.
+     *
+     * @param session the session of the bridge
+     * @param monitorData the bulk data of this monitor or null to fetch it from the monitor
+     * @param refreshPriority the priority of the refresh
+     */
+    private synchronized void refreshThing(IZoneMinderSession session, IZoneMinderMonitorData monitorData,
+            DataRefreshPriorityEnum refreshPriority) {
+        bulkMonitorData = monitorData;
+        try {
+            refreshThing(session, refreshPriority);
+        } finally {
+            bulkMonitorData = null;
+        }
+    }
+
+    /**
+     * Returns whether the monitor is (or has been) active since the last call: a published state changed, the monitor
+     * isn't idle or a priority refresh is running. Used by the bridge to back off polling.
+     *
+     * @return true if the monitor is active
+     */
+    public synchronized boolean consumeActivity() {
+        boolean active = stateChanged || (getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY)
+                || ((channelMonitorStatus != ZoneMinderMonitorStatusEnum.IDLE)
+                        && (channelMonitorStatus != ZoneMinderMonitorStatusEnum.UNKNOWN));
+        stateChanged = false;
+        return active;
+    }
+
     @Override
     protected void onFetchData() {
 
@@ -730,89 +813,60 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
         try {
             IZoneMinderMonitor monitorProxy = ZoneMinderFactory.getMonitorProxy(session, getZoneMinderId());
 
-            IZoneMinderMonitorData data = null;
+            IZoneMinderMonitorData data = bulkMonitorData;
+            // Bulk entries (and the last data, which may be one) carry no response code of their own
+            boolean verified = (data != null);
             IZoneMinderDaemonStatus captureDaemon = null;
             IZoneMinderDaemonStatus analysisDaemon = null;
             IZoneMinderDaemonStatus frameDaemon = null;
 
-            data = monitorProxy.getMonitorData();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            captureDaemon = monitorProxy.getCaptureDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            frameDaemon = monitorProxy.getFrameDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            if ((data.getHttpResponseCode() != 200) || (captureDaemon.getHttpResponseCode() != 200)
-                    || (analysisDaemon.getHttpResponseCode() != 200) || (frameDaemon.getHttpResponseCode() != 200)) {
-
-                if (data.getHttpResponseCode() != 200) {
-                    logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
-                            data.getHttpResponseCode(), data.getHttpResponseMessage());
+            // Function and enabled state only change by command, reuse them during priority refreshes
+            if ((data == null) && (lastMonitorData != null)
+                    && (getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY)) {
+                data = lastMonitorData;
+                verified = true;
+            }
 
-                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
-                    channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
-                    channelEnabled = false;
-                    channelEventCause = "";
-                }
-                if (captureDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonCapture = false;
-                    logger.warn("{}: HTTP Response CaptureDaemon: Code='{}', Message'{}'", getLogIdentifier(),
-                            captureDaemon.getHttpResponseCode(), captureDaemon.getHttpResponseMessage());
+            if (data == null) {
+                data = monitorProxy.getMonitorData();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+            }
 
-                }
-                if (analysisDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonAnalysis = false;
+            long now = System.currentTimeMillis();
+            if ((now - lastDaemonStatusRefresh) >= DAEMON_STATUS_REFRESH_INTERVAL) {
+                lastDaemonStatusRefresh = now;
 
-                    logger.warn("{}: HTTP Response AnalysisDaemon: Code='{}', Message='{}'", getLogIdentifier(),
-                            analysisDaemon.getHttpResponseCode(), analysisDaemon.getHttpResponseMessage());
-                }
-                if (frameDaemon.getHttpResponseCode() != 200) {
-                    channelDaemonFrame = false;
-                    logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
-                            frameDaemon.getHttpResponseCode(), frameDaemon.getHttpResponseMessage());
-                }
+                captureDaemon = monitorProxy.getCaptureDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+
+                analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+
+                frameDaemon = monitorProxy.getFrameDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+            }
 
+            if (!isConnected()) {
+                channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
+                channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
+                channelEnabled = false;
+                channelEventCause = "";
+                channelDaemonCapture = false;
+                channelDaemonAnalysis = false;
+                channelDaemonFrame = false;
+                lastMonitorData = null;
+                lastDaemonStatusRefresh = 0;
             } else {
-                if (isConnected()) {
-                    channelMonitorStatus = monitorProxy.getMonitorDetailedStatus();
-                    logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                            monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                            monitorProxy.getHttpResponseMessage());
-
-                    channelFunction = data.getFunction();
-                    channelEnabled = data.getEnabled();
-                    IZoneMinderEventData event = monitorProxy.getLastEvent();
-                    if (event != null) {
-                        channelEventCause = event.getCause();
-                    } else {
-                        channelEventCause = "";
-                    }
-
-                    channelDaemonCapture = captureDaemon.getStatus();
-                    channelDaemonAnalysis = analysisDaemon.getStatus();
-                    channelDaemonFrame = frameDaemon.getStatus();
-                } else {
-                    channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
-                    channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
-                    channelEnabled = false;
-                    channelEventCause = "";
-                    channelDaemonCapture = false;
-                    channelDaemonAnalysis = false;
-                    channelDaemonFrame = false;
-                }
+                updateMonitorData(monitorProxy, data, verified);
+                updateDaemonStatus(captureDaemon, analysisDaemon, frameDaemon);
             }
         } finally {
             releaseSession();
@@ -827,6 +881,86 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
 
     }
 
+    /**
+     * Updates the monitor channels from the monitor data. The last event is only fetched if the monitor isn't idle.
+     *
+     * @param monitorProxy the monitor proxy
+     * @param data the monitor data
+     * @param verified true if the data was already checked to be valid (bulk or last data)
+     */
+    private void updateMonitorData(IZoneMinderMonitor monitorProxy, IZoneMinderMonitorData data, boolean verified) {
+        if (!verified && (data.getHttpResponseCode() != 200)) {
+            logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
+                    data.getHttpResponseCode(), data.getHttpResponseMessage());
+
+            channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
+            channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
+            channelEnabled = false;
+            channelEventCause = "";
+            lastMonitorData = null;
+        } else {
+            lastMonitorData = data;
+
+            channelMonitorStatus = monitorProxy.getMonitorDetailedStatus();
+            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                    monitorProxy.getHttpResponseMessage());
+
+            channelFunction = data.getFunction();
+            channelEnabled = data.getEnabled();
+
+            // The event cause is cleared for idle monitors anyway (see RecalculateChannelStates())
+            if (channelMonitorStatus == ZoneMinderMonitorStatusEnum.IDLE) {
+                channelEventCause = "";
+            } else {
+                IZoneMinderEventData event = monitorProxy.getLastEvent();
+                if (event != null) {
+                    channelEventCause = event.getCause();
+                } else {
+                    channelEventCause = "";
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the daemon channels. A null status means the daemon wasn't fetched during this refresh.
+     *
+     * @param captureDaemon the status of the capture daemon (may be null)
+     * @param analysisDaemon the status of the analysis daemon (may be null)
+     * @param frameDaemon the status of the frame daemon (may be null)
+     */
+    private void updateDaemonStatus(IZoneMinderDaemonStatus captureDaemon, IZoneMinderDaemonStatus analysisDaemon,
+            IZoneMinderDaemonStatus frameDaemon) {
+        if (captureDaemon != null) {
+            if (captureDaemon.getHttpResponseCode() != 200) {
+                channelDaemonCapture = false;
+                logger.warn("{}: HTTP Response CaptureDaemon: Code='{}', Message'{}'", getLogIdentifier(),
+                        captureDaemon.getHttpResponseCode(), captureDaemon.getHttpResponseMessage());
+            } else {
+                channelDaemonCapture = captureDaemon.getStatus();
+            }
+        }
+        if (analysisDaemon != null) {
+            if (analysisDaemon.getHttpResponseCode() != 200) {
+                channelDaemonAnalysis = false;
+                logger.warn("{}: HTTP Response AnalysisDaemon: Code='{}', Message='{}'", getLogIdentifier(),
+                        analysisDaemon.getHttpResponseCode(), analysisDaemon.getHttpResponseMessage());
+            } else {
+                channelDaemonAnalysis = analysisDaemon.getStatus();
+            }
+        }
+        if (frameDaemon != null) {
+            if (frameDaemon.getHttpResponseCode() != 200) {
+                channelDaemonFrame = false;
+                logger.warn("{}: HTTP Response FrameDaemon: Code='{}', Message'{}'", getLogIdentifier(),
+                        frameDaemon.getHttpResponseCode(), frameDaemon.getHttpResponseMessage());
+            } else {
+                channelDaemonFrame = frameDaemon.getStatus();
+            }
+        }
+    }
+
     protected State getDetailedStatus() {
         State state = UnDefType.UNDEF;
 
@@ -10,7 +10,14 @@ package org.openhab.binding.zway.handler;
 
 import static org.openhab.binding.zway.ZWayBindingConstants.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -18,6 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -64,6 +72,9 @@ import de.fh_zwickau.informatik.sensor.model.zwaveapi.devices.ZWaveDevice;
  * - after update, perform refresh listener command to openHAB Connector
  * - initialize all containing device things
  *
+ * The bridge loads the device list of the Z-Way server once per polling interval and hands the devices which
+ * changed since the last polling over to the device handlers using them, found by device id.
+ *
  * During the removal process the following tasks are performed:
  * - clean up openHAB Connector configuration
  * - important: the configured devices not changed in openHAB Connector!
@@ -79,6 +90,17 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
     private BridgePolling bridgePolling;
     private ScheduledFuture<?> pollingJob;
 
+    // device handlers by the device ids of their channels
+    private final Map<String, Set<ZWayDeviceHandler>> deviceHandlers = new ConcurrentHashMap<>();
+    // device handlers waiting for the states of all their devices
+    private final Set<ZWayDeviceHandler> newDeviceHandlers = new CopyOnWriteArraySet<>();
+    private ScheduledFuture<?> newDeviceHandlersJob;
+    private final Object devicePollingLock = new Object();
+
+    // last loaded device list and the last known state of each device, guarded by this
+    private DeviceList deviceList;
+    private final Map<String, String> deviceStates = new HashMap<>();
+
     private ResetInclusionExclusion resetInclusionExclusion;
     private ScheduledFuture<?> resetInclusionExclusionJob;
 
@@ -201,11 +223,13 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
                     ZWayDeviceHandler handler = (ZWayDeviceHandler) thing.getHandler();
                     if (handler != null) {
                         logger.debug("Refreshing device: {}", thing.getLabel());
-                        handler.refreshAllChannels();
+                        // the states of all devices are handed over with the next polling
+                        newDeviceHandlers.add(handler);
                     } else {
                         logger.warn("Refreshing device failed (DeviceHandler is null): {}", thing.getLabel());
                     }
                 }
+                scheduler.execute(bridgePolling);
             }
         } else if (channelUID.getId().equals(SECURE_INCLUSION_CHANNEL)) {
             if (command.equals(OnOffType.ON)) {
@@ -299,6 +323,15 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
             pollingJob = null;
         }
 
+        synchronized (this) {
+            if (newDeviceHandlersJob != null && !newDeviceHandlersJob.isCancelled()) {
+                newDeviceHandlersJob.cancel(true);
+                newDeviceHandlersJob = null;
+            }
+            deviceList = null;
+            deviceStates.clear();
+        }
+
         if (resetInclusionExclusionJob != null && !resetInclusionExclusionJob.isCancelled()) {
             resetInclusionExclusionJob.cancel(true);
             resetInclusionExclusionJob = null;
@@ -339,13 +372,125 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         public void run() {
             logger.debug("Starting polling for bridge: {}", getThing().getLabel());
             if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                updateControllerData();
+                // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
+                // If any execution of the task encounters an exception, subsequent executions are
+                // suppressed. Otherwise, the task will only terminate via cancellation or
+                // termination of the executor.
+                try {
+                    updateControllerData();
+                    updateDevices();
+                } catch (Throwable t) {
+                    logger.error("Error occurred when performing polling: {}", t.getMessage());
+                }
             } else {
                 logger.debug("Polling not possible, bridge isn't ONLINE");
             }
         }
     };
 
+    /**
+     * Registers a device handler for the devices of its channels. The handler is given the states of all its
+     * devices with the next polling, and the states of the changed ones afterwards.
+     */
+    public void registerDeviceHandler(ZWayDeviceHandler handler) {
+        unregisterDeviceHandler(handler);
+
+        for (Channel channel : handler.getThing().getChannels()) {
+            String deviceId = channel.getProperties().get("deviceId");
+            if (deviceId != null) {
+                deviceHandlers.computeIfAbsent(deviceId, k -> new CopyOnWriteArraySet<>()).add(handler);
+            }
+        }
+        newDeviceHandlers.add(handler);
+        logger.debug("Device handler registered: {}", handler.getThing().getLabel());
+
+        // Devices registered together are refreshed with a single polling
+        synchronized (this) {
+            if (newDeviceHandlersJob == null || newDeviceHandlersJob.isDone()) {
+                newDeviceHandlersJob = scheduler.schedule(bridgePolling, 10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    public void unregisterDeviceHandler(ZWayDeviceHandler handler) {
+        for (Set<ZWayDeviceHandler> handlers : deviceHandlers.values()) {
+            handlers.remove(handler);
+        }
+        deviceHandlers.values().removeIf(Set::isEmpty);
+        newDeviceHandlers.remove(handler);
+    }
+
+    /**
+     * Returns the device list loaded with the last polling, or loads it if not available yet. It should be used
+     * instead of loading the whole device list from the Z-Way server, unless the current state is needed.
+     *
+     * @return device list or null if the device list couldn't be loaded
+     */
+    public synchronized DeviceList getDeviceList() {
+        if (deviceList == null) {
+            deviceList = mZWayApi.getDevices();
+        }
+        return deviceList;
+    }
+
+    /**
+     * Loads the device list once and hands the changed devices over to the registered device handlers.
+     * The Z-Way API has no request for the devices changed since a given time, so the changes are found
+     * by the update time and level of the devices.
+     */
+    private void updateDevices() {
+        // the regular polling and the polling for new device handlers must not overlap
+        synchronized (devicePollingLock) {
+            updateDevicesLocked();
+        }
+    }
+
+    private void updateDevicesLocked() {
+        DeviceList loadedDeviceList = mZWayApi.getDevices();
+        if (loadedDeviceList == null) {
+            logger.warn("Devices not loaded");
+            return;
+        }
+
+        Set<ZWayDeviceHandler> newHandlers = new HashSet<>(newDeviceHandlers);
+        Set<ZWayDeviceHandler> handlers = new HashSet<>(newHandlers);
+        for (Set<ZWayDeviceHandler> set : deviceHandlers.values()) {
+            handlers.addAll(set);
+        }
+
+        Map<ZWayDeviceHandler, List<Device>> changedDevices = new HashMap<>();
+        synchronized (this) {
+            deviceList = loadedDeviceList;
+
+            for (Device device : loadedDeviceList.getDevices()) {
+                String state = device.getUpdateTime() + ":" + device.getMetrics().getLevel();
+                boolean changed = !state.equals(deviceStates.put(device.getDeviceId(), state));
+
+                Set<ZWayDeviceHandler> set = deviceHandlers.get(device.getDeviceId());
+                if (set != null) {
+                    for (ZWayDeviceHandler handler : set) {
+                        if (changed || newHandlers.contains(handler)) {
+                            changedDevices.computeIfAbsent(handler, k -> new ArrayList<>()).add(device);
+                        }
+                    }
+                }
+            }
+        }
+        newDeviceHandlers.removeAll(newHandlers);
+
+        logger.debug("Z-Way devices loaded ({} virtual devices), dispatching changes to {} device handlers",
+                loadedDeviceList.getDevices().size(), changedDevices.size());
+        for (ZWayDeviceHandler handler : handlers) {
+            List<Device> devices = changedDevices.get(handler);
+            try {
+                handler.refreshDevices(devices != null ? devices : new ArrayList<>());
+            } catch (Throwable t) {
+                logger.error("Error occurred when refreshing device {}: {}", handler.getThing().getLabel(),
+                        t.getMessage());
+            }
+        }
+    }
+
     private void updateControllerData() {
         // Add additional information as properties or update channels
 
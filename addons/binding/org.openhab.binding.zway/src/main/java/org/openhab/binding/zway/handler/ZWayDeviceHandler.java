@@ -16,8 +16,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -72,14 +70,12 @@ import de.fh_zwickau.informatik.sensor.model.zwaveapi.devices.ZWaveDevice;
 public abstract class ZWayDeviceHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(getClass());
 
-    private DevicePolling devicePolling;
-    private ScheduledFuture<?> pollingJob;
     protected Calendar lastUpdate;
 
     protected abstract void refreshLastUpdate();
 
     /**
-     * Initialize polling job and register all linked item in openHAB connector as observer
+     * Register for the device polling of the bridge and register all linked item in openHAB connector as observer
      */
     private class Initializer implements Runnable {
 
@@ -97,16 +93,8 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     return;
                 }
 
-                // Initialize device polling
-                if (pollingJob == null || pollingJob.isCancelled()) {
-                    logger.debug("Starting polling job at intervall {}",
-                            zwayBridgeHandler.getZWayBridgeConfiguration().getPollingInterval());
-                    pollingJob = scheduler.scheduleAtFixedRate(devicePolling, 10,
-                            zwayBridgeHandler.getZWayBridgeConfiguration().getPollingInterval(), TimeUnit.SECONDS);
-                } else {
-                    // Called when thing or bridge updated ...
-                    logger.debug("Polling is allready active");
-                }
+                // Register for the device polling of the bridge
+                zwayBridgeHandler.registerDeviceHandler(ZWayDeviceHandler.this);
 
                 // Register all linked items on server start
                 if (zwayBridgeHandler.getZWayBridgeConfiguration().getObserverMechanismEnabled()) {
@@ -179,8 +167,6 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
 
     public ZWayDeviceHandler(Thing thing) {
         super(thing);
-
-        devicePolling = new DevicePolling();
     }
 
     protected synchronized ZWayBridgeHandler getZWayBridgeHandler() {
@@ -207,9 +193,9 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
 
     @Override
     public void dispose() {
-        if (pollingJob != null && !pollingJob.isCancelled()) {
-            pollingJob.cancel(true);
-            pollingJob = null;
+        ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
+        if (zwayBridgeHandler != null) {
+            zwayBridgeHandler.unregisterDeviceHandler(this);
         }
 
         super.dispose();
@@ -242,49 +228,47 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         }
     }
 
-    private class DevicePolling implements Runnable {
-        @Override
-        public void run() {
-            logger.debug("Starting polling for device: {}", getThing().getLabel());
-            if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                // Refresh device states
-                for (Channel channel : getThing().getChannels()) {
-                    logger.debug("Checking link state of channel: {}", channel.getLabel());
-                    if (isLinked(channel.getUID().getId())) {
-                        logger.debug("Refresh items that linked with channel: {}", channel.getLabel());
-
-                        // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
-                        // If any execution of the task encounters an exception, subsequent executions are
-                        // suppressed. Otherwise, the task will only terminate via cancellation or
-                        // termination of the executor.
-                        try {
-                            refreshChannel(channel);
-                        } catch (Throwable t) {
-                            if (t instanceof Exception) {
-                                logger.error("Error occurred when performing polling:{}", t.getMessage());
-                            } else if (t instanceof Error) {
-                                logger.error("Error occurred when performing polling:{}", t.getMessage());
-                            } else {
-                                logger.error("Error occurred when performing polling: Unexpected error");
-                            }
-                            if (getThing().getStatus() == ThingStatus.ONLINE) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
-                                        "Error occurred when performing polling.");
-                            }
-                        }
-                    } else {
-                        logger.debug("Polling for device: {} not possible (channel {} not linked", thing.getLabel(),
-                                channel.getLabel());
+    /**
+     * Called by the bridge after each polling of the device list.
+     *
+     * @param devices the devices of this thing, which changed since the last polling
+     */
+    void refreshDevices(List<Device> devices) {
+        logger.debug("Refresh {} changed devices of device: {}", devices.size(), getThing().getLabel());
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            logger.debug("Polling not possible, Z-Way device isn't ONLINE");
+            return;
+        }
+
+        // Refresh device states
+        for (Channel channel : getThing().getChannels()) {
+            if (!isLinked(channel.getUID().getId())) {
+                continue;
+            }
+
+            String deviceId = channel.getProperties().get("deviceId");
+            if (deviceId != null) {
+                for (Device device : devices) {
+                    if (deviceId.equals(device.getDeviceId())) {
+                        refreshChannel(channel, device);
                     }
                 }
 
-                // Refresh last update
-                refreshLastUpdate();
+                // Trigger update function, soon as the value has been updated, the next polling will notice it
+                ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
+                DeviceList deviceList = zwayBridgeHandler != null ? zwayBridgeHandler.getDeviceList() : null;
+                Device device = deviceList != null ? deviceList.getDeviceById(deviceId) : null;
+                if (device != null) {
+                    triggerUpdate(device);
+                }
             } else {
-                logger.debug("Polling not possible, Z-Way device isn't ONLINE");
+                refreshChannel(channel);
             }
         }
-    };
+
+        // Refresh last update
+        refreshLastUpdate();
+    }
 
     private synchronized void setLocation() {
         Map<String, String> properties = getThing().getProperties();
@@ -299,10 +283,6 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         }
     }
 
-    protected void refreshAllChannels() {
-        scheduler.execute(new DevicePolling());
-    }
-
     private void refreshChannel(Channel channel) {
         // Check Z-Way bridge handler
         ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
@@ -314,39 +294,17 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         // Check device id associated with channel
         String deviceId = channel.getProperties().get("deviceId");
         if (deviceId != null) {
-            // Load and check device from Z-Way server
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
-            if (deviceList != null) {
-                // 1.) Load only the current value from Z-Way server
-                Device device = deviceList.getDeviceById(deviceId);
-                if (device == null) {
-                    logger.debug("ZAutomation device not found.");
-                    return;
-                }
-
-                try {
-                    updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
-                } catch (IllegalArgumentException iae) {
-                    logger.debug(
-                            "IllegalArgumentException ({}) during refresh channel for device: {} (level: {}) with channel: {}",
-                            iae.getMessage(), device.getMetrics().getTitle(), device.getMetrics().getLevel(),
-                            channel.getChannelTypeUID());
-
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
-                            "Channel refresh for device: " + device.getMetrics().getTitle() + " (level: "
-                                    + device.getMetrics().getLevel() + ") with channel: " + channel.getChannelTypeUID()
-                                    + " failed!");
-                }
-                // 2.) Trigger update function, soon as the value has been updated, openHAB will be notified
-                try {
-                    device.update();
-                } catch (Exception e) {
-                    logger.debug("{} doesn't support update (triggered during refresh channel)",
-                            device.getMetrics().getTitle());
-                }
-            } else {
-                logger.warn("Devices not loaded");
+            // 1.) Load only the current value of the device from Z-Way server
+            Device device = zwayBridgeHandler.getZWayApi().getDevice(deviceId);
+            if (device == null) {
+                logger.debug("ZAutomation device not found.");
+                return;
             }
+
+            refreshChannel(channel, device);
+
+            // 2.) Trigger update function, soon as the value has been updated, openHAB will be notified
+            triggerUpdate(device);
         } else {
             // Check channel for command classes
             // Channel thermostat mode
@@ -363,6 +321,31 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         }
     }
 
+    private void refreshChannel(Channel channel, Device device) {
+        try {
+            updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
+        } catch (IllegalArgumentException iae) {
+            logger.debug(
+                    "IllegalArgumentException ({}) during refresh channel for device: {} (level: {}) with channel: {}",
+                    iae.getMessage(), device.getMetrics().getTitle(), device.getMetrics().getLevel(),
+                    channel.getChannelTypeUID());
+
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
+                    "Channel refresh for device: " + device.getMetrics().getTitle() + " (level: "
+                            + device.getMetrics().getLevel() + ") with channel: " + channel.getChannelTypeUID()
+                            + " failed!");
+        }
+    }
+
+    private void triggerUpdate(Device device) {
+        try {
+            device.update();
+        } catch (Exception e) {
+            logger.debug("{} doesn't support update (triggered during refresh channel)",
+                    device.getMetrics().getTitle());
+        }
+    }
+
     @Override
     public void channelLinked(ChannelUID channelUID) {
         logger.debug("Z-Way device channel linked: {}", channelUID);
@@ -488,13 +471,10 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         final String deviceId = channel.getProperties().get("deviceId");
 
         if (deviceId != null) {
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
-            if (deviceList != null) {
-                Device device = deviceList.getDeviceById(deviceId);
-                if (device == null) {
-                    logger.debug("ZAutomation device not found.");
-                    return;
-                }
+            // The device list of the last polling is sufficient, only the device id is needed
+            DeviceList deviceList = zwayBridgeHandler.getDeviceList();
+            Device device = deviceList != null ? deviceList.getDeviceById(deviceId) : null;
+            if (device != null) {
 
                 try {
                     if (command instanceof RefreshType) {
@@ -618,7 +598,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     logger.warn("Unknown command: {}", e.getMessage());
                 }
             } else {
-                logger.warn("Devices not loaded");
+                logger.warn("ZAutomation device not found or devices not loaded.");
             }
         } else if (channel.getUID().equals(new ChannelUID(getThing().getUID(), THERMOSTAT_MODE_CC_CHANNEL))) {
             // Load physical device
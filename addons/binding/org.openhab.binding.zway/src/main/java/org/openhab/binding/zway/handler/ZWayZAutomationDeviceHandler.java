@@ -168,8 +168,8 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
             return;
         }
 
-        // Load and check device from Z-Way server
-        DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+        // Check device in the device list of the last polling
+        DeviceList deviceList = zwayBridgeHandler.getDeviceList();
         if (deviceList != null) {
             Device device = deviceList.getDeviceById(mConfig.getDeviceId());
             if (device == null) {
@@ -31,7 +31,9 @@ import org.openhab.io.imperihome.internal.handler.RoomListHandler;
 import org.openhab.io.imperihome.internal.handler.SystemHandler;
 import org.openhab.io.imperihome.internal.io.DeviceParametersSerializer;
 import org.openhab.io.imperihome.internal.io.DeviceTypeSerializer;
+import org.openhab.io.imperihome.internal.io.HistoryListSerializer;
 import org.openhab.io.imperihome.internal.io.ParamTypeSerializer;
+import org.openhab.io.imperihome.internal.model.HistoryList;
 import org.openhab.io.imperihome.internal.model.device.DeviceType;
 import org.openhab.io.imperihome.internal.model.param.DeviceParameters;
 import org.openhab.io.imperihome.internal.model.param.ParamType;
@@ -95,6 +97,7 @@ public class ImperiHomeApiServlet extends HttpServlet {
         gsonBuilder.registerTypeAdapter(DeviceType.class, new DeviceTypeSerializer());
         gsonBuilder.registerTypeAdapter(ParamType.class, new ParamTypeSerializer());
         gsonBuilder.registerTypeAdapter(DeviceParameters.class, new DeviceParametersSerializer());
+        gsonBuilder.registerTypeAdapter(HistoryList.class, new HistoryListSerializer());
         gson = gsonBuilder.create();
     }
 
@@ -113,7 +116,8 @@ public class ImperiHomeApiServlet extends HttpServlet {
         roomListHandler = new RoomListHandler(deviceRegistry);
         devicesListHandler = new DevicesListHandler(deviceRegistry);
         deviceActionHandler = new DeviceActionHandler(deviceRegistry);
-        deviceHistoryHandler = new DeviceHistoryHandler(deviceRegistry, persistenceServiceRegistry);
+        deviceHistoryHandler = new DeviceHistoryHandler(deviceRegistry, persistenceServiceRegistry,
+                imperiHomeConfig);
 
         try {
             Dictionary<String, String> servletParams = new Hashtable<String, String>();
@@ -131,6 +135,9 @@ public class ImperiHomeApiServlet extends HttpServlet {
      */
     protected void modified(Map<String, Object> config) {
         imperiHomeConfig.update(config);
+        if (deviceHistoryHandler != null) {
+            deviceHistoryHandler.clearCache();
+        }
     }
 
     /**
@@ -212,7 +219,8 @@ public class ImperiHomeApiServlet extends HttpServlet {
             logger.warn("Unrecognized request: {}", path);
         }
 
-        resp.getWriter().write(gson.toJson(response));
+        // Stream directly to the response, history lists are written entry by entry by HistoryListSerializer
+        gson.toJson(response, resp.getWriter());
     }
 
     private void setHeaders(HttpServletResponse response) {
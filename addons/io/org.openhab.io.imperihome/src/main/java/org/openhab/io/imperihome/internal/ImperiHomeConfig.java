@@ -23,8 +23,12 @@ public class ImperiHomeConfig {
 
     private final Logger logger = LoggerFactory.getLogger(ImperiHomeConfig.class);
 
+    private static final int DEFAULT_HISTORY_MAX_POINTS = 500;
+
     private String systemId;
     private String rootUrl;
+    private int historyMaxPoints = DEFAULT_HISTORY_MAX_POINTS;
+    private HistoryAggregation historyAggregation = HistoryAggregation.AVG;
 
     public void update(Map<String, Object> config) {
         Object cSystemId = config.get("system.id");
@@ -42,6 +46,27 @@ public class ImperiHomeConfig {
             }
         }
 
+        historyMaxPoints = DEFAULT_HISTORY_MAX_POINTS;
+        Object maxPointsObj = config.get("history.maxPoints");
+        if (maxPointsObj != null) {
+            try {
+                historyMaxPoints = Math.max(0, Integer.parseInt(maxPointsObj.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid history.maxPoints value '{}', using default {}", maxPointsObj,
+                        DEFAULT_HISTORY_MAX_POINTS);
+            }
+        }
+
+        historyAggregation = HistoryAggregation.AVG;
+        Object aggregationObj = config.get("history.aggregation");
+        if (aggregationObj != null) {
+            try {
+                historyAggregation = HistoryAggregation.valueOf(aggregationObj.toString().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid history.aggregation value '{}', using {}", aggregationObj, historyAggregation);
+            }
+        }
+
         logger.info("Configuration updated");
     }
 
@@ -53,4 +78,24 @@ public class ImperiHomeConfig {
         return rootUrl;
     }
 
+    /**
+     * @return Maximum number of points returned per history request, or 0 to return all persisted values.
+     */
+    public int getHistoryMaxPoints() {
+        return historyMaxPoints;
+    }
+
+    public HistoryAggregation getHistoryAggregation() {
+        return historyAggregation;
+    }
+
+    /**
+     * Function used to reduce the values in a history bucket to a single point.
+     */
+    public enum HistoryAggregation {
+        AVG,
+        MIN,
+        MAX
+    }
+
 }
@@ -10,10 +10,11 @@ package org.openhab.io.imperihome.internal.handler;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 
 import javax.servlet.http.HttpServletRequest;
@@ -25,7 +26,8 @@ import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceServiceRegistry;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.State;
-import org.openhab.io.imperihome.internal.model.HistoryItem;
+import org.openhab.io.imperihome.internal.ImperiHomeConfig;
+import org.openhab.io.imperihome.internal.ImperiHomeConfig.HistoryAggregation;
 import org.openhab.io.imperihome.internal.model.HistoryList;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
@@ -33,7 +35,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Device history request handler.
+ * Device history request handler. Results are aggregated into a bounded number of points and recent results are
+ * kept in a small LRU cache, so repeated graph views don't hit persistence again.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -41,14 +44,30 @@ public class DeviceHistoryHandler {
 
     private static final String CHARSET = "UTF-8";
 
+    private static final int CACHE_SIZE = 32;
+    private static final long CACHE_TTL_MILLIS = 60 * 1000;
+
     private final Logger logger = LoggerFactory.getLogger(DeviceHistoryHandler.class);
 
     private final DeviceRegistry deviceRegistry;
     private final PersistenceServiceRegistry persistenceServiceRegistry;
+    private final ImperiHomeConfig config;
+
+    private final Map<String, CachedHistory> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CachedHistory>(CACHE_SIZE, 0.75f, true) {
+                private static final long serialVersionUID = 4471528437093837485L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedHistory> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
 
-    public DeviceHistoryHandler(DeviceRegistry deviceRegistry, PersistenceServiceRegistry persistenceServiceRegistry) {
+    public DeviceHistoryHandler(DeviceRegistry deviceRegistry, PersistenceServiceRegistry persistenceServiceRegistry,
+            ImperiHomeConfig config) {
         this.deviceRegistry = deviceRegistry;
         this.persistenceServiceRegistry = persistenceServiceRegistry;
+        this.config = config;
     }
 
     public HistoryList handle(HttpServletRequest req, Matcher urlMatcher) {
@@ -81,17 +100,40 @@ public class DeviceHistoryHandler {
             return null;
         }
 
-        return serveHistory(device, (QueryablePersistenceService) persistence, start, end);
+        int maxPoints = config.getHistoryMaxPoints();
+        HistoryAggregation aggregation = config.getHistoryAggregation();
+        String cacheKey = persistence.getId() + '|' + device.getItemName() + '|' + start + '|' + end + '|'
+                + maxPoints + '|' + aggregation;
+
+        long now = System.currentTimeMillis();
+        CachedHistory cached = cache.get(cacheKey);
+        if (cached != null && now - cached.created < CACHE_TTL_MILLIS) {
+            logger.debug("Serving history of Item {} from cache", device.getItemName());
+            return cached.history;
+        }
+
+        HistoryList history = serveHistory(device, (QueryablePersistenceService) persistence, start, end, maxPoints,
+                aggregation);
+        cache.put(cacheKey, new CachedHistory(history, now));
+        return history;
+    }
+
+    /**
+     * Drops all cached history results.
+     */
+    public void clearCache() {
+        cache.clear();
     }
 
     private HistoryList serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start,
-            long end) {
+            long end, int maxPoints, HistoryAggregation aggregation) {
         logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), start, end);
 
         FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName()).setBeginDate(new Date(start))
                 .setEndDate(new Date(end));
 
-        List<HistoryItem> resultItems = new LinkedList<>();
+        HistoryAggregator aggregator = new HistoryAggregator(start, end, maxPoints, aggregation);
+        boolean anyDecimal = false;
         Iterable<HistoricItem> historicItems = persistence.query(criteria);
 
         Iterator<HistoricItem> iterator = historicItems.iterator();
@@ -102,18 +144,28 @@ public class DeviceHistoryHandler {
                 HistoricItem historicItem = iterator.next();
                 State state = historicItem.getState();
                 if (state instanceof DecimalType) {
-                    Number value = ((DecimalType) state).toBigDecimal();
-                    resultItems.add(new HistoryItem(historicItem.getTimestamp(), value));
+                    aggregator.add(historicItem.getTimestamp().getTime(), ((DecimalType) state).doubleValue());
+                    anyDecimal = true;
                 }
             }
 
-            if (resultItems.isEmpty()) {
+            if (!anyDecimal) {
                 logger.warn(
                         "Persistence returned results for history query, but could not be interpreted as DecimalTypes");
             }
         }
 
-        return new HistoryList(resultItems);
+        return aggregator.toHistoryList();
+    }
+
+    private static class CachedHistory {
+        private final HistoryList history;
+        private final long created;
+
+        private CachedHistory(HistoryList history, long created) {
+            this.history = history;
+            this.created = created;
+        }
     }
 
 }
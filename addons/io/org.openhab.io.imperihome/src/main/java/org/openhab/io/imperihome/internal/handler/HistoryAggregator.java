@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.imperihome.internal.handler;
+
+import java.util.Arrays;
+
+import org.openhab.io.imperihome.internal.ImperiHomeConfig.HistoryAggregation;
+import org.openhab.io.imperihome.internal.model.HistoryList;
+
+/**
+ * Reduces a stream of persisted values to a bounded number of equally sized time buckets. Each bucket is
+ * represented by the average timestamp of its values and the min, max or average value. When no bucket count is
+ * given, all values are collected as-is.
+ *
+ * @author agent - Initial contribution
+ */
+class HistoryAggregator {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final long start;
+    private final long end;
+    private final int bucketCount;
+    private final HistoryAggregation aggregation;
+
+    // Bucketed mode
+    private long[] timeSum;
+    private double[] valueSum;
+    private double[] valueMin;
+    private double[] valueMax;
+    private int[] count;
+
+    // Raw mode
+    private long[] rawDates;
+    private double[] rawValues;
+    private int rawSize;
+
+    /**
+     * @param start Range start (epoch millis, inclusive)
+     * @param end Range end (epoch millis, inclusive)
+     * @param maxPoints Maximum number of resulting points, or 0 to keep every value
+     * @param aggregation Function applied to the values in each bucket
+     */
+    HistoryAggregator(long start, long end, int maxPoints, HistoryAggregation aggregation) {
+        this.start = start;
+        this.end = Math.max(start, end);
+        this.aggregation = aggregation;
+
+        long span = this.end - start + 1;
+        this.bucketCount = maxPoints <= 0 ? 0 : (int) Math.min(maxPoints, span);
+
+        if (bucketCount > 0) {
+            timeSum = new long[bucketCount];
+            valueSum = new double[bucketCount];
+            valueMin = new double[bucketCount];
+            valueMax = new double[bucketCount];
+            count = new int[bucketCount];
+        } else {
+            rawDates = new long[INITIAL_CAPACITY];
+            rawValues = new double[INITIAL_CAPACITY];
+        }
+    }
+
+    void add(long timestamp, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+
+        if (bucketCount == 0) {
+            if (rawSize == rawDates.length) {
+                rawDates = Arrays.copyOf(rawDates, rawSize * 2);
+                rawValues = Arrays.copyOf(rawValues, rawSize * 2);
+            }
+            rawDates[rawSize] = timestamp;
+            rawValues[rawSize] = value;
+            rawSize++;
+            return;
+        }
+
+        long offset = Math.min(Math.max(timestamp, start), end) - start;
+        int bucket = (int) (offset * bucketCount / (end - start + 1));
+
+        if (count[bucket] == 0) {
+            valueMin[bucket] = value;
+            valueMax[bucket] = value;
+        } else {
+            if (value < valueMin[bucket]) {
+                valueMin[bucket] = value;
+            }
+            if (value > valueMax[bucket]) {
+                valueMax[bucket] = value;
+            }
+        }
+        valueSum[bucket] += value;
+        timeSum[bucket] += offset;
+        count[bucket]++;
+    }
+
+    HistoryList toHistoryList() {
+        if (bucketCount == 0) {
+            return new HistoryList(rawDates, rawValues, rawSize);
+        }
+
+        long[] dates = new long[bucketCount];
+        double[] values = new double[bucketCount];
+        int size = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            int n = count[i];
+            if (n == 0) {
+                continue;
+            }
+
+            dates[size] = start + timeSum[i] / n;
+            switch (aggregation) {
+                case MIN:
+                    values[size] = valueMin[i];
+                    break;
+                case MAX:
+                    values[size] = valueMax[i];
+                    break;
+                default:
+                    values[size] = valueSum[i] / n;
+                    break;
+            }
+            size++;
+        }
+        return new HistoryList(dates, values, size);
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.imperihome.internal.io;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.openhab.io.imperihome.internal.model.HistoryList;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming serializer for {@link HistoryList}. Writes the values directly to the output without building an
+ * intermediate JSON tree. Integral values are written without a fraction, as they were when values were kept as
+ * {@link BigDecimal}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HistoryListSerializer extends TypeAdapter<HistoryList> {
+
+    @Override
+    public void write(JsonWriter out, HistoryList history) throws IOException {
+        if (history == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("values");
+        out.beginArray();
+        for (int i = 0; i < history.size(); i++) {
+            out.beginObject();
+            out.name("date").value(history.getDate(i));
+            out.name("value").value(toNumber(history.getValue(i)));
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public HistoryList read(JsonReader in) throws IOException {
+        throw new JsonParseException("HistoryList is only written to responses, it can't be read");
+    }
+
+    private static Number toNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return (long) value;
+        }
+        return BigDecimal.valueOf(value);
+    }
+
+}
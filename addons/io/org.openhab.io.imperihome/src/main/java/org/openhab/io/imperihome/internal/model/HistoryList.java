@@ -8,32 +8,48 @@
  */
 package org.openhab.io.imperihome.internal.model;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
- * History list data object.
+ * History list data object. Dates and values are kept in primitive arrays, which are serialized directly to the
+ * response by {@link org.openhab.io.imperihome.internal.io.HistoryListSerializer}.
  *
  * @author Pepijn de Geus - Initial contribution
  */
 public class HistoryList {
 
-    private List<HistoryItem> values;
+    private static final long[] NO_DATES = new long[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private final long[] dates;
+    private final double[] values;
+    private final int size;
 
     public HistoryList() {
-        this(new LinkedList<HistoryItem>());
+        this(NO_DATES, NO_VALUES, 0);
     }
 
-    public HistoryList(List<HistoryItem> resultItems) {
-        this.values = resultItems;
+    public HistoryList(long[] dates, double[] values, int size) {
+        if (size > dates.length || size > values.length) {
+            throw new IllegalArgumentException("History size exceeds array length");
+        }
+        this.dates = dates;
+        this.values = values;
+        this.size = size;
     }
 
-    public List<HistoryItem> getValues() {
-        return values;
+    public int size() {
+        return size;
     }
 
-    public void setValues(List<HistoryItem> values) {
-        this.values = values;
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getDate(int index) {
+        return dates[index];
+    }
+
+    public double getValue(int index) {
+        return values[index];
     }
 
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.kaldi.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.junit.Test;
+
+/**
+ * Tests the trimming and the endpointing of the {@link VoiceActivityDetector} with WAVE files.
+ *
+ * speech.wav holds 500 ms of background noise, 1000 ms of a voiced signal and 1500 ms of background noise,
+ * silence.wav holds 6000 ms of background noise. Both are 16 kHz, 16 bit, mono.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class VoiceActivityDetectorTest {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int WAVE_HEADER_SIZE = 44;
+    private static final int CHUNK_SIZE = 3200;
+
+    private static final int SPEECH_START = 500;
+    private static final int SPEECH_END = 1500;
+
+    private static final AudioFormat WAVE_MONO = new AudioFormat(AudioFormat.CONTAINER_WAVE,
+            AudioFormat.CODEC_PCM_SIGNED, false, 16, SAMPLE_RATE * 16, (long) SAMPLE_RATE);
+
+    private final KaldiVadConfiguration config = new KaldiVadConfiguration();
+
+    @Test
+    public void speechIsTrimmedToTheUtterance() throws IOException {
+        byte[] wave = readResource("/speech.wav");
+        byte[] pcm = Arrays.copyOfRange(wave, WAVE_HEADER_SIZE, wave.length);
+
+        VoiceActivityDetector detector = VoiceActivityDetector.create(WAVE_MONO, config);
+        assertNotNull(detector);
+
+        ByteArrayOutputStream speech = new ByteArrayOutputStream();
+        int offset = 0;
+        while (offset < wave.length && detector.getState() != VoiceActivityDetector.State.ENDED) {
+            int length = Math.min(CHUNK_SIZE, wave.length - offset);
+            speech.write(detector.process(Arrays.copyOfRange(wave, offset, offset + length), length));
+            offset += length;
+        }
+
+        // The trailing silence ends the utterance before the end of the file
+        assertEquals(VoiceActivityDetector.State.ENDED, detector.getState());
+        assertTrue(offset < wave.length);
+
+        // The header is dropped, the audio passed on is a contiguous part of the samples
+        byte[] trimmed = speech.toByteArray();
+        int start = indexOf(pcm, trimmed);
+        assertTrue("The audio passed on is not part of the samples", start >= 0);
+
+        // It starts with the pre-roll before the speech onset ...
+        int frameSize = bytes(config.vadFrameLength);
+        assertTrue(start < bytes(SPEECH_START));
+        assertTrue(start >= bytes(SPEECH_START - config.vadPreRoll) - frameSize);
+
+        // ... and ends with the trailing silence after the speech
+        int end = start + trimmed.length;
+        assertTrue(end >= bytes(SPEECH_END + config.vadTrailingSilence));
+        assertTrue(end <= bytes(SPEECH_END + config.vadTrailingSilence) + frameSize);
+    }
+
+    @Test
+    public void silenceEndsAfterTheLeadingTimeout() throws IOException {
+        byte[] wave = readResource("/silence.wav");
+
+        VoiceActivityDetector detector = VoiceActivityDetector.create(WAVE_MONO, config);
+        assertNotNull(detector);
+
+        int offset = 0;
+        while (offset < wave.length && detector.getState() != VoiceActivityDetector.State.ENDED) {
+            int length = Math.min(CHUNK_SIZE, wave.length - offset);
+            assertEquals(0, detector.process(Arrays.copyOfRange(wave, offset, offset + length), length).length);
+            offset += length;
+        }
+
+        assertEquals(VoiceActivityDetector.State.ENDED, detector.getState());
+        assertTrue(offset >= WAVE_HEADER_SIZE + bytes(config.vadLeadingTimeout));
+        assertTrue(offset < WAVE_HEADER_SIZE + bytes(config.vadLeadingTimeout) + CHUNK_SIZE);
+    }
+
+    @Test
+    public void onlyMonoAudioIsSupported() {
+        AudioFormat stereo = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16,
+                SAMPLE_RATE * 16 * 2, (long) SAMPLE_RATE);
+        assertNull(VoiceActivityDetector.create(stereo, config));
+
+        AudioFormat unknownChannels = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false,
+                16, null, (long) SAMPLE_RATE);
+        assertNull(VoiceActivityDetector.create(unknownChannels, config));
+    }
+
+    @Test
+    public void contentTypeDescribesTheRawAudio() {
+        VoiceActivityDetector detector = VoiceActivityDetector.create(WAVE_MONO, config);
+        assertEquals("audio/x-raw, layout=(string)interleaved, rate=(int)16000, format=(string)S16LE, channels=(int)1",
+                detector.getContentType());
+    }
+
+    private int bytes(int millis) {
+        return SAMPLE_RATE * millis / 1000 * 2;
+    }
+
+    private int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i + part.length <= data.length; i += 2) {
+            if (Arrays.equals(part, Arrays.copyOfRange(data, i, i + part.length))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] readResource(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -9,17 +9,22 @@
 package org.openhab.voice.kaldi.internal;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URISyntaxException;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.STTException;
 import org.eclipse.smarthome.core.voice.STTListener;
 import org.eclipse.smarthome.core.voice.STTService;
 import org.eclipse.smarthome.core.voice.STTServiceHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ee.ioc.phon.netspeechapi.duplex.WsDuplexRecognitionSession;
 
@@ -36,6 +41,18 @@ public class KaldiSTTService implements STTService {
      */
     private static final String kaldiWebSocketURL = "ws://52.37.26.79:8888/client/ws/speech";
 
+    /**
+     * Name of the shared thread pool streaming audio to the server
+     */
+    private static final String THREADPOOL_NAME = "kaldi";
+
+    private final Logger logger = LoggerFactory.getLogger(KaldiSTTService.class);
+
+    /**
+     * Configuration of the voice activity detection
+     */
+    private volatile KaldiVadConfiguration vadConfiguration = new KaldiVadConfiguration();
+
     /**
      * Set of supported locales
      */
@@ -46,6 +63,47 @@ public class KaldiSTTService implements STTService {
      */
     private final HashSet<AudioFormat> audioFormats = initAudioFormats();
 
+    protected void activate(Map<String, Object> config) {
+        modified(config);
+    }
+
+    protected void modified(Map<String, Object> config) {
+        if (config == null) {
+            return;
+        }
+        KaldiVadConfiguration newConfiguration = new KaldiVadConfiguration();
+        try {
+            Object value = config.get("vadEnabled");
+            if (value != null) {
+                newConfiguration.vadEnabled = Boolean.valueOf(value.toString().trim());
+            }
+            value = config.get("vadEnergyThreshold");
+            if (value != null) {
+                newConfiguration.vadEnergyThreshold = Double.valueOf(value.toString().trim());
+            }
+            value = config.get("vadMaxZeroCrossingRate");
+            if (value != null) {
+                newConfiguration.vadMaxZeroCrossingRate = Double.valueOf(value.toString().trim());
+            }
+            newConfiguration.vadFrameLength = getInteger(config, "vadFrameLength", newConfiguration.vadFrameLength);
+            newConfiguration.vadPreRoll = getInteger(config, "vadPreRoll", newConfiguration.vadPreRoll);
+            newConfiguration.vadTrailingSilence = getInteger(config, "vadTrailingSilence",
+                    newConfiguration.vadTrailingSilence);
+            newConfiguration.vadLeadingTimeout = getInteger(config, "vadLeadingTimeout",
+                    newConfiguration.vadLeadingTimeout);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid voice activity detection configuration, using defaults: {}", e.getMessage());
+            newConfiguration = new KaldiVadConfiguration();
+        }
+        this.vadConfiguration = newConfiguration;
+    }
+
+    private Integer getInteger(Map<String, Object> config, String key, Integer defaultValue) {
+        Object value = config.get(key);
+        // values from the UI are BigDecimals, values from .cfg files are Strings
+        return value == null ? defaultValue : new BigDecimal(value.toString().trim()).intValue();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -106,11 +164,22 @@ public class KaldiSTTService implements STTService {
         // One need not call recognitionSession.setContentType(...) [See http://bit.ly/1TGvQzA]
         recognitionSession.addRecognitionEventListener(new RecognitionEventListenerKaldi(sttListener));
 
+        VoiceActivityDetector voiceActivityDetector = null;
+        KaldiVadConfiguration currentVadConfiguration = this.vadConfiguration;
+        if (Boolean.TRUE.equals(currentVadConfiguration.vadEnabled)) {
+            voiceActivityDetector = VoiceActivityDetector.create(audioFormat, currentVadConfiguration);
+            if (voiceActivityDetector == null) {
+                logger.debug("Voice activity detection is not supported for {}, sending all audio", audioFormat);
+            } else {
+                // The detector drops the WAVE header, the server has to be told the format of the raw audio
+                recognitionSession.setContentType(voiceActivityDetector.getContentType());
+            }
+        }
+
         // Start recognition
         STTServiceKaldiRunnable sttServiceKaldiRunnable = new STTServiceKaldiRunnable(recognitionSession, sttListener,
-                audioStream);
-        Thread thread = new Thread(sttServiceKaldiRunnable);
-        thread.start();
+                audioStream, voiceActivityDetector);
+        ThreadPoolManager.getPool(THREADPOOL_NAME).execute(sttServiceKaldiRunnable);
 
         // Return STTServiceHandleKaldi
         return new STTServiceHandleKaldi(sttServiceKaldiRunnable);
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.kaldi.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing and throughput figures of a single recognition session
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class KaldiSessionMetrics {
+
+    private volatile long startNanos;
+    private volatile long firstChunkNanos;
+    private volatile long firstResultNanos;
+    private volatile long endNanos;
+    private volatile long bytesSent;
+    private volatile int chunksSent;
+
+    void started() {
+        startNanos = System.nanoTime();
+    }
+
+    void chunkSent(int size) {
+        if (chunksSent == 0) {
+            firstChunkNanos = System.nanoTime();
+        }
+        chunksSent++;
+        bytesSent += size;
+    }
+
+    void resultReceived() {
+        if (firstResultNanos == 0) {
+            firstResultNanos = System.nanoTime();
+        }
+    }
+
+    void ended() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Time between sending the first audio chunk and receiving the first (partial or final) result
+     *
+     * @return The time in milliseconds or -1 if no result has been received yet
+     */
+    public long getTimeToFirstResult() {
+        if (firstResultNanos == 0 || firstChunkNanos == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(firstResultNanos - firstChunkNanos);
+    }
+
+    /**
+     * Average rate audio data has been sent with
+     *
+     * @return The throughput in bytes per second
+     */
+    public long getThroughput() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        long elapsed = end - startNanos;
+        if (startNanos == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return bytesSent * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public int getChunksSent() {
+        return chunksSent;
+    }
+
+    @Override
+    public String toString() {
+        return "chunks=" + chunksSent + ", bytes=" + bytesSent + ", timeToFirstResult=" + getTimeToFirstResult()
+                + "ms, throughput=" + getThroughput() + "B/s";
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.kaldi.internal;
+
+/**
+ * Configuration of the voice activity detection stage of the {@link KaldiSTTService}
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class KaldiVadConfiguration {
+
+    /**
+     * Enables voice activity detection, otherwise the complete audio is sent to the server
+     */
+    public Boolean vadEnabled = Boolean.FALSE;
+
+    /**
+     * Minimum frame energy in dBFS to be considered speech
+     */
+    public Double vadEnergyThreshold = -40.0;
+
+    /**
+     * Maximum zero-crossing rate (crossings per sample) to be considered speech
+     */
+    public Double vadMaxZeroCrossingRate = 0.3;
+
+    /**
+     * Length of a single analysis frame in milliseconds
+     */
+    public Integer vadFrameLength = 20;
+
+    /**
+     * Audio preceding the detected speech onset which is sent nevertheless, in milliseconds
+     */
+    public Integer vadPreRoll = 300;
+
+    /**
+     * Silence after speech which ends the utterance, in milliseconds
+     */
+    public Integer vadTrailingSilence = 800;
+
+    /**
+     * Time to wait for speech before ending the recognition, in milliseconds, 0 to wait forever
+     */
+    public Integer vadLeadingTimeout = 5000;
+}
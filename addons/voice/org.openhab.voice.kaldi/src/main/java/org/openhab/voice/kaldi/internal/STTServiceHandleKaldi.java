@@ -39,4 +39,13 @@ public class STTServiceHandleKaldi implements STTServiceHandle {
     public void abort() {
         this.sttServiceKaldiRunnable.abort();
     }
+
+    /**
+     * Returns the metrics of the managed recognition session
+     *
+     * @return The session metrics
+     */
+    public KaldiSessionMetrics getMetrics() {
+        return this.sttServiceKaldiRunnable.getMetrics();
+    }
 }
@@ -16,6 +16,8 @@ import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.RecognitionStartEvent;
 import org.eclipse.smarthome.core.voice.STTListener;
 import org.eclipse.smarthome.core.voice.SpeechRecognitionErrorEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ee.ioc.phon.netspeechapi.duplex.RecognitionEvent;
 import ee.ioc.phon.netspeechapi.duplex.RecognitionEventListener;
@@ -29,6 +31,20 @@ import ee.ioc.phon.netspeechapi.duplex.WsDuplexRecognitionSession;
  */
 public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListener {
 
+    /**
+     * Minimum amount of audio per chunk in milliseconds
+     */
+    private static final int MIN_CHUNK_MILLIS = 20;
+
+    /**
+     * Maximum amount of audio per chunk in milliseconds, 4 <= chunkRate [See: http://bit.ly/1V4Ktw2]
+     */
+    private static final int MAX_CHUNK_MILLIS = 250;
+
+    private static final byte[] EMPTY_CHUNK = new byte[0];
+
+    private final Logger logger = LoggerFactory.getLogger(STTServiceKaldiRunnable.class);
+
     /**
      * Boolean indicating if the server closed the connection
      */
@@ -54,15 +70,32 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
      */
     private final WsDuplexRecognitionSession recognitionSession;
 
+    /**
+     * Metrics of this session
+     */
+    private final KaldiSessionMetrics metrics = new KaldiSessionMetrics();
+
+    /**
+     * Boolean indicating if the AudioStream has been read completely
+     */
+    private boolean endOfStream;
+
+    /**
+     * Optional voice activity detector filtering the audio sent to the server
+     */
+    private final VoiceActivityDetector voiceActivityDetector;
+
     /**
      * Constructs an instance targeting the passed WsDuplexRecognitionSession
      *
      * @param recognitionSession The WsDuplexRecognitionSession sesion
      * @param sttListener The STTListener targeted for STTEvents
      * @param audioStream The AudioSource data
+     * @param voiceActivityDetector The VoiceActivityDetector filtering the audio or null to send all audio
      */
     public STTServiceKaldiRunnable(WsDuplexRecognitionSession recognitionSession, STTListener sttListener,
-            AudioStream audioStream) {
+            AudioStream audioStream, VoiceActivityDetector voiceActivityDetector) {
+        this.voiceActivityDetector = voiceActivityDetector;
         this.isClosed = false;
         this.isAborting = false;
         this.audioStream = audioStream;
@@ -74,6 +107,10 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
 
     /**
      * This method sends AudioSource data in the WsDuplexRecognitionSession
+     *
+     * Audio is forwarded as soon as it is read from the AudioStream. Each chunk holds at least
+     * {@link #MIN_CHUNK_MILLIS} of audio, plus whatever further data is available without blocking,
+     * up to {@link #MAX_CHUNK_MILLIS}.
      */
     @Override
     public void run() {
@@ -82,41 +119,44 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
             AudioFormat audioFormat = this.audioStream.getFormat();
             int bitRate = audioFormat.getBitRate().intValue();
             int byteRate = (bitRate / 8);
-            int chunkRate = 4; // 4 <= chunkRate [See: http://bit.ly/1V4Ktw2]
-            byte buffer[] = new byte[byteRate / chunkRate];
+            int minChunkSize = Math.max(1, (int) ((long) byteRate * MIN_CHUNK_MILLIS / 1000));
+            byte buffer[] = new byte[Math.max(minChunkSize, (int) ((long) byteRate * MAX_CHUNK_MILLIS / 1000))];
 
             sttListener.sttEventReceived(new RecognitionStartEvent());
+            metrics.started();
 
             boolean sentLastChunk = false;
             while (!this.isAborting && !this.isClosed) {
-                long millisWithinChunkSecond = System.currentTimeMillis() % (1000 / chunkRate);
-                int size = audioStream.read(buffer);
+                int size = readChunk(buffer, minChunkSize);
                 if (size < 0) {
                     sentLastChunk = true;
-                    byte buffer2[] = new byte[0];
-                    this.recognitionSession.sendChunk(buffer2, true);
+                    this.recognitionSession.sendChunk(EMPTY_CHUNK, true);
                     break;
                 }
-                if (size == (byteRate / chunkRate)) {
-                    this.recognitionSession.sendChunk(buffer, false);
+                if (voiceActivityDetector != null) {
+                    byte[] speech = voiceActivityDetector.process(buffer, size);
+                    if (speech.length > 0) {
+                        this.recognitionSession.sendChunk(speech, false);
+                        metrics.chunkSent(speech.length);
+                    }
+                    if (voiceActivityDetector.getState() == VoiceActivityDetector.State.ENDED) {
+                        // trailing silence (or no speech at all) ends the utterance
+                        sentLastChunk = true;
+                        this.recognitionSession.sendChunk(EMPTY_CHUNK, true);
+                        break;
+                    }
                 } else {
-                    sentLastChunk = true;
-                    byte buffer2[] = Arrays.copyOf(buffer, size);
-                    this.recognitionSession.sendChunk(buffer2, true);
-                    break;
+                    // The chunk is queued by the WebSocket without copying, so it can't share the read buffer
+                    this.recognitionSession.sendChunk(Arrays.copyOf(buffer, size), false);
+                    metrics.chunkSent(size);
                 }
-                Thread.sleep(1000 / chunkRate - millisWithinChunkSecond);
             }
 
             if (this.isAborting && !this.isClosed && !sentLastChunk) {
-                byte buffer2[] = new byte[0];
-                this.recognitionSession.sendChunk(buffer2, true);
+                this.recognitionSession.sendChunk(EMPTY_CHUNK, true);
             }
         } catch (IOException e) {
             sttListener.sttEventReceived(new SpeechRecognitionErrorEvent("Unable to send audio data to the server"));
-        } catch (InterruptedException e) {
-            sttListener.sttEventReceived(
-                    new SpeechRecognitionErrorEvent("Unable to send data to the server at the proper rate"));
         } catch (RuntimeException e) {
             // Note: This is a workaround for a bug in net-speech-api and Java-WebSocket.
             //
@@ -134,7 +174,54 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
             // This temporary, but working, solution is to catch a RuntimeException
             // here and assume that it results from sendChunk() being called on a
             // closed session then proceede as if onClose() was called.
+        } finally {
+            metrics.ended();
+            logger.debug("Kaldi recognition session finished: {}", metrics);
+        }
+    }
+
+    /**
+     * Reads the next chunk of audio data. Blocks until at least minSize bytes have been read or the end of the
+     * stream has been reached, then adds any data available without blocking.
+     *
+     * @param buffer The buffer to read into
+     * @param minSize The minimum number of bytes to read
+     * @return The number of bytes read or -1 if the end of the stream has been reached
+     * @throws IOException
+     */
+    private int readChunk(byte[] buffer, int minSize) throws IOException {
+        if (endOfStream) {
+            return -1;
+        }
+        int filled = 0;
+        while (filled < minSize) {
+            int read = audioStream.read(buffer, filled, buffer.length - filled);
+            if (read < 0) {
+                endOfStream = true;
+                return filled > 0 ? filled : -1;
+            }
+            filled += read;
+        }
+        int available = audioStream.available();
+        while (available > 0 && filled < buffer.length) {
+            int read = audioStream.read(buffer, filled, Math.min(available, buffer.length - filled));
+            if (read < 0) {
+                endOfStream = true;
+                break;
+            }
+            filled += read;
+            available = audioStream.available();
         }
+        return filled;
+    }
+
+    /**
+     * Returns the metrics of this recognition session
+     *
+     * @return The session metrics
+     */
+    public KaldiSessionMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -149,7 +236,10 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
      */
     @Override
     public void onRecognitionEvent(RecognitionEvent recognitionEvent) {
-        // RecognitionEvent are ignored
+        // RecognitionEvent are only used for metrics
+        if (recognitionEvent.getStatus() == RecognitionEvent.STATUS_SUCCESS) {
+            metrics.resultReceived();
+        }
     }
 
     /**
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.kaldi.internal;
+
+import java.util.Arrays;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+
+/**
+ * An energy and zero-crossing based voice activity detector for 16 bit signed mono PCM audio.
+ *
+ * Audio is analyzed in fixed length frames. Leading silence is dropped, except for a short pre-roll before the
+ * speech onset. Once speech has been detected, all frames are passed on until the configured amount of trailing
+ * silence ends the utterance.
+ *
+ * A WAVE header is not passed on, as its lengths don't match the trimmed audio. The audio passed on is raw PCM, as
+ * described by {@link #getContentType()}.
+ *
+ * The detector has no dependencies on the recognition session, so it can be fed from any byte source, e.g. WAV
+ * files.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class VoiceActivityDetector {
+
+    /**
+     * State of the utterance
+     */
+    public enum State {
+        /** No speech detected yet */
+        WAITING,
+        /** Speech has been detected, audio is passed on */
+        SPEECH,
+        /** The utterance has ended, further audio is ignored */
+        ENDED
+    }
+
+    /**
+     * Number of consecutive speech frames required to detect the speech onset
+     */
+    private static final int ONSET_FRAMES = 2;
+
+    /**
+     * Size of the canonical WAVE header, which is dropped
+     */
+    private static final int WAVE_HEADER_SIZE = 44;
+
+    private static final byte[] NO_DATA = new byte[0];
+
+    private final int sampleRate;
+    private final boolean bigEndian;
+    private final double energyThreshold;
+    private final double maxZeroCrossingRate;
+    private final int frameMillis;
+    private final int trailingSilenceFrames;
+    private final int leadingTimeoutFrames;
+
+    private final byte[] frame;
+    private int frameFill;
+
+    private final byte[][] preRoll;
+    private int preRollStart;
+    private int preRollCount;
+
+    private int headerRemaining;
+
+    private byte[] output = new byte[4096];
+    private int outputLength;
+
+    private State state = State.WAITING;
+    private int speechRun;
+    private int silenceRun;
+    private int waitedFrames;
+
+    /**
+     * Creates a detector for 16 bit signed mono PCM audio
+     *
+     * @param sampleRate The sample rate in Hz
+     * @param bigEndian The byte order of the samples
+     * @param hasWaveHeader True if the audio starts with a WAVE header
+     * @param config The detector configuration
+     */
+    public VoiceActivityDetector(int sampleRate, boolean bigEndian, boolean hasWaveHeader,
+            KaldiVadConfiguration config) {
+        this.sampleRate = sampleRate;
+        this.bigEndian = bigEndian;
+        this.energyThreshold = config.vadEnergyThreshold;
+        this.maxZeroCrossingRate = config.vadMaxZeroCrossingRate;
+        this.frameMillis = Math.max(1, config.vadFrameLength);
+        this.trailingSilenceFrames = Math.max(1, config.vadTrailingSilence / frameMillis);
+        this.leadingTimeoutFrames = config.vadLeadingTimeout <= 0 ? 0
+                : Math.max(1, config.vadLeadingTimeout / frameMillis);
+        this.headerRemaining = hasWaveHeader ? WAVE_HEADER_SIZE : 0;
+
+        int samplesPerFrame = Math.max(2, sampleRate * frameMillis / 1000);
+        this.frame = new byte[samplesPerFrame * 2];
+        this.preRoll = new byte[Math.max(ONSET_FRAMES, config.vadPreRoll / frameMillis + 1)][];
+    }
+
+    /**
+     * Creates a detector for the passed audio format
+     *
+     * @param audioFormat The format of the analyzed audio
+     * @param config The detector configuration
+     * @return The detector or null, if the audio format is not supported, e.g. it has more than one channel
+     */
+    public static VoiceActivityDetector create(AudioFormat audioFormat, KaldiVadConfiguration config) {
+        if (!AudioFormat.CODEC_PCM_SIGNED.equals(audioFormat.getCodec())) {
+            return null;
+        }
+        if (audioFormat.getBitDepth() == null || audioFormat.getBitDepth().intValue() != 16
+                || audioFormat.getFrequency() == null) {
+            return null;
+        }
+        // the format has no channel count, the bit rate of mono audio is the sample rate times the bit depth
+        if (audioFormat.getBitRate() == null
+                || audioFormat.getBitRate().intValue() != audioFormat.getFrequency().intValue() * 16) {
+            return null;
+        }
+        boolean bigEndian = Boolean.TRUE.equals(audioFormat.isBigEndian());
+        boolean hasWaveHeader = AudioFormat.CONTAINER_WAVE.equals(audioFormat.getContainer());
+        return new VoiceActivityDetector(audioFormat.getFrequency().intValue(), bigEndian, hasWaveHeader, config);
+    }
+
+    /**
+     * Processes the next block of audio
+     *
+     * @param data The audio data
+     * @param length The number of valid bytes in data
+     * @return The audio to pass on to the recognizer, may be empty
+     */
+    public byte[] process(byte[] data, int length) {
+        outputLength = 0;
+        int offset = 0;
+
+        if (headerRemaining > 0) {
+            int count = Math.min(headerRemaining, length);
+            headerRemaining -= count;
+            offset = count;
+        }
+
+        while (offset < length && state != State.ENDED) {
+            int count = Math.min(frame.length - frameFill, length - offset);
+            System.arraycopy(data, offset, frame, frameFill, count);
+            frameFill += count;
+            offset += count;
+            if (frameFill == frame.length) {
+                processFrame();
+                frameFill = 0;
+            }
+        }
+
+        return outputLength == 0 ? NO_DATA : Arrays.copyOf(output, outputLength);
+    }
+
+    /**
+     * Returns the state of the utterance
+     *
+     * @return The current state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the content type of the audio passed on, in the format expected by the Kaldi GStreamer server
+     *
+     * @return The content type of the raw PCM audio
+     */
+    public String getContentType() {
+        return "audio/x-raw, layout=(string)interleaved, rate=(int)" + sampleRate + ", format=(string)S16"
+                + (bigEndian ? "BE" : "LE") + ", channels=(int)1";
+    }
+
+    /**
+     * Classifies a single frame
+     *
+     * @param frame The frame data
+     * @param length The number of valid bytes in frame
+     * @return true if the frame is considered speech
+     */
+    boolean isSpeech(byte[] frame, int length) {
+        int samples = length / 2;
+        if (samples == 0) {
+            return false;
+        }
+        double sumOfSquares = 0;
+        int crossings = 0;
+        int previous = 0;
+        for (int i = 0; i < samples; i++) {
+            int sample = bigEndian ? (frame[2 * i] << 8) | (frame[2 * i + 1] & 0xff)
+                    : (frame[2 * i + 1] << 8) | (frame[2 * i] & 0xff);
+            sumOfSquares += (double) sample * sample;
+            if (i > 0 && (sample >= 0) != (previous >= 0)) {
+                crossings++;
+            }
+            previous = sample;
+        }
+        double rms = Math.sqrt(sumOfSquares / samples);
+        double energy = 20 * Math.log10(Math.max(rms, 1) / 32768.0);
+        double zeroCrossingRate = samples > 1 ? (double) crossings / (samples - 1) : 0;
+        return energy >= energyThreshold && zeroCrossingRate <= maxZeroCrossingRate;
+    }
+
+    private void processFrame() {
+        boolean speech = isSpeech(frame, frame.length);
+        switch (state) {
+            case WAITING:
+                speechRun = speech ? speechRun + 1 : 0;
+                addToPreRoll();
+                if (speechRun >= ONSET_FRAMES) {
+                    state = State.SPEECH;
+                    flushPreRoll();
+                } else if (leadingTimeoutFrames > 0 && ++waitedFrames >= leadingTimeoutFrames) {
+                    state = State.ENDED;
+                }
+                break;
+            case SPEECH:
+                write(frame, 0, frame.length);
+                silenceRun = speech ? 0 : silenceRun + 1;
+                if (silenceRun >= trailingSilenceFrames) {
+                    state = State.ENDED;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addToPreRoll() {
+        int index = (preRollStart + preRollCount) % preRoll.length;
+        if (preRollCount == preRoll.length) {
+            // overwrite the oldest frame
+            index = preRollStart;
+            preRollStart = (preRollStart + 1) % preRoll.length;
+        } else {
+            preRollCount++;
+        }
+        if (preRoll[index] == null) {
+            preRoll[index] = new byte[frame.length];
+        }
+        System.arraycopy(frame, 0, preRoll[index], 0, frame.length);
+    }
+
+    private void flushPreRoll() {
+        for (int i = 0; i < preRollCount; i++) {
+            write(preRoll[(preRollStart + i) % preRoll.length], 0, frame.length);
+        }
+        preRollStart = 0;
+        preRollCount = 0;
+    }
+
+    private void write(byte[] data, int offset, int length) {
+        if (outputLength + length > output.length) {
+            output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + length));
+        }
+        System.arraycopy(data, offset, output, outputLength, length);
+        outputLength += length;
+    }
+}
@@ -12,8 +12,10 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.util.Arrays;
 
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.core.audio.AudioException;
@@ -22,13 +24,26 @@ import org.eclipse.smarthome.core.audio.AudioSource;
 import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
 
 /**
- * Implementation of the {@link AudioSource} interface for the {@link MaryTTSService}
+ * Implementation of the {@link AudioSource} interface for the {@link MaryTTSService}.
+ *
+ * The audio is either served from a complete byte array (cached phrases) or streamed from the {@link AudioInputStream}
+ * produced by MaryTTS. In the latter case the bytes are recorded while they are read, so that {@link #reset()} and
+ * {@link #getClonedStream()} can replay them without waiting for the source to be fully consumed.
  *
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
  */
 class MaryTTSAudioStream extends FixedLengthAudioStream {
 
+    /**
+     * Callback receiving the complete raw audio once a streamed source has been fully read
+     */
+    interface CompletionListener {
+        void audioComplete(byte[] rawAudio);
+    }
+
+    private static final int READ_CHUNK_SIZE = 4096;
+
     /**
      * {@link AudioFormat} of this {@link AudioSource}
      */
@@ -39,21 +54,55 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
      */
     private InputStream inputStream;
 
+    private final int length;
+    private final int rawLength;
+
+    private AudioInputStream source;
+    private CompletionListener completionListener;
+
+    // bytes read from the source so far, shared by all readers
     private byte[] rawAudio;
-    private int length;
+    private int available;
+
+    /**
+     * Constructs an instance serving already synthesized audio
+     *
+     * @param rawAudio The raw PCM data
+     * @param audioFormat The AudioFormat of this instance
+     * @throws IOException
+     */
+    public MaryTTSAudioStream(byte[] rawAudio, AudioFormat audioFormat) throws IOException {
+        this.audioFormat = audioFormat;
+        this.rawAudio = rawAudio;
+        this.available = rawAudio.length;
+        this.rawLength = rawAudio.length;
+        this.length = rawLength + 36;
+        this.inputStream = newStream();
+    }
 
     /**
-     * Constructs an instance with the passed properties
+     * Constructs an instance streaming from the passed source as it is read
      *
-     * @param inputStream The InputStream of this instance
+     * @param source The AudioInputStream produced by MaryTTS, its frame length must be known
      * @param audioFormat The AudioFormat of this instance
+     * @param completionListener Optional listener notified with the raw audio once the source is exhausted
      * @throws IOException
      */
-    public MaryTTSAudioStream(AudioInputStream inputStream, AudioFormat audioFormat) throws IOException {
-        rawAudio = IOUtils.toByteArray(inputStream);
-        this.length = rawAudio.length + 36;
-        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
+    public MaryTTSAudioStream(AudioInputStream source, AudioFormat audioFormat, CompletionListener completionListener)
+            throws IOException {
+        long frames = source.getFrameLength();
+        int frameSize = source.getFormat().getFrameSize();
+        if (frames == AudioSystem.NOT_SPECIFIED || frameSize == AudioSystem.NOT_SPECIFIED
+                || frames * frameSize > Integer.MAX_VALUE - 36) {
+            throw new IOException("Length of the synthesized audio is unknown");
+        }
         this.audioFormat = audioFormat;
+        this.source = source;
+        this.completionListener = completionListener;
+        this.rawLength = (int) (frames * frameSize);
+        this.length = rawLength + 36;
+        this.rawAudio = new byte[Math.min(rawLength, 64 * 1024)];
+        this.inputStream = newStream();
     }
 
     @Override
@@ -81,6 +130,11 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         return length;
     }
 
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
     private InputStream getWavHeaderInputStream(int length) throws IOException {
         // WAVE header
         // see http://www-mmsp.ece.mcgill.ca/Documents/AudioFormats/WAVE/WAVE.html
@@ -143,15 +197,99 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
     @Override
     public synchronized void reset() throws IOException {
         IOUtils.closeQuietly(inputStream);
-        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
+        this.inputStream = newStream();
     }
 
     @Override
     public InputStream getClonedStream() throws AudioException {
         try {
-            return new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
+            return newStream();
         } catch (IOException e) {
             throw new AudioException(e);
         }
     }
+
+    private InputStream newStream() throws IOException {
+        return new SequenceInputStream(getWavHeaderInputStream(length), new RawAudioReader());
+    }
+
+    /**
+     * Makes sure at least position + 1 bytes are available, reading from the source if required.
+     *
+     * @return false if the end of the audio has been reached
+     */
+    private synchronized boolean fill(int position) throws IOException {
+        while (position >= available) {
+            if (source == null) {
+                return false;
+            }
+            if (available == rawAudio.length) {
+                int newSize = Math.max(rawAudio.length * 2, READ_CHUNK_SIZE);
+                rawAudio = Arrays.copyOf(rawAudio, Math.max(Math.min(newSize, rawLength), available + 1));
+            }
+            int read = source.read(rawAudio, available, Math.min(READ_CHUNK_SIZE, rawAudio.length - available));
+            if (read < 0) {
+                completeSource();
+            } else {
+                available += read;
+                if (available >= rawLength) {
+                    completeSource();
+                }
+            }
+        }
+        return true;
+    }
+
+    private void completeSource() {
+        IOUtils.closeQuietly(source);
+        source = null;
+        if (rawAudio.length != available) {
+            rawAudio = Arrays.copyOf(rawAudio, available);
+        }
+        if (completionListener != null && available == rawLength) {
+            completionListener.audioComplete(rawAudio);
+        }
+        completionListener = null;
+    }
+
+    /**
+     * Reader over the recorded raw audio with its own position
+     */
+    private class RawAudioReader extends InputStream {
+
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            synchronized (MaryTTSAudioStream.this) {
+                if (!fill(position)) {
+                    return -1;
+                }
+                return rawAudio[position++] & 0xff;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            synchronized (MaryTTSAudioStream.this) {
+                if (!fill(position)) {
+                    return -1;
+                }
+                int count = Math.min(len, available - position);
+                System.arraycopy(rawAudio, position, b, off, count);
+                position += count;
+                return count;
+            }
+        }
+
+        @Override
+        public int available() {
+            synchronized (MaryTTSAudioStream.this) {
+                return available - position;
+            }
+        }
+    }
 }
@@ -16,13 +16,19 @@ package org.openhab.voice.marytts.internal;
  */
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
@@ -44,10 +50,42 @@ import marytts.modules.synthesis.Voice;
  */
 public class MaryTTSService implements TTSService {
 
+    private static final String CONFIG_POOL_SIZE = "poolSize";
+    private static final String CONFIG_CACHE_SIZE = "cacheSize";
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int DEFAULT_CACHE_SIZE = 20;
+
+    /**
+     * Phrases with more raw audio than this are not kept in the cache
+     */
+    private static final int MAX_CACHED_AUDIO_BYTES = 2 * 1024 * 1024;
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
     private MaryInterface marytts;
 
+    /**
+     * Idle MaryInterfaces available for synthesis, each one is used by a single request at a time
+     */
+    private volatile BlockingQueue<MaryInterface> pool = new LinkedBlockingQueue<>();
+
+    private int poolSize;
+    private volatile int cacheSize = DEFAULT_CACHE_SIZE;
+
+    /**
+     * Recently synthesized phrases, keyed by voice UID and text
+     */
+    private final Map<String, CachedAudio> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CachedAudio>(16, 0.75f, true) {
+                private static final long serialVersionUID = -5370146547226345235L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedAudio> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+
     /**
      * Set of supported voices
      */
@@ -58,16 +96,61 @@ public class MaryTTSService implements TTSService {
      */
     private HashSet<AudioFormat> audioFormats;
 
-    protected void activate() {
+    protected void activate(Map<String, Object> config) {
         try {
             marytts = getMaryInterface();
             voices = initVoices();
             audioFormats = initAudioFormats();
+            modified(config);
         } catch (Throwable t) {
             logger.error("Failed to initialize MaryTTS: {}", t.getMessage(), t);
         }
     }
 
+    protected void modified(Map<String, Object> config) {
+        int newPoolSize = getIntConfig(config, CONFIG_POOL_SIZE, DEFAULT_POOL_SIZE);
+        cacheSize = getIntConfig(config, CONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        synchronized (cache) {
+            if (cache.size() > cacheSize) {
+                cache.clear();
+            }
+        }
+
+        if (marytts != null && newPoolSize != poolSize) {
+            poolSize = newPoolSize;
+            pool = initPool(newPoolSize);
+        }
+        logger.debug("MaryTTS uses {} synthesis instances and caches {} phrases", poolSize, cacheSize);
+    }
+
+    protected void deactivate() {
+        pool = new LinkedBlockingQueue<>();
+        poolSize = 0;
+        cache.clear();
+    }
+
+    private int getIntConfig(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config == null ? null : config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.toString().trim());
+            return key.equals(CONFIG_POOL_SIZE) ? Math.max(1, intValue) : Math.max(0, intValue);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for MaryTTS configuration '{}', using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private BlockingQueue<MaryInterface> initPool(int size) {
+        BlockingQueue<MaryInterface> newPool = new LinkedBlockingQueue<>();
+        for (int i = 0; i < size; i++) {
+            newPool.add(getMaryInterface());
+        }
+        return newPool;
+    }
+
     @Override
     public Set<org.eclipse.smarthome.core.voice.Voice> getAvailableVoices() {
         return this.voices;
@@ -122,23 +205,56 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
-            // AudioStream to return
-            AudioStream audioStream = null;
+        String cacheKey = voice.getUID() + '|' + text;
+        CachedAudio cachedAudio = cache.get(cacheKey);
+        if (cachedAudio != null) {
+            logger.debug("Serving '{}' for voice '{}' from cache", text, voice.getUID());
+            try {
+                return new MaryTTSAudioStream(cachedAudio.rawAudio, cachedAudio.format);
+            } catch (IOException e) {
+                throw new TTSException("Error generating an AudioStream", e);
+            }
+        }
+
+        // Each MaryInterface holds the voice as state, so it is used by one request at a time
+        BlockingQueue<MaryInterface> currentPool = pool;
+        MaryInterface maryInterface;
+        try {
+            maryInterface = currentPool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTSException("Interrupted while waiting for a MaryTTS instance", e);
+        }
 
+        AudioInputStream audioInputStream;
+        try {
             // Set voice (Each voice supports onl a single AudioFormat)
-            marytts.setLocale(voice.getLocale());
-            marytts.setVoice(voice.getLabel());
+            maryInterface.setLocale(voice.getLocale());
+            maryInterface.setVoice(voice.getLabel());
+            audioInputStream = maryInterface.generateAudio(text);
+        } catch (SynthesisException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        } finally {
+            currentPool.add(maryInterface);
+        }
 
-            try {
-                AudioInputStream audioInputStream = marytts.generateAudio(text);
-                audioStream = new MaryTTSAudioStream(audioInputStream, maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
+        try {
+            if (audioInputStream.getFrameLength() == AudioSystem.NOT_SPECIFIED) {
+                // Length is required for the WAV header, so the audio has to be read completely
+                byte[] rawAudio = IOUtils.toByteArray(audioInputStream);
+                cacheAudio(cacheKey, rawAudio, maryTTSVoiceAudioFormat);
+                return new MaryTTSAudioStream(rawAudio, maryTTSVoiceAudioFormat);
             }
+            return new MaryTTSAudioStream(audioInputStream, maryTTSVoiceAudioFormat,
+                    rawAudio -> cacheAudio(cacheKey, rawAudio, maryTTSVoiceAudioFormat));
+        } catch (IOException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        }
+    }
 
-            return audioStream;
+    private void cacheAudio(String cacheKey, byte[] rawAudio, AudioFormat format) {
+        if (cacheSize > 0 && rawAudio.length <= MAX_CACHED_AUDIO_BYTES) {
+            cache.put(cacheKey, new CachedAudio(rawAudio, format));
         }
     }
 
@@ -216,6 +332,16 @@ public class MaryTTSService implements TTSService {
         return maryInterface;
     }
 
+    private static class CachedAudio {
+        private final byte[] rawAudio;
+        private final AudioFormat format;
+
+        private CachedAudio(byte[] rawAudio, AudioFormat format) {
+            this.rawAudio = rawAudio;
+            this.format = format;
+        }
+    }
+
     @Override
     public String getId() {
         return "marytts";
@@ -23,6 +23,7 @@ import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImplementation;
+import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImplementation.EvictionPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,14 @@ public class VoiceRSSTTSService implements TTSService {
     private static final String CONFIG_API_KEY = "apiKey";
     private String apiKey = null;
 
+    // Cache limits come from ConfigAdmin
+    private static final String CONFIG_CACHE_MAX_SIZE = "cacheMaxSize";
+    private static final String CONFIG_CACHE_EVICTION_POLICY = "cacheEvictionPolicy";
+    private static final String CONFIG_CACHE_MEMORY_ENTRIES = "cacheMemoryEntries";
+    private long cacheMaxSize = CachedVoiceRSSCloudImplementation.DEFAULT_MAX_CACHE_SIZE;
+    private EvictionPolicy cacheEvictionPolicy = EvictionPolicy.LRU;
+    private int cacheMemoryEntries = CachedVoiceRSSCloudImplementation.DEFAULT_MEMORY_CACHE_ENTRIES;
+
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
@@ -77,6 +86,44 @@ public class VoiceRSSTTSService implements TTSService {
     protected void modified(Map<String, Object> config) {
         if (config != null) {
             this.apiKey = config.containsKey(CONFIG_API_KEY) ? config.get(CONFIG_API_KEY).toString() : null;
+
+            Object maxSize = config.get(CONFIG_CACHE_MAX_SIZE);
+            try {
+                // configured in MB
+                this.cacheMaxSize = maxSize != null ? Long.parseLong(maxSize.toString().trim()) * 1024 * 1024
+                        : CachedVoiceRSSCloudImplementation.DEFAULT_MAX_CACHE_SIZE;
+            } catch (NumberFormatException ex) {
+                logger.warn("Invalid {} '{}', using default", CONFIG_CACHE_MAX_SIZE, maxSize);
+                this.cacheMaxSize = CachedVoiceRSSCloudImplementation.DEFAULT_MAX_CACHE_SIZE;
+            }
+
+            Object policy = config.get(CONFIG_CACHE_EVICTION_POLICY);
+            try {
+                this.cacheEvictionPolicy = policy != null
+                        ? EvictionPolicy.valueOf(policy.toString().trim().toUpperCase()) : EvictionPolicy.LRU;
+            } catch (IllegalArgumentException ex) {
+                logger.warn("Invalid {} '{}', using LRU", CONFIG_CACHE_EVICTION_POLICY, policy);
+                this.cacheEvictionPolicy = EvictionPolicy.LRU;
+            }
+
+            Object memoryEntries = config.get(CONFIG_CACHE_MEMORY_ENTRIES);
+            try {
+                this.cacheMemoryEntries = memoryEntries != null ? Integer.parseInt(memoryEntries.toString().trim())
+                        : CachedVoiceRSSCloudImplementation.DEFAULT_MEMORY_CACHE_ENTRIES;
+            } catch (NumberFormatException ex) {
+                logger.warn("Invalid {} '{}', using default", CONFIG_CACHE_MEMORY_ENTRIES, memoryEntries);
+                this.cacheMemoryEntries = CachedVoiceRSSCloudImplementation.DEFAULT_MEMORY_CACHE_ENTRIES;
+            }
+
+            if (voiceRssImpl != null) {
+                voiceRssImpl.setLimits(cacheMaxSize, cacheEvictionPolicy, cacheMemoryEntries);
+            }
+        }
+    }
+
+    protected void deactivate() {
+        if (voiceRssImpl != null) {
+            voiceRssImpl.flush();
         }
     }
 
@@ -120,8 +167,13 @@ public class VoiceRSSTTSService implements TTSService {
         // now create the input stream for given text, locale, format. There is
         // only a default voice
         try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(this.apiKey, text,
-                    voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
+            String locale = voice.getLocale().toLanguageTag();
+            String apiAudioFormat = getApiAudioFormat(requestedFormat);
+            byte[] cachedAudio = voiceRssImpl.getTextToSpeechFromMemory(text, locale, apiAudioFormat);
+            if (cachedAudio != null) {
+                return new VoiceRSSByteArrayAudioStream(cachedAudio, requestedFormat);
+            }
+            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(this.apiKey, text, locale, apiAudioFormat);
             if (cacheAudioFile == null) {
                 throw new TTSException("Could not read from VoiceRSS service");
             }
@@ -205,7 +257,8 @@ public class VoiceRSSTTSService implements TTSService {
     }
 
     private final CachedVoiceRSSCloudImplementation initVoiceImplementation() {
-        CachedVoiceRSSCloudImplementation apiImpl = new CachedVoiceRSSCloudImplementation(getCacheFolderName());
+        CachedVoiceRSSCloudImplementation apiImpl = new CachedVoiceRSSCloudImplementation(getCacheFolderName(),
+                cacheMaxSize, cacheEvictionPolicy, cacheMemoryEntries);
         return apiImpl;
     }
 
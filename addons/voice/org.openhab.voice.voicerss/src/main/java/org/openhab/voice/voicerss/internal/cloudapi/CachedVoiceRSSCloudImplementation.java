@@ -8,16 +8,33 @@
  */
 package org.openhab.voice.voicerss.internal.cloudapi;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,15 +44,69 @@ import org.slf4j.LoggerFactory;
  * them in file system, as audio files with an additional .txt file to indicate
  * what content is in the audio file.
  *
+ * The cache is managed by an index file which tracks size, last access and
+ * number of hits of each audio file. When the configured disk budget is
+ * exceeded, entries are evicted by least recent (LRU) or least frequent (LFU)
+ * use. Concurrent requests for the same text share a single download, and the
+ * most frequently used phrases are additionally kept in memory.
+ *
  * @author Jochen Hiller - Initial contribution
  */
 public class CachedVoiceRSSCloudImplementation extends VoiceRSSCloudImplementation {
 
+    /**
+     * Policy used to select the entries to remove when the cache is full.
+     */
+    public enum EvictionPolicy {
+        LRU,
+        LFU
+    }
+
+    public static final long DEFAULT_MAX_CACHE_SIZE = 100L * 1024 * 1024;
+    public static final int DEFAULT_MEMORY_CACHE_ENTRIES = 10;
+
+    private static final String INDEX_FILE_NAME = "cache.index";
+    private static final String TEXT_FILE_EXTENSION = ".txt";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+    /** Number of hits before an entry is promoted to the memory cache. */
+    private static final int MEMORY_CACHE_MIN_HITS = 2;
+    /** Audio files bigger than this are never kept in memory. */
+    private static final long MEMORY_CACHE_MAX_ENTRY_SIZE = 512 * 1024;
+
     private final Logger logger = LoggerFactory.getLogger(CachedVoiceRSSCloudImplementation.class);
 
     private final File cacheFolder;
+    private final File indexFile;
+
+    private volatile long maxCacheSize;
+    private volatile EvictionPolicy evictionPolicy;
+    private volatile int memoryCacheEntries;
+
+    /** Index of all audio files in the cache folder, guarded by itself. */
+    private final Map<String, CacheEntry> index = new HashMap<>();
+    private long totalSize;
+    private boolean indexDirty;
+
+    /** Hot tier for frequently requested phrases, guarded by itself. */
+    private final Map<String, byte[]> memoryCache = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = -2404562129736004117L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > memoryCacheEntries;
+        }
+    };
+
+    /** Downloads currently in progress, used to merge identical requests. */
+    private final Map<String, CompletableFuture<File>> pendingDownloads = new ConcurrentHashMap<>();
 
     public CachedVoiceRSSCloudImplementation(String cacheFolderName) {
+        this(cacheFolderName, DEFAULT_MAX_CACHE_SIZE, EvictionPolicy.LRU, DEFAULT_MEMORY_CACHE_ENTRIES);
+    }
+
+    public CachedVoiceRSSCloudImplementation(String cacheFolderName, long maxCacheSize, EvictionPolicy evictionPolicy,
+            int memoryCacheEntries) {
         if (cacheFolderName == null) {
             throw new RuntimeException("Folder for cache must be defined");
         }
@@ -44,34 +115,315 @@ public class CachedVoiceRSSCloudImplementation extends VoiceRSSCloudImplementati
         if (!cacheFolder.exists()) {
             cacheFolder.mkdirs();
         }
+        indexFile = new File(cacheFolder, INDEX_FILE_NAME);
+        this.maxCacheSize = maxCacheSize;
+        this.evictionPolicy = evictionPolicy;
+        this.memoryCacheEntries = memoryCacheEntries;
+
+        synchronized (index) {
+            loadIndex();
+            evictIfRequired(null);
+            saveIndexIfDirty();
+        }
+    }
+
+    /**
+     * Updates the cache limits. Entries exceeding the new disk budget are evicted immediately.
+     */
+    public void setLimits(long maxCacheSize, EvictionPolicy evictionPolicy, int memoryCacheEntries) {
+        this.maxCacheSize = maxCacheSize;
+        this.evictionPolicy = evictionPolicy;
+        this.memoryCacheEntries = memoryCacheEntries;
+        synchronized (memoryCache) {
+            if (memoryCache.size() > memoryCacheEntries) {
+                memoryCache.clear();
+            }
+        }
+        synchronized (index) {
+            evictIfRequired(null);
+            saveIndexIfDirty();
+        }
+    }
+
+    /**
+     * Returns the audio data for the given text if it is held in the memory cache.
+     *
+     * @return the audio data or null, if not in memory
+     */
+    public byte[] getTextToSpeechFromMemory(String text, String locale, String audioFormat) {
+        String fileName = getAudioFileName(text, locale, audioFormat);
+        if (fileName == null) {
+            return null;
+        }
+        byte[] audio;
+        synchronized (memoryCache) {
+            audio = memoryCache.get(fileName);
+        }
+        if (audio != null) {
+            touch(fileName);
+        }
+        return audio;
     }
 
     public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
             throws IOException {
-        String fileNameInCache = getUniqeFilenameForText(text, locale);
+        String fileName = getAudioFileName(text, locale, audioFormat);
+        if (fileName == null) {
+            return null;
+        }
         // check if in cache
-        File audioFileInCache = new File(cacheFolder, fileNameInCache + "." + audioFormat.toLowerCase());
-        if (audioFileInCache.exists()) {
+        File audioFileInCache = new File(cacheFolder, fileName);
+        CacheEntry entry = touch(fileName);
+        if (entry != null && audioFileInCache.exists()) {
+            if (entry.hits >= MEMORY_CACHE_MIN_HITS) {
+                promoteToMemory(fileName, audioFileInCache);
+            }
             return audioFileInCache;
         }
 
-        // if not in cache, get audio data and put to cache
+        // if not in cache, get audio data and put to cache. Only the first caller downloads,
+        // concurrent callers for the same text wait for its result.
+        CompletableFuture<File> download = new CompletableFuture<>();
+        CompletableFuture<File> pending = pendingDownloads.putIfAbsent(fileName, download);
+        if (pending != null) {
+            return waitForDownload(pending);
+        }
+        try {
+            File result = download(apiKey, text, locale, audioFormat, fileName);
+            download.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            download.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            pendingDownloads.remove(fileName);
+        }
+    }
+
+    /**
+     * Writes the index to disk, if there are unsaved changes.
+     */
+    public void flush() {
+        synchronized (index) {
+            saveIndexIfDirty();
+        }
+    }
+
+    private File waitForDownload(CompletableFuture<File> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for pending download", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Pending download failed", ex.getCause());
+        }
+    }
+
+    private File download(String apiKey, String text, String locale, String audioFormat, String fileName)
+            throws IOException {
+        File audioFileInCache = new File(cacheFolder, fileName);
+        File tempFile = new File(cacheFolder, fileName + TEMP_FILE_EXTENSION);
         try (InputStream is = super.getTextToSpeech(apiKey, text, locale, audioFormat);
-                FileOutputStream fos = new FileOutputStream(audioFileInCache);) {
+                FileOutputStream fos = new FileOutputStream(tempFile);) {
             copyStream(is, fos);
-            // write text to file for transparency too
-            // this allows to know which contents is in which audio file
-            File txtFileInCache = new File(cacheFolder, fileNameInCache + ".txt");
-            writeText(txtFileInCache, text);
-            // return from cache
-            return audioFileInCache;
         } catch (FileNotFoundException ex) {
             logger.warn("Could not write {} to cache, return null", audioFileInCache, ex);
+            tempFile.delete();
             return null;
         } catch (IOException ex) {
-            logger.error("Could not write {} to cache, return null", audioFileInCache, ex);
+            logger.error("Could not write {} to cache, return null", audioFileInCache, ex);
+            tempFile.delete();
             return null;
         }
+
+        try {
+            // move in place only once complete, so readers never see a partial file
+            Files.move(tempFile.toPath(), audioFileInCache.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            // write text to file for transparency too
+            // this allows to know which contents is in which audio file
+            writeText(getTextFile(fileName), text);
+        } catch (IOException ex) {
+            logger.error("Could not write {} to cache, return null", audioFileInCache, ex);
+            tempFile.delete();
+            return null;
+        }
+
+        synchronized (index) {
+            CacheEntry entry = new CacheEntry(fileName, audioFileInCache.length(), System.currentTimeMillis(), 1);
+            CacheEntry previous = index.put(fileName, entry);
+            if (previous != null) {
+                totalSize -= previous.size;
+            }
+            totalSize += entry.size;
+            indexDirty = true;
+            evictIfRequired(fileName);
+            saveIndexIfDirty();
+        }
+        // return from cache
+        return audioFileInCache;
+    }
+
+    private CacheEntry touch(String fileName) {
+        synchronized (index) {
+            CacheEntry entry = index.get(fileName);
+            if (entry != null) {
+                entry.lastAccess = System.currentTimeMillis();
+                entry.hits++;
+                indexDirty = true;
+            }
+            return entry;
+        }
+    }
+
+    private void promoteToMemory(String fileName, File audioFile) {
+        if (memoryCacheEntries <= 0 || audioFile.length() > MEMORY_CACHE_MAX_ENTRY_SIZE) {
+            return;
+        }
+        synchronized (memoryCache) {
+            if (memoryCache.containsKey(fileName)) {
+                return;
+            }
+        }
+        try {
+            byte[] audio = Files.readAllBytes(audioFile.toPath());
+            synchronized (memoryCache) {
+                memoryCache.put(fileName, audio);
+            }
+            // the memory tier serves repeated requests, so persist the hit counts now
+            flush();
+        } catch (IOException ex) {
+            logger.debug("Could not load {} into memory cache", audioFile, ex);
+        }
+    }
+
+    /**
+     * Removes entries until the cache fits into its budget. Must be called while holding the index lock.
+     *
+     * @param keep file name of an entry which must not be evicted, may be null
+     */
+    private void evictIfRequired(String keep) {
+        if (totalSize <= maxCacheSize) {
+            return;
+        }
+        List<CacheEntry> candidates = new ArrayList<>(index.values());
+        Comparator<CacheEntry> byLastAccess = Comparator.comparingLong(e -> e.lastAccess);
+        if (evictionPolicy == EvictionPolicy.LFU) {
+            candidates.sort(Comparator.<CacheEntry> comparingLong(e -> e.hits).thenComparing(byLastAccess));
+        } else {
+            candidates.sort(byLastAccess);
+        }
+        for (CacheEntry candidate : candidates) {
+            if (totalSize <= maxCacheSize) {
+                break;
+            }
+            if (candidate.fileName.equals(keep)) {
+                continue;
+            }
+            logger.debug("Evicting {} from VoiceRSS cache", candidate.fileName);
+            new File(cacheFolder, candidate.fileName).delete();
+            getTextFile(candidate.fileName).delete();
+            index.remove(candidate.fileName);
+            totalSize -= candidate.size;
+            indexDirty = true;
+            synchronized (memoryCache) {
+                memoryCache.remove(candidate.fileName);
+            }
+        }
+    }
+
+    /**
+     * Loads the index and reconciles it with the cache folder. Files without an index entry, e.g. from older
+     * versions or copied in by {@code CreateTTSCache}, are added; entries without a file are dropped.
+     */
+    private void loadIndex() {
+        Map<String, CacheEntry> loaded = new HashMap<>();
+        if (indexFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length != 4) {
+                        continue;
+                    }
+                    try {
+                        loaded.put(fields[0], new CacheEntry(fields[0], Long.parseLong(fields[1]),
+                                Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+                    } catch (NumberFormatException ex) {
+                        logger.debug("Ignoring invalid cache index line '{}'", line);
+                    }
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not read VoiceRSS cache index {}, rebuilding it", indexFile, ex);
+                loaded.clear();
+            }
+        }
+
+        index.clear();
+        totalSize = 0;
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!file.isFile() || name.equals(INDEX_FILE_NAME) || name.endsWith(TEXT_FILE_EXTENSION)) {
+                    continue;
+                }
+                if (name.endsWith(TEMP_FILE_EXTENSION)) {
+                    // left over from an interrupted download
+                    file.delete();
+                    continue;
+                }
+                CacheEntry entry = loaded.get(name);
+                if (entry == null || entry.size != file.length()) {
+                    entry = new CacheEntry(name, file.length(), file.lastModified(), 0);
+                    indexDirty = true;
+                }
+                index.put(name, entry);
+                totalSize += entry.size;
+            }
+        }
+        if (loaded.size() != index.size()) {
+            indexDirty = true;
+        }
+        logger.debug("VoiceRSS cache contains {} entries with {} bytes", index.size(), totalSize);
+    }
+
+    private void saveIndexIfDirty() {
+        if (!indexDirty) {
+            return;
+        }
+        File tempFile = new File(cacheFolder, INDEX_FILE_NAME + TEMP_FILE_EXTENSION);
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            for (CacheEntry entry : index.values()) {
+                writer.write(entry.fileName + '\t' + entry.size + '\t' + entry.lastAccess + '\t' + entry.hits);
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not write VoiceRSS cache index {}", indexFile, ex);
+            return;
+        }
+        try {
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            indexDirty = false;
+        } catch (IOException ex) {
+            logger.warn("Could not write VoiceRSS cache index {}", indexFile, ex);
+        }
+    }
+
+    private String getAudioFileName(String text, String locale, String audioFormat) {
+        String fileNameInCache = getUniqeFilenameForText(text, locale);
+        if (fileNameInCache == null) {
+            return null;
+        }
+        return fileNameInCache + "." + audioFormat.toLowerCase();
+    }
+
+    private File getTextFile(String audioFileName) {
+        int dot = audioFileName.lastIndexOf('.');
+        String baseName = dot < 0 ? audioFileName : audioFileName.substring(0, dot);
+        return new File(cacheFolder, baseName + TEXT_FILE_EXTENSION);
     }
 
     /**
@@ -127,4 +479,21 @@ public class CachedVoiceRSSCloudImplementation extends VoiceRSSCloudImplementati
             }
         }
     }
+
+    /**
+     * Index entry of a single audio file.
+     */
+    private static class CacheEntry {
+        private final String fileName;
+        private final long size;
+        private long lastAccess;
+        private long hits;
+
+        private CacheEntry(String fileName, long size, long lastAccess, long hits) {
+            this.fileName = fileName;
+            this.size = size;
+            this.lastAccess = lastAccess;
+            this.hits = hits;
+        }
+    }
 }
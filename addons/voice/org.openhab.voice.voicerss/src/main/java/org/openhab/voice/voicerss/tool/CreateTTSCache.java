@@ -12,6 +12,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImplementation;
 
@@ -27,6 +33,8 @@ public class CreateTTSCache {
     public static final int RC_INPUT_FILE_NOT_FOUND = 2;
     public static final int RC_API_KEY_MISSING = 3;
 
+    private static final int DEFAULT_THREADS = 4;
+
     public static void main(String[] args) throws IOException {
         CreateTTSCache tool = new CreateTTSCache();
         int rc = tool.doMain(args);
@@ -34,7 +42,7 @@ public class CreateTTSCache {
     }
 
     public int doMain(String[] args) throws IOException {
-        if ((args == null) || (args.length != 5)) {
+        if ((args == null) || (args.length < 5) || (args.length > 6)) {
             usage();
             return RC_USAGE;
         }
@@ -45,6 +53,16 @@ public class CreateTTSCache {
         String apiKey = args[1];
         String cacheDir = args[2];
         String locale = args[3];
+        int threads = DEFAULT_THREADS;
+        if (args.length == 6) {
+            try {
+                threads = Math.max(1, Integer.parseInt(args[5]));
+            } catch (NumberFormatException ex) {
+                usage();
+                return RC_USAGE;
+            }
+        }
+        CachedVoiceRSSCloudImplementation impl = new CachedVoiceRSSCloudImplementation(cacheDir);
         if (args[4].startsWith("@")) {
             String inputFileName = args[4].substring(1);
             File inputFile = new File(inputFileName);
@@ -53,48 +71,75 @@ public class CreateTTSCache {
                 System.err.println("File " + inputFileName + " not found");
                 return RC_INPUT_FILE_NOT_FOUND;
             }
-            generateCacheForFile(apiKey, cacheDir, locale, inputFileName);
+            generateCacheForFile(impl, apiKey, locale, inputFileName, threads);
         } else {
             String text = args[4];
-            generateCacheForMessage(apiKey, cacheDir, locale, text);
+            generateCacheForMessage(impl, apiKey, locale, text);
         }
+        impl.flush();
         return RC_OK;
     }
 
     private void usage() {
         System.out.println("Usage: java org.openhab.voice.voicerss.tool.CreateTTSCache <args>");
-        System.out.println("Arguments: --api-key <key> <cache-dir> <locale> { <text> | @inputfile }");
+        System.out.println("Arguments: --api-key <key> <cache-dir> <locale> { <text> | @inputfile } [<threads>]");
         System.out.println("  key       the VoiceRSS API Key, e.g. \"123456789\"");
         System.out.println("  cache-dir is directory where the files will be stored, e.g. \"voicerss-cache\"");
         System.out.println("  locale    the language locale, has to be valid, e.g. \"en-us\", \"de-de\"");
         System.out.println("  text      the text to create audio file for, e.g. \"Hello World\"");
         System.out.println(
                 "  inputfile a name of a file, where all lines will be translatet to text, e.g. \"@message.txt\"");
+        System.out.println("  threads   number of parallel downloads when reading an inputfile, default " + DEFAULT_THREADS);
         System.out.println();
         System.out.println(
                 "Sample: java org.openhab.voice.voicerss.tool.CreateTTSCache --api-key 1234567890 cache en-US @messages.txt");
         System.out.println();
     }
 
-    private void generateCacheForFile(String apiKey, String cacheDir, String locale, String inputFileName)
-            throws IOException {
+    private void generateCacheForFile(CachedVoiceRSSCloudImplementation impl, String apiKey, String locale,
+            String inputFileName, int threads) throws IOException {
         File inputFile = new File(inputFileName);
+        List<String> lines = new ArrayList<>();
         BufferedReader br = null;
         try {
             br = new BufferedReader(new FileReader(inputFile));
             String line;
             while ((line = br.readLine()) != null) {
-                // process the line.
-                generateCacheForMessage(apiKey, cacheDir, locale, line);
+                lines.add(line);
             }
         } finally {
             if (br != null) {
                 br.close();
             }
         }
+
+        // process the lines in parallel, the cache merges duplicate lines into a single download
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String line : lines) {
+                futures.add(executor.submit(() -> {
+                    generateCacheForMessage(impl, apiKey, locale, line);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    System.err.println("Failed to create cached audio: " + ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private void generateCacheForMessage(String apiKey, String cacheDir, String locale, String msg) throws IOException {
+    private void generateCacheForMessage(CachedVoiceRSSCloudImplementation impl, String apiKey, String locale,
+            String msg) throws IOException {
         if (msg == null) {
             System.err.println("Ignore msg=null");
             return;
@@ -104,7 +149,6 @@ public class CreateTTSCache {
             System.err.println("Ignore msg=''");
             return;
         }
-        CachedVoiceRSSCloudImplementation impl = new CachedVoiceRSSCloudImplementation(cacheDir);
         File cachedFile = impl.getTextToSpeechAsFile(apiKey, msg, locale, "MP3");
         System.out.println("Created cached audio for locale='" + locale + "', msg='" + msg + "' to file=" + cachedFile);
     }